@@ -0,0 +1,40 @@
+package com.openframe.devices.config;
+
+import com.openframe.devices.pinot.DeviceColumnBaseline;
+import com.openframe.devices.pinot.DeviceUpdateCoalescer;
+import com.openframe.devices.pinot.DeviceUpdateCoalescingBeanPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Coalesced partial device updates for the Pinot {@code devices} partial upsert table, enabled with
+ * {@code openframe.devices.coalescing.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.devices.coalescing", name = "enabled", havingValue = "true")
+public class DeviceUpdateCoalescingConfig {
+
+    @Bean
+    public static DeviceUpdateCoalescingBeanPostProcessor deviceUpdateCoalescingBeanPostProcessor(
+            ObjectProvider<DeviceUpdateCoalescer> coalescer,
+            ObjectProvider<DeviceUpdateCoalescingProperties> properties) {
+        return new DeviceUpdateCoalescingBeanPostProcessor(coalescer, properties);
+    }
+
+    @Bean
+    public DeviceColumnBaseline deviceColumnBaseline(StringRedisTemplate redisTemplate,
+                                                     DeviceUpdateCoalescingProperties properties) {
+        return new DeviceColumnBaseline(redisTemplate, properties.getBaselineKeyPrefix(), properties.getBaselineTtl());
+    }
+
+    @Bean
+    public DeviceUpdateCoalescer deviceUpdateCoalescer(DeviceUpdateCoalescingProperties properties,
+                                                       DeviceColumnBaseline deviceColumnBaseline,
+                                                       MeterRegistry meterRegistry) {
+        return new DeviceUpdateCoalescer(properties, deviceColumnBaseline, meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.openframe.devices.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.devices.coalescing")
+public class DeviceUpdateCoalescingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Updates of one machine within this window are merged into a single message, the latest.
+     */
+    private Duration window = Duration.ofSeconds(2);
+
+    private String topic = "devices-topic";
+
+    /**
+     * Simple class name of the producer whose {@code publish(topic, key, message)} calls are
+     * coalesced; the coalesced messages are published through it as well, with its retries.
+     */
+    private String producerType = "OssTenantRetryingKafkaProducer";
+
+    /**
+     * Simple class names of the coalesced messages. Partial rows are copies made through their
+     * no-argument constructor.
+     */
+    private Set<String> messageTypes = Set.of("MachinePinotMessage");
+
+    /**
+     * Message property holding the machine id, also used as the record key.
+     */
+    private String machineIdProperty = "machineId";
+
+    /**
+     * Message properties published only when they changed; they must match the columns of the
+     * Pinot {@code devices} schema.
+     */
+    private List<String> columns = List.of("organizationId", "deviceType", "status", "osType", "tags");
+
+    /**
+     * Published for a text or multi-value column that was cleared. Pinot's default null value of
+     * string columns, so a cleared column reads like one that was never set.
+     */
+    private String clearedValue = "null";
+
+    /**
+     * Redis hashes holding the last published columns per machine, shared by all replicas.
+     */
+    private String baselineKeyPrefix = "openframe:devices:columns:";
+
+    /**
+     * Expiry of an idle machine's hash; its next update is then published in full.
+     */
+    private Duration baselineTtl = Duration.ofDays(30);
+
+    /**
+     * Publishes of one coalesced message, including the first, before it is given up. A newer
+     * update of the machine replaces a failed message waiting for its next attempt.
+     */
+    private int maxAttempts = 3;
+}
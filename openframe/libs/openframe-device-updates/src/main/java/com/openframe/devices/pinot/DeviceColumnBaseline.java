@@ -0,0 +1,82 @@
+package com.openframe.devices.pinot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Column values last published to the devices topic per machine, kept in one Redis hash per
+ * machine and shared by every replica of every producing service, so a column is only left out
+ * of a partial row when the value Pinot holds is the same, whoever published it.
+ * <p>
+ * Comparing and recording happen in one script, so concurrent flushes of the same machine each
+ * see the other's values. A machine without a hash, new or expired after {@code ttl}, has all of
+ * its columns reported as changed.
+ */
+@Slf4j
+public class DeviceColumnBaseline {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DIFF_AND_RECORD = new DefaultRedisScript<>("""
+            local known = redis.call('EXISTS', KEYS[1]) == 1
+            local changed = {}
+            for i = 1, #ARGV - 1, 2 do
+                if not known or redis.call('HGET', KEYS[1], ARGV[i]) ~= ARGV[i + 1] then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                    table.insert(changed, ARGV[i])
+                end
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[#ARGV])
+            return changed
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final Duration ttl;
+
+    public DeviceColumnBaseline(StringRedisTemplate redisTemplate, String keyPrefix, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Records {@code values} as the published columns of the machine.
+     *
+     * @return the columns whose value differs from the recorded one
+     */
+    public Set<String> changedColumns(String machineId, Map<String, String> values) {
+        List<String> args = new ArrayList<>(values.size() * 2 + 1);
+        values.forEach((column, value) -> {
+            args.add(column);
+            args.add(value);
+        });
+        args.add(String.valueOf(ttl.toMillis()));
+        List<?> changed = redisTemplate.execute(DIFF_AND_RECORD, List.of(keyPrefix + machineId), args.toArray());
+        Set<String> columns = new LinkedHashSet<>();
+        if (changed != null) {
+            changed.forEach(column -> columns.add(column.toString()));
+        }
+        return columns;
+    }
+
+    /**
+     * Drops the recorded columns of the machine, so its next row is published in full. Used when
+     * a row recorded here could not be published.
+     */
+    public void forget(String machineId) {
+        try {
+            redisTemplate.delete(keyPrefix + machineId);
+        } catch (Exception e) {
+            log.warn("Failed to drop published columns of machine {}, they expire after {}", machineId, ttl, e);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.openframe.devices.pinot;
+
+import com.openframe.devices.config.DeviceUpdateCoalescingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.ObjectUtils;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges the device updates of a machine published within the coalescing window into one
+ * partial row for the Pinot {@code devices} partial upsert table.
+ * <p>
+ * Only the latest message of the machine is kept. On flush its columns are compared with the
+ * {@link DeviceColumnBaseline} shared by all replicas, and a copy holding the machine id and the
+ * changed columns only is published, keyed by the machine id; unchanged columns are null, which
+ * partial upsert keeps as they are. A column cleared to null or empty is published as
+ * {@code cleared-value}, as Pinot would ignore a null. Nothing is published when no column
+ * changed. The version Pinot compares is the offset of the record in its partition.
+ * <p>
+ * Messages go out through the producer the update was published with, keeping its retries. A
+ * failed publish drops the machine's baseline, so its next row goes out in full, and is attempted
+ * again with the next flush, up to {@code max-attempts} publishes, unless a newer update of the
+ * machine replaces it.
+ */
+@Slf4j
+public class DeviceUpdateCoalescer implements SmartLifecycle {
+
+    private static final String METRIC_NAME = "openframe.devices.coalescing.messages";
+
+    private final DeviceUpdateCoalescingProperties properties;
+    private final DeviceColumnBaseline baseline;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Counter emitted;
+    private final Counter merged;
+    private final Counter unchanged;
+    private final Counter retried;
+    private final Counter failed;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public DeviceUpdateCoalescer(DeviceUpdateCoalescingProperties properties,
+                                 DeviceColumnBaseline baseline,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.baseline = baseline;
+        this.emitted = counter(meterRegistry, "emitted");
+        this.merged = counter(meterRegistry, "merged");
+        this.unchanged = counter(meterRegistry, "unchanged");
+        this.retried = counter(meterRegistry, "retried");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    public boolean handles(String topic, Object message) {
+        return running
+                && message != null
+                && properties.getTopic().equals(topic)
+                && properties.getMessageTypes().contains(message.getClass().getSimpleName());
+    }
+
+    /**
+     * @return the machine id of {@code message}, or {@code null} when it has none
+     */
+    public String machineIdOf(Object message) {
+        Object machineId = PropertyAccessorFactory.forBeanPropertyAccess(message)
+                .getPropertyValue(properties.getMachineIdProperty());
+        return machineId != null ? machineId.toString() : null;
+    }
+
+    /**
+     * @return completes once the coalesced message of the machine has been published, or failed
+     * on its last attempt
+     */
+    public CompletableFuture<Object> submit(String machineId, Object message, Publisher publisher) {
+        return pending.compute(machineId, (id, current) -> {
+            if (current == null) {
+                return new Pending(message, publisher, new CompletableFuture<>(), 0);
+            }
+            merged.increment();
+            return new Pending(message, publisher, current.future(), 0);
+        }).future();
+    }
+
+    void flush() {
+        Iterator<String> machineIds = pending.keySet().iterator();
+        while (machineIds.hasNext()) {
+            String machineId = machineIds.next();
+            Pending next = pending.remove(machineId);
+            if (next != null) {
+                flush(machineId, next);
+            }
+        }
+    }
+
+    private void flush(String machineId, Pending next) {
+        Object row = partialRow(machineId, next.message());
+        if (row == null) {
+            unchanged.increment();
+            next.future().complete(null);
+            return;
+        }
+        publish(machineId, next.publisher(), row).whenComplete((result, error) -> {
+            if (error == null) {
+                emitted.increment();
+                next.future().complete(result);
+                return;
+            }
+            baseline.forget(machineId);
+            if (running && next.attempts() + 1 < properties.getMaxAttempts()) {
+                log.warn("Failed to publish device update for machine {}, retrying with the next flush: {}",
+                        machineId, error.getMessage());
+                retried.increment();
+                requeue(machineId, next);
+            } else {
+                log.error("Failed to publish device update for machine {}", machineId, error);
+                failed.increment();
+                next.future().completeExceptionally(error);
+            }
+        });
+    }
+
+    /**
+     * @return a copy of {@code message} holding the machine id and the columns that differ from the
+     * baseline, {@code null} when none does, or {@code message} itself when the baseline cannot be
+     * read
+     */
+    private Object partialRow(String machineId, Object message) {
+        BeanWrapper source = PropertyAccessorFactory.forBeanPropertyAccess(message);
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String column : properties.getColumns()) {
+            Object value = source.getPropertyValue(column);
+            values.put(column, ObjectUtils.isEmpty(value) ? "" : ObjectUtils.nullSafeToString(value));
+        }
+        Set<String> changed;
+        try {
+            changed = baseline.changedColumns(machineId, values);
+        } catch (Exception e) {
+            log.warn("Failed to compare device update of machine {} with the published columns, publishing it in full: {}",
+                    machineId, e.getMessage());
+            return message;
+        }
+        if (changed.isEmpty()) {
+            return null;
+        }
+
+        BeanWrapper row = PropertyAccessorFactory.forBeanPropertyAccess(BeanUtils.instantiateClass(message.getClass()));
+        row.setPropertyValue(properties.getMachineIdProperty(), source.getPropertyValue(properties.getMachineIdProperty()));
+        for (String column : changed) {
+            Object value = source.getPropertyValue(column);
+            row.setPropertyValue(column, ObjectUtils.isEmpty(value) ? cleared(source.getPropertyType(column)) : value);
+        }
+        return row.getWrappedInstance();
+    }
+
+    /**
+     * Text columns take the cleared value and multi-value columns a single cleared element; other
+     * types have no value standing for "cleared" and stay null.
+     */
+    private Object cleared(Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        if (Collection.class.isAssignableFrom(type) || type.isArray()) {
+            return List.of(properties.getClearedValue());
+        }
+        return CharSequence.class.isAssignableFrom(type) ? properties.getClearedValue() : null;
+    }
+
+    private CompletableFuture<?> publish(String machineId, Publisher publisher, Object row) {
+        try {
+            CompletableFuture<?> result = publisher.publish(properties.getTopic(), machineId, row);
+            return result != null ? result : CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void requeue(String machineId, Pending failedUpdate) {
+        pending.compute(machineId, (id, newer) -> {
+            if (newer == null) {
+                return new Pending(failedUpdate.message(), failedUpdate.publisher(), failedUpdate.future(),
+                        failedUpdate.attempts() + 1);
+            }
+            // The newer update supersedes the failed one and, with the baseline dropped, goes out in full
+            newer.future().whenComplete((result, error) -> {
+                if (error == null) {
+                    failedUpdate.future().complete(result);
+                } else {
+                    failedUpdate.future().completeExceptionally(error);
+                }
+            });
+            return newer;
+        });
+    }
+
+    @Override
+    public void start() {
+        long windowMillis = properties.getWindow().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("device-update-coalescer").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::flushSafely, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        flushSafely();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to flush device updates", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_NAME)
+                .description("Device updates handled by the coalescer, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes one message to the devices topic, bypassing the coalescing.
+     */
+    @FunctionalInterface
+    public interface Publisher {
+
+        /**
+         * @return the send result, or {@code null} for producers that do not return one
+         */
+        CompletableFuture<?> publish(String topic, String key, Object message) throws Exception;
+    }
+
+    private record Pending(Object message, Publisher publisher, CompletableFuture<Object> future, int attempts) {
+    }
+}
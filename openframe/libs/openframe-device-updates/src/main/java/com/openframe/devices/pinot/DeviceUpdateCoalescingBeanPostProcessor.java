@@ -0,0 +1,84 @@
+package com.openframe.devices.pinot;
+
+import com.openframe.devices.config.DeviceUpdateCoalescingProperties;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hands device messages published to the devices topic through
+ * {@code publish(topic, key, message)} of the configured producer to the
+ * {@link DeviceUpdateCoalescer} instead of sending them right away. The coalescer publishes the
+ * merged message through the same producer method on the unproxied bean, so the producer's
+ * retries still apply. Everything else is passed through untouched.
+ */
+@RequiredArgsConstructor
+public class DeviceUpdateCoalescingBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String PUBLISH_METHOD = "publish";
+
+    private final ObjectProvider<DeviceUpdateCoalescer> coalescer;
+    private final ObjectProvider<DeviceUpdateCoalescingProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!properties.getObject().getProducerType().equals(AopUtils.getTargetClass(bean).getSimpleName())) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(coalescingInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(coalescingInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor coalescingInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            DeviceUpdateCoalescer deviceUpdateCoalescer = coalescer.getObject();
+            if (!isPublish(method, args) || !deviceUpdateCoalescer.handles((String) args[0], args[2])) {
+                return invocation.proceed();
+            }
+            String machineId = deviceUpdateCoalescer.machineIdOf(args[2]);
+            if (machineId == null) {
+                return invocation.proceed();
+            }
+            CompletableFuture<Object> result = deviceUpdateCoalescer.submit(machineId, args[2], publisher(invocation));
+            return method.getReturnType() == void.class ? null : result;
+        };
+    }
+
+    private static DeviceUpdateCoalescer.Publisher publisher(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Object target = invocation.getThis();
+        return (topic, key, message) -> {
+            try {
+                return method.invoke(target, topic, key, message) instanceof CompletableFuture<?> future ? future : null;
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        };
+    }
+
+    private static boolean isPublish(Method method, Object[] args) {
+        return PUBLISH_METHOD.equals(method.getName())
+                && args.length == 3
+                && args[0] instanceof String
+                && (args[1] == null || args[1] instanceof String)
+                && (method.getReturnType() == void.class
+                || method.getReturnType().isAssignableFrom(CompletableFuture.class));
+    }
+}
@@ -13,7 +13,8 @@ import org.springframework.context.annotation.ComponentScan;
         "com.openframe.data",
         "com.openframe.core",
         "com.openframe.notification",
-        "com.openframe.kafka"
+        "com.openframe.kafka",
+        "com.openframe.devices"
 })
 @Slf4j
 public class ApiApplication {
@@ -0,0 +1,141 @@
+package com.openframe.api.apikey;
+
+import com.openframe.api.config.ApiKeyInvalidationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Publishes the ids of API keys saved or deleted through the API key repository to the
+ * gateway's invalidation channel once the call has returned, so gateway replicas stop accepting
+ * the old key or its old metadata right away instead of after their cache TTL.
+ * <p>
+ * Every write goes through the repository, so updates, regenerations and deletes are covered
+ * whether they come from {@code ApiKeyController}, {@code ApiKeyService} or a cascade such as
+ * deleting a user's keys. The ids are those of the persisted keys: the saved or deleted
+ * documents, the ids passed to {@code deleteById}/{@code deleteAllById}, or the documents
+ * returned by a derived delete. Deletes that do not identify their keys, such as
+ * {@code deleteAll()} or a derived delete returning a count, invalidate every cached key.
+ * <p>
+ * Publishing is best effort: a failure is logged and the gateway falls back to its TTL.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ApiKeyInvalidationBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String INVALIDATE_ALL = "*";
+    private static final List<String> SAVE_METHODS = List.of("save", "saveAll");
+    private static final List<String> DELETE_METHOD_PREFIXES = List.of("delete", "remove");
+    private static final List<String> DELETE_BY_ID_METHODS = List.of("deleteById", "deleteAllById");
+
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final ObjectProvider<ApiKeyInvalidationProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!isApiKeyRepository(bean)) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(invalidatingInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setInterfaces(ClassUtils.getAllInterfaces(bean));
+        proxyFactory.addAdvice(invalidatingInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * Repositories are interface proxies, so they are matched by the interfaces they implement.
+     */
+    private boolean isApiKeyRepository(Object bean) {
+        String repositoryType = properties.getObject().getRepositoryType();
+        for (Class<?> type : ClassUtils.getAllInterfaces(bean)) {
+            if (repositoryType.equals(type.getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MethodInterceptor invalidatingInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            String name = method.getName();
+            boolean save = SAVE_METHODS.contains(name);
+            boolean delete = DELETE_METHOD_PREFIXES.stream().anyMatch(name::startsWith);
+            if (!save && !delete) {
+                return invocation.proceed();
+            }
+            Object[] args = invocation.getArguments();
+            Object result = invocation.proceed();
+            Set<String> keyIds = new LinkedHashSet<>();
+            if (save) {
+                addIds(result, keyIds);
+            } else if (DELETE_BY_ID_METHODS.contains(name)) {
+                addValues(args[0], keyIds);
+            } else if (name.equals("delete") || name.equals("deleteAll") && args.length == 1) {
+                addIds(args[0], keyIds);
+            } else if (!addIds(result, keyIds)) {
+                keyIds.add(INVALIDATE_ALL);
+            }
+            keyIds.forEach(this::publish);
+            return result;
+        };
+    }
+
+    /**
+     * @return whether {@code value} held API key documents, even if none
+     */
+    private boolean addIds(Object value, Set<String> keyIds) {
+        Object documents = value instanceof Optional<?> optional ? optional.orElse(null) : value;
+        if (documents instanceof Iterable<?> iterable) {
+            for (Object document : iterable) {
+                addId(document, keyIds);
+            }
+            return true;
+        }
+        return addId(documents, keyIds);
+    }
+
+    private boolean addId(Object document, Set<String> keyIds) {
+        if (document == null || !properties.getObject().getDocumentType().equals(document.getClass().getSimpleName())) {
+            return false;
+        }
+        Object id = new BeanWrapperImpl(document).getPropertyValue(properties.getObject().getIdProperty());
+        if (id != null) {
+            keyIds.add(id.toString());
+        }
+        return true;
+    }
+
+    private static void addValues(Object ids, Set<String> keyIds) {
+        if (ids instanceof Iterable<?> iterable) {
+            iterable.forEach(id -> keyIds.add(id.toString()));
+        } else if (ids != null) {
+            keyIds.add(ids.toString());
+        }
+    }
+
+    private void publish(String keyId) {
+        try {
+            redisTemplate.getObject().convertAndSend(properties.getObject().getInvalidationChannel(), keyId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish invalidation of API key {}", keyId, e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.openframe.api.config;
+
+import com.openframe.api.apikey.ApiKeyInvalidationBeanPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Gateway API key cache invalidation over Redis pub/sub, enabled with
+ * {@code openframe.api-key-cache.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.api-key-cache", name = "enabled", havingValue = "true")
+public class ApiKeyInvalidationConfig {
+
+    @Bean
+    public static ApiKeyInvalidationBeanPostProcessor apiKeyInvalidationBeanPostProcessor(
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            ObjectProvider<ApiKeyInvalidationProperties> properties) {
+        return new ApiKeyInvalidationBeanPostProcessor(redisTemplate, properties);
+    }
+}
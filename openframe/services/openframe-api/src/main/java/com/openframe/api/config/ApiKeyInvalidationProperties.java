@@ -0,0 +1,29 @@
+package com.openframe.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.api-key-cache")
+public class ApiKeyInvalidationProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Redis channel the gateway's API key validation cache listens on.
+     */
+    private String invalidationChannel = "openframe:api-keys:invalidate";
+
+    /**
+     * Simple name of the repository interface API keys are saved and deleted through.
+     */
+    private String repositoryType = "ApiKeyRepository";
+
+    /**
+     * Simple class name and id property of the API key document.
+     */
+    private String documentType = "ApiKey";
+    private String idProperty = "id";
+}
@@ -16,6 +16,7 @@ import com.openframe.data.cassandra.health.CassandraHealthIndicator;
             "com.openframe.core",
             "com.openframe.security",
             "com.openframe.kafka.producer",
+            "com.openframe.devices",
     },
     excludeFilters = {
         @ComponentScan.Filter(
@@ -0,0 +1,11 @@
+package com.openframe.client.asset;
+
+import java.nio.file.Path;
+
+/**
+ * A tool agent binary on local disk with the validators used for conditional and range requests.
+ *
+ * @param etag strong entity tag derived from the content
+ */
+public record ToolAgentAsset(Path path, String fileName, long size, long lastModified, String etag) {
+}
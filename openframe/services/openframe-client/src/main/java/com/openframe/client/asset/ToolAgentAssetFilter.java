@@ -0,0 +1,206 @@
+package com.openframe.client.asset;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serves {@code GET/HEAD /tool-agent/{assetId}?os=...} straight from disk ahead of
+ * {@code ToolAgentFileController}, which reads the whole binary into a byte array.
+ * <ul>
+ *     <li>The body is handed to Tomcat's {@code sendfile} when the connector supports it, and
+ *     otherwise copied with {@link FileChannel#transferTo}; heap use per download is constant.</li>
+ *     <li>{@code ETag}/{@code Last-Modified} answer {@code If-None-Match}/{@code If-Modified-Since}
+ *     with {@code 304}.</li>
+ *     <li>A single {@code Range}, honoured only while {@code If-Range} still matches, is answered
+ *     with {@code 206}, so an interrupted download can resume.</li>
+ * </ul>
+ * Requests for binaries the {@link ToolAgentAssetStore} does not find pass through to the controller.
+ */
+@Slf4j
+public class ToolAgentAssetFilter extends OncePerRequestFilter {
+
+    private static final String PATH_PREFIX = "/tool-agent/";
+    private static final String OS_PARAMETER = "os";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ToolAgentAssetStore store;
+    private final Duration maxAge;
+
+    public ToolAgentAssetFilter(ToolAgentAssetStore store, Duration maxAge) {
+        this.store = store;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean head = "HEAD".equals(request.getMethod());
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Optional<ToolAgentAsset> asset = (head || "GET".equals(request.getMethod())) && path.startsWith(PATH_PREFIX)
+                ? store.find(path.substring(PATH_PREFIX.length()), request.getParameter(OS_PARAMETER))
+                : Optional.empty();
+        if (asset.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        serve(request, response, asset.get(), head);
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, ToolAgentAsset asset, boolean head)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, asset.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, asset.lastModified());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + maxAge.toSeconds());
+        if (notModified(request, asset)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = asset.size() - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, asset)) {
+            long[] bounds = parseRange(range, asset.size());
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + asset.size());
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + asset.size());
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + asset.fileName() + "\"");
+        response.setContentLengthLong(length);
+        if (head || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, asset.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(asset, start, length, response.getOutputStream());
+    }
+
+    private static void transfer(ToolAgentAsset asset, long start, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(asset.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    throw new IOException("Tool agent file " + asset.path() + " ended before " + (start + length));
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, ToolAgentAsset asset) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch, asset.etag());
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && asset.lastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * @return whether a {@code Range} may be honoured: no {@code If-Range}, or one naming the
+     * current entity tag or last modification second
+     */
+    static boolean ifRangeMatches(HttpServletRequest request, ToolAgentAsset asset) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(asset.etag());
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && asset.lastModified() / 1000 == date / 1000;
+    }
+
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return {@code {start, end}} inclusive for a single satisfiable range, an empty array when
+     * the whole file should be sent (malformed or multiple ranges), {@code null} when unsatisfiable
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size || end < start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
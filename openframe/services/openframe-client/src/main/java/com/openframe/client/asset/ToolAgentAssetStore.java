@@ -0,0 +1,127 @@
+package com.openframe.client.asset;
+
+import com.openframe.client.config.ToolAgentAssetProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves tool agent binaries to files on local disk, so they can be sent with
+ * {@code sendfile}/{@code FileChannel.transferTo} instead of being read onto the heap.
+ * <p>
+ * Binaries that are plain files are used in place; others, such as resources packaged in the
+ * jar, are streamed once into the cache directory. The entity tag is a SHA-256 of the content,
+ * computed once per file version by reading it through a direct buffer.
+ */
+@Slf4j
+public class ToolAgentAssetStore {
+
+    private static final Pattern SAFE_SEGMENT = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    private final ResourceLoader resourceLoader;
+    private final ToolAgentAssetProperties properties;
+    private final Map<String, ToolAgentAsset> assets = new ConcurrentHashMap<>();
+
+    public ToolAgentAssetStore(ResourceLoader resourceLoader, ToolAgentAssetProperties properties) {
+        this.resourceLoader = resourceLoader;
+        this.properties = properties;
+    }
+
+    public Optional<ToolAgentAsset> find(String assetId, String os) throws IOException {
+        String pathPattern = os != null ? properties.getPathPatterns().get(os) : null;
+        if (!SAFE_SEGMENT.matcher(assetId).matches() || pathPattern == null) {
+            return Optional.empty();
+        }
+        String relativePath = pathPattern.replace("{assetId}", assetId);
+        ToolAgentAsset asset = assets.get(relativePath);
+        if (asset != null && isCurrent(asset)) {
+            return Optional.of(asset);
+        }
+
+        Resource resource = resourceLoader.getResource(properties.getLocation()).createRelative(relativePath);
+        if (!resource.exists() || !resource.isReadable()) {
+            assets.remove(relativePath);
+            return Optional.empty();
+        }
+        return Optional.of(load(relativePath, resource));
+    }
+
+    private boolean isCurrent(ToolAgentAsset asset) {
+        try {
+            return Files.size(asset.path()) == asset.size()
+                    && Files.getLastModifiedTime(asset.path()).toMillis() == asset.lastModified();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Loads one binary at a time; a request that waited for another load of the same binary uses
+     * its result instead of extracting and hashing the file again.
+     */
+    private synchronized ToolAgentAsset load(String relativePath, Resource resource) throws IOException {
+        ToolAgentAsset loaded = assets.get(relativePath);
+        if (loaded != null && isCurrent(loaded)) {
+            return loaded;
+        }
+        Path path = resource.isFile() ? resource.getFile().toPath() : extract(relativePath, resource);
+        String fileName = resource.getFilename() != null ? resource.getFilename() : path.getFileName().toString();
+        ToolAgentAsset asset = new ToolAgentAsset(path, fileName, Files.size(path),
+                Files.getLastModifiedTime(path).toMillis(), '"' + sha256(path) + '"');
+        log.info("Serving tool agent {} from {} ({} bytes)", relativePath, path, asset.size());
+        assets.put(relativePath, asset);
+        return asset;
+    }
+
+    private Path extract(String relativePath, Resource resource) throws IOException {
+        Path target = Paths.get(properties.getCacheDirectory()).resolve(relativePath).normalize();
+        if (!target.startsWith(Paths.get(properties.getCacheDirectory()).normalize())) {
+            throw new IOException("Tool agent path escapes the cache directory: " + relativePath);
+        }
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        try (InputStream in = resource.getInputStream()) {
+            Files.copy(in, temporary, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return target;
+    }
+
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,44 @@
+package com.openframe.client.config;
+
+import com.openframe.client.security.CachingPasswordEncoderBeanPostProcessor;
+import com.openframe.client.security.TokenRefreshRequests;
+import com.openframe.client.security.VerifiedCredentialCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Verified client secret cache for {@code /oauth/token}, enabled with
+ * {@code openframe.security.credential-cache.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.security.credential-cache", name = "enabled", havingValue = "true")
+public class CredentialCacheConfig {
+
+    @Bean
+    public static CachingPasswordEncoderBeanPostProcessor cachingPasswordEncoderBeanPostProcessor(
+            ObjectProvider<VerifiedCredentialCache> cache) {
+        return new CachingPasswordEncoderBeanPostProcessor(cache);
+    }
+
+    @Bean
+    public VerifiedCredentialCache verifiedCredentialCache(CredentialCacheProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        return new VerifiedCredentialCache(properties, meterRegistry);
+    }
+
+    /**
+     * After the character encoding filter, as reading {@code grant_type} parses the request body.
+     */
+    @Bean
+    public FilterRegistrationBean<TokenRefreshRequests> tokenRefreshRequests(CredentialCacheProperties properties) {
+        FilterRegistrationBean<TokenRefreshRequests> registration = new FilterRegistrationBean<>(new TokenRefreshRequests());
+        registration.addUrlPatterns(properties.getTokenPath());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,30 @@
+package com.openframe.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.security.credential-cache")
+public class CredentialCacheProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * How long a verified client secret is accepted again without BCrypt.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * The same, for {@code refresh_token} grants, where the refresh token already authenticates
+     * the agent.
+     */
+    private Duration refreshTtl = Duration.ofHours(12);
+
+    private long maximumSize = 100_000;
+
+    private String tokenPath = "/oauth/token";
+}
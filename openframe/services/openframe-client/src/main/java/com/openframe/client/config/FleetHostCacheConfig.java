@@ -0,0 +1,39 @@
+package com.openframe.client.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.client.fleet.FleetHostCache;
+import com.openframe.client.fleet.FleetHostCacheBeanPostProcessor;
+import com.openframe.client.fleet.FleetHostDirectory;
+import com.openframe.client.fleet.FleetToolCredentials;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cached Fleet UUID to host id resolution, enabled with {@code openframe.fleet.host-cache.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.fleet.host-cache", name = "enabled", havingValue = "true")
+public class FleetHostCacheConfig {
+
+    @Bean
+    public static FleetHostCacheBeanPostProcessor fleetHostCacheBeanPostProcessor(ObjectProvider<FleetHostCache> cache,
+                                                                                  ObjectProvider<FleetToolCredentials> credentials) {
+        return new FleetHostCacheBeanPostProcessor(cache, credentials);
+    }
+
+    @Bean
+    public FleetToolCredentials fleetToolCredentials(FleetHostCacheProperties properties) {
+        return new FleetToolCredentials(properties);
+    }
+
+    @Bean
+    public FleetHostCache fleetHostCache(ObjectMapper objectMapper,
+                                         FleetHostCacheProperties properties,
+                                         FleetToolCredentials credentials,
+                                         MeterRegistry meterRegistry) {
+        return new FleetHostCache(new FleetHostDirectory(objectMapper, properties, credentials), properties, meterRegistry);
+    }
+}
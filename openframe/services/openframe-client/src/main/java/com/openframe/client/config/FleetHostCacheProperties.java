@@ -0,0 +1,42 @@
+package com.openframe.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.fleet.host-cache")
+public class FleetHostCacheProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Integrated tool whose API URL and key are used to page the Fleet hosts directory. While it
+     * is not registered, misses are resolved one by one through {@code FleetMdmAgentIdTransformer}.
+     */
+    private String toolId = "fleetmdm-server";
+
+    /**
+     * {@code IntegratedToolService} method returning the tool, or an {@code Optional} of it, by id.
+     */
+    private String toolLookupMethod = "getToolById";
+
+    /**
+     * Optional override of the tool's API URL, e.g. the service address instead of a pod address.
+     */
+    private String baseUrl;
+
+    private int pageSize = 500;
+    private Duration requestTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Minimum time between two directory refreshes triggered by misses.
+     */
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+
+    private long maximumSize = 200_000;
+    private Duration expireAfter = Duration.ofHours(24);
+}
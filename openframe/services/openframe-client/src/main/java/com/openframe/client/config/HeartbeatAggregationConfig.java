@@ -0,0 +1,32 @@
+package com.openframe.client.config;
+
+import com.openframe.client.heartbeat.HeartbeatAggregationBeanPostProcessor;
+import com.openframe.client.heartbeat.HeartbeatAggregator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Bulk, status-flip aware heartbeat processing, enabled with
+ * {@code openframe.heartbeat.aggregation.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.heartbeat.aggregation", name = "enabled", havingValue = "true")
+public class HeartbeatAggregationConfig {
+
+    @Bean
+    public static HeartbeatAggregationBeanPostProcessor heartbeatAggregationBeanPostProcessor(
+            ObjectProvider<HeartbeatAggregator> aggregator) {
+        return new HeartbeatAggregationBeanPostProcessor(aggregator);
+    }
+
+    @Bean
+    public HeartbeatAggregator heartbeatAggregator(MongoTemplate mongoTemplate,
+                                                   HeartbeatAggregationProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new HeartbeatAggregator(mongoTemplate, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.openframe.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.heartbeat.aggregation")
+public class HeartbeatAggregationProperties {
+
+    private boolean enabled = false;
+
+    private Duration flushInterval = Duration.ofSeconds(10);
+
+    /**
+     * Power of two; heartbeats are spread over this many independently swapped maps.
+     */
+    private int stripes = 16;
+
+    /**
+     * Upper bound of machines per bulk write.
+     */
+    private int maxBulkSize = 1000;
+
+    /**
+     * Simple class name of the Mongo entity machines are stored as. The collection and the field
+     * names of the properties below are taken from its mapping; startup fails when the entity or
+     * a property is not mapped.
+     */
+    private String entityType = "Machine";
+    private String idProperty = "machineId";
+    private String lastSeenProperty = "lastSeen";
+    private String statusProperty = "status";
+
+    /**
+     * Status value of an online machine. Machines found in another status go through the full
+     * {@code processHeartbeat()} so the status flip and its device update are emitted.
+     */
+    private String onlineStatus = "ONLINE";
+}
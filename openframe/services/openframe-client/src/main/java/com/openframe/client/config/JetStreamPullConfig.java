@@ -0,0 +1,39 @@
+package com.openframe.client.config;
+
+import com.openframe.client.jetstream.BulkWriteScopeBeanPostProcessor;
+import com.openframe.client.jetstream.JetStreamPullBeanPostProcessor;
+import com.openframe.client.jetstream.JetStreamPullConsumers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Batched JetStream pull consumers with bulk Mongo writes for the installed agent and tool
+ * connection listeners, enabled with {@code openframe.jetstream.pull.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.jetstream.pull", name = "enabled", havingValue = "true")
+public class JetStreamPullConfig {
+
+    @Bean
+    public static JetStreamPullBeanPostProcessor jetStreamPullBeanPostProcessor(
+            ObjectProvider<JetStreamPullConsumers> consumers) {
+        return new JetStreamPullBeanPostProcessor(consumers);
+    }
+
+    @Bean
+    public static BulkWriteScopeBeanPostProcessor bulkWriteScopeBeanPostProcessor(
+            ObjectProvider<JetStreamPullProperties> properties) {
+        return new BulkWriteScopeBeanPostProcessor(properties);
+    }
+
+    @Bean
+    public JetStreamPullConsumers jetStreamPullConsumers(MongoTemplate mongoTemplate,
+                                                         JetStreamPullProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new JetStreamPullConsumers(mongoTemplate, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,85 @@
+package com.openframe.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.jetstream.pull")
+public class JetStreamPullProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Subjects whose push subscriptions are replaced by batched pull consumers.
+     */
+    private List<String> subjects = new ArrayList<>(List.of("machine.*.installed-agent", "machine.*.tool-connection"));
+
+    /**
+     * Appended to the push durable name; push and pull consumers cannot share a durable. The push
+     * durable is deleted once the pull durable has taken over from its ack floor.
+     */
+    private String durableSuffix = "-pull";
+
+    /**
+     * Bean name of the {@code MongoTemplate} whose saves are buffered into bulk writes while a pull
+     * consumer handles a message; other templates are left alone.
+     */
+    private String mongoTemplate = "mongoTemplate";
+
+    private int minBatchSize = 10;
+    private int initialBatchSize = 100;
+    private int maxBatchSize = 500;
+
+    private Duration maxWait = Duration.ofSeconds(1);
+
+    /**
+     * Bulk write latency the fetch size is adapted to: grown while writes are faster, halved when slower.
+     */
+    private Duration targetWriteLatency = Duration.ofMillis(250);
+
+    /**
+     * Must cover fetching, processing and writing a full batch.
+     */
+    private Duration ackWait = Duration.ofSeconds(60);
+
+    /**
+     * Unacknowledged messages the server hands out per consumer. Parked messages stay unacked, so
+     * this is raised to at least {@code park.max-parked} plus {@code max-batch-size}, otherwise a
+     * full park would stall the consumer at the server default of 1000.
+     */
+    private int maxAckPending = 20_000;
+
+    /**
+     * Redelivery delay of failed messages, so a failing batch does not come straight back.
+     */
+    private Duration nakDelay = Duration.ofSeconds(5);
+
+    private Park park = new Park();
+
+    /**
+     * Local retries of messages that asked for one, see {@code DeferredRetry}.
+     */
+    @Data
+    public static class Park {
+        private boolean enabled = true;
+        private Duration initialDelay = Duration.ofSeconds(5);
+        private Duration maxDelay = Duration.ofSeconds(60);
+
+        /**
+         * After this long a message is nak'ed and goes through JetStream redelivery again.
+         */
+        private Duration maxParkTime = Duration.ofMinutes(10);
+        private int maxParked = 10_000;
+
+        /**
+         * Must be shorter than {@code ack-wait}.
+         */
+        private Duration keepAliveInterval = Duration.ofSeconds(20);
+    }
+}
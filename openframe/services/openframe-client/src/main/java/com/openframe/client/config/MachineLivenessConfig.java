@@ -0,0 +1,40 @@
+package com.openframe.client.config;
+
+import com.openframe.client.liveness.LivenessMembership;
+import com.openframe.client.liveness.MachineLivenessBeanPostProcessor;
+import com.openframe.client.liveness.MachineLivenessTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.nats.client.Connection;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Heartbeat based offline detection, enabled with {@code openframe.heartbeat.liveness.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.heartbeat.liveness", name = "enabled", havingValue = "true")
+public class MachineLivenessConfig {
+
+    @Bean
+    public static MachineLivenessBeanPostProcessor machineLivenessBeanPostProcessor(
+            ObjectProvider<MachineLivenessTracker> tracker,
+            MachineLivenessProperties properties) {
+        return new MachineLivenessBeanPostProcessor(tracker, properties);
+    }
+
+    @Bean
+    public LivenessMembership livenessMembership(Connection natsConnection, MachineLivenessProperties properties) {
+        return new LivenessMembership(natsConnection, properties);
+    }
+
+    @Bean
+    public MachineLivenessTracker machineLivenessTracker(MongoTemplate mongoTemplate,
+                                                         MachineLivenessProperties properties,
+                                                         LivenessMembership livenessMembership,
+                                                         MeterRegistry meterRegistry) {
+        return new MachineLivenessTracker(mongoTemplate, properties, livenessMembership, meterRegistry);
+    }
+}
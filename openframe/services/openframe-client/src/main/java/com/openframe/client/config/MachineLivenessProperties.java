@@ -0,0 +1,78 @@
+package com.openframe.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.heartbeat.liveness")
+public class MachineLivenessProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Silence after which an online machine is marked offline. Must exceed the agent heartbeat
+     * interval plus the heartbeat aggregation flush interval.
+     */
+    private Duration offlineAfter = Duration.ofSeconds(90);
+
+    private Duration tick = Duration.ofSeconds(1);
+
+    /**
+     * Power of two; deadlines further away than this many ticks wait additional rounds.
+     */
+    private int wheelSize = 512;
+
+    private int maxBulkSize = 1000;
+
+    /**
+     * Interval of the Mongo sweep for machines online past {@code offline-after} that this
+     * replica does not track, e.g. silent since before a restart. Starts after {@code offline-after}.
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+    /**
+     * NATS subjects the replicas share machine ownership on: membership announcements and the
+     * heartbeats forwarded to a machine's owner.
+     */
+    private String subjectPrefix = "openframe.client.liveness";
+
+    /**
+     * Interval at which replicas announce themselves to each other.
+     */
+    private Duration membershipInterval = Duration.ofSeconds(5);
+
+    /**
+     * Silence after which a replica is dropped and its machines move to the others. Keep it well
+     * below {@link #offlineAfter}, so forwarded heartbeats lost with it are made up in time.
+     */
+    private Duration memberTimeout = Duration.ofSeconds(15);
+
+    /**
+     * {@code MachineStatusService} methods, besides {@code processHeartbeat}, that bring a machine
+     * online or take it offline. Matched against the method name; the machine id is the first argument.
+     */
+    private String onlineMethodPattern = "(?i)(?!.*(offline|disconnect)).*(online|connect).*";
+    private String offlineMethodPattern = "(?i).*(offline|disconnect).*";
+
+    /**
+     * {@code MachineStatusService} method silent machines are taken offline with. When not set,
+     * the single public method matching {@link #offlineMethodPattern} whose first parameter is
+     * the machine id and whose other parameters accept an {@code Instant} is used.
+     */
+    private String offlineMethod;
+
+    /**
+     * Simple class name of the Mongo entity machines are stored as. The collection and the field
+     * names of the properties below are taken from its mapping; startup fails when the entity or
+     * a property is not mapped.
+     */
+    private String entityType = "Machine";
+    private String idProperty = "machineId";
+    private String lastSeenProperty = "lastSeen";
+    private String statusProperty = "status";
+    private String onlineStatus = "ONLINE";
+}
@@ -0,0 +1,27 @@
+package com.openframe.client.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo connection pool sized for virtual-thread request handling, where the pool rather than
+ * the Tomcat thread count bounds concurrent Mongo work. Enabled with
+ * {@code openframe.mongo.pool.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.mongo.pool", name = "enabled", havingValue = "true")
+public class MongoPoolConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(MongoPoolProperties properties) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(properties.getMaxSize())
+                .minSize(properties.getMinSize())
+                .maxConnecting(properties.getMaxConnecting())
+                .maxWaitTime(properties.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
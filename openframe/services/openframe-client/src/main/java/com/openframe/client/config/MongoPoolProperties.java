@@ -0,0 +1,28 @@
+package com.openframe.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.mongo.pool")
+public class MongoPoolProperties {
+
+    private boolean enabled = false;
+
+    private int maxSize = 100;
+    private int minSize = 0;
+
+    /**
+     * Connections being established at the same time, so a burst does not open the whole pool at once.
+     */
+    private int maxConnecting = 2;
+
+    /**
+     * How long a request waits for a pooled connection before failing.
+     */
+    private Duration maxWaitTime = Duration.ofMinutes(2);
+}
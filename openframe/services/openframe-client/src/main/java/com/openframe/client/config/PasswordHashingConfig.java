@@ -0,0 +1,51 @@
+package com.openframe.client.config;
+
+import com.openframe.client.security.BoundedPasswordEncoderBeanPostProcessor;
+import com.openframe.client.security.PasswordHashingRejections;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BCrypt on a dedicated, bounded executor, enabled with
+ * {@code openframe.security.password-hashing.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.security.password-hashing", name = "enabled", havingValue = "true")
+public class PasswordHashingConfig {
+
+    public static final String EXECUTOR = "passwordHashingExecutor";
+
+    @Bean
+    public static BoundedPasswordEncoderBeanPostProcessor boundedPasswordEncoderBeanPostProcessor(
+            @Qualifier(EXECUTOR) ObjectProvider<ExecutorService> executor,
+            ObjectProvider<PasswordHashingProperties> properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BoundedPasswordEncoderBeanPostProcessor(executor, properties, meterRegistry);
+    }
+
+    @Bean(name = EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor(PasswordHashingProperties properties) {
+        return Executors.newFixedThreadPool(BoundedPasswordEncoderBeanPostProcessor.threads(properties),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon().factory());
+    }
+
+    /**
+     * Outside the security filter chain, so rejections from client authentication are caught too.
+     */
+    @Bean
+    public FilterRegistrationBean<PasswordHashingRejections> passwordHashingRejections() {
+        FilterRegistrationBean<PasswordHashingRejections> registration =
+                new FilterRegistrationBean<>(new PasswordHashingRejections());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
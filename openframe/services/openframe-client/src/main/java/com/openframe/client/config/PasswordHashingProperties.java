@@ -0,0 +1,34 @@
+package com.openframe.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.security.password-hashing")
+public class PasswordHashingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Platform threads running BCrypt; 0 uses the number of available processors.
+     */
+    private int threads = 0;
+
+    /**
+     * Hashing requests allowed to wait for a thread; further requests wait up to {@code timeout}
+     * for room and are then rejected.
+     */
+    private int maxQueued = 1000;
+
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Minimum {@code Retry-After} of requests rejected with {@code 503}; up to as much again is
+     * added as jitter.
+     */
+    private Duration retryAfter = Duration.ofSeconds(10);
+}
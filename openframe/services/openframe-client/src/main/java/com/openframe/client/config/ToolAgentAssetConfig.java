@@ -0,0 +1,37 @@
+package com.openframe.client.config;
+
+import com.openframe.client.asset.ToolAgentAssetFilter;
+import com.openframe.client.asset.ToolAgentAssetStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * Streamed tool agent downloads with range and conditional request support, enabled with
+ * {@code openframe.tool-agent.assets.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.tool-agent.assets", name = "enabled", havingValue = "true")
+public class ToolAgentAssetConfig {
+
+    @Bean
+    public ToolAgentAssetStore toolAgentAssetStore(ResourceLoader resourceLoader, ToolAgentAssetProperties properties) {
+        return new ToolAgentAssetStore(resourceLoader, properties);
+    }
+
+    /**
+     * Runs after the security filter chain, so downloads stay as protected as the controller.
+     */
+    @Bean
+    public FilterRegistrationBean<ToolAgentAssetFilter> toolAgentAssetFilter(ToolAgentAssetStore store,
+                                                                             ToolAgentAssetProperties properties) {
+        FilterRegistrationBean<ToolAgentAssetFilter> registration =
+                new FilterRegistrationBean<>(new ToolAgentAssetFilter(store, properties.getMaxAge()));
+        registration.addUrlPatterns(properties.getUrlPattern());
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
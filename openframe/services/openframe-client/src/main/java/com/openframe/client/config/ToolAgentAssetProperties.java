@@ -0,0 +1,42 @@
+package com.openframe.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.tool-agent.assets")
+public class ToolAgentAssetProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Where tool agent binaries are looked up; any Spring resource location. Defaults to the
+     * {@code agents/} directory packaged in {@code openframe-client-core}, which
+     * {@code ToolAgentFileController} serves from.
+     */
+    private String location = "classpath:/agents/";
+
+    /**
+     * Path of a binary below {@code location} per {@code os} request parameter, with an
+     * {@code {assetId}} placeholder. Requests for other operating systems, or whose binary is not
+     * found, are left to {@code ToolAgentFileController}.
+     */
+    private Map<String, String> pathPatterns = new LinkedHashMap<>(Map.of(
+            "mac", "{assetId}",
+            "windows", "{assetId}.exe"));
+
+    /**
+     * Binaries not available as plain files, e.g. packaged in the jar, are extracted here once.
+     */
+    private String cacheDirectory = System.getProperty("java.io.tmpdir") + "/openframe-tool-agents";
+
+    private Duration maxAge = Duration.ofHours(1);
+
+    private String urlPattern = "/tool-agent/*";
+}
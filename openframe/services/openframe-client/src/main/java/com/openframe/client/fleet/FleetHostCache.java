@@ -0,0 +1,133 @@
+package com.openframe.client.fleet;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openframe.client.config.FleetHostCacheProperties;
+import com.openframe.client.jetstream.DeferredRetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Local Fleet UUID to host id map in front of {@code FleetMdmAgentIdTransformer}.
+ * <p>
+ * With a {@link FleetHostDirectory}, a miss triggers one refresh of the map from the Fleet hosts
+ * API, shared by all threads missing at the same time and at most once per
+ * {@code min-refresh-interval}. A UUID still unknown afterwards is not searched for individually:
+ * the message is asked to be retried later through {@link DeferredRetry}, unless it is on its
+ * last delivery, in which case the transformer's own fallback applies. Without a directory, or
+ * while the Fleet tool has no API credentials, misses go to the transformer, with concurrent
+ * misses for the same UUID sharing one call.
+ */
+@Slf4j
+public class FleetHostCache {
+
+    private final Cache<String, String> hosts;
+    private final FleetHostDirectory directory;
+    private final FleetHostCacheProperties properties;
+    private final AtomicReference<CompletableFuture<Void>> refresh = new AtomicReference<>();
+    private final Counter refreshes;
+    private final Counter unresolved;
+    private volatile long nextRefreshAt = System.nanoTime();
+
+    public FleetHostCache(FleetHostDirectory directory,
+                          FleetHostCacheProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.properties = properties;
+        this.hosts = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfter())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, hosts, "fleet-host-cache");
+        this.refreshes = Counter.builder("openframe.fleet.host-cache.refreshes")
+                .description("Refreshes of the Fleet host directory")
+                .register(meterRegistry);
+        this.unresolved = Counter.builder("openframe.fleet.host-cache.unresolved")
+                .description("Fleet UUIDs still unknown after a refresh")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param transformer the original transformation, returning the UUID itself when it falls back
+     */
+    public String resolve(String uuid, boolean lastAttempt, Supplier<String> transformer) {
+        String hostId = hosts.getIfPresent(uuid);
+        if (hostId != null) {
+            return hostId;
+        }
+        if (directory == null || !directory.isAvailable()) {
+            hostId = hosts.get(uuid, ignored -> transformer.get());
+            if (uuid.equals(hostId)) {
+                hosts.invalidate(uuid);
+            }
+            return hostId;
+        }
+
+        refreshIfDue();
+        hostId = hosts.getIfPresent(uuid);
+        if (hostId != null) {
+            return hostId;
+        }
+        if (lastAttempt) {
+            return transformer.get();
+        }
+        unresolved.increment();
+        DeferredRetry.request();
+        throw new IllegalStateException("Fleet host not found yet for UUID " + uuid);
+    }
+
+    private void refreshIfDue() {
+        CompletableFuture<Void> running = refresh.get();
+        if (running == null) {
+            if (System.nanoTime() - nextRefreshAt < 0) {
+                return;
+            }
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            if (refresh.compareAndSet(null, mine)) {
+                refresh(mine);
+                return;
+            }
+            running = refresh.get();
+        }
+        if (running != null) {
+            await(running);
+        }
+    }
+
+    private void refresh(CompletableFuture<Void> mine) {
+        refreshes.increment();
+        try {
+            int read = directory.page(uuid -> hosts.getIfPresent(uuid) == null, hosts::put);
+            log.debug("Refreshed Fleet host directory with {} hosts", read);
+        } catch (IOException e) {
+            log.warn("Failed to refresh Fleet host directory", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            nextRefreshAt = System.nanoTime() + properties.getMinRefreshInterval().toNanos();
+            refresh.set(null);
+            mine.complete(null);
+        }
+    }
+
+    private void await(CompletableFuture<Void> running) {
+        try {
+            running.get(properties.getRequestTimeout().toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Gave up waiting for the Fleet host directory refresh", e);
+        }
+    }
+}
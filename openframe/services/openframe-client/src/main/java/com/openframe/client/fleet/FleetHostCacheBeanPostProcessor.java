@@ -0,0 +1,74 @@
+package com.openframe.client.fleet;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+
+/**
+ * Routes {@code FleetMdmAgentIdTransformer} transformations, a String-returning method taking the
+ * Fleet UUID first and the {@code lastAttempt} flag, through the {@link FleetHostCache}, and binds
+ * the library's {@code IntegratedToolService} to {@link FleetToolCredentials}.
+ */
+@RequiredArgsConstructor
+public class FleetHostCacheBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String TRANSFORMER_CLASS = "FleetMdmAgentIdTransformer";
+    private static final String TOOL_SERVICE_CLASS = "IntegratedToolService";
+
+    private final ObjectProvider<FleetHostCache> cache;
+    private final ObjectProvider<FleetToolCredentials> credentials;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String className = AopUtils.getTargetClass(bean).getSimpleName();
+        if (TOOL_SERVICE_CLASS.equals(className)) {
+            credentials.getObject().bind(bean);
+            return bean;
+        }
+        if (!TRANSFORMER_CLASS.equals(className)) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(cachingInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(cachingInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor cachingInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            if (method.getReturnType() != String.class || args.length == 0 || !(args[0] instanceof String uuid)) {
+                return invocation.proceed();
+            }
+            return cache.getObject().resolve(uuid, isLastAttempt(args), () -> {
+                try {
+                    return (String) invocation.proceed();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        };
+    }
+
+    private static boolean isLastAttempt(Object[] args) {
+        for (int i = 1; i < args.length; i++) {
+            if (args[i] instanceof Boolean lastAttempt) {
+                return lastAttempt;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.openframe.client.fleet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.client.config.FleetHostCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Pages the Fleet hosts API, newest hosts first, for their UUID and host id, with the credentials
+ * of the registered Fleet tool.
+ */
+@Slf4j
+public class FleetHostDirectory {
+
+    private static final String HOSTS_PATH = "/api/latest/fleet/hosts";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final FleetHostCacheProperties properties;
+    private final FleetToolCredentials credentials;
+
+    public FleetHostDirectory(ObjectMapper objectMapper,
+                              FleetHostCacheProperties properties,
+                              FleetToolCredentials credentials) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.credentials = credentials;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getRequestTimeout())
+                .build();
+    }
+
+    /**
+     * Whether the Fleet tool is registered with an API location and key.
+     */
+    public boolean isAvailable() {
+        return credentials.current() != null;
+    }
+
+    /**
+     * Reports every host to {@code consumer}, page by page, until a page has no host for which
+     * {@code unknown} holds; with an empty cache that is the whole directory, afterwards only the
+     * hosts enrolled since the last refresh.
+     *
+     * @return the number of hosts read
+     */
+    public int page(Predicate<String> unknown, BiConsumer<String, String> consumer) throws IOException, InterruptedException {
+        FleetToolCredentials.Credentials current = credentials.current();
+        if (current == null) {
+            throw new IOException("Fleet tool " + properties.getToolId() + " has no API credentials");
+        }
+        int read = 0;
+        for (int page = 0; ; page++) {
+            JsonNode hosts = fetch(current, page).path("hosts");
+            boolean anyUnknown = false;
+            for (JsonNode host : hosts) {
+                String uuid = host.path("uuid").asText(null);
+                String id = host.path("id").asText(null);
+                if (uuid == null || uuid.isEmpty() || id == null) {
+                    continue;
+                }
+                anyUnknown |= unknown.test(uuid);
+                consumer.accept(uuid, id);
+                read++;
+            }
+            if (hosts.size() < properties.getPageSize() || !anyUnknown) {
+                return read;
+            }
+        }
+    }
+
+    private JsonNode fetch(FleetToolCredentials.Credentials current, int page) throws IOException, InterruptedException {
+        URI uri = URI.create(current.baseUrl() + HOSTS_PATH
+                + "?order_key=id&order_direction=desc&page=" + page + "&per_page=" + properties.getPageSize());
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(properties.getRequestTimeout())
+                .header("Authorization", "Bearer " + current.apiToken())
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Fleet hosts page " + page + " failed with status " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
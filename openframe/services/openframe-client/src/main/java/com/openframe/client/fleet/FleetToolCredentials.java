@@ -0,0 +1,103 @@
+package com.openframe.client.fleet;
+
+import com.openframe.client.config.FleetHostCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * API location and token of the registered Fleet integrated tool, read through the library's
+ * {@code IntegratedToolService} like {@code FleetMdmAgentIdTransformer} does, so the host
+ * directory uses the credentials the tool was registered with. Read on every call, as the tool
+ * may be registered or its token rotated after startup.
+ */
+@Slf4j
+public class FleetToolCredentials {
+
+    private static final String API_KEY_PROPERTY = "credentials.apiKey.key";
+    private static final String URLS_PROPERTY = "toolUrls";
+    private static final String API_URL_TYPE = "API";
+
+    private final FleetHostCacheProperties properties;
+    private volatile Object toolService;
+    private volatile Method lookupMethod;
+
+    public FleetToolCredentials(FleetHostCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Binds the {@code IntegratedToolService} bean, looked up by {@code tool-lookup-method(String id)}.
+     */
+    public void bind(Object service) {
+        Method method = ReflectionUtils.findMethod(AopUtils.getTargetClass(service), properties.getToolLookupMethod(), String.class);
+        if (method == null) {
+            log.warn("{} has no {}(String), Fleet host directory disabled",
+                    AopUtils.getTargetClass(service).getName(), properties.getToolLookupMethod());
+            return;
+        }
+        this.lookupMethod = method;
+        this.toolService = service;
+    }
+
+    /**
+     * @return the credentials, or {@code null} while the tool is not registered or has no API key
+     */
+    public Credentials current() {
+        Object tool = tool();
+        if (tool == null) {
+            return null;
+        }
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(tool);
+        Object apiKey = wrapper.isReadableProperty(API_KEY_PROPERTY) ? wrapper.getPropertyValue(API_KEY_PROPERTY) : null;
+        String baseUrl = StringUtils.hasText(properties.getBaseUrl()) ? properties.getBaseUrl() : apiUrl(wrapper);
+        if (apiKey == null || !StringUtils.hasText(apiKey.toString()) || baseUrl == null) {
+            return null;
+        }
+        return new Credentials(baseUrl, apiKey.toString());
+    }
+
+    private Object tool() {
+        Method method = lookupMethod;
+        if (method == null) {
+            return null;
+        }
+        try {
+            Object tool = method.invoke(toolService, properties.getToolId());
+            return tool instanceof Optional<?> optional ? optional.orElse(null) : tool;
+        } catch (Exception e) {
+            log.warn("Failed to read Fleet tool {}", properties.getToolId(), e);
+            return null;
+        }
+    }
+
+    private static String apiUrl(BeanWrapper tool) {
+        if (!tool.isReadableProperty(URLS_PROPERTY) || !(tool.getPropertyValue(URLS_PROPERTY) instanceof Iterable<?> urls)) {
+            return null;
+        }
+        for (Object url : urls) {
+            BeanWrapper toolUrl = PropertyAccessorFactory.forBeanPropertyAccess(url);
+            Object type = toolUrl.getPropertyValue("type");
+            Object host = toolUrl.getPropertyValue("url");
+            if (type != null && API_URL_TYPE.equals(type.toString()) && host != null) {
+                Object port = toolUrl.getPropertyValue("port");
+                return port != null && StringUtils.hasText(port.toString()) ? host + ":" + port : host.toString();
+            }
+        }
+        return null;
+    }
+
+    public record Credentials(String baseUrl, String apiToken) {
+
+        @Override
+        public String toString() {
+            return "Credentials[baseUrl=" + baseUrl + "]";
+        }
+    }
+}
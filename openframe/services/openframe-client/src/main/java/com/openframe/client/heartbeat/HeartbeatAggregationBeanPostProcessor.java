@@ -0,0 +1,62 @@
+package com.openframe.client.heartbeat;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+
+/**
+ * Hands {@code MachineStatusService.processHeartbeat(machineId, ...)} calls made by
+ * {@code MachineHeartbeatListener} to the {@link HeartbeatAggregator} instead of writing each
+ * heartbeat to Mongo. The aggregator calls the original method back, on the unproxied target, for
+ * machines whose status has to flip. All other methods are passed through untouched.
+ * <p>
+ * Ordered just before the liveness proxy, which has to see heartbeats before they are absorbed.
+ */
+@RequiredArgsConstructor
+public class HeartbeatAggregationBeanPostProcessor implements BeanPostProcessor, Ordered {
+
+    private static final String SERVICE_CLASS = "MachineStatusService";
+    private static final String PROCESS_HEARTBEAT_METHOD = "processHeartbeat";
+
+    private final ObjectProvider<HeartbeatAggregator> aggregator;
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!SERVICE_CLASS.equals(AopUtils.getTargetClass(bean).getSimpleName())) {
+            return bean;
+        }
+        // Always a separate proxy, so the aggregator can invoke the bean without coming back here
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(aggregatingInterceptor(bean));
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor aggregatingInterceptor(Object target) {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            HeartbeatAggregator heartbeatAggregator = aggregator.getObject();
+            if (!PROCESS_HEARTBEAT_METHOD.equals(method.getName())
+                    || method.getReturnType() != void.class
+                    || args.length == 0
+                    || !(args[0] instanceof String machineId)
+                    || !heartbeatAggregator.isRunning()) {
+                return invocation.proceed();
+            }
+            heartbeatAggregator.record(machineId, target, method, args.clone());
+            return null;
+        };
+    }
+}
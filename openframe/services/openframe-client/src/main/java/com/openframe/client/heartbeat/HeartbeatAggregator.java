@@ -0,0 +1,206 @@
+package com.openframe.client.heartbeat;
+
+import com.openframe.client.config.HeartbeatAggregationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Absorbs machine heartbeats in memory and writes them to Mongo in bulk.
+ * <p>
+ * Each heartbeat only replaces the machine's entry in one of the striped maps. Every flush
+ * interval the stripes are swapped for empty ones and drained:
+ * <ul>
+ *     <li>the current status of the drained machines is read with one {@code $in} query;</li>
+ *     <li>machines that are not online go through the original {@code processHeartbeat()}, which
+ *     flips their status and emits the device update;</li>
+ *     <li>all others only get their last-seen timestamp advanced, in one unordered bulk write.</li>
+ * </ul>
+ * Mongo writes therefore scale with the number of flushes and status flips rather than with the
+ * number of agents times their heartbeat rate. A heartbeat recorded while its stripe is swapped is
+ * flushed at the latest with the next interval, possibly twice, which the {@code $max} update
+ * absorbs.
+ * <p>
+ * Collection and field names come from the mapping of the machine entity, resolved on start.
+ */
+@Slf4j
+public class HeartbeatAggregator implements SmartLifecycle {
+
+    private final MongoTemplate mongoTemplate;
+    private final HeartbeatAggregationProperties properties;
+    private final AtomicReferenceArray<Map<String, Heartbeat>> stripes;
+    private final int stripeMask;
+    private final Counter received;
+    private final Counter flipped;
+    private final Timer flushTimer;
+    private volatile MachineDocument document;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public HeartbeatAggregator(MongoTemplate mongoTemplate,
+                               HeartbeatAggregationProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        int stripeCount = Integer.highestOneBit(Math.max(1, properties.getStripes()));
+        this.stripes = new AtomicReferenceArray<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.set(i, new ConcurrentHashMap<>());
+        }
+        this.stripeMask = stripeCount - 1;
+        this.received = Counter.builder("openframe.heartbeat.aggregation.received")
+                .description("Heartbeats absorbed by the aggregator")
+                .register(meterRegistry);
+        this.flipped = Counter.builder("openframe.heartbeat.aggregation.status.flips")
+                .description("Heartbeats of machines that were not online, processed individually")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("openframe.heartbeat.aggregation.flush")
+                .description("Duration of a heartbeat flush")
+                .register(meterRegistry);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Keeps the latest heartbeat of the machine until the next flush, stamped with the server time
+     * it was received at; agent-supplied timestamps are not trusted for last-seen.
+     *
+     * @param args the arguments of the {@code processHeartbeat()} call, machine id first
+     */
+    public void record(String machineId, Object target, Method processHeartbeat, Object[] args) {
+        int hash = machineId.hashCode();
+        int stripe = (hash ^ (hash >>> 16)) & stripeMask;
+        Heartbeat heartbeat = new Heartbeat(target, processHeartbeat, args, Instant.now());
+        Map<String, Heartbeat> current = stripes.get(stripe);
+        current.put(machineId, heartbeat);
+        Map<String, Heartbeat> next = stripes.get(stripe);
+        if (next != current) {
+            // Swapped by a flush while putting, which may have drained the map before the put:
+            // keep the heartbeat for the next flush unless a newer one is already there
+            next.putIfAbsent(machineId, heartbeat);
+        }
+        received.increment();
+    }
+
+    void flush() {
+        Map<String, Heartbeat> drained = new HashMap<>();
+        for (int i = 0; i < stripes.length(); i++) {
+            drained.putAll(stripes.getAndSet(i, new ConcurrentHashMap<>()));
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            List<String> machineIds = new ArrayList<>(drained.keySet());
+            for (int from = 0; from < machineIds.size(); from += properties.getMaxBulkSize()) {
+                List<String> chunk = machineIds.subList(from, Math.min(from + properties.getMaxBulkSize(), machineIds.size()));
+                flushChunk(chunk, drained);
+            }
+        });
+    }
+
+    private void flushChunk(List<String> machineIds, Map<String, Heartbeat> heartbeats) {
+        Set<String> online = onlineMachines(machineIds);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, document.collection());
+        int updates = 0;
+        for (String machineId : machineIds) {
+            Heartbeat heartbeat = heartbeats.get(machineId);
+            if (!online.contains(machineId)) {
+                processIndividually(machineId, heartbeat);
+                continue;
+            }
+            bulk.updateOne(Query.query(Criteria.where(document.idField()).is(machineId)),
+                    new Update().max(document.lastSeenField(), heartbeat.receivedAt()));
+            updates++;
+        }
+        if (updates > 0) {
+            bulk.execute();
+        }
+        log.debug("Flushed {} heartbeats: {} last-seen updates, {} processed individually",
+                machineIds.size(), updates, machineIds.size() - updates);
+    }
+
+    private Set<String> onlineMachines(List<String> machineIds) {
+        Query query = Query.query(Criteria.where(document.idField()).in(machineIds)
+                .and(document.statusField()).is(document.onlineStatus()));
+        query.fields().include(document.idField());
+        Set<String> online = new HashSet<>();
+        for (Document machine : mongoTemplate.find(query, Document.class, document.collection())) {
+            online.add(machine.getString(document.idField()));
+        }
+        return online;
+    }
+
+    private void processIndividually(String machineId, Heartbeat heartbeat) {
+        flipped.increment();
+        try {
+            heartbeat.processHeartbeat().invoke(heartbeat.target(), heartbeat.args());
+        } catch (InvocationTargetException e) {
+            log.error("Failed to process heartbeat of machine {}", machineId, e.getCause());
+        } catch (Exception e) {
+            log.error("Failed to process heartbeat of machine {}", machineId, e);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to flush heartbeats", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        document = MachineDocument.resolve(mongoTemplate.getConverter().getMappingContext(), properties.getEntityType(),
+                properties.getIdProperty(), properties.getLastSeenProperty(), properties.getStatusProperty(),
+                properties.getOnlineStatus());
+        log.info("Aggregating heartbeats into {}", document);
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("heartbeat-aggregator").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::flushSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushSafely();
+    }
+
+    private record Heartbeat(Object target, Method processHeartbeat, Object[] args, Instant receivedAt) {
+    }
+}
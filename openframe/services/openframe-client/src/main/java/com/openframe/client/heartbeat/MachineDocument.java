@@ -0,0 +1,71 @@
+package com.openframe.client.heartbeat;
+
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Collection and field names of the machine documents read and updated by the heartbeat
+ * components, taken from the mapping of the machine entity rather than configured by hand, so a
+ * renamed field or collection fails the startup instead of silently matching no document.
+ */
+public record MachineDocument(String collection,
+                              String idField,
+                              String lastSeenField,
+                              String statusField,
+                              String onlineStatus) {
+
+    private static final List<Class<?>> DATE_TYPES = List.of(Instant.class, Date.class, LocalDateTime.class);
+
+    /**
+     * @param entityType simple class name of the mapped machine entity
+     * @throws IllegalStateException when the entity or one of the properties is not mapped, the
+     *                               last-seen property is not a date, or the status has no such value
+     */
+    public static MachineDocument resolve(
+            MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+            String entityType,
+            String idProperty,
+            String lastSeenProperty,
+            String statusProperty,
+            String onlineStatus) {
+        MongoPersistentEntity<?> entity = mappingContext.getPersistentEntities().stream()
+                .filter(candidate -> candidate.getType().getSimpleName().equals(entityType))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No mapped Mongo entity " + entityType
+                        + " holds the machine documents"));
+
+        MongoPersistentProperty lastSeen = property(entity, lastSeenProperty);
+        if (DATE_TYPES.stream().noneMatch(type -> type.isAssignableFrom(lastSeen.getType()))) {
+            throw new IllegalStateException("Last-seen property " + entityType + "." + lastSeenProperty
+                    + " is a " + lastSeen.getType().getSimpleName() + ", not a date");
+        }
+        MongoPersistentProperty status = property(entity, statusProperty);
+        if (status.getType().isEnum() && Arrays.stream(status.getType().getEnumConstants())
+                .noneMatch(constant -> ((Enum<?>) constant).name().equals(onlineStatus))) {
+            throw new IllegalStateException("Status property " + entityType + "." + statusProperty
+                    + " has no value " + onlineStatus);
+        }
+
+        return new MachineDocument(entity.getCollection(),
+                property(entity, idProperty).getFieldName(),
+                lastSeen.getFieldName(),
+                status.getFieldName(),
+                onlineStatus);
+    }
+
+    private static MongoPersistentProperty property(MongoPersistentEntity<?> entity, String name) {
+        MongoPersistentProperty property = entity.getPersistentProperty(name);
+        if (property == null) {
+            throw new IllegalStateException("Mongo entity " + entity.getType().getSimpleName()
+                    + " has no property " + name);
+        }
+        return property;
+    }
+}
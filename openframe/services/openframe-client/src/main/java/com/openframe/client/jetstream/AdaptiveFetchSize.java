@@ -0,0 +1,34 @@
+package com.openframe.client.jetstream;
+
+import java.time.Duration;
+
+/**
+ * Fetch size driven by bulk write latency: full batches written within the target grow the next
+ * fetch by a tenth (at least one message), slower writes halve it.
+ */
+final class AdaptiveFetchSize {
+
+    private final int min;
+    private final int max;
+    private final long targetNanos;
+    private int current;
+
+    AdaptiveFetchSize(int min, int initial, int max, Duration target) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.targetNanos = target.toNanos();
+        this.current = Math.min(this.max, Math.max(this.min, initial));
+    }
+
+    int current() {
+        return current;
+    }
+
+    void onBatch(int fetched, long writeNanos) {
+        if (writeNanos > targetNanos) {
+            current = Math.max(min, current / 2);
+        } else if (fetched >= current) {
+            current = Math.min(max, current + Math.max(1, current / 10));
+        }
+    }
+}
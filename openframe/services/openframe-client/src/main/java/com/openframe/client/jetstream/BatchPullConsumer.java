@@ -0,0 +1,246 @@
+package com.openframe.client.jetstream;
+
+import com.openframe.client.config.JetStreamPullProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.nats.client.JetStreamSubscription;
+import io.nats.client.Message;
+import io.nats.client.MessageHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a listener's {@link MessageHandler} from a JetStream pull subscription, one fetched batch
+ * at a time.
+ * <p>
+ * A batch is split into rounds holding at most one message per subject, i.e. per machine, so
+ * messages for the same machine still see each other's writes. Within a round every message is
+ * handled inside a {@link BulkWriteScope}; the documents saved by the messages the listener acked,
+ * or returned from normally when it subscribed with {@code autoAck}, and not already written ahead
+ * of a read of their collection, are then written with one unordered bulk upsert per collection,
+ * and only after that are the messages acked. Messages that failed, or whose round could not be written, are nak'ed with a
+ * delay, except those that asked for a {@link DeferredRetry}: they are parked and handled again
+ * with the next batches once their backoff expires. The write latency of each batch adapts the
+ * next fetch size.
+ */
+@Slf4j
+public class BatchPullConsumer {
+
+    private static final String ID_FIELD = "_id";
+
+    private final String subject;
+    private final JetStreamSubscription subscription;
+    private final MessageHandler handler;
+    private final boolean autoAck;
+    private final MongoTemplate mongoTemplate;
+    private final JetStreamPullProperties properties;
+    private final AdaptiveFetchSize fetchSize;
+    private final ParkedMessages parked;
+    private final Timer writeTimer;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running;
+    private Thread worker;
+
+    public BatchPullConsumer(String subject,
+                             JetStreamSubscription subscription,
+                             MessageHandler handler,
+                             boolean autoAck,
+                             MongoTemplate mongoTemplate,
+                             JetStreamPullProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.subject = subject;
+        this.subscription = subscription;
+        this.handler = handler;
+        this.autoAck = autoAck;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.fetchSize = new AdaptiveFetchSize(properties.getMinBatchSize(), properties.getInitialBatchSize(),
+                properties.getMaxBatchSize(), properties.getTargetWriteLatency());
+        this.parked = new ParkedMessages(properties.getPark());
+        this.writeTimer = Timer.builder("openframe.jetstream.pull.write")
+                .description("Bulk Mongo writes of a pulled batch")
+                .tag("subject", subject)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("openframe.jetstream.pull.batch.size")
+                .description("Messages per fetched batch")
+                .tag("subject", subject)
+                .register(meterRegistry);
+        meterRegistry.gauge("openframe.jetstream.pull.fetch.size", List.of(Tag.of("subject", subject)),
+                fetchSize, AdaptiveFetchSize::current);
+        meterRegistry.gauge("openframe.jetstream.pull.parked", List.of(Tag.of("subject", subject)),
+                parked, ParkedMessages::size);
+    }
+
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("jetstream-pull-" + subject).daemon().start(this::run);
+        log.info("Started pull consumer for {} with fetch size {}", subject, fetchSize.current());
+    }
+
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(properties.getMaxWait().multipliedBy(2).toMillis() + properties.getAckWait().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            subscription.unsubscribe();
+        } catch (RuntimeException e) {
+            log.warn("Failed to unsubscribe pull consumer for {}", subject, e);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<DeferredAck> batch = parked.due(fetchSize.current());
+                int room = fetchSize.current() - batch.size();
+                List<Message> messages = room > 0 ? subscription.fetch(room, properties.getMaxWait()) : List.of();
+                for (Message message : messages) {
+                    batch.add(new DeferredAck(message));
+                }
+                if (!batch.isEmpty()) {
+                    process(batch);
+                }
+                parked.keepAlive();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Pull consumer for {} failed, retrying after {}", subject, properties.getNakDelay(), e);
+                sleep();
+            }
+        }
+        parked.releaseAll();
+    }
+
+    private void process(List<DeferredAck> batch) throws InterruptedException {
+        batchSizes.record(batch.size());
+        List<List<DeferredAck>> rounds = new ArrayList<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (DeferredAck ack : batch) {
+            int round = occurrences.merge(ack.message().getSubject(), 1, Integer::sum) - 1;
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(ack);
+        }
+
+        long writeNanos = 0;
+        for (List<DeferredAck> round : rounds) {
+            writeNanos += processRound(round);
+        }
+        fetchSize.onBatch(batch.size(), writeNanos);
+    }
+
+    private long processRound(List<DeferredAck> round) throws InterruptedException {
+        List<DeferredAck> handled = new ArrayList<>(round.size());
+        List<BulkWriteScope.BufferedWrite> writes = new ArrayList<>();
+        for (DeferredAck ack : round) {
+            DeferredRetry.consume();
+            boolean retryRequested;
+            try (BulkWriteScope scope = BulkWriteScope.open(this::write)) {
+                handler.onMessage(ack.deferred());
+                retryRequested = DeferredRetry.consume();
+                if (acked(ack, retryRequested)) {
+                    writes.addAll(scope.writes());
+                    handled.add(ack);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("Failed to handle message on {}", ack.message().getSubject(), e);
+                retryRequested = DeferredRetry.consume();
+            }
+            settleUnhandled(ack, retryRequested);
+        }
+
+        long started = System.nanoTime();
+        boolean written;
+        try {
+            write(writes);
+            written = true;
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} documents for {} messages on {}", writes.size(), handled.size(), subject, e);
+            written = false;
+        }
+        long elapsed = System.nanoTime() - started;
+        writeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        for (DeferredAck ack : handled) {
+            if (written) {
+                ack.message().ack();
+            } else {
+                ack.message().nakWithDelay(properties.getNakDelay());
+            }
+        }
+        return elapsed;
+    }
+
+    /**
+     * Whether the listener acked the message, or returned from it normally under {@code autoAck}
+     * without settling it or asking for a retry, as the push subscription would have acked it.
+     */
+    private boolean acked(DeferredAck ack, boolean retryRequested) {
+        return ack.outcome() == DeferredAck.Outcome.ACK
+                || autoAck && ack.outcome() == DeferredAck.Outcome.NONE && !retryRequested;
+    }
+
+    private void settleUnhandled(DeferredAck ack, boolean retryRequested) {
+        if (ack.outcome() == DeferredAck.Outcome.TERM) {
+            ack.message().term();
+        } else if (retryRequested && parked.park(ack)) {
+            log.debug("Parked message on {} for a local retry", ack.message().getSubject());
+        } else {
+            ack.message().nakWithDelay(properties.getNakDelay());
+        }
+    }
+
+    private void write(List<BulkWriteScope.BufferedWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        // Last write of a document wins, as it would have with sequential saves
+        Map<String, Map<Object, BulkWriteScope.BufferedWrite>> byCollection = new LinkedHashMap<>();
+        for (BulkWriteScope.BufferedWrite write : writes) {
+            byCollection.computeIfAbsent(write.collection(), collection -> new LinkedHashMap<>()).put(write.id(), write);
+        }
+        for (Map.Entry<String, Map<Object, BulkWriteScope.BufferedWrite>> collection : byCollection.entrySet()) {
+            BulkOperations bulk = null;
+            for (BulkWriteScope.BufferedWrite write : collection.getValue().values()) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, write.entity().getClass(), collection.getKey());
+                }
+                bulk.replaceOne(Query.query(Criteria.where(ID_FIELD).is(write.id())), write.entity(),
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulk.execute();
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(properties.getNakDelay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
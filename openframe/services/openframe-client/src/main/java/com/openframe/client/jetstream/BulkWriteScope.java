@@ -0,0 +1,73 @@
+package com.openframe.client.jetstream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Thread-bound buffer of the Mongo documents saved while one message is handled. Opened by
+ * {@link BatchPullConsumer} around the listener's handler; saves made through {@code MongoTemplate}
+ * inside it are collected instead of executed, see {@link BulkWriteScopeBeanPostProcessor}.
+ * Buffered documents are handed to the scope's writer early when the handler reads or otherwise
+ * touches their collection, so it still sees its own writes.
+ */
+public final class BulkWriteScope implements AutoCloseable {
+
+    private static final ThreadLocal<BulkWriteScope> CURRENT = new ThreadLocal<>();
+
+    private final Consumer<List<BufferedWrite>> writer;
+    private final List<BufferedWrite> writes = new ArrayList<>();
+
+    private BulkWriteScope(Consumer<List<BufferedWrite>> writer) {
+        this.writer = writer;
+    }
+
+    public static BulkWriteScope open(Consumer<List<BufferedWrite>> writer) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("Bulk write scope already open on this thread");
+        }
+        BulkWriteScope scope = new BulkWriteScope(writer);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Optional<BulkWriteScope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    void buffer(Object entity, Object id, String collection) {
+        writes.add(new BufferedWrite(entity, id, collection));
+    }
+
+    /**
+     * Writes the buffered documents of the given collections, or all of them when none are given.
+     * They stay buffered when the writer fails.
+     */
+    void flush(Set<String> collections) {
+        List<BufferedWrite> due = new ArrayList<>();
+        List<BufferedWrite> kept = new ArrayList<>();
+        for (BufferedWrite write : writes) {
+            (collections.isEmpty() || collections.contains(write.collection()) ? due : kept).add(write);
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        writer.accept(due);
+        writes.clear();
+        writes.addAll(kept);
+    }
+
+    List<BufferedWrite> writes() {
+        return writes;
+    }
+
+    @Override
+    public void close() {
+        CURRENT.remove();
+    }
+
+    record BufferedWrite(Object entity, Object id, String collection) {
+    }
+}
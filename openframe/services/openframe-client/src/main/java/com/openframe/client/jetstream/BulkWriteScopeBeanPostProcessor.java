@@ -0,0 +1,125 @@
+package com.openframe.client.jetstream;
+
+import com.openframe.client.config.JetStreamPullProperties;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.bson.types.ObjectId;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Buffers single-document {@code save} calls on the {@link MongoTemplate} the pull consumers write
+ * with, including the ones made by repositories, into the {@link BulkWriteScope} the consumers of
+ * the configured subjects open around a message. A missing id is generated up front so the
+ * document can later be written as an upsert by id.
+ * <p>
+ * Everything else goes straight to Mongo: {@code insert}, which keeps failing on an existing id,
+ * saves of versioned entities, which rely on optimistic locking, and any call outside a scope.
+ * Reads and unbuffered writes inside a scope first write the buffered documents of the
+ * collections they name, or all of them when no collection can be told from the arguments.
+ */
+@RequiredArgsConstructor
+public class BulkWriteScopeBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String SAVE_METHOD = "save";
+    private static final List<String> DATA_METHOD_PREFIXES = List.of("find", "count", "estimatedCount", "exactCount",
+            "exists", "aggregate", "stream", "scroll", "geoNear", "mapReduce", "query", "insert", "save", "update",
+            "upsert", "replace", "remove", "execute");
+
+    private final ObjectProvider<JetStreamPullProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof MongoTemplate template) || !beanName.equals(properties.getObject().getMongoTemplate())) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(bufferingInterceptor(template));
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(bufferingInterceptor(template));
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor bufferingInterceptor(MongoTemplate template) {
+        return invocation -> {
+            Optional<BulkWriteScope> scope = BulkWriteScope.current();
+            String method = invocation.getMethod().getName();
+            if (scope.isEmpty() || DATA_METHOD_PREFIXES.stream().noneMatch(method::startsWith)) {
+                return invocation.proceed();
+            }
+            Object[] args = invocation.getArguments();
+            if (SAVE_METHOD.equals(method) && args.length > 0 && args.length <= 2 && args[0] != null
+                    && (args.length == 1 || args[1] instanceof String)) {
+                Object id = idOf(template, args[0]);
+                if (id != null) {
+                    String collection = args.length == 2 ? (String) args[1] : template.getCollectionName(args[0].getClass());
+                    scope.get().buffer(args[0], id, collection);
+                    return args[0];
+                }
+            }
+            scope.get().flush(collectionsOf(template, invocation));
+            return invocation.proceed();
+        };
+    }
+
+    /**
+     * @return the collections the call may touch: its string arguments and the collections of its
+     * mapped entity type arguments; empty when none can be told
+     */
+    private static Set<String> collectionsOf(MongoTemplate template, MethodInvocation invocation) {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+                template.getConverter().getMappingContext();
+        Class<?>[] types = invocation.getMethod().getParameterTypes();
+        Object[] args = invocation.getArguments();
+        Set<String> collections = new HashSet<>();
+        for (int i = 0; i < args.length; i++) {
+            if (types[i] == String.class && args[i] != null) {
+                collections.add((String) args[i]);
+            } else if (args[i] instanceof Class<?> type && mappingContext.hasPersistentEntityFor(type)) {
+                collections.add(mappingContext.getRequiredPersistentEntity(type).getCollection());
+            } else if (args[i] != null && mappingContext.hasPersistentEntityFor(args[i].getClass())) {
+                collections.add(mappingContext.getRequiredPersistentEntity(args[i].getClass()).getCollection());
+            }
+        }
+        return collections;
+    }
+
+    /**
+     * @return the entity's id, generated when missing, or {@code null} when it cannot be written
+     * as an upsert by id
+     */
+    private static Object idOf(MongoTemplate template, Object entity) {
+        MongoPersistentEntity<?> persistentEntity = template.getConverter().getMappingContext()
+                .getPersistentEntity(entity.getClass());
+        if (persistentEntity == null || persistentEntity.hasVersionProperty() || persistentEntity.getIdProperty() == null) {
+            return null;
+        }
+        MongoPersistentProperty idProperty = persistentEntity.getIdProperty();
+        PersistentPropertyAccessor<Object> accessor = persistentEntity.getPropertyAccessor(entity);
+        Object id = accessor.getProperty(idProperty);
+        if (id == null && String.class.equals(idProperty.getType())) {
+            id = new ObjectId().toHexString();
+            accessor.setProperty(idProperty, id);
+        } else if (id == null && ObjectId.class.equals(idProperty.getType())) {
+            id = new ObjectId();
+            accessor.setProperty(idProperty, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,76 @@
+package com.openframe.client.jetstream;
+
+import io.nats.client.Message;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+/**
+ * Wraps a fetched message so the acknowledgement the listener gives it is recorded rather than
+ * sent; {@link BatchPullConsumer} sends it once the message's writes are in Mongo.
+ */
+final class DeferredAck {
+
+    private static final Set<String> ACK_METHODS = Set.of("ack", "ackSync");
+    private static final Set<String> NAK_METHODS = Set.of("nak", "nakWithDelay");
+    private static final String TERM_METHOD = "term";
+
+    enum Outcome {
+        NONE, ACK, NAK, TERM
+    }
+
+    private final Message message;
+    private final ParkedMessages.Parked parked;
+    private final Message deferred;
+    private volatile Outcome outcome = Outcome.NONE;
+
+    DeferredAck(Message message) {
+        this(message, null);
+    }
+
+    DeferredAck(Message message, ParkedMessages.Parked parked) {
+        this.message = message;
+        this.parked = parked;
+        this.deferred = (Message) Proxy.newProxyInstance(Message.class.getClassLoader(), new Class<?>[]{Message.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (ACK_METHODS.contains(name)) {
+                        outcome = Outcome.ACK;
+                        return null;
+                    }
+                    if (NAK_METHODS.contains(name)) {
+                        outcome = Outcome.NAK;
+                        return null;
+                    }
+                    if (TERM_METHOD.equals(name)) {
+                        outcome = Outcome.TERM;
+                        return null;
+                    }
+                    try {
+                        return method.invoke(message, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    Message message() {
+        return message;
+    }
+
+    /**
+     * @return the parking state when this is a local retry, otherwise {@code null}
+     */
+    ParkedMessages.Parked parked() {
+        return parked;
+    }
+
+    Message deferred() {
+        return deferred;
+    }
+
+    Outcome outcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,27 @@
+package com.openframe.client.jetstream;
+
+/**
+ * Lets code running inside a {@link BatchPullConsumer} handler ask for the current message to be
+ * parked and retried locally, rather than nak'ed, when it failed on something expected to resolve
+ * itself shortly, such as an agent not enrolled in its tool yet. Parked messages do not use up
+ * JetStream deliveries. Outside a pull consumer the request has no effect.
+ */
+public final class DeferredRetry {
+
+    private static final ThreadLocal<Boolean> REQUESTED = new ThreadLocal<>();
+
+    private DeferredRetry() {
+    }
+
+    public static void request() {
+        if (BulkWriteScope.current().isPresent()) {
+            REQUESTED.set(Boolean.TRUE);
+        }
+    }
+
+    static boolean consume() {
+        boolean requested = Boolean.TRUE.equals(REQUESTED.get());
+        REQUESTED.remove();
+        return requested;
+    }
+}
@@ -0,0 +1,84 @@
+package com.openframe.client.jetstream;
+
+import io.nats.client.Connection;
+import io.nats.client.JetStream;
+import io.nats.client.JetStreamManagement;
+import io.nats.client.JetStreamOptions;
+import io.nats.client.MessageHandler;
+import io.nats.client.PushSubscribeOptions;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Turns the push subscriptions {@code InstalledAgentListener} and {@code ToolConnectionListener}
+ * make through the NATS {@link Connection} into batched pull consumers, see
+ * {@link BatchPullConsumer}. The listeners' message handlers are reused as they are, with the
+ * {@code autoAck} they subscribed with; only the {@code JetStream.subscribe(...)} calls for the
+ * configured subjects with a durable push consumer are redirected.
+ */
+@RequiredArgsConstructor
+public class JetStreamPullBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String JET_STREAM_METHOD = "jetStream";
+    private static final String SUBSCRIBE_METHOD = "subscribe";
+
+    private final ObjectProvider<JetStreamPullConsumers> consumers;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Connection)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addInterface(Connection.class);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if (!JET_STREAM_METHOD.equals(invocation.getMethod().getName()) || !(result instanceof JetStream jetStream)) {
+                return result;
+            }
+            Object[] args = invocation.getArguments();
+            JetStreamOptions options = args.length > 0 && args[0] instanceof JetStreamOptions jetStreamOptions
+                    ? jetStreamOptions
+                    : null;
+            return pullingJetStream(jetStream, (Connection) invocation.getThis(), options);
+        });
+        return proxyFactory.getProxy();
+    }
+
+    private JetStream pullingJetStream(JetStream jetStream, Connection connection, JetStreamOptions options) {
+        ProxyFactory proxyFactory = new ProxyFactory(jetStream);
+        proxyFactory.addInterface(JetStream.class);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Object[] args = invocation.getArguments();
+            if (!SUBSCRIBE_METHOD.equals(invocation.getMethod().getName())
+                    || args.length == 0
+                    || !(args[0] instanceof String subject)
+                    || !consumers.getObject().handles(subject)) {
+                return invocation.proceed();
+            }
+            MessageHandler handler = null;
+            PushSubscribeOptions pushOptions = null;
+            boolean autoAck = false;
+            for (Object arg : args) {
+                if (arg instanceof MessageHandler messageHandler) {
+                    handler = messageHandler;
+                } else if (arg instanceof PushSubscribeOptions subscribeOptions) {
+                    pushOptions = subscribeOptions;
+                } else if (arg instanceof Boolean ack) {
+                    autoAck = ack;
+                }
+            }
+            if (handler == null || pushOptions == null || pushOptions.getDurable() == null) {
+                return invocation.proceed();
+            }
+            JetStreamManagement management = options == null
+                    ? connection.jetStreamManagement()
+                    : connection.jetStreamManagement(options);
+            return consumers.getObject().subscribe(jetStream, management, subject, pushOptions, handler, autoAck);
+        });
+        return (JetStream) proxyFactory.getProxy();
+    }
+}
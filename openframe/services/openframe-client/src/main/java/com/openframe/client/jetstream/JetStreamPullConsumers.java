@@ -0,0 +1,151 @@
+package com.openframe.client.jetstream;
+
+import com.openframe.client.config.JetStreamPullProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.nats.client.JetStream;
+import io.nats.client.JetStreamApiException;
+import io.nats.client.JetStreamManagement;
+import io.nats.client.JetStreamSubscription;
+import io.nats.client.MessageHandler;
+import io.nats.client.PullSubscribeOptions;
+import io.nats.client.PushSubscribeOptions;
+import io.nats.client.api.AckPolicy;
+import io.nats.client.api.ConsumerConfiguration;
+import io.nats.client.api.ConsumerInfo;
+import io.nats.client.api.DeliverPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates the pull consumers replacing intercepted push subscriptions and stops them on shutdown.
+ * <p>
+ * A pull durable created while the push durable of the listener still exists starts right after
+ * the push durable's ack floor, so messages the push consumer had not acked are delivered again
+ * rather than skipped or replayed from the deliver policy; the push durable is then deleted. An
+ * existing pull durable keeps its position and only has its settings updated.
+ */
+@Slf4j
+public class JetStreamPullConsumers implements SmartLifecycle {
+
+    private static final int CONSUMER_NOT_FOUND = 10014;
+
+    private final MongoTemplate mongoTemplate;
+    private final JetStreamPullProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<BatchPullConsumer> consumers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+
+    public JetStreamPullConsumers(MongoTemplate mongoTemplate,
+                                  JetStreamPullProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean handles(String subject) {
+        return properties.getSubjects().contains(subject);
+    }
+
+    /**
+     * Subscribes a durable pull consumer derived from the push options the listener asked for and
+     * feeds its batches to {@code handler}, acking messages it returns from normally when
+     * {@code autoAck} is set.
+     */
+    public JetStreamSubscription subscribe(JetStream jetStream,
+                                           JetStreamManagement management,
+                                           String subject,
+                                           PushSubscribeOptions pushOptions,
+                                           MessageHandler handler,
+                                           boolean autoAck) throws IOException, JetStreamApiException {
+        String stream = pushOptions.getStream() != null ? pushOptions.getStream() : streamOf(management, subject);
+        String pushDurable = pushOptions.getDurable();
+        String durable = pushDurable + properties.getDurableSuffix();
+        ConsumerInfo pushInfo = consumerInfo(management, stream, pushDurable);
+        ConsumerInfo pullInfo = consumerInfo(management, stream, durable);
+
+        ConsumerConfiguration push = pushOptions.getConsumerConfiguration();
+        ConsumerConfiguration.Builder pull = ConsumerConfiguration.builder()
+                .durable(durable)
+                .filterSubject(subject)
+                .ackPolicy(AckPolicy.Explicit)
+                .ackWait(properties.getAckWait())
+                .maxAckPending(maxAckPending())
+                .maxDeliver(push.getMaxDeliver());
+        if (pullInfo != null) {
+            ConsumerConfiguration existing = pullInfo.getConsumerConfiguration();
+            pull.deliverPolicy(existing.getDeliverPolicy());
+            if (existing.getDeliverPolicy() == DeliverPolicy.ByStartSequence) {
+                pull.startSequence(existing.getStartSequence());
+            }
+        } else if (pushInfo != null) {
+            pull.deliverPolicy(DeliverPolicy.ByStartSequence).startSequence(pushInfo.getAckFloor().getStreamSequence() + 1);
+        } else {
+            pull.deliverPolicy(push.getDeliverPolicy());
+        }
+        management.addOrUpdateConsumer(stream, pull.build());
+        if (pushInfo != null) {
+            management.deleteConsumer(stream, pushDurable);
+            log.info("Migrated push durable {} on {} to pull durable {} from stream sequence {}", pushDurable, subject,
+                    durable, pushInfo.getAckFloor().getStreamSequence() + 1);
+        }
+        JetStreamSubscription subscription = jetStream.subscribe(subject, PullSubscribeOptions.bind(stream, durable));
+
+        BatchPullConsumer consumer = new BatchPullConsumer(subject, subscription, handler, autoAck, mongoTemplate,
+                properties, meterRegistry);
+        consumers.add(consumer);
+        consumer.start();
+        log.info("Replaced push subscription {} on {} with pull consumer {}", pushDurable, subject, durable);
+        return subscription;
+    }
+
+    private long maxAckPending() {
+        long parked = properties.getPark().isEnabled() ? properties.getPark().getMaxParked() : 0;
+        return Math.max(properties.getMaxAckPending(), parked + properties.getMaxBatchSize());
+    }
+
+    private static String streamOf(JetStreamManagement management, String subject) throws IOException, JetStreamApiException {
+        List<String> streams = management.getStreamNames(subject);
+        if (streams.size() != 1) {
+            throw new IllegalStateException("Expected one stream for " + subject + ", found " + streams);
+        }
+        return streams.get(0);
+    }
+
+    /**
+     * @return the consumer, or {@code null} when it does not exist
+     */
+    private static ConsumerInfo consumerInfo(JetStreamManagement management, String stream, String durable)
+            throws IOException, JetStreamApiException {
+        try {
+            return management.getConsumerInfo(stream, durable);
+        } catch (JetStreamApiException e) {
+            if (e.getApiErrorCode() == CONSUMER_NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        consumers.forEach(BatchPullConsumer::stop);
+        consumers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
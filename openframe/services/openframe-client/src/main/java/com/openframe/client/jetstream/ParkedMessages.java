@@ -0,0 +1,93 @@
+package com.openframe.client.jetstream;
+
+import com.openframe.client.config.JetStreamPullProperties;
+import io.nats.client.Message;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Messages a {@link BatchPullConsumer} holds for a local retry with exponential backoff. Their
+ * ack deadline is extended with {@code inProgress()} while they wait, so JetStream neither
+ * redelivers them nor counts another delivery. Only used from the consumer's own thread.
+ */
+@Slf4j
+final class ParkedMessages {
+
+    private final JetStreamPullProperties.Park properties;
+    private final PriorityQueue<Parked> queue = new PriorityQueue<>(Comparator.comparingLong(Parked::dueAt));
+    private long nextKeepAliveAt = System.nanoTime();
+
+    ParkedMessages(JetStreamPullProperties.Park properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return {@code false} when parking is disabled or the message used up its parking budget,
+     * in which case the caller settles it as a regular failure
+     */
+    boolean park(DeferredAck ack) {
+        long now = System.nanoTime();
+        Parked previous = ack.parked();
+        int attempts = previous == null ? 0 : previous.attempts() + 1;
+        long firstParkedAt = previous == null ? now : previous.firstParkedAt();
+        if (!properties.isEnabled()
+                || queue.size() >= properties.getMaxParked()
+                || now - firstParkedAt > properties.getMaxParkTime().toNanos()) {
+            return false;
+        }
+        long delay = Math.min(properties.getMaxDelay().toNanos(),
+                properties.getInitialDelay().toNanos() << Math.min(attempts, 20));
+        queue.add(new Parked(ack.message(), attempts, firstParkedAt, now + delay));
+        return true;
+    }
+
+    List<DeferredAck> due(int max) {
+        long now = System.nanoTime();
+        List<DeferredAck> due = new ArrayList<>();
+        while (due.size() < max && !queue.isEmpty() && queue.peek().dueAt() - now <= 0) {
+            Parked parked = queue.poll();
+            due.add(new DeferredAck(parked.message(), parked));
+        }
+        return due;
+    }
+
+    void keepAlive() {
+        long now = System.nanoTime();
+        if (queue.isEmpty() || now - nextKeepAliveAt < 0) {
+            return;
+        }
+        for (Parked parked : queue) {
+            try {
+                parked.message().inProgress();
+            } catch (RuntimeException e) {
+                log.warn("Failed to extend ack deadline of parked message on {}", parked.message().getSubject(), e);
+            }
+        }
+        nextKeepAliveAt = now + properties.getKeepAliveInterval().toNanos();
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * Hands every parked message back to JetStream for redelivery, e.g. on shutdown.
+     */
+    void releaseAll() {
+        Parked parked;
+        while ((parked = queue.poll()) != null) {
+            try {
+                parked.message().nak();
+            } catch (RuntimeException e) {
+                log.warn("Failed to release parked message on {}", parked.message().getSubject(), e);
+            }
+        }
+    }
+
+    record Parked(Message message, int attempts, long firstParkedAt, long dueAt) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.openframe.client.liveness;
+
+import com.openframe.client.config.MachineLivenessProperties;
+import io.nats.client.Connection;
+import io.nats.client.Dispatcher;
+import io.nats.client.Message;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Splits machine liveness tracking between the client-service replicas.
+ * <p>
+ * Replicas announce themselves on {@code <subject-prefix>.members} every
+ * {@code membership-interval} and drop members not heard from within {@code member-timeout}.
+ * Each machine is owned by one live member, chosen by rendezvous hashing of its id, so a member
+ * joining or leaving only moves the machines it owns. Heartbeats arrive on whichever replica the
+ * NATS queue group picked; those of machines owned elsewhere are collected per owner and sent to
+ * {@code <subject-prefix>.<member>.touch} (or {@code .forget}) once per tick, so every machine's
+ * signs of life end up on one replica.
+ * <p>
+ * The member with the lowest id is the leader, which runs the cluster-wide Mongo sweep.
+ */
+@Slf4j
+public class LivenessMembership {
+
+    private static final String MEMBERS = "members";
+    private static final String LEAVE = "leave";
+    private static final String TOUCH = "touch";
+    private static final String FORGET = "forget";
+    private static final int IDS_PER_MESSAGE = 1000;
+
+    private final Connection connection;
+    private final MachineLivenessProperties properties;
+    private final String self = UUID.randomUUID().toString();
+    private final Map<String, Long> lastAnnounced = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> touches = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> forgets = new ConcurrentHashMap<>();
+    private volatile List<String> members = List.of(self);
+    private Dispatcher dispatcher;
+
+    public LivenessMembership(Connection connection, MachineLivenessProperties properties) {
+        this.connection = connection;
+        this.properties = properties;
+    }
+
+    /**
+     * Joins the members; machine ids forwarded by other members are handed to the callbacks.
+     */
+    void join(Consumer<String> onTouch, Consumer<String> onForget) {
+        lastAnnounced.put(self, System.nanoTime());
+        dispatcher = connection.createDispatcher(message -> onMessage(message, onTouch, onForget));
+        dispatcher.subscribe(subject(MEMBERS));
+        dispatcher.subscribe(subject(LEAVE));
+        dispatcher.subscribe(subject(self, TOUCH));
+        dispatcher.subscribe(subject(self, FORGET));
+        announce();
+        log.info("Joined machine liveness tracking as {}", self);
+    }
+
+    void leave() {
+        if (dispatcher != null) {
+            connection.closeDispatcher(dispatcher);
+            dispatcher = null;
+        }
+        try {
+            connection.publish(subject(LEAVE), self.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.debug("Failed to announce leaving machine liveness tracking, members drop {} after {}",
+                    self, properties.getMemberTimeout(), e);
+        }
+    }
+
+    /**
+     * Announces this member and drops the members that went silent.
+     */
+    void announce() {
+        connection.publish(subject(MEMBERS), self.getBytes(StandardCharsets.UTF_8));
+        long silentSince = System.nanoTime() - properties.getMemberTimeout().toNanos();
+        boolean dropped = lastAnnounced.entrySet()
+                .removeIf(member -> !self.equals(member.getKey()) && member.getValue() - silentSince < 0);
+        if (dropped) {
+            updateMembers();
+        }
+    }
+
+    String ownerOf(String machineId) {
+        List<String> current = members;
+        String owner = current.get(0);
+        long best = weight(owner, machineId);
+        for (int i = 1; i < current.size(); i++) {
+            long candidate = weight(current.get(i), machineId);
+            if (candidate > best) {
+                best = candidate;
+                owner = current.get(i);
+            }
+        }
+        return owner;
+    }
+
+    boolean isSelf(String member) {
+        return self.equals(member);
+    }
+
+    boolean owns(String machineId) {
+        return isSelf(ownerOf(machineId));
+    }
+
+    boolean isLeader() {
+        return self.equals(members.get(0));
+    }
+
+    void forwardTouch(String owner, String machineId) {
+        touches.computeIfAbsent(owner, id -> ConcurrentHashMap.newKeySet()).add(machineId);
+    }
+
+    void forwardForget(String owner, String machineId) {
+        forgets.computeIfAbsent(owner, id -> ConcurrentHashMap.newKeySet()).add(machineId);
+    }
+
+    /**
+     * Sends the machine ids collected for other members since the last call.
+     */
+    void flush() {
+        flush(touches, TOUCH);
+        flush(forgets, FORGET);
+    }
+
+    private void flush(Map<String, Set<String>> outbox, String kind) {
+        for (Map.Entry<String, Set<String>> owner : outbox.entrySet()) {
+            List<String> batch = new ArrayList<>();
+            Iterator<String> machineIds = owner.getValue().iterator();
+            while (machineIds.hasNext()) {
+                batch.add(machineIds.next());
+                machineIds.remove();
+                if (batch.size() == IDS_PER_MESSAGE || !machineIds.hasNext()) {
+                    connection.publish(subject(owner.getKey(), kind),
+                            String.join("\n", batch).getBytes(StandardCharsets.UTF_8));
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void onMessage(Message message, Consumer<String> onTouch, Consumer<String> onForget) {
+        String payload = new String(message.getData(), StandardCharsets.UTF_8);
+        String subject = message.getSubject();
+        if (subject.equals(subject(MEMBERS))) {
+            if (lastAnnounced.put(payload, System.nanoTime()) == null) {
+                updateMembers();
+            }
+        } else if (subject.equals(subject(LEAVE))) {
+            if (!self.equals(payload) && lastAnnounced.remove(payload) != null) {
+                updateMembers();
+            }
+        } else {
+            Consumer<String> handler = subject.endsWith("." + TOUCH) ? onTouch : onForget;
+            payload.lines().filter(machineId -> !machineId.isEmpty()).forEach(handler);
+        }
+    }
+
+    private synchronized void updateMembers() {
+        List<String> updated = new ArrayList<>(lastAnnounced.keySet());
+        updated.sort(null);
+        members = List.copyOf(updated);
+        // Ids collected for members that left are dropped; their next heartbeat goes to the new owner
+        touches.keySet().retainAll(updated);
+        forgets.keySet().retainAll(updated);
+        log.info("Machine liveness members changed to {}, this replica is {}", members, self);
+    }
+
+    private String subject(String... tokens) {
+        return properties.getSubjectPrefix() + "." + String.join(".", tokens);
+    }
+
+    private static long weight(String member, String machineId) {
+        long hash = member.hashCode() * 0x9E3779B97F4A7C15L ^ machineId.hashCode();
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93E14B39B7CL;
+        return hash ^ (hash >>> 33);
+    }
+}
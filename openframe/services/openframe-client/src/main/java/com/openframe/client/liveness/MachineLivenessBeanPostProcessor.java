@@ -0,0 +1,110 @@
+package com.openframe.client.liveness;
+
+import com.openframe.client.config.MachineLivenessProperties;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Feeds {@code MachineStatusService} calls made by {@code MachineHeartbeatListener} and
+ * {@code ClientConnectionListener} to the {@link MachineLivenessTracker}: heartbeats and connects
+ * touch the machine, disconnects stop tracking it. Calls are always passed on to the service.
+ * <p>
+ * Registered last so its proxy wraps any other one on the service, such as heartbeat aggregation,
+ * and sees every call. The service's offline method is bound to the tracker, which takes silent
+ * machines offline through it.
+ */
+public class MachineLivenessBeanPostProcessor implements BeanPostProcessor, Ordered {
+
+    private static final String SERVICE_CLASS = "MachineStatusService";
+    private static final String PROCESS_HEARTBEAT_METHOD = "processHeartbeat";
+
+    private final ObjectProvider<MachineLivenessTracker> tracker;
+    private final Pattern onlineMethods;
+    private final Pattern offlineMethods;
+    private final String offlineMethod;
+
+    public MachineLivenessBeanPostProcessor(ObjectProvider<MachineLivenessTracker> tracker,
+                                            MachineLivenessProperties properties) {
+        this.tracker = tracker;
+        this.onlineMethods = Pattern.compile(properties.getOnlineMethodPattern());
+        this.offlineMethods = Pattern.compile(properties.getOfflineMethodPattern());
+        this.offlineMethod = properties.getOfflineMethod();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!SERVICE_CLASS.equals(AopUtils.getTargetClass(bean).getSimpleName())) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(livenessInterceptor());
+        Object proxy = proxyFactory.getProxy();
+        tracker.getObject().bindOfflineMethod(proxy, offlineMethod(AopUtils.getTargetClass(bean)));
+        return proxy;
+    }
+
+    private Method offlineMethod(Class<?> serviceClass) {
+        List<Method> candidates = new ArrayList<>();
+        for (Method method : serviceClass.getMethods()) {
+            boolean named = offlineMethod != null
+                    ? offlineMethod.equals(method.getName())
+                    : offlineMethods.matcher(method.getName()).matches();
+            if (named && !Modifier.isStatic(method.getModifiers()) && takesMachineIdAndTimes(method)) {
+                candidates.add(method);
+            }
+        }
+        if (candidates.size() != 1) {
+            throw new IllegalStateException("Expected one offline method on " + serviceClass.getName()
+                    + " taking the machine id first, found " + candidates
+                    + "; set openframe.heartbeat.liveness.offline-method");
+        }
+        return candidates.get(0);
+    }
+
+    private static boolean takesMachineIdAndTimes(Method method) {
+        Class<?>[] parameters = method.getParameterTypes();
+        if (parameters.length == 0 || parameters[0] != String.class) {
+            return false;
+        }
+        for (int i = 1; i < parameters.length; i++) {
+            if (!parameters[i].isAssignableFrom(Instant.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MethodInterceptor livenessInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            if (args.length == 0 || !(args[0] instanceof String machineId)) {
+                return invocation.proceed();
+            }
+            String name = method.getName();
+            if (PROCESS_HEARTBEAT_METHOD.equals(name) || onlineMethods.matcher(name).matches()) {
+                tracker.getObject().touch(machineId);
+            } else if (offlineMethods.matcher(name).matches()) {
+                tracker.getObject().forget(machineId);
+            }
+            return invocation.proceed();
+        };
+    }
+}
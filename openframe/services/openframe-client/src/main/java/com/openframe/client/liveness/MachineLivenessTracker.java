@@ -0,0 +1,351 @@
+package com.openframe.client.liveness;
+
+import com.openframe.client.config.MachineLivenessProperties;
+import com.openframe.client.heartbeat.MachineDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks machines offline once they stop sending heartbeats, independently of NATS disconnect
+ * events, using a hashed timing wheel.
+ * <p>
+ * Every tracked machine sits in exactly one wheel slot. A heartbeat only overwrites the machine's
+ * last-seen tick; nothing is scheduled or moved. When the sweeper reaches a slot, machines whose
+ * deadline is in a later round stay, machines seen since they were slotted are moved to the slot of
+ * their new deadline, and the rest are expired. Expirations of a tick are checked against Mongo
+ * with one query per chunk.
+ * <p>
+ * Machines are sharded between the client-service replicas by {@link LivenessMembership}: each is
+ * tracked only by its owner, and heartbeats the NATS queue group delivered to another replica are
+ * forwarded to it once per tick. A machine whose owner changed is dropped from the old owner's
+ * wheel when it comes due, without being expired. An expired machine is only taken offline while
+ * it is still online with a last-seen timestamp older than {@code offline-after} in Mongo.
+ * <p>
+ * Machines are taken offline through the offline method of {@code MachineStatusService}, bound by
+ * {@link MachineLivenessBeanPostProcessor}, so the status change and its device update are the
+ * same as for a NATS disconnect. Machines that went silent while no replica tracked them, e.g.
+ * across a restart, are found by a Mongo sweep every {@code sweep-interval}, run by the leader of
+ * the members only.
+ */
+@Slf4j
+public class MachineLivenessTracker implements SmartLifecycle {
+
+    private final MongoTemplate mongoTemplate;
+    private final MachineLivenessProperties properties;
+    private final LivenessMembership membership;
+    private final long tickNanos;
+    private final long offlineAfterTicks;
+    private final int wheelMask;
+    private final Set<Entry>[] wheel;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Counter expired;
+    private final Counter markedOffline;
+    private final Counter handedOver;
+    private volatile Object statusService;
+    private volatile Method offlineMethod;
+    private volatile MachineDocument document;
+    private long origin;
+    private long sweptTick;
+    private ScheduledExecutorService sweeper;
+    private volatile boolean running;
+
+    @SuppressWarnings("unchecked")
+    public MachineLivenessTracker(MongoTemplate mongoTemplate,
+                                  MachineLivenessProperties properties,
+                                  LivenessMembership membership,
+                                  MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.membership = membership;
+        this.tickNanos = properties.getTick().toNanos();
+        this.offlineAfterTicks = Math.max(1, properties.getOfflineAfter().toNanos() / tickNanos);
+        int wheelSize = Integer.highestOneBit(Math.max(1, properties.getWheelSize()));
+        this.wheelMask = wheelSize - 1;
+        this.wheel = new Set[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.expired = Counter.builder("openframe.heartbeat.liveness.expired")
+                .description("Machines owned by this replica and silent for longer than offline-after")
+                .register(meterRegistry);
+        this.handedOver = Counter.builder("openframe.heartbeat.liveness.handed.over")
+                .description("Machines dropped by this replica because another member owns them now")
+                .register(meterRegistry);
+        this.markedOffline = Counter.builder("openframe.heartbeat.liveness.offline")
+                .description("Machines marked offline by the liveness sweeper")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("openframe.heartbeat.liveness.tracked", List.of(), entries);
+    }
+
+    /**
+     * Binds the {@code MachineStatusService} method machines are taken offline with: its first
+     * parameter is the machine id, any further ones receive the current {@link Instant}.
+     */
+    public void bindOfflineMethod(Object service, Method method) {
+        this.statusService = service;
+        this.offlineMethod = method;
+    }
+
+    /**
+     * Records a sign of life, or forwards it to the member owning the machine; O(1) and allocation
+     * free for machines already tracked here.
+     */
+    public void touch(String machineId) {
+        if (!running) {
+            return;
+        }
+        String owner = membership.ownerOf(machineId);
+        if (membership.isSelf(owner)) {
+            touchLocally(machineId);
+        } else {
+            membership.forwardTouch(owner, machineId);
+        }
+    }
+
+    private void touchLocally(String machineId) {
+        if (!running) {
+            return;
+        }
+        long now = currentTick();
+        Entry entry = entries.get(machineId);
+        if (entry != null) {
+            entry.lastSeenTick = now;
+            return;
+        }
+        entries.computeIfAbsent(machineId, id -> {
+            Entry created = new Entry(id, now, now + offlineAfterTicks);
+            wheel[(int) (created.deadlineTick & wheelMask)].add(created);
+            return created;
+        });
+    }
+
+    /**
+     * Stops tracking a machine whose offline state was already recorded, e.g. on a NATS disconnect.
+     */
+    public void forget(String machineId) {
+        forgetLocally(machineId);
+        String owner = membership.ownerOf(machineId);
+        if (running && !membership.isSelf(owner)) {
+            membership.forwardForget(owner, machineId);
+        }
+    }
+
+    private void forgetLocally(String machineId) {
+        Entry entry = entries.remove(machineId);
+        if (entry != null) {
+            wheel[(int) (entry.deadlineTick & wheelMask)].remove(entry);
+        }
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - origin) / tickNanos;
+    }
+
+    void sweep() {
+        long now = currentTick();
+        List<String> expiredIds = new ArrayList<>();
+        // Catch up on ticks missed while the sweeper was delayed, at most one full turn
+        for (long tick = Math.max(sweptTick + 1, now - wheelMask); tick <= now; tick++) {
+            sweepSlot(tick, expiredIds);
+        }
+        sweptTick = now;
+        if (!expiredIds.isEmpty()) {
+            expired.increment(expiredIds.size());
+            markOffline(expiredIds);
+        }
+        membership.flush();
+    }
+
+    private void sweepSlot(long tick, List<String> expiredIds) {
+        Iterator<Entry> slot = wheel[(int) (tick & wheelMask)].iterator();
+        while (slot.hasNext()) {
+            Entry entry = slot.next();
+            if (entry.deadlineTick > tick) {
+                continue;
+            }
+            slot.remove();
+            long deadline = entry.lastSeenTick + offlineAfterTicks;
+            if (deadline > tick) {
+                entry.deadlineTick = deadline;
+                wheel[(int) (deadline & wheelMask)].add(entry);
+            } else if (entries.remove(entry.machineId, entry)) {
+                if (membership.owns(entry.machineId)) {
+                    expiredIds.add(entry.machineId);
+                } else {
+                    handedOver.increment();
+                }
+            }
+        }
+    }
+
+    private void markOffline(List<String> machineIds) {
+        for (int from = 0; from < machineIds.size(); from += properties.getMaxBulkSize()) {
+            List<String> chunk = machineIds.subList(from, Math.min(from + properties.getMaxBulkSize(), machineIds.size()));
+            List<String> silent = silentMachines(chunk, chunk.size());
+            log.info("Marked {} of {} silent machines offline", takeOffline(silent), chunk.size());
+        }
+    }
+
+    /**
+     * Takes offline the machines Mongo still has online past the cutoff, including those no
+     * replica has seen since it started. Only run by the leader.
+     */
+    void sweepMongo() {
+        if (!membership.isLeader()) {
+            return;
+        }
+        Set<String> swept = new HashSet<>();
+        List<String> silent;
+        int takenOffline;
+        do {
+            silent = silentMachines(null, properties.getMaxBulkSize());
+            takenOffline = takeOffline(silent);
+            if (takenOffline > 0) {
+                log.info("Marked {} machines offline that were silent before tracking started", takenOffline);
+            }
+            // Stops as well when the service left a whole page online, rather than looping on it
+        } while (running && takenOffline == properties.getMaxBulkSize() && swept.addAll(silent));
+    }
+
+    /**
+     * @param machineIds candidates, or {@code null} for any machine
+     */
+    private List<String> silentMachines(List<String> machineIds, int limit) {
+        Instant cutoff = Instant.now().minus(properties.getOfflineAfter());
+        Criteria criteria = Criteria.where(document.statusField()).is(document.onlineStatus())
+                .and(document.lastSeenField()).lt(cutoff);
+        if (machineIds != null) {
+            criteria = criteria.and(document.idField()).in(machineIds);
+        }
+        Query query = Query.query(criteria).limit(limit);
+        query.fields().include(document.idField());
+        List<String> silent = new ArrayList<>();
+        for (Document machine : mongoTemplate.find(query, Document.class, document.collection())) {
+            silent.add(machine.getString(document.idField()));
+        }
+        return silent;
+    }
+
+    /**
+     * @return the number of machines taken offline
+     */
+    private int takeOffline(List<String> machineIds) {
+        Method method = offlineMethod;
+        if (method == null) {
+            if (!machineIds.isEmpty()) {
+                log.warn("No MachineStatusService offline method bound, {} silent machines stay online", machineIds.size());
+            }
+            return 0;
+        }
+        int takenOffline = 0;
+        for (String machineId : machineIds) {
+            Object[] args = new Object[method.getParameterCount()];
+            args[0] = machineId;
+            for (int i = 1; i < args.length; i++) {
+                args[i] = Instant.now();
+            }
+            try {
+                method.invoke(statusService, args);
+                markedOffline.increment();
+                takenOffline++;
+            } catch (InvocationTargetException e) {
+                log.error("Failed to mark machine {} offline", machineId, e.getCause());
+            } catch (Exception e) {
+                log.error("Failed to mark machine {} offline", machineId, e);
+            }
+        }
+        return takenOffline;
+    }
+
+    private void sweepMongoSafely() {
+        try {
+            sweepMongo();
+        } catch (Exception e) {
+            log.error("Failed to sweep silent machines in Mongo", e);
+        }
+    }
+
+    private void announceSafely() {
+        try {
+            membership.announce();
+        } catch (Exception e) {
+            log.error("Failed to announce machine liveness membership", e);
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.error("Failed to sweep machine liveness", e);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void start() {
+        document = MachineDocument.resolve(mongoTemplate.getConverter().getMappingContext(), properties.getEntityType(),
+                properties.getIdProperty(), properties.getLastSeenProperty(), properties.getStatusProperty(),
+                properties.getOnlineStatus());
+        origin = System.nanoTime();
+        sweptTick = 0;
+        membership.join(this::touchLocally, this::forgetLocally);
+        sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("machine-liveness").daemon().factory());
+        sweeper.scheduleAtFixedRate(this::sweepSafely, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        long membershipMillis = properties.getMembershipInterval().toMillis();
+        sweeper.scheduleAtFixedRate(this::announceSafely, membershipMillis, membershipMillis, TimeUnit.MILLISECONDS);
+        long sweepMillis = properties.getSweepInterval().toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweepMongoSafely, properties.getOfflineAfter().toMillis(), sweepMillis,
+                TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        membership.leave();
+        entries.clear();
+        for (Set<Entry> slot : wheel) {
+            slot.clear();
+        }
+    }
+
+    private static final class Entry {
+
+        private final String machineId;
+        private volatile long lastSeenTick;
+        private volatile long deadlineTick;
+
+        private Entry(String machineId, long lastSeenTick, long deadlineTick) {
+            this.machineId = machineId;
+            this.lastSeenTick = lastSeenTick;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
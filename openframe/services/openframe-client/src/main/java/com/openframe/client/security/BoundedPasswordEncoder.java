@@ -0,0 +1,95 @@
+package com.openframe.client.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs an expensive {@link PasswordEncoder}, BCrypt in the client service, on a small fixed pool
+ * of platform threads. Request threads, virtual ones included, only wait for the result, so a
+ * registration or token storm queues hashing work instead of running hundreds of BCrypt rounds
+ * in parallel and starving every other request of CPU. Requests finding no room within the
+ * timeout fail with {@link PasswordHashingUnavailableException}, answered with {@code 503} and
+ * {@code Retry-After}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final Semaphore admission;
+    private final Duration timeout;
+    private final Duration retryAfter;
+    private final Timer waitTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  ExecutorService executor,
+                                  int capacity,
+                                  Duration timeout,
+                                  Duration retryAfter,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.admission = new Semaphore(capacity);
+        this.timeout = timeout;
+        this.retryAfter = retryAfter;
+        this.waitTimer = Timer.builder("openframe.security.password-hashing")
+                .description("Password hashing and verification, queueing included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        long started = System.nanoTime();
+        try {
+            if (!admission.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new PasswordHashingUnavailableException("Password hashing capacity exhausted", retryAfter, null);
+            }
+            try {
+                Future<T> result = executor.submit(task);
+                long remaining = timeout.toNanos() - (System.nanoTime() - started);
+                try {
+                    return result.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    result.cancel(true);
+                    throw new PasswordHashingUnavailableException("Password hashing timed out after " + timeout, retryAfter, e);
+                }
+            } finally {
+                admission.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.openframe.client.security;
+
+import com.openframe.client.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Wraps the {@link PasswordEncoder} defined by {@code PasswordEncoderConfig} in a
+ * {@link BoundedPasswordEncoder}.
+ */
+@RequiredArgsConstructor
+public class BoundedPasswordEncoderBeanPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<ExecutorService> executor;
+    private final ObjectProvider<PasswordHashingProperties> properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof PasswordEncoder encoder) || bean instanceof BoundedPasswordEncoder
+                || bean instanceof CachingPasswordEncoder) {
+            return bean;
+        }
+        PasswordHashingProperties hashing = properties.getObject();
+        return new BoundedPasswordEncoder(encoder, executor.getObject(),
+                threads(hashing) + hashing.getMaxQueued(), hashing.getTimeout(), hashing.getRetryAfter(),
+                meterRegistry.getObject());
+    }
+
+    public static int threads(PasswordHashingProperties properties) {
+        return properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+    }
+}
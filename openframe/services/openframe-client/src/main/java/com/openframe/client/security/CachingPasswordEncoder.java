@@ -0,0 +1,44 @@
+package com.openframe.client.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Answers {@link #matches} from the {@link VerifiedCredentialCache} when the same secret was
+ * verified against the same stored hash recently, so agents refreshing tokens do not pay for a
+ * BCrypt verification each time. Encoding always goes to the delegate.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final VerifiedCredentialCache cache;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, VerifiedCredentialCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null || encodedPassword.isEmpty()) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        if (cache.isVerified(rawPassword, encodedPassword, TokenRefreshRequests.isRefresh())) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            cache.markVerified(rawPassword, encodedPassword);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,30 @@
+package com.openframe.client.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Wraps the {@link PasswordEncoder} in a {@link CachingPasswordEncoder}. Ordered after
+ * {@link BoundedPasswordEncoderBeanPostProcessor}, so cache hits do not queue for a hashing thread.
+ */
+@RequiredArgsConstructor
+public class CachingPasswordEncoderBeanPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<VerifiedCredentialCache> cache;
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof PasswordEncoder encoder) || bean instanceof CachingPasswordEncoder) {
+            return bean;
+        }
+        return new CachingPasswordEncoder(encoder, cache.getObject());
+    }
+}
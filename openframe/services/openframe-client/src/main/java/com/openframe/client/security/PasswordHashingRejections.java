@@ -0,0 +1,57 @@
+package com.openframe.client.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Answers requests failing with {@link PasswordHashingUnavailableException}, e.g. a
+ * {@code client_credentials} token request rejected inside the security filter chain, with
+ * {@code 503} instead of a {@code 500}. {@code Retry-After} is the configured delay plus up to as
+ * much again of jitter, so rejected agents do not all come back in the same second.
+ */
+@Slf4j
+public class PasswordHashingRejections extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            PasswordHashingUnavailableException rejection = rejectionOf(e);
+            if (rejection == null || response.isCommitted()) {
+                throw e;
+            }
+            log.debug("Rejected {} {}: {}", request.getMethod(), request.getRequestURI(), rejection.getMessage());
+            response.reset();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter(rejection));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, rejection.getMessage());
+        }
+    }
+
+    /**
+     * @return the {@code Retry-After} value in seconds for {@code rejection}
+     */
+    public static String retryAfter(PasswordHashingUnavailableException rejection) {
+        long seconds = Math.max(rejection.getRetryAfter().toSeconds(), 1);
+        return Long.toString(seconds + ThreadLocalRandom.current().nextLong(seconds + 1));
+    }
+
+    private static PasswordHashingUnavailableException rejectionOf(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PasswordHashingUnavailableException rejection) {
+                return rejection;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.openframe.client.security;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown by {@link BoundedPasswordEncoder} when a hashing request finds no room within its timeout;
+ * answered with {@code 503} and a {@code Retry-After} of at least {@link #getRetryAfter()}.
+ */
+@Getter
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+}
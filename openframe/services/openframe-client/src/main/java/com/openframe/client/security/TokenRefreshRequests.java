@@ -0,0 +1,41 @@
+package com.openframe.client.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Flags {@code POST /oauth/token} requests with {@code grant_type=refresh_token} for the duration
+ * of the request, so {@link CachingPasswordEncoder} can accept a client secret verified within the
+ * longer refresh window; the refresh token itself is still validated by {@code AgentAuthService}.
+ */
+public class TokenRefreshRequests extends OncePerRequestFilter {
+
+    private static final String GRANT_TYPE = "grant_type";
+    private static final String REFRESH_TOKEN = "refresh_token";
+    private static final ThreadLocal<Boolean> REFRESH = new ThreadLocal<>();
+
+    public static boolean isRefresh() {
+        return Boolean.TRUE.equals(REFRESH.get());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!REFRESH_TOKEN.equals(request.getParameter(GRANT_TYPE))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        REFRESH.set(Boolean.TRUE);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            REFRESH.remove();
+        }
+    }
+}
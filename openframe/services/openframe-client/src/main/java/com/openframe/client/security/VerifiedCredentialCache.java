@@ -0,0 +1,75 @@
+package com.openframe.client.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openframe.client.config.CredentialCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Secrets recently verified against their stored BCrypt hash.
+ * <p>
+ * Entries are keyed by an HMAC-SHA256, under a key generated at startup and never stored, of the
+ * stored hash and the presented secret; neither the secret nor anything usable to check a guess
+ * offline is kept in memory. As the stored hash is part of the key, rotating a client secret
+ * invalidates its entries without any explicit eviction. Only successful verifications are cached.
+ */
+public class VerifiedCredentialCache {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final SecretKey key;
+    private final Cache<ByteBuffer, Long> verified;
+    private final long ttlNanos;
+    private final long refreshTtlNanos;
+
+    public VerifiedCredentialCache(CredentialCacheProperties properties, MeterRegistry meterRegistry) {
+        try {
+            this.key = KeyGenerator.getInstance(HMAC).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.refreshTtlNanos = properties.getRefreshTtl().toNanos();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl().compareTo(properties.getRefreshTtl()) > 0
+                        ? properties.getTtl()
+                        : properties.getRefreshTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "verified-credentials");
+    }
+
+    /**
+     * @param refresh whether the current request is a {@code refresh_token} grant
+     */
+    public boolean isVerified(CharSequence rawPassword, String encodedPassword, boolean refresh) {
+        Long verifiedAt = verified.getIfPresent(keyOf(rawPassword, encodedPassword));
+        return verifiedAt != null && System.nanoTime() - verifiedAt <= (refresh ? refreshTtlNanos : ttlNanos);
+    }
+
+    public void markVerified(CharSequence rawPassword, String encodedPassword) {
+        verified.put(keyOf(rawPassword, encodedPassword), System.nanoTime());
+    }
+
+    private ByteBuffer keyOf(CharSequence rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.openframe.client.asset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToolAgentAssetFilterTest {
+
+    private static final long SIZE = 1000;
+    private static final long LAST_MODIFIED = 1_700_000_000_123L;
+    private static final ToolAgentAsset ASSET =
+            new ToolAgentAsset(Path.of("agent.exe"), "agent.exe", SIZE, LAST_MODIFIED, "\"abc\"");
+
+    @Test
+    void parsesClosedRange() {
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=100-199", SIZE)).containsExactly(100, 199);
+    }
+
+    @Test
+    void parsesOpenEndedRange() {
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=900-", SIZE)).containsExactly(900, 999);
+    }
+
+    @Test
+    void clampsEndToTheLastByte() {
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=500-5000", SIZE)).containsExactly(500, 999);
+    }
+
+    @Test
+    void parsesSuffixRange() {
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=-100", SIZE)).containsExactly(900, 999);
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=-5000", SIZE)).containsExactly(0, 999);
+    }
+
+    @Test
+    void rejectsUnsatisfiableRanges() {
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=1000-", SIZE)).isNull();
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=200-100", SIZE)).isNull();
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=-0", SIZE)).isNull();
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=0-", 0)).isNull();
+    }
+
+    @Test
+    void sendsWholeFileForMalformedOrMultipleRanges() {
+        assertThat(ToolAgentAssetFilter.parseRange("items=0-10", SIZE)).isEmpty();
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=0-10,20-30", SIZE)).isEmpty();
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=10", SIZE)).isEmpty();
+        assertThat(ToolAgentAssetFilter.parseRange("bytes=a-b", SIZE)).isEmpty();
+    }
+
+    @Test
+    void honoursRangeWithoutIfRange() {
+        assertThat(ToolAgentAssetFilter.ifRangeMatches(new MockHttpServletRequest(), ASSET)).isTrue();
+    }
+
+    @Test
+    void honoursRangeWhileEtagMatches() {
+        assertThat(ToolAgentAssetFilter.ifRangeMatches(ifRange("\"abc\""), ASSET)).isTrue();
+        assertThat(ToolAgentAssetFilter.ifRangeMatches(ifRange("\"old\""), ASSET)).isFalse();
+    }
+
+    @Test
+    void ignoresRangeForWeakEtags() {
+        assertThat(ToolAgentAssetFilter.ifRangeMatches(ifRange("W/\"abc\""), ASSET)).isFalse();
+    }
+
+    @Test
+    void honoursRangeWhileLastModifiedMatchesToTheSecond() {
+        assertThat(ToolAgentAssetFilter.ifRangeMatches(ifRange(httpDate(LAST_MODIFIED)), ASSET)).isTrue();
+        assertThat(ToolAgentAssetFilter.ifRangeMatches(ifRange(httpDate(LAST_MODIFIED - 60_000)), ASSET)).isFalse();
+    }
+
+    @Test
+    void ignoresRangeForMalformedIfRange() {
+        assertThat(ToolAgentAssetFilter.ifRangeMatches(ifRange("yesterday"), ASSET)).isFalse();
+    }
+
+    private static MockHttpServletRequest ifRange(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_RANGE, value);
+        return request;
+    }
+
+    private static String httpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,80 @@
+package com.openframe.client.heartbeat;
+
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MachineDocumentTest {
+
+    private final MongoMappingContext mappingContext = new MongoMappingContext();
+
+    MachineDocumentTest() {
+        mappingContext.setInitialEntitySet(Set.of(Machine.class));
+        mappingContext.afterPropertiesSet();
+    }
+
+    @Test
+    void resolvesCollectionAndFieldNamesFromTheMapping() {
+        MachineDocument document = MachineDocument.resolve(mappingContext, "Machine",
+                "machineId", "lastSeen", "status", "ONLINE");
+
+        assertThat(document).isEqualTo(new MachineDocument("devices", "machine_id", "last_seen", "status", "ONLINE"));
+    }
+
+    @Test
+    void failsOnAnUnmappedEntity() {
+        assertThatThrownBy(() -> MachineDocument.resolve(mappingContext, "Device",
+                "machineId", "lastSeen", "status", "ONLINE"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Device");
+    }
+
+    @Test
+    void failsOnAnUnmappedProperty() {
+        assertThatThrownBy(() -> MachineDocument.resolve(mappingContext, "Machine",
+                "machineId", "lastHeartbeat", "status", "ONLINE"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("lastHeartbeat");
+    }
+
+    @Test
+    void failsOnALastSeenPropertyThatIsNoDate() {
+        assertThatThrownBy(() -> MachineDocument.resolve(mappingContext, "Machine",
+                "machineId", "hostname", "status", "ONLINE"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not a date");
+    }
+
+    @Test
+    void failsOnAnUnknownOnlineStatus() {
+        assertThatThrownBy(() -> MachineDocument.resolve(mappingContext, "Machine",
+                "machineId", "lastSeen", "status", "CONNECTED"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("CONNECTED");
+    }
+
+    enum Status {
+        ONLINE,
+        OFFLINE
+    }
+
+    @Data
+    @Document("devices")
+    static class Machine {
+        private String id;
+        @Field("machine_id")
+        private String machineId;
+        private String hostname;
+        @Field("last_seen")
+        private Instant lastSeen;
+        private Status status;
+    }
+}
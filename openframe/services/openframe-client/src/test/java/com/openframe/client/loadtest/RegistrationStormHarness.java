@@ -0,0 +1,216 @@
+package com.openframe.client.loadtest;
+
+import com.openframe.client.config.PasswordHashingProperties;
+import com.openframe.client.security.BoundedPasswordEncoder;
+import com.openframe.client.security.BoundedPasswordEncoderBeanPostProcessor;
+import com.openframe.client.security.PasswordHashingRejections;
+import com.openframe.client.security.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays a registration storm, every agent re-registering and fetching a token at once after an
+ * outage, and reports latency percentiles including queueing.
+ * <p>
+ * By default the request path runs in process: BCrypt is real, Mongo and Redis are stand-ins with
+ * a bounded connection pool and a fixed round-trip latency. The storm is run twice, on a
+ * Tomcat-sized pool of platform threads with inline BCrypt and on virtual threads with BCrypt on
+ * {@link BoundedPasswordEncoder}, configured like {@code openframe.security.password-hashing} in
+ * production. Agents rejected with {@code 503} come back after {@code Retry-After}, and their
+ * latency includes the wait:
+ * <pre>
+ * mvn -pl openframe/services/openframe-client test-compile exec:java \
+ *     -Dexec.classpathScope=test -Dexec.mainClass=com.openframe.client.loadtest.RegistrationStormHarness \
+ *     -Dstorm.agents=5000
+ * </pre>
+ * With {@code -Dstorm.url=http://localhost:8097 -Dstorm.initialKey=...} the storm is sent to a
+ * running client service instead, e.g. one started against local Mongo and Redis containers.
+ */
+public class RegistrationStormHarness {
+
+    private static final int AGENTS = Integer.getInteger("storm.agents", 2000);
+    private static final int TOMCAT_THREADS = Integer.getInteger("storm.tomcatThreads", 200);
+    private static final int MONGO_POOL = Integer.getInteger("storm.mongoPool", 100);
+    private static final int REDIS_POOL = Integer.getInteger("storm.redisPool", 8);
+    private static final Duration MONGO_LATENCY = Duration.ofMillis(Long.getLong("storm.mongoLatencyMs", 3));
+    private static final Duration REDIS_LATENCY = Duration.ofMillis(Long.getLong("storm.redisLatencyMs", 1));
+    private static final String URL = System.getProperty("storm.url");
+    private static final String INITIAL_KEY = System.getProperty("storm.initialKey", "");
+    private static final int MAX_RETRIES = Integer.getInteger("storm.maxRetries", 10);
+
+    public static void main(String[] args) throws Exception {
+        if (URL != null) {
+            report("http " + URL, runHttp());
+            return;
+        }
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        String storedSecret = bcrypt.encode("agent-secret");
+
+        ExecutorService tomcat = Executors.newFixedThreadPool(TOMCAT_THREADS);
+        report("platform threads (" + TOMCAT_THREADS + "), inline BCrypt",
+                runInProcess(tomcat, bcrypt, storedSecret));
+        tomcat.shutdown();
+
+        PasswordHashingProperties hashingProperties = new PasswordHashingProperties();
+        int threads = BoundedPasswordEncoderBeanPostProcessor.threads(hashingProperties);
+        ExecutorService hashing = Executors.newFixedThreadPool(threads);
+        PasswordEncoder bounded = new BoundedPasswordEncoder(bcrypt, hashing,
+                threads + hashingProperties.getMaxQueued(), hashingProperties.getTimeout(),
+                hashingProperties.getRetryAfter(), new SimpleMeterRegistry());
+        ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
+        report("virtual threads, BCrypt on " + threads + " threads, " + hashingProperties.getMaxQueued()
+                        + " queued, " + hashingProperties.getTimeout() + " timeout",
+                runInProcess(virtual, bounded, storedSecret));
+        virtual.shutdown();
+        hashing.shutdown();
+    }
+
+    /**
+     * Registration (Redis key check, Mongo lookup and two inserts, secret hashing) followed by a
+     * client_credentials token request (Mongo lookup, secret verification) per agent.
+     */
+    private static long[] runInProcess(ExecutorService executor, PasswordEncoder encoder, String storedSecret)
+            throws InterruptedException {
+        StandIn mongo = new StandIn(MONGO_POOL, MONGO_LATENCY);
+        StandIn redis = new StandIn(REDIS_POOL, REDIS_LATENCY);
+        return storm(executor, () -> {
+            try {
+                redis.call();
+                mongo.call();
+                encoder.encode(UUID.randomUUID().toString());
+                mongo.call();
+                mongo.call();
+                mongo.call();
+                if (!encoder.matches("agent-secret", storedSecret)) {
+                    throw new IllegalStateException("Secret mismatch");
+                }
+                return null;
+            } catch (PasswordHashingUnavailableException e) {
+                return Duration.ofSeconds(Long.parseLong(PasswordHashingRejections.retryAfter(e)));
+            }
+        });
+    }
+
+    private static long[] runHttp() throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            return storm(virtual, () -> {
+                String body = "{\"hostname\":\"storm-" + UUID.randomUUID() + "\",\"osType\":\"LINUX\"}";
+                HttpRequest request = HttpRequest.newBuilder(URI.create(URL + "/api/agents/register"))
+                        .header("Content-Type", "application/json")
+                        .header("X-Initial-Key", INITIAL_KEY)
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 503) {
+                    return Duration.ofSeconds(response.headers().firstValueAsLong("Retry-After").orElse(1));
+                }
+                if (response.statusCode() >= 500) {
+                    throw new IllegalStateException("Status " + response.statusCode());
+                }
+                return null;
+            });
+        } finally {
+            virtual.shutdown();
+        }
+    }
+
+    private static long[] storm(ExecutorService executor, Request request) throws InterruptedException {
+        long[] latencies = new long[AGENTS];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        Semaphore done = new Semaphore(0);
+        long released = System.nanoTime();
+        for (int i = 0; i < AGENTS; i++) {
+            int agent = i;
+            executor.execute(() -> {
+                try {
+                    Duration retryAfter = request.run();
+                    for (int retry = 0; retryAfter != null; retry++) {
+                        rejections.incrementAndGet();
+                        if (retry == MAX_RETRIES) {
+                            throw new IllegalStateException("Still rejected after " + MAX_RETRIES + " retries");
+                        }
+                        TimeUnit.NANOSECONDS.sleep(retryAfter.toNanos());
+                        retryAfter = request.run();
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[agent] = System.nanoTime() - released;
+                    done.release();
+                }
+            });
+        }
+        done.acquire(AGENTS);
+        if (rejections.get() > 0) {
+            System.out.println("  rejected with 503 and retried: " + rejections.get());
+        }
+        if (failures.get() > 0) {
+            System.out.println("  failed requests: " + failures.get());
+        }
+        return latencies;
+    }
+
+    private static void report(String mode, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%s: %d agents, p50 %d ms, p95 %d ms, p99 %d ms, max %d ms%n", mode, sorted.length,
+                millis(sorted, 0.50), millis(sorted, 0.95), millis(sorted, 0.99),
+                TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length - 1]));
+    }
+
+    private static long millis(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(index, 0)]);
+    }
+
+    @FunctionalInterface
+    private interface Request {
+
+        /**
+         * @return the {@code Retry-After} of a rejected request, or {@code null} once it succeeded
+         */
+        Duration run() throws Exception;
+    }
+
+    /**
+     * A datastore reduced to what matters under a storm: a bounded connection pool and a round trip.
+     */
+    private static final class StandIn {
+
+        private final Semaphore pool;
+        private final long latencyNanos;
+
+        private StandIn(int poolSize, Duration latency) {
+            this.pool = new Semaphore(poolSize, true);
+            this.latencyNanos = latency.toNanos();
+        }
+
+        private void call() throws InterruptedException {
+            pool.acquire();
+            try {
+                long jitter = latencyNanos == 0 ? 0 : ThreadLocalRandom.current().nextLong(latencyNanos / 2 + 1);
+                TimeUnit.NANOSECONDS.sleep(latencyNanos + jitter);
+            } finally {
+                pool.release();
+            }
+        }
+    }
+}
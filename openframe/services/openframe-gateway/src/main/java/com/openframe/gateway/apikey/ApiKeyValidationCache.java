@@ -0,0 +1,326 @@
+package com.openframe.gateway.apikey;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.openframe.gateway.config.ApiKeyCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Local cache of API key validation results, so {@code ApiKeyAuthenticationFilter} only asks the
+ * key store for keys it has not seen within {@code ttl}.
+ * <p>
+ * Entries are keyed by the SHA-256 of the presented key, so no secret is held in memory, and
+ * hold whatever the validation service returned for it: the key's metadata, owner and limits.
+ * Only successful validations are kept; unknown, revoked and expired keys are validated again
+ * on every request, though concurrent requests with the same key share one validation. An
+ * entry lives at most {@code ttl}, or until the key's own expiry if that comes first. Cached
+ * results can also be looked up by key id, which the rate limiter does for per-key limits.
+ * <p>
+ * openframe-api publishes the id of every revoked, updated or regenerated key to the
+ * invalidation channel; entries of that key are dropped on every replica. A validation that
+ * was in flight while any invalidation arrived is returned but not cached.
+ */
+@Slf4j
+public class ApiKeyValidationCache implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "openframe.api-key.cache";
+    private static final String INVALIDATE_ALL = "*";
+    private static final String KEY_ID_PREFIX = "ak_";
+    private static final char SECRET_SEPARATOR = '.';
+    private static final String[] KEY_ID_PROPERTIES = {"keyId", "id"};
+    private static final String[] NESTED_KEY_PROPERTIES = {"apiKey", "key"};
+    private static final String VALID_PROPERTY = "valid";
+    private static final String EXPIRES_AT_PROPERTY = "expiresAt";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ApiKeyCacheProperties properties;
+    private final AsyncCache<String, Validation> cache;
+    private final Map<String, Validation> validationsByKeyId = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter invalidatedKeys;
+    private Disposable subscription;
+    private volatile boolean running;
+
+    public ApiKeyValidationCache(ReactiveStringRedisTemplate redisTemplate,
+                                 ApiKeyCacheProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new ValidationExpiry())
+                .removalListener((String hash, Validation validation, RemovalCause cause) -> forget(validation))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "api-key-validation");
+        Gauge.builder(METRIC_PREFIX + ".hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .description("Share of API key validations answered from the local cache")
+                .register(meterRegistry);
+        this.invalidatedKeys = Counter.builder(METRIC_PREFIX + ".invalidations")
+                .description("API key invalidation messages received from openframe-api")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param apiKey the key as presented by the client
+     * @param validation the validation service call, subscribed to on a miss only
+     */
+    public Mono<Object> get(String apiKey, Supplier<Mono<?>> validation) {
+        return Mono.defer(() -> {
+            String hash = hash(apiKey);
+            CompletableFuture<Validation> future = cache.get(hash, (key, executor) -> load(apiKey, validation));
+            return Mono.fromFuture(future, true)
+                    .doOnNext(loaded -> {
+                        if (!loaded.cacheable()) {
+                            cache.asMap().remove(hash, future);
+                        }
+                    })
+                    .flatMap(loaded -> Mono.justOrEmpty(loaded.result()));
+        });
+    }
+
+    /**
+     * @return the cached validation result of the key, e.g. for its limits, without validating it
+     */
+    public Optional<Object> find(String keyId) {
+        Validation validation = validationsByKeyId.get(keyId);
+        return Optional.ofNullable(validation != null ? unwrap(validation.result()) : null);
+    }
+
+    private CompletableFuture<Validation> load(String apiKey, Supplier<Mono<?>> validation) {
+        long invalidationsBefore = invalidations.get();
+        return validation.get()
+                .map(result -> toValidation(apiKey, result, invalidationsBefore))
+                .defaultIfEmpty(new Validation(null, Set.of(), Duration.ZERO, false))
+                .toFuture();
+    }
+
+    private Validation toValidation(String apiKey, Object result, long invalidationsBefore) {
+        Object value = unwrap(result);
+        Set<String> keyIds = keyIdsOf(apiKey, value);
+        Duration ttl = ttlOf(value);
+        boolean cacheable = value != null
+                && !Boolean.FALSE.equals(property(value, VALID_PROPERTY))
+                && ttl.isPositive()
+                && invalidations.get() == invalidationsBefore;
+        Validation validation = new Validation(result, keyIds, ttl, cacheable);
+        if (cacheable) {
+            keyIds.forEach(keyId -> validationsByKeyId.put(keyId, validation));
+        }
+        return validation;
+    }
+
+    private void forget(Validation validation) {
+        if (validation != null) {
+            validation.keyIds().forEach(keyId -> validationsByKeyId.remove(keyId, validation));
+        }
+    }
+
+    private static Object unwrap(Object result) {
+        return result instanceof Optional<?> optional ? optional.orElse(null) : result;
+    }
+
+    public void invalidate(String keyId) {
+        invalidations.incrementAndGet();
+        invalidatedKeys.increment();
+        if (INVALIDATE_ALL.equals(keyId)) {
+            cache.synchronous().invalidateAll();
+            return;
+        }
+        cache.asMap().forEach((hash, future) -> {
+            Validation validation = future.getNow(null);
+            if (validation != null && validation.keyIds().contains(keyId)) {
+                cache.asMap().remove(hash, future);
+            }
+        });
+        log.debug("Invalidated cached validations of API key {}", keyId);
+    }
+
+    private void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * The id in the {@code ak_<keyId>.sk_<secret>} key format, with and without its prefix, plus
+     * the id reported by the validation result, so invalidations match whichever form
+     * openframe-api publishes.
+     */
+    private static Set<String> keyIdsOf(String apiKey, Object value) {
+        Set<String> keyIds = new HashSet<>();
+        int separator = apiKey.indexOf(SECRET_SEPARATOR);
+        if (separator > 0) {
+            String keyId = apiKey.substring(0, separator);
+            keyIds.add(keyId);
+            if (keyId.startsWith(KEY_ID_PREFIX)) {
+                keyIds.add(keyId.substring(KEY_ID_PREFIX.length()));
+            }
+        }
+        if (value != null) {
+            addKeyIds(value, keyIds);
+            for (String nested : NESTED_KEY_PROPERTIES) {
+                Object key = property(value, nested);
+                if (key != null) {
+                    addKeyIds(key, keyIds);
+                }
+            }
+        }
+        return Set.copyOf(keyIds);
+    }
+
+    private static void addKeyIds(Object value, Set<String> keyIds) {
+        for (String name : KEY_ID_PROPERTIES) {
+            if (property(value, name) instanceof String keyId) {
+                keyIds.add(keyId);
+            }
+        }
+    }
+
+    private Duration ttlOf(Object value) {
+        Duration ttl = properties.getTtl();
+        if (value == null) {
+            return ttl;
+        }
+        Instant expiresAt = expiresAtOf(value);
+        for (int i = 0; expiresAt == null && i < NESTED_KEY_PROPERTIES.length; i++) {
+            Object key = property(value, NESTED_KEY_PROPERTIES[i]);
+            expiresAt = key != null ? expiresAtOf(key) : null;
+        }
+        if (expiresAt == null) {
+            return ttl;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), expiresAt);
+        return untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+    }
+
+    private static Instant expiresAtOf(Object value) {
+        Object expiresAt = property(value, EXPIRES_AT_PROPERTY);
+        if (expiresAt instanceof Instant instant) {
+            return instant;
+        }
+        if (expiresAt instanceof LocalDateTime dateTime) {
+            return dateTime.toInstant(ZoneOffset.UTC);
+        }
+        if (expiresAt instanceof OffsetDateTime dateTime) {
+            return dateTime.toInstant();
+        }
+        if (expiresAt instanceof ZonedDateTime dateTime) {
+            return dateTime.toInstant();
+        }
+        if (expiresAt instanceof Date date) {
+            return date.toInstant();
+        }
+        return null;
+    }
+
+    /**
+     * Reads a bean property or record component, {@code null} when there is none.
+     */
+    private static Object property(Object value, String name) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(value);
+        if (wrapper.isReadableProperty(name)) {
+            return wrapper.getPropertyValue(name);
+        }
+        Method accessor = ReflectionUtils.findMethod(value.getClass(), name);
+        if (accessor == null || accessor.getReturnType() == void.class) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(accessor);
+        return ReflectionUtils.invokeMethod(accessor, value);
+    }
+
+    private static String hash(String apiKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(apiKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void start() {
+        subscription = redisTemplate.listenToChannel(properties.getInvalidationChannel())
+                .doOnNext(message -> invalidate(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getResubscribeMinBackoff())
+                        .maxBackoff(properties.getResubscribeMaxBackoff())
+                        .doBeforeRetry(signal -> {
+                            log.warn("Lost API key invalidation channel, dropping cached validations",
+                                    signal.failure());
+                            invalidateAll();
+                        }))
+                .subscribe();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Validation(Object result, Set<String> keyIds, Duration ttl, boolean cacheable) {
+    }
+
+    /**
+     * Failed and empty validations expire as soon as their future completes.
+     */
+    private static final class ValidationExpiry implements Expiry<String, Validation> {
+
+        @Override
+        public long expireAfterCreate(String key, Validation value, long currentTime) {
+            return value.cacheable() ? value.ttl().toNanos() : 0;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Validation value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Validation value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
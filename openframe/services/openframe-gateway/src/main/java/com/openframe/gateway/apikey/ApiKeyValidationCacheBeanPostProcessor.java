@@ -0,0 +1,67 @@
+package com.openframe.gateway.apikey;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+
+/**
+ * Answers {@code ApiKeyValidationService} validations, called by {@code ApiKeyAuthenticationFilter}
+ * with the raw {@code X-API-Key} header, from the {@link ApiKeyValidationCache}. Only
+ * {@code validate*} methods returning a {@link Mono} with the key as their single argument are
+ * cached; every other method is passed through untouched.
+ */
+@RequiredArgsConstructor
+public class ApiKeyValidationCacheBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String SERVICE_CLASS = "ApiKeyValidationService";
+    private static final String VALIDATE_METHOD_PREFIX = "validate";
+
+    private final ObjectProvider<ApiKeyValidationCache> cache;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!SERVICE_CLASS.equals(AopUtils.getTargetClass(bean).getSimpleName())) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(cachingInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(cachingInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor cachingInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            if (!isValidation(method) || !(args[0] instanceof String apiKey) || apiKey.isBlank()) {
+                return invocation.proceed();
+            }
+            return cache.getObject().get(apiKey, () -> {
+                try {
+                    return (Mono<?>) invocation.proceed();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        };
+    }
+
+    private static boolean isValidation(Method method) {
+        return method.getName().startsWith(VALIDATE_METHOD_PREFIX)
+                && Mono.class.equals(method.getReturnType())
+                && method.getParameterCount() == 1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.openframe.gateway.config;
+
+import com.openframe.gateway.apikey.ApiKeyValidationCache;
+import com.openframe.gateway.apikey.ApiKeyValidationCacheBeanPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * Local API key validation cache invalidated over Redis pub/sub, enabled with
+ * {@code openframe.api-key-cache.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.api-key-cache", name = "enabled", havingValue = "true")
+public class ApiKeyCacheConfig {
+
+    @Bean
+    public static ApiKeyValidationCacheBeanPostProcessor apiKeyValidationCacheBeanPostProcessor(
+            ObjectProvider<ApiKeyValidationCache> cache) {
+        return new ApiKeyValidationCacheBeanPostProcessor(cache);
+    }
+
+    @Bean
+    public ApiKeyValidationCache apiKeyValidationCache(ReactiveStringRedisTemplate redisTemplate,
+                                                       ApiKeyCacheProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new ApiKeyValidationCache(redisTemplate, properties, meterRegistry);
+    }
+}
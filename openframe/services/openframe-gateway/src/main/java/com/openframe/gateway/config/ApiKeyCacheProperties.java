@@ -0,0 +1,35 @@
+package com.openframe.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.api-key-cache")
+public class ApiKeyCacheProperties {
+
+    private boolean enabled = false;
+
+    private long maximumSize = 10000;
+
+    /**
+     * Upper bound on how long a validated key is trusted without asking the key store again,
+     * should an invalidation message be lost. Shortened to the key's own expiry when it has one.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Redis channel openframe-api publishes revoked, updated and regenerated key ids to.
+     */
+    private String invalidationChannel = "openframe:api-keys:invalidate";
+
+    /**
+     * Backoff bounds for resubscribing to the channel after Redis connection loss. The whole
+     * cache is dropped on every resubscription, as messages may have been missed meanwhile.
+     */
+    private Duration resubscribeMinBackoff = Duration.ofSeconds(1);
+    private Duration resubscribeMaxBackoff = Duration.ofSeconds(30);
+}
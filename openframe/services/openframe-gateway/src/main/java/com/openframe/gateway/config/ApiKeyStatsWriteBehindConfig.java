@@ -0,0 +1,32 @@
+package com.openframe.gateway.config;
+
+import com.openframe.gateway.stats.ApiKeyStatsAggregator;
+import com.openframe.gateway.stats.ApiKeyStatsWriteBehindBeanPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * In-memory API key statistics flushed to a Redis stream, enabled with
+ * {@code openframe.api-key-stats.write-behind.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.api-key-stats.write-behind", name = "enabled", havingValue = "true")
+public class ApiKeyStatsWriteBehindConfig {
+
+    @Bean
+    public static ApiKeyStatsWriteBehindBeanPostProcessor apiKeyStatsWriteBehindBeanPostProcessor(
+            ObjectProvider<ApiKeyStatsAggregator> aggregator) {
+        return new ApiKeyStatsWriteBehindBeanPostProcessor(aggregator);
+    }
+
+    @Bean
+    public ApiKeyStatsAggregator apiKeyStatsAggregator(ReactiveStringRedisTemplate redisTemplate,
+                                                       ApiKeyStatsWriteBehindProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new ApiKeyStatsAggregator(redisTemplate, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.openframe.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.api-key-stats.write-behind")
+public class ApiKeyStatsWriteBehindProperties {
+
+    private boolean enabled = false;
+
+    private Duration flushInterval = Duration.ofSeconds(10);
+
+    /**
+     * Redis stream the deltas are appended to and openframe-management consumes.
+     */
+    private String streamKey = "api-key-stats:deltas";
+
+    /**
+     * Keys per stream entry, and entries sent to Redis without waiting for replies.
+     */
+    private int maxKeysPerEntry = 200;
+    private int pipelineDepth = 16;
+
+    /**
+     * openframe-management's consumer group; entries it acknowledged are trimmed after each flush.
+     */
+    private String consumerGroup = "openframe-management";
+
+    /**
+     * Cap of the stream, should openframe-management stop consuming it. Entries dropped to keep it
+     * were never applied and are counted in {@code openframe.api-key.stats.entries.dropped}.
+     */
+    private long maxStreamLength = 1_000_000;
+
+    /**
+     * Counters of keys without requests for this long are dropped from memory.
+     */
+    private Duration idleAfter = Duration.ofMinutes(10);
+
+    /**
+     * Counter (the {@code ApiKeyStats} field it is added to) → regex of the
+     * {@code ApiKeyStatsService} methods that increment it. A method may match several counters.
+     */
+    private Map<String, String> counters = new LinkedHashMap<>(Map.of(
+            "totalRequests", "increment(Total)?Requests?|record(Successful|Failed)?Request",
+            "successfulRequests", "increment(Successful|Success)Requests?|recordSuccess(ful)?Request",
+            "failedRequests", "increment(Failed|Failure)Requests?|recordFail(ed|ure)Request"));
+
+    private String lastUsedField = "lastUsed";
+}
@@ -0,0 +1,34 @@
+package com.openframe.gateway.config;
+
+import com.openframe.gateway.apikey.ApiKeyValidationCache;
+import com.openframe.gateway.ratelimit.LeasedRateLimitBeanPostProcessor;
+import com.openframe.gateway.ratelimit.LeasedRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * Local, Redis-leased API key rate limiting, enabled with {@code openframe.rate-limit.lease.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.rate-limit.lease", name = "enabled", havingValue = "true")
+public class RateLimitLeaseConfig {
+
+    @Bean
+    public static LeasedRateLimitBeanPostProcessor leasedRateLimitBeanPostProcessor(
+            ObjectProvider<LeasedRateLimiter> limiter,
+            ObjectProvider<RateLimitLeaseProperties> properties,
+            ObjectProvider<ApiKeyValidationCache> validationCache) {
+        return new LeasedRateLimitBeanPostProcessor(limiter, properties, validationCache);
+    }
+
+    @Bean
+    public LeasedRateLimiter leasedRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                               RateLimitLeaseProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new LeasedRateLimiter(redisTemplate, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,93 @@
+package com.openframe.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.rate-limit.lease")
+public class RateLimitLeaseProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Limits of keys whose metadata does not carry its own.
+     */
+    private long requestsPerMinute = 5;
+    private long requestsPerHour = 1000;
+    private long requestsPerDay = 10000;
+
+    /**
+     * Properties of the key metadata, or of its nested {@code apiKey}/{@code key}, holding the
+     * key's own limit per window ({@code minute}, {@code hour}, {@code day}); the first positive
+     * one wins. The metadata is the rate limit service's key argument, or the key's validation
+     * result from the API key cache.
+     */
+    private Map<String, List<String>> keyLimitProperties = new LinkedHashMap<>(Map.of(
+            "minute", List.of("requestsPerMinute", "rateLimitPerMinute"),
+            "hour", List.of("requestsPerHour", "rateLimitPerHour"),
+            "day", List.of("requestsPerDay", "rateLimitPerDay")));
+
+    /**
+     * Share of a window's limit leased from Redis at once, between 1 and {@code max-chunk}
+     * requests. Bounds how much quota a replica can hold without using it.
+     */
+    private double chunkRatio = 0.05;
+    private long maxChunk = 100;
+
+    /**
+     * The next chunk is leased in the background once local tokens drop to this share of a chunk.
+     */
+    private double prefetchRatio = 0.25;
+
+    private String keyPrefix = "rate-limit:lease";
+
+    /**
+     * How often quota leased for keys idle longer than {@code idle-after} is returned to Redis.
+     */
+    private Duration reconcileInterval = Duration.ofSeconds(30);
+    private Duration idleAfter = Duration.ofSeconds(60);
+
+    /**
+     * Allow requests when Redis cannot be reached.
+     */
+    private boolean failOpen = true;
+
+    /**
+     * {@code RateLimitService} methods returning the key's rate limit status, answered from the
+     * local buckets as the counters the library reads are no longer written.
+     */
+    private String statusMethodPattern = "get.*Status";
+
+    /**
+     * Status properties set per window, by status field ({@code limit}, {@code used},
+     * {@code remaining}, {@code reset}); {@code {window}} is replaced by the window name. Properties
+     * the status type does not have are skipped.
+     */
+    private Map<String, String> statusProperties = new LinkedHashMap<>(Map.of(
+            "limit", "{window}Limit",
+            "used", "{window}Requests",
+            "remaining", "{window}Remaining",
+            "reset", "{window}Reset"));
+
+    /**
+     * {@code RateLimitService} methods adding rate limit headers for a key id to a response,
+     * answered from the local buckets.
+     */
+    private String headerMethodPattern = "add.*Headers";
+
+    /**
+     * Response headers set per window, by status field; {@code {Window}} is replaced by the
+     * capitalized window name.
+     */
+    private Map<String, String> headers = new LinkedHashMap<>(Map.of(
+            "limit", "X-RateLimit-Limit-{Window}",
+            "remaining", "X-RateLimit-Remaining-{Window}",
+            "reset", "X-RateLimit-Reset-{Window}"));
+}
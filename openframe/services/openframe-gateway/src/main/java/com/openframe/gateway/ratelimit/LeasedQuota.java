@@ -0,0 +1,95 @@
+package com.openframe.gateway.ratelimit;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cluster-wide quota of one API key and window, handed out in chunks from a Redis counter.
+ * <p>
+ * The counter holds everything leased in the window by all gateway replicas and never exceeds
+ * the limit: a chunk that does not fit entirely is cut down to what is left. Tokens leased by a
+ * replica that stops using the key are handed back with {@link #release}.
+ */
+class LeasedQuota {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LEASE = RedisScript.of(new ByteArrayResource("""
+            local leased = redis.call('INCRBY', KEYS[1], ARGV[1])
+            if leased == tonumber(ARGV[1]) then
+              redis.call('EXPIRE', KEYS[1], ARGV[3])
+            end
+            local over = leased - tonumber(ARGV[2])
+            if over <= 0 then
+              return {tonumber(ARGV[1]), leased}
+            end
+            local granted = math.max(tonumber(ARGV[1]) - over, 0)
+            leased = redis.call('DECRBY', KEYS[1], tonumber(ARGV[1]) - granted)
+            return {granted, leased}
+            """.getBytes(StandardCharsets.UTF_8)), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+
+    LeasedQuota(ReactiveStringRedisTemplate redisTemplate, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * @return the tokens granted, fewer than {@code tokens} once the window's limit is reached
+     */
+    Mono<Lease> lease(String apiKeyId, Window window, long windowStart, long tokens, long limit) {
+        return redisTemplate.execute(LEASE, List.of(key(apiKeyId, window, windowStart)),
+                        List.of(Long.toString(tokens), Long.toString(limit), Long.toString(window.seconds() * 2)))
+                .next()
+                .map(reply -> new Lease(((Number) reply.get(0)).longValue(), ((Number) reply.get(1)).longValue()))
+                .defaultIfEmpty(new Lease(0, limit));
+    }
+
+    Mono<Long> release(String apiKeyId, Window window, long windowStart, long tokens) {
+        return redisTemplate.opsForValue().decrement(key(apiKeyId, window, windowStart), tokens);
+    }
+
+    private String key(String apiKeyId, Window window, long windowStart) {
+        return keyPrefix + ":" + apiKeyId + ":" + window.label() + ":" + windowStart;
+    }
+
+    /**
+     * @param granted tokens handed to this replica
+     * @param leased tokens leased in the window by all replicas, this lease included
+     */
+    record Lease(long granted, long leased) {
+    }
+
+    enum Window {
+        MINUTE("minute", Duration.ofMinutes(1)),
+        HOUR("hour", Duration.ofHours(1)),
+        DAY("day", Duration.ofDays(1));
+
+        private final String label;
+        private final long seconds;
+
+        Window(String label, Duration length) {
+            this.label = label;
+            this.seconds = length.toSeconds();
+        }
+
+        String label() {
+            return label;
+        }
+
+        long seconds() {
+            return seconds;
+        }
+
+        long startOf(long epochSecond) {
+            return epochSecond - epochSecond % seconds;
+        }
+    }
+}
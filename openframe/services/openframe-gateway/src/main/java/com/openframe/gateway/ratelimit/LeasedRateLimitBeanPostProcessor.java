@@ -0,0 +1,206 @@
+package com.openframe.gateway.ratelimit;
+
+import com.openframe.gateway.apikey.ApiKeyValidationCache;
+import com.openframe.gateway.config.RateLimitLeaseProperties;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers the {@code RateLimitService} calls of {@code ApiKeyAuthenticationFilter}, made for every
+ * {@code /external-api/**} request, from the {@link LeasedRateLimiter} instead of Redis:
+ * <ul>
+ *     <li>{@code isAllowed(...)} takes a token from the key's local buckets;</li>
+ *     <li>status methods ({@code status-method-pattern}) return the library's status type filled
+ *     in from the buckets;</li>
+ *     <li>header methods ({@code header-method-pattern}) taking a key id and the response set the
+ *     configured headers from the buckets.</li>
+ * </ul>
+ * The library's own counters are no longer written, so none of these may read them. The API key
+ * id is the first String argument or the {@code keyId}/{@code id} of the first argument. Per-key
+ * limits are read from a key argument that is not a String, or else from the key's validation
+ * result in the {@link ApiKeyValidationCache}. Every other method is passed through untouched.
+ */
+@RequiredArgsConstructor
+public class LeasedRateLimitBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String SERVICE_CLASS = "RateLimitService";
+    private static final String IS_ALLOWED_METHOD = "isAllowed";
+    private static final List<String> KEY_ID_PROPERTIES = List.of("keyId", "id");
+
+    private final ObjectProvider<LeasedRateLimiter> limiter;
+    private final ObjectProvider<RateLimitLeaseProperties> properties;
+    private final ObjectProvider<ApiKeyValidationCache> validationCache;
+    private final Map<Method, Call> calls = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!SERVICE_CLASS.equals(AopUtils.getTargetClass(bean).getSimpleName())) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(limitingInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(limitingInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor limitingInterceptor() {
+        return invocation -> {
+            Object[] args = invocation.getArguments();
+            RateLimitLeaseProperties lease = properties.getObject();
+            Call call = calls.computeIfAbsent(invocation.getMethod(), method -> classify(method, lease));
+            String apiKeyId = call != Call.OTHER && call != Call.HEADERS ? apiKeyIdOf(args[0]) : null;
+            return switch (call) {
+                case IS_ALLOWED -> apiKeyId != null
+                        ? limiter.getObject().isAllowed(apiKeyId, metadataOf(apiKeyId, args[0]))
+                        : invocation.proceed();
+                case STATUS -> apiKeyId != null ? status(invocation, apiKeyId, args[0], lease) : invocation.proceed();
+                case HEADERS -> headers(invocation, lease);
+                case OTHER -> invocation.proceed();
+            };
+        };
+    }
+
+    private static Call classify(Method method, RateLimitLeaseProperties lease) {
+        boolean mono = Mono.class.equals(method.getReturnType()) && method.getParameterCount() > 0;
+        if (mono && IS_ALLOWED_METHOD.equals(method.getName())) {
+            return Call.IS_ALLOWED;
+        }
+        if (mono && method.getName().matches(lease.getStatusMethodPattern())) {
+            return Call.STATUS;
+        }
+        if (method.getName().matches(lease.getHeaderMethodPattern()) && returnsNothing(method)) {
+            return Call.HEADERS;
+        }
+        return Call.OTHER;
+    }
+
+    /**
+     * Fills a new instance of the status type, or the library's own status when the type cannot
+     * be instantiated.
+     */
+    @SuppressWarnings("unchecked")
+    private Object status(MethodInvocation invocation, String apiKeyId, Object keyArgument, RateLimitLeaseProperties lease)
+            throws Throwable {
+        List<LeasedRateLimiter.WindowStatus> windows = limiter.getObject().status(apiKeyId, metadataOf(apiKeyId, keyArgument));
+        Class<?> type = ResolvableType.forMethodReturnType(invocation.getMethod()).getGeneric(0).resolve();
+        Constructor<?> constructor = type != null && !type.isInterface() ? ClassUtils.getConstructorIfAvailable(type) : null;
+        if (constructor == null) {
+            return ((Mono<Object>) invocation.proceed()).map(status -> fill(status, windows, lease.getStatusProperties()));
+        }
+        return Mono.just(fill(BeanUtils.instantiateClass(constructor), windows, lease.getStatusProperties()));
+    }
+
+    private static Object fill(Object status, List<LeasedRateLimiter.WindowStatus> windows, Map<String, String> names) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(status);
+        for (LeasedRateLimiter.WindowStatus window : windows) {
+            names.forEach((field, pattern) -> {
+                String name = pattern.replace("{window}", window.window());
+                if (wrapper.isWritableProperty(name)) {
+                    wrapper.setPropertyValue(name, window.value(field));
+                }
+            });
+        }
+        return status;
+    }
+
+    private Object headers(MethodInvocation invocation, RateLimitLeaseProperties lease) throws Throwable {
+        Object[] args = invocation.getArguments();
+        HttpHeaders headers = null;
+        String apiKeyId = null;
+        Object keyArgument = null;
+        for (Object argument : args) {
+            HttpHeaders candidate = headersOf(argument);
+            if (candidate != null) {
+                headers = headers != null ? headers : candidate;
+            } else if (apiKeyId == null) {
+                apiKeyId = apiKeyIdOf(argument);
+                keyArgument = argument;
+            }
+        }
+        if (headers == null || apiKeyId == null) {
+            return invocation.proceed();
+        }
+        for (LeasedRateLimiter.WindowStatus window : limiter.getObject().status(apiKeyId, metadataOf(apiKeyId, keyArgument))) {
+            HttpHeaders target = headers;
+            lease.getHeaders().forEach((field, pattern) -> target.set(
+                    pattern.replace("{Window}", StringUtils.capitalize(window.window())),
+                    Long.toString(window.value(field))));
+        }
+        return invocation.getMethod().getReturnType() == void.class ? null : Mono.empty();
+    }
+
+    private Object metadataOf(String apiKeyId, Object keyArgument) {
+        if (keyArgument != null && !(keyArgument instanceof String)) {
+            return keyArgument;
+        }
+        ApiKeyValidationCache cache = validationCache.getIfAvailable();
+        return cache != null ? cache.find(apiKeyId).orElse(null) : null;
+    }
+
+    private static HttpHeaders headersOf(Object argument) {
+        if (argument instanceof HttpHeaders headers) {
+            return headers;
+        }
+        if (argument instanceof ServerHttpResponse response) {
+            return response.getHeaders();
+        }
+        if (argument instanceof ServerWebExchange exchange) {
+            return exchange.getResponse().getHeaders();
+        }
+        return null;
+    }
+
+    /**
+     * {@code void} or {@code Mono<Void>}, so the call can be answered without the library.
+     */
+    private static boolean returnsNothing(Method method) {
+        return method.getReturnType() == void.class
+                || Mono.class.equals(method.getReturnType())
+                && ResolvableType.forMethodReturnType(method).getGeneric(0).resolve() == Void.class;
+    }
+
+    private static String apiKeyIdOf(Object argument) {
+        if (argument instanceof String apiKeyId) {
+            return apiKeyId;
+        }
+        if (argument == null) {
+            return null;
+        }
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(argument);
+        for (String property : KEY_ID_PROPERTIES) {
+            if (wrapper.isReadableProperty(property) && wrapper.getPropertyValue(property) instanceof String apiKeyId) {
+                return apiKeyId;
+            }
+        }
+        return null;
+    }
+
+    private enum Call {
+        IS_ALLOWED, STATUS, HEADERS, OTHER
+    }
+}
@@ -0,0 +1,440 @@
+package com.openframe.gateway.ratelimit;
+
+import com.openframe.gateway.config.RateLimitLeaseProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per API key minute/hour/day limits enforced from local token buckets.
+ * <p>
+ * Each bucket is filled with chunks leased from {@link LeasedQuota}. A request only takes one
+ * token from each of the key's buckets in memory; the next chunk is leased in the background
+ * before a bucket runs dry, so Redis stays off the request path except for a key's first request
+ * in a window and for keys consuming faster than a chunk per Redis round trip. Requests finding a
+ * bucket empty wait for its pending lease, which is sized to the number of waiting requests, and
+ * are only rejected once Redis reports the window's limit used up; the key is then rejected
+ * locally until the window rolls over.
+ * <p>
+ * The limits hold cluster-wide: Redis never leases more than the limit. The error is one-sided
+ * and bounded: at most {@code replicas × chunk} requests of a window can go unadmitted because
+ * their tokens sit unused on another replica. Tokens of keys idle for {@code idle-after} are
+ * returned to Redis by a periodic reconciliation.
+ * <p>
+ * Limits come from the key's metadata when it carries them, and from the configured defaults
+ * otherwise.
+ */
+@Slf4j
+public class LeasedRateLimiter implements SmartLifecycle {
+
+    private static final LeasedQuota.Window[] WINDOWS = LeasedQuota.Window.values();
+    private static final String[] NESTED_KEY_PROPERTIES = {"apiKey", "key"};
+
+    private final LeasedQuota quota;
+    private final RateLimitLeaseProperties properties;
+    private final Limits defaultLimits;
+    private final Map<String, KeyBuckets> keys = new ConcurrentHashMap<>();
+    private final Counter leases;
+    private final Counter rejected;
+    private Disposable reconciliation;
+    private volatile boolean running;
+
+    public LeasedRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                             RateLimitLeaseProperties properties,
+                             MeterRegistry meterRegistry) {
+        this(new LeasedQuota(redisTemplate, properties.getKeyPrefix()), properties, meterRegistry);
+    }
+
+    LeasedRateLimiter(LeasedQuota quota, RateLimitLeaseProperties properties, MeterRegistry meterRegistry) {
+        this.quota = quota;
+        this.properties = properties;
+        this.defaultLimits = limits(new long[]{
+                properties.getRequestsPerMinute(), properties.getRequestsPerHour(), properties.getRequestsPerDay()});
+        this.leases = Counter.builder("openframe.rate-limit.leases")
+                .description("Quota chunks leased from Redis")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("openframe.rate-limit.rejected")
+                .description("Requests rejected by the local rate limiter")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("openframe.rate-limit.keys", List.of(), keys);
+    }
+
+    /**
+     * @param metadata the key's metadata, read for per-key limits; {@code null} for the defaults
+     */
+    public Mono<Boolean> isAllowed(String apiKeyId, Object metadata) {
+        KeyBuckets buckets = buckets(apiKeyId, metadata);
+        buckets.lastUsed = System.nanoTime();
+        return acquire(buckets);
+    }
+
+    /**
+     * Usage of the key in the current windows. {@code used} counts everything leased cluster-wide
+     * minus what this replica holds unused, so it can run ahead of the requests actually served.
+     */
+    public List<WindowStatus> status(String apiKeyId, Object metadata) {
+        KeyBuckets buckets = buckets(apiKeyId, metadata);
+        long now = Instant.now().getEpochSecond();
+        List<WindowStatus> status = new ArrayList<>(WINDOWS.length);
+        for (Bucket bucket : buckets.buckets) {
+            status.add(bucket.status(now));
+        }
+        return status;
+    }
+
+    private KeyBuckets buckets(String apiKeyId, Object metadata) {
+        KeyBuckets buckets = keys.computeIfAbsent(apiKeyId, KeyBuckets::new);
+        buckets.useLimitsOf(metadata);
+        return buckets;
+    }
+
+    private Mono<Boolean> acquire(KeyBuckets buckets) {
+        long now = Instant.now().getEpochSecond();
+        int empty = buckets.tryAcquire(now);
+        if (empty < 0) {
+            buckets.prefetch(now);
+            return Mono.just(Boolean.TRUE);
+        }
+        Mono<Void> refill = buckets.buckets[empty].awaitRefill(now);
+        if (refill == null) {
+            rejected.increment();
+            return Mono.just(Boolean.FALSE);
+        }
+        return refill
+                .then(Mono.defer(() -> acquire(buckets)))
+                .onErrorResume(e -> {
+                    log.warn("Failed to lease rate limit quota for API key {}", buckets.apiKeyId, e);
+                    return Mono.just(properties.isFailOpen());
+                });
+    }
+
+    void reconcile() {
+        long idleBefore = System.nanoTime() - properties.getIdleAfter().toNanos();
+        long now = Instant.now().getEpochSecond();
+        List<Mono<Long>> releases = new ArrayList<>();
+        for (KeyBuckets buckets : keys.values()) {
+            if (buckets.lastUsed - idleBefore < 0 && keys.remove(buckets.apiKeyId, buckets)) {
+                for (Bucket bucket : buckets.buckets) {
+                    bucket.drain(now, releases);
+                }
+            }
+        }
+        if (!releases.isEmpty()) {
+            Flux.merge(releases)
+                    .doOnError(e -> log.warn("Failed to return unused rate limit quota", e))
+                    .onErrorComplete()
+                    .subscribe();
+        }
+    }
+
+    /**
+     * Per-window limits from {@code key-limit-properties} of the metadata, or of its nested
+     * {@code apiKey}/{@code key}; windows without a positive limit there keep the default.
+     */
+    private Limits limitsOf(Object metadata) {
+        if (metadata == null) {
+            return defaultLimits;
+        }
+        long[] limits = defaultLimits.limits().clone();
+        boolean found = false;
+        for (int i = 0; i < WINDOWS.length; i++) {
+            Long limit = limitOf(metadata, properties.getKeyLimitProperties().get(WINDOWS[i].label()));
+            if (limit != null) {
+                limits[i] = limit;
+                found = true;
+            }
+        }
+        return found ? limits(limits) : defaultLimits;
+    }
+
+    private static Long limitOf(Object metadata, List<String> names) {
+        if (names == null) {
+            return null;
+        }
+        Long limit = firstLimit(metadata, names);
+        for (int i = 0; limit == null && i < NESTED_KEY_PROPERTIES.length; i++) {
+            Object key = property(metadata, NESTED_KEY_PROPERTIES[i]);
+            limit = key != null ? firstLimit(key, names) : null;
+        }
+        return limit;
+    }
+
+    private static Long firstLimit(Object value, List<String> names) {
+        for (String name : names) {
+            if (property(value, name) instanceof Number limit && limit.longValue() > 0) {
+                return limit.longValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a bean property or record component, {@code null} when there is none.
+     */
+    private static Object property(Object value, String name) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(value);
+        if (wrapper.isReadableProperty(name)) {
+            return wrapper.getPropertyValue(name);
+        }
+        Method accessor = ReflectionUtils.findMethod(value.getClass(), name);
+        if (accessor == null || accessor.getReturnType() == void.class) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(accessor);
+        return ReflectionUtils.invokeMethod(accessor, value);
+    }
+
+    private Limits limits(long[] limits) {
+        long[] chunks = new long[WINDOWS.length];
+        long[] prefetchBelow = new long[WINDOWS.length];
+        for (int i = 0; i < WINDOWS.length; i++) {
+            chunks[i] = Math.max(1, Math.min(properties.getMaxChunk(), (long) (limits[i] * properties.getChunkRatio())));
+            prefetchBelow[i] = (long) Math.ceil(chunks[i] * properties.getPrefetchRatio());
+        }
+        return new Limits(limits, chunks, prefetchBelow);
+    }
+
+    @Override
+    public void start() {
+        reconciliation = Flux.interval(properties.getReconcileInterval())
+                .subscribe(tick -> reconcile());
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (reconciliation != null) {
+            reconciliation.dispose();
+        }
+        for (KeyBuckets buckets : keys.values()) {
+            buckets.lastUsed = Long.MIN_VALUE;
+        }
+        reconcile();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @param resetAt epoch second the window rolls over
+     */
+    public record WindowStatus(String window, long limit, long used, long remaining, long resetAt) {
+
+        /**
+         * @param field {@code limit}, {@code used}, {@code remaining} or {@code reset}
+         */
+        public long value(String field) {
+            return switch (field) {
+                case "limit" -> limit;
+                case "used" -> used;
+                case "remaining" -> remaining;
+                case "reset" -> resetAt;
+                default -> throw new IllegalArgumentException("Unknown rate limit status field " + field);
+            };
+        }
+    }
+
+    private record Limits(long[] limits, long[] chunks, long[] prefetchBelow) {
+    }
+
+    private final class KeyBuckets {
+
+        private final String apiKeyId;
+        private final Bucket[] buckets = new Bucket[WINDOWS.length];
+        private volatile Object metadata;
+        private volatile Limits limits = defaultLimits;
+        private volatile long lastUsed;
+
+        private KeyBuckets(String apiKeyId) {
+            this.apiKeyId = apiKeyId;
+            for (int i = 0; i < WINDOWS.length; i++) {
+                buckets[i] = new Bucket(this, i);
+            }
+        }
+
+        /**
+         * Limits are read again whenever the key's metadata changes, e.g. after it was updated.
+         */
+        private void useLimitsOf(Object current) {
+            if (current != null && current != metadata) {
+                limits = limitsOf(current);
+                metadata = current;
+            }
+        }
+
+        /**
+         * Takes a token from every window or from none.
+         *
+         * @return -1 when admitted, otherwise the index of the first empty bucket
+         */
+        private int tryAcquire(long now) {
+            for (int i = 0; i < buckets.length; i++) {
+                if (!buckets[i].tryTake(now)) {
+                    for (int j = 0; j < i; j++) {
+                        buckets[j].giveBack(now);
+                    }
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void prefetch(long now) {
+            for (Bucket bucket : buckets) {
+                bucket.prefetch(now);
+            }
+        }
+    }
+
+    private final class Bucket {
+
+        private final KeyBuckets key;
+        private final int index;
+        private long windowStart = -1;
+        private long tokens;
+        private long leased;
+        private long exhaustedAt = -1;
+        private long waiting;
+        private Mono<Void> pending;
+
+        private Bucket(KeyBuckets key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        private void roll(long now) {
+            long start = WINDOWS[index].startOf(now);
+            if (start != windowStart) {
+                windowStart = start;
+                tokens = 0;
+                leased = 0;
+                exhaustedAt = -1;
+                pending = null;
+            }
+        }
+
+        private long limit() {
+            return key.limits.limits()[index];
+        }
+
+        /**
+         * The window's limit was used up at {@code exhaustedAt}; a raised limit reopens it.
+         */
+        private boolean isExhausted() {
+            return exhaustedAt >= 0 && limit() <= exhaustedAt;
+        }
+
+        private synchronized boolean tryTake(long now) {
+            roll(now);
+            if (tokens == 0) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized void giveBack(long now) {
+            roll(now);
+            tokens++;
+        }
+
+        /**
+         * @return completes once tokens may be available again, {@code null} when the window's
+         * limit is used up
+         */
+        private synchronized Mono<Void> awaitRefill(long now) {
+            roll(now);
+            if (tokens > 0) {
+                return Mono.empty();
+            }
+            if (isExhausted()) {
+                return null;
+            }
+            waiting++;
+            Mono<Void> lease = pending != null ? pending : lease();
+            return lease
+                    .doOnTerminate(this::stopWaiting)
+                    .doOnCancel(this::stopWaiting);
+        }
+
+        private synchronized void stopWaiting() {
+            waiting--;
+        }
+
+        private synchronized void prefetch(long now) {
+            roll(now);
+            if (tokens <= key.limits.prefetchBelow()[index] && !isExhausted() && pending == null) {
+                lease().onErrorComplete().subscribe();
+            }
+        }
+
+        /**
+         * Leases a chunk, or one token per waiting request when more are waiting.
+         */
+        private Mono<Void> lease() {
+            long start = windowStart;
+            long limit = limit();
+            long requested = Math.max(key.limits.chunks()[index], waiting);
+            Mono<Void> lease = quota.lease(key.apiKeyId, WINDOWS[index], start, requested, limit)
+                    .doOnNext(result -> granted(start, requested, limit, result))
+                    // Cleared before waiters are signalled, so those finding the bucket empty again lease anew
+                    .doOnTerminate(() -> cleared(start))
+                    .then()
+                    .cache();
+            pending = lease;
+            return lease;
+        }
+
+        private synchronized void granted(long start, long requested, long limit, LeasedQuota.Lease lease) {
+            leases.increment();
+            if (start != windowStart) {
+                return;
+            }
+            tokens += lease.granted();
+            leased = Math.max(leased, lease.leased());
+            if (lease.granted() < requested) {
+                exhaustedAt = limit;
+            }
+        }
+
+        private synchronized void cleared(long start) {
+            if (start == windowStart) {
+                pending = null;
+            }
+        }
+
+        private synchronized WindowStatus status(long now) {
+            roll(now);
+            long limit = limit();
+            long used = Math.min(Math.max(leased - tokens, 0), limit);
+            return new WindowStatus(WINDOWS[index].label(), limit, used, limit - used,
+                    windowStart + WINDOWS[index].seconds());
+        }
+
+        private synchronized void drain(long now, List<Mono<Long>> releases) {
+            roll(now);
+            if (tokens > 0) {
+                releases.add(quota.release(key.apiKeyId, WINDOWS[index], windowStart, tokens));
+                leased -= tokens;
+                tokens = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.openframe.gateway.stats;
+
+import com.openframe.gateway.config.ApiKeyStatsWriteBehindProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory API key statistics, written behind to Redis.
+ * <p>
+ * Every {@code ApiKeyStatsService} increment only adds to the key's {@link LongAdder}s, which
+ * stripe contended updates across cells instead of serializing them. Every
+ * {@code flush-interval} the counters are drained and the non-zero deltas appended to a Redis
+ * stream, {@code max-keys-per-entry} keys per entry with up to {@code pipeline-depth} entries
+ * in flight, as {@code <keyId>:<counter>} fields plus {@code <keyId>:<last-used-field>}.
+ * openframe-management consumes the stream and adds the deltas to {@code ApiKeyStats}.
+ * <p>
+ * Deltas of a failed append are added back and retried with the next flush. Up to one flush
+ * interval of counts is lost if the gateway dies without stopping.
+ * <p>
+ * After each flush the entries openframe-management's consumer group has acknowledged are
+ * trimmed by id. Only when the stream still holds more than {@code max-stream-length} entries,
+ * i.e. the sync stopped consuming, are the oldest unacknowledged ones dropped; they are counted in
+ * {@code openframe.api-key.stats.entries.dropped} and logged as an error.
+ */
+@Slf4j
+public class ApiKeyStatsAggregator implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "openframe.api-key.stats";
+    private static final String FIELD_SEPARATOR = ":";
+
+    /**
+     * Trims up to the oldest entry the group has read but not acknowledged, or up to the last one
+     * it read when none is pending, then caps the length; returns the entries the cap dropped.
+     */
+    private static final RedisScript<Long> TRIM = new DefaultRedisScript<>("""
+            local ok, groups = pcall(redis.call, 'XINFO', 'GROUPS', KEYS[1])
+            if not ok then
+                return 0
+            end
+            for _, group in ipairs(groups) do
+                local info = {}
+                for i = 1, #group, 2 do
+                    info[group[i]] = group[i + 1]
+                end
+                if info['name'] == ARGV[1] then
+                    local pending = redis.call('XPENDING', KEYS[1], ARGV[1])
+                    local floor = pending[1] > 0 and pending[2] or info['last-delivered-id']
+                    redis.call('XTRIM', KEYS[1], 'MINID', floor)
+                end
+            end
+            if redis.call('XLEN', KEYS[1]) <= tonumber(ARGV[2]) then
+                return 0
+            end
+            return redis.call('XTRIM', KEYS[1], 'MAXLEN', ARGV[2])
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ApiKeyStatsWriteBehindProperties properties;
+    private final String[] counterNames;
+    private final Pattern[] counterPatterns;
+    private final Map<Method, int[]> countersByMethod = new ConcurrentHashMap<>();
+    private final Map<String, KeyCounters> keys = new ConcurrentHashMap<>();
+    private final Counter appendedEntries;
+    private final Counter failedEntries;
+    private final Counter droppedEntries;
+    private final Timer flushLatency;
+    private Disposable flushing;
+    private volatile boolean running;
+
+    public ApiKeyStatsAggregator(ReactiveStringRedisTemplate redisTemplate,
+                                 ApiKeyStatsWriteBehindProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.counterNames = properties.getCounters().keySet().toArray(String[]::new);
+        this.counterPatterns = new Pattern[counterNames.length];
+        for (int i = 0; i < counterNames.length; i++) {
+            counterPatterns[i] = Pattern.compile(properties.getCounters().get(counterNames[i]));
+        }
+        this.appendedEntries = Counter.builder(METRIC_PREFIX + ".entries")
+                .description("API key statistics delta entries appended to Redis")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failedEntries = Counter.builder(METRIC_PREFIX + ".entries")
+                .description("API key statistics delta entries appended to Redis")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        this.droppedEntries = Counter.builder(METRIC_PREFIX + ".entries.dropped")
+                .description("API key statistics delta entries trimmed from the stream before openframe-management acknowledged them")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder(METRIC_PREFIX + ".flush")
+                .description("Time to append one interval of API key statistics to Redis")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize(METRIC_PREFIX + ".keys", List.of(), keys);
+    }
+
+    /**
+     * Indexes of the counters {@code method} increments, empty when it increments none.
+     */
+    public int[] countersOf(Method method) {
+        return countersByMethod.computeIfAbsent(method, m -> {
+            List<Integer> matching = new ArrayList<>();
+            for (int i = 0; i < counterPatterns.length; i++) {
+                if (counterPatterns[i].matcher(m.getName()).matches()) {
+                    matching.add(i);
+                }
+            }
+            return matching.stream().mapToInt(Integer::intValue).toArray();
+        });
+    }
+
+    public void record(String apiKeyId, int[] counters) {
+        KeyCounters key = keys.computeIfAbsent(apiKeyId, id -> new KeyCounters(counterNames.length));
+        for (int counter : counters) {
+            key.counts[counter].increment();
+        }
+        key.lastUsed = System.currentTimeMillis();
+    }
+
+    Mono<Void> flush() {
+        List<Delta> deltas = drain();
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        List<List<Delta>> entries = new ArrayList<>();
+        for (int from = 0; from < deltas.size(); from += properties.getMaxKeysPerEntry()) {
+            entries.add(deltas.subList(from, Math.min(from + properties.getMaxKeysPerEntry(), deltas.size())));
+        }
+        long started = System.nanoTime();
+        return Flux.fromIterable(entries)
+                .flatMap(this::append, properties.getPipelineDepth())
+                .then(trim())
+                .doFinally(signal -> flushLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS))
+                .then();
+    }
+
+    private Mono<Void> trim() {
+        return redisTemplate.execute(TRIM, List.of(properties.getStreamKey()),
+                        List.of(properties.getConsumerGroup(), Long.toString(properties.getMaxStreamLength())))
+                .next()
+                .doOnNext(dropped -> {
+                    if (dropped > 0) {
+                        droppedEntries.increment(dropped);
+                        log.error("Dropped {} unacknowledged API key statistics delta entries from {}, which exceeded {} entries;"
+                                        + " is openframe-management consuming it with group {}?", dropped,
+                                properties.getStreamKey(), properties.getMaxStreamLength(), properties.getConsumerGroup());
+                    }
+                })
+                .doOnError(e -> log.warn("Failed to trim API key statistics stream {}", properties.getStreamKey(), e))
+                .onErrorComplete()
+                .then();
+    }
+
+    private Mono<Void> append(List<Delta> entry) {
+        Map<String, String> fields = new HashMap<>();
+        for (Delta delta : entry) {
+            for (int i = 0; i < counterNames.length; i++) {
+                if (delta.counts[i] != 0) {
+                    fields.put(delta.apiKeyId + FIELD_SEPARATOR + counterNames[i], Long.toString(delta.counts[i]));
+                }
+            }
+            fields.put(delta.apiKeyId + FIELD_SEPARATOR + properties.getLastUsedField(), Long.toString(delta.lastUsed));
+        }
+        return redisTemplate.opsForStream()
+                .add(StreamRecords.newRecord().in(properties.getStreamKey()).ofMap(fields))
+                .doOnNext(id -> appendedEntries.increment())
+                .onErrorResume(e -> {
+                    log.warn("Failed to append statistics of {} API keys, retrying with the next flush", entry.size(), e);
+                    failedEntries.increment();
+                    entry.forEach(this::restore);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Takes the counts accumulated since the last flush. {@link LongAdder#sumThenReset()} swaps
+     * each cell with zero, so increments racing with the drain land in this or the next flush.
+     * Keys idle for {@code idle-after} are removed before being drained, so counts added through a
+     * stale reference up to that point are still taken.
+     */
+    private List<Delta> drain() {
+        long idleBefore = System.currentTimeMillis() - properties.getIdleAfter().toMillis();
+        List<Delta> deltas = new ArrayList<>();
+        for (Map.Entry<String, KeyCounters> entry : keys.entrySet()) {
+            KeyCounters key = entry.getValue();
+            if (key.lastUsed < idleBefore) {
+                keys.remove(entry.getKey(), key);
+            }
+            long[] counts = new long[counterNames.length];
+            boolean changed = false;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = key.counts[i].sumThenReset();
+                changed |= counts[i] != 0;
+            }
+            if (changed) {
+                deltas.add(new Delta(entry.getKey(), counts, key.lastUsed));
+            }
+        }
+        return deltas;
+    }
+
+    private void restore(Delta delta) {
+        KeyCounters key = keys.computeIfAbsent(delta.apiKeyId, id -> new KeyCounters(counterNames.length));
+        for (int i = 0; i < delta.counts.length; i++) {
+            key.counts[i].add(delta.counts[i]);
+        }
+        key.lastUsed = Math.max(key.lastUsed, delta.lastUsed);
+    }
+
+    @Override
+    public void start() {
+        flushing = Flux.interval(properties.getFlushInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flushing != null) {
+            flushing.dispose();
+        }
+        try {
+            flush().block(properties.getFlushInterval());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush API key statistics on shutdown", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class KeyCounters {
+
+        private final LongAdder[] counts;
+        private volatile long lastUsed;
+
+        private KeyCounters(int counters) {
+            this.counts = new LongAdder[counters];
+            for (int i = 0; i < counters; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+    }
+
+    private record Delta(String apiKeyId, long[] counts, long lastUsed) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.openframe.gateway.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.ResolvableType;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the increments {@code ApiKeyAuthenticationFilter} makes through
+ * {@code ApiKeyStatsService} in the {@link ApiKeyStatsAggregator} instead of Redis. Methods are
+ * matched against the configured counter patterns and must take the API key id as their first
+ * argument and return nothing, {@code Mono<Void>}, {@code Mono<Boolean>} or a {@code Mono} of an
+ * integer count. Recorded increments complete with {@code true} or the amount added, so callers
+ * chaining on the result with {@code flatMap} keep going as they did after the Redis write.
+ * Every other method is passed through untouched.
+ */
+@RequiredArgsConstructor
+public class ApiKeyStatsWriteBehindBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String SERVICE_CLASS = "ApiKeyStatsService";
+    private static final Object VOID = new Object();
+
+    private final ObjectProvider<ApiKeyStatsAggregator> aggregator;
+    private final Map<Method, Optional<Object>> replies = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!SERVICE_CLASS.equals(AopUtils.getTargetClass(bean).getSimpleName())) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(recordingInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(recordingInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor recordingInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            if (args.length == 0 || !(args[0] instanceof String apiKeyId)) {
+                return invocation.proceed();
+            }
+            Optional<Object> reply = replies.computeIfAbsent(method, ApiKeyStatsWriteBehindBeanPostProcessor::replyOf);
+            int[] counters = reply.isPresent() ? aggregator.getObject().countersOf(method) : new int[0];
+            if (counters.length == 0) {
+                return invocation.proceed();
+            }
+            aggregator.getObject().record(apiKeyId, counters);
+            return reply.get() == VOID ? null : reply.get();
+        };
+    }
+
+    /**
+     * What a recorded increment returns in place of the library's Redis write, empty when the
+     * return type cannot be answered locally and the method is left to the library.
+     */
+    private static Optional<Object> replyOf(Method method) {
+        if (method.getReturnType() == void.class) {
+            return Optional.of(VOID);
+        }
+        if (!Mono.class.equals(method.getReturnType())) {
+            return Optional.empty();
+        }
+        Class<?> type = ResolvableType.forMethodReturnType(method).getGeneric(0).resolve();
+        if (type == Void.class) {
+            return Optional.of(Mono.empty());
+        }
+        if (type == Boolean.class) {
+            return Optional.of(Mono.just(Boolean.TRUE));
+        }
+        if (type == Long.class) {
+            return Optional.of(Mono.just(1L));
+        }
+        if (type == Integer.class) {
+            return Optional.of(Mono.just(1));
+        }
+        return Optional.empty();
+    }
+}
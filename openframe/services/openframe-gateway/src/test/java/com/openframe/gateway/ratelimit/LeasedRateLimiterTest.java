@@ -0,0 +1,179 @@
+package com.openframe.gateway.ratelimit;
+
+import com.openframe.gateway.config.RateLimitLeaseProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeasedRateLimiterTest {
+
+    private static final String KEY = "key-1";
+
+    private final InMemoryQuota quota = new InMemoryQuota(Duration.ZERO);
+
+    @Test
+    void admitsUpToTheLimitThenRejects() {
+        LeasedRateLimiter limiter = limiter(quota, properties(5, 0.05));
+
+        assertThat(admitted(limiter, 7, null)).isEqualTo(5);
+        assertThat(quota.leased(LeasedQuota.Window.MINUTE)).isEqualTo(5);
+    }
+
+    @Test
+    void neverAdmitsMoreThanTheLimitAcrossReplicas() {
+        RateLimitLeaseProperties properties = properties(20, 0.25);
+        LeasedRateLimiter first = limiter(quota, properties);
+        LeasedRateLimiter second = limiter(quota, properties);
+
+        int admitted = 0;
+        for (int i = 0; i < 30; i++) {
+            admitted += Boolean.TRUE.equals(first.isAllowed(KEY, null).block()) ? 1 : 0;
+            admitted += Boolean.TRUE.equals(second.isAllowed(KEY, null).block()) ? 1 : 0;
+        }
+
+        assertThat(admitted).isEqualTo(20);
+        assertThat(quota.leased(LeasedQuota.Window.MINUTE)).isEqualTo(20);
+    }
+
+    @Test
+    void concurrentRequestsWaitForTheLeaseInsteadOfBeingRejected() {
+        InMemoryQuota slowQuota = new InMemoryQuota(Duration.ofMillis(20));
+        LeasedRateLimiter limiter = limiter(slowQuota, properties(1000, 0.005));
+
+        List<Boolean> results = Flux.range(0, 200)
+                .flatMap(i -> limiter.isAllowed(KEY, null), 200)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(results).hasSize(200).containsOnly(Boolean.TRUE);
+        assertThat(slowQuota.leased(LeasedQuota.Window.MINUTE)).isBetween(200L, 1000L);
+    }
+
+    @Test
+    void appliesLimitsFromTheKeyMetadata() {
+        LeasedRateLimiter limiter = limiter(quota, properties(5, 0.05));
+
+        assertThat(admitted(limiter, 4, new KeyMetadata(2))).isEqualTo(2);
+        assertThat(admitted(limiter, 4, new KeyMetadata(3))).isEqualTo(1);
+    }
+
+    @Test
+    void appliesLimitsFromNestedKeyMetadata() {
+        LeasedRateLimiter limiter = limiter(quota, properties(5, 0.05));
+
+        assertThat(admitted(limiter, 4, new Validation(new KeyMetadata(1)))).isEqualTo(1);
+    }
+
+    @Test
+    void reportsUsageOfTheCurrentWindows() {
+        LeasedRateLimiter limiter = limiter(quota, properties(5, 0.05));
+        admitted(limiter, 3, null);
+
+        LeasedRateLimiter.WindowStatus minute = limiter.status(KEY, null).get(0);
+
+        assertThat(minute.window()).isEqualTo("minute");
+        assertThat(minute.limit()).isEqualTo(5);
+        assertThat(minute.used()).isEqualTo(3);
+        assertThat(minute.remaining()).isEqualTo(2);
+        assertThat(minute.resetAt() % 60).isZero();
+    }
+
+    @Test
+    void returnsUnusedTokensOfIdleKeys() {
+        RateLimitLeaseProperties properties = properties(100, 0.05);
+        properties.setIdleAfter(Duration.ZERO);
+        LeasedRateLimiter limiter = limiter(quota, properties);
+        admitted(limiter, 1, null);
+        assertThat(quota.leased(LeasedQuota.Window.MINUTE)).isEqualTo(5);
+
+        limiter.reconcile();
+
+        assertThat(quota.leased(LeasedQuota.Window.MINUTE)).isEqualTo(1);
+        assertThat(quota.leased(LeasedQuota.Window.HOUR)).isEqualTo(1);
+    }
+
+    @Test
+    void allowsRequestsWhenRedisFailsAndFailOpenIsSet() {
+        InMemoryQuota failingQuota = new InMemoryQuota(Duration.ZERO);
+        failingQuota.failing = true;
+        RateLimitLeaseProperties properties = properties(5, 0.05);
+
+        assertThat(limiter(failingQuota, properties).isAllowed(KEY, null).block()).isTrue();
+        properties.setFailOpen(false);
+        assertThat(limiter(failingQuota, properties).isAllowed(KEY, null).block()).isFalse();
+    }
+
+    private static int admitted(LeasedRateLimiter limiter, int requests, Object metadata) {
+        int admitted = 0;
+        for (int i = 0; i < requests; i++) {
+            admitted += Boolean.TRUE.equals(limiter.isAllowed(KEY, metadata).block()) ? 1 : 0;
+        }
+        return admitted;
+    }
+
+    private static LeasedRateLimiter limiter(LeasedQuota quota, RateLimitLeaseProperties properties) {
+        return new LeasedRateLimiter(quota, properties, new SimpleMeterRegistry());
+    }
+
+    private static RateLimitLeaseProperties properties(long requestsPerMinute, double chunkRatio) {
+        RateLimitLeaseProperties properties = new RateLimitLeaseProperties();
+        properties.setRequestsPerMinute(requestsPerMinute);
+        properties.setChunkRatio(chunkRatio);
+        return properties;
+    }
+
+    record KeyMetadata(long requestsPerMinute) {
+    }
+
+    record Validation(KeyMetadata apiKey) {
+    }
+
+    /**
+     * The Redis lease script on a map.
+     */
+    private static final class InMemoryQuota extends LeasedQuota {
+
+        private final Map<String, AtomicLong> leased = new ConcurrentHashMap<>();
+        private final Duration latency;
+        private volatile boolean failing;
+
+        private InMemoryQuota(Duration latency) {
+            super(null, "test");
+            this.latency = latency;
+        }
+
+        @Override
+        Mono<Lease> lease(String apiKeyId, Window window, long windowStart, long tokens, long limit) {
+            Mono<Lease> lease = Mono.fromSupplier(() -> {
+                if (failing) {
+                    throw new IllegalStateException("Redis is down");
+                }
+                AtomicLong counter = leased.computeIfAbsent(window.label(), label -> new AtomicLong());
+                synchronized (counter) {
+                    long granted = Math.max(Math.min(tokens, limit - counter.get()), 0);
+                    return new Lease(granted, counter.addAndGet(granted));
+                }
+            });
+            return latency.isZero() ? lease : Mono.delay(latency).then(lease);
+        }
+
+        @Override
+        Mono<Long> release(String apiKeyId, Window window, long windowStart, long tokens) {
+            return Mono.fromSupplier(() -> leased.get(window.label()).addAndGet(-tokens));
+        }
+
+        private long leased(Window window) {
+            AtomicLong counter = leased.get(window.label());
+            return counter != null ? counter.get() : 0;
+        }
+    }
+}
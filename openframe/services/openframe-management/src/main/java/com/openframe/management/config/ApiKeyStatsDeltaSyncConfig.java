@@ -0,0 +1,24 @@
+package com.openframe.management.config;
+
+import com.openframe.management.service.ApiKeyStatsDeltaSyncService;
+import com.openframe.management.stats.ApiKeyStatsDeltaSyncBeanPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Incremental API key statistics sync from the gateway's delta stream, enabled with
+ * {@code openframe.api-key-stats.write-behind.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.api-key-stats.write-behind", name = "enabled", havingValue = "true")
+public class ApiKeyStatsDeltaSyncConfig {
+
+    @Bean
+    public static ApiKeyStatsDeltaSyncBeanPostProcessor apiKeyStatsDeltaSyncBeanPostProcessor(
+            ObjectProvider<ApiKeyStatsDeltaSyncService> deltaSync,
+            ObjectProvider<ApiKeyStatsDeltaSyncProperties> properties) {
+        return new ApiKeyStatsDeltaSyncBeanPostProcessor(deltaSync, properties);
+    }
+}
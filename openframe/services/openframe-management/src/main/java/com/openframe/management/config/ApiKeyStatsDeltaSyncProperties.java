@@ -0,0 +1,58 @@
+package com.openframe.management.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * API key statistics deltas appended by the gateway to a Redis stream, applied to
+ * {@code ApiKeyStats} by the scheduled statistics sync.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.api-key-stats.write-behind")
+public class ApiKeyStatsDeltaSyncProperties {
+
+    private boolean enabled = false;
+    private String streamKey = "api-key-stats:deltas";
+    private String consumerGroup = "openframe-management";
+
+    /**
+     * One consumer name for every replica: ShedLock runs the sync on one replica at a time, and
+     * whichever runs next takes over entries a crashed run read but did not acknowledge.
+     */
+    private String consumerName = "api-key-stats-sync";
+
+    private int readCount = 1000;
+    private int maxEntriesPerSync = 100_000;
+
+    /**
+     * {@code ApiKeyStats} fields the deltas may increment; other fields in the stream are ignored.
+     */
+    private List<String> counters = new ArrayList<>(List.of("totalRequests", "successfulRequests", "failedRequests"));
+
+    private String lastUsedField = "lastUsed";
+
+    /**
+     * {@code ApiKeyStats} field holding the API key id.
+     */
+    private String idField = "_id";
+
+    /**
+     * The key-scanning sync of the per-key Redis counters written before the gateway switched to
+     * write-behind runs with every sync for this long after the first delta sync, long enough for
+     * a rolling gateway upgrade, and never again. The start is kept in {@code legacy-drain-key}.
+     */
+    private Duration legacyDrainWindow = Duration.ofHours(1);
+    private String legacyDrainKey = "api-key-stats:legacy-drain-started";
+
+    /**
+     * Keep running the key-scanning sync with every sync after the drain window, for gateways that
+     * still write the per-key counters.
+     */
+    private boolean legacySync = false;
+}
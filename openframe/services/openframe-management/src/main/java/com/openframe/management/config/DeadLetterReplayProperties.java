@@ -0,0 +1,38 @@
+package com.openframe.management.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dead letter topics of the stream service that can be drained through
+ * {@code POST /dead-letters/{topic}/replay}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.dead-letter-replay")
+public class DeadLetterReplayProperties {
+
+    private boolean enabled = false;
+    private String bootstrapServers;
+    private String groupId = "openframe-management-dead-letter-replay";
+
+    /**
+     * Replayable dead letter topics; any other topic is rejected.
+     */
+    private List<String> topics = new ArrayList<>();
+
+    private int maxRecordsPerReplay = 10_000;
+    private Duration pollTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long a replay waits to join the replay consumer group and be assigned partitions; a
+     * replay assigned none by then ends, as other members hold every partition.
+     */
+    private Duration assignmentTimeout = Duration.ofSeconds(30);
+    private Duration sendTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,40 @@
+package com.openframe.management.controller;
+
+import com.openframe.management.dto.DeadLetterReplayResult;
+import com.openframe.management.dto.DeadLetterTopicStatus;
+import com.openframe.management.service.DeadLetterReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/dead-letters")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "openframe.dead-letter-replay", name = "enabled", havingValue = "true")
+public class DeadLetterController {
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    @GetMapping
+    public List<DeadLetterTopicStatus> status() {
+        return deadLetterReplayService.status();
+    }
+
+    @PostMapping("/{topic}/replay")
+    public DeadLetterReplayResult replay(@PathVariable String topic,
+                                         @RequestParam(required = false) Integer maxRecords) {
+        if (!deadLetterReplayService.isReplayable(topic)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown dead letter topic " + topic);
+        }
+        return deadLetterReplayService.replay(topic, maxRecords);
+    }
+}
@@ -0,0 +1,11 @@
+package com.openframe.management.dto;
+
+import java.util.Map;
+
+/**
+ * @param replayed records republished to their target topic, by target topic
+ * @param skipped  records without a target topic header, committed without replay
+ * @param pending  records left in the dead letter topic after the replay
+ */
+public record DeadLetterReplayResult(String topic, Map<String, Long> replayed, long skipped, long pending) {
+}
@@ -0,0 +1,4 @@
+package com.openframe.management.dto;
+
+public record DeadLetterTopicStatus(String topic, long pending) {
+}
@@ -0,0 +1,213 @@
+package com.openframe.management.service;
+
+import com.openframe.data.document.apikey.ApiKeyStats;
+import com.openframe.management.config.ApiKeyStatsDeltaSyncProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the API key statistics deltas the gateway appends to a Redis stream to
+ * {@code ApiKeyStats}, replacing the scan over every key's Redis counters.
+ * <p>
+ * Entries are read through a consumer group, so each sync only reads what was appended since
+ * the previous one: its cost follows request volume, not the number of keys. Every batch of
+ * {@code read-count} entries is summed per key and applied as one unordered bulk of
+ * {@code $inc}/{@code $max} upserts, then acknowledged and deleted. Entries of a run that died
+ * before acknowledging are read again first by the next run, so deltas are applied at least
+ * once; a crash between the bulk write and the acknowledgement counts that batch twice.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "openframe.api-key-stats.write-behind", name = "enabled", havingValue = "true")
+public class ApiKeyStatsDeltaSyncService {
+
+    private static final String FIELD_SEPARATOR = ":";
+    private static final String BUSY_GROUP = "BUSYGROUP";
+
+    private final StringRedisTemplate redisTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final ApiKeyStatsDeltaSyncProperties properties;
+    private final Set<String> counters;
+    private final Counter appliedEntries;
+    private final Counter updatedKeys;
+    private volatile boolean groupCreated;
+
+    public ApiKeyStatsDeltaSyncService(StringRedisTemplate redisTemplate,
+                                       MongoTemplate mongoTemplate,
+                                       ApiKeyStatsDeltaSyncProperties properties,
+                                       MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.counters = Set.copyOf(properties.getCounters());
+        this.appliedEntries = Counter.builder("openframe.api-key.stats.sync.entries")
+                .description("API key statistics delta entries applied to Mongo")
+                .register(meterRegistry);
+        this.updatedKeys = Counter.builder("openframe.api-key.stats.sync.keys")
+                .description("ApiKeyStats documents updated from statistics deltas")
+                .register(meterRegistry);
+    }
+
+    public void sync() {
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(properties.getStreamKey()))) {
+            return;
+        }
+        ensureGroup();
+        int budget = properties.getMaxEntriesPerSync();
+        int applied;
+        try {
+            applied = drain(ReadOffset.from("0"), budget);
+            applied += drain(ReadOffset.lastConsumed(), budget - applied);
+        } catch (RedisSystemException e) {
+            // the stream may have been recreated without the group
+            groupCreated = false;
+            throw e;
+        }
+        if (applied > 0) {
+            log.info("Applied {} API key statistics delta entries", applied);
+        }
+    }
+
+    /**
+     * Whether the one-off drain of the per-key counters left from before the write-behind switch
+     * is still due: the first call starts the {@code legacy-drain-window}, shared by all replicas
+     * through {@code legacy-drain-key}, and every call within it answers {@code true}.
+     */
+    public boolean legacyDrainDue() {
+        String started = redisTemplate.opsForValue().get(properties.getLegacyDrainKey());
+        if (started == null) {
+            String now = Long.toString(System.currentTimeMillis());
+            redisTemplate.opsForValue().setIfAbsent(properties.getLegacyDrainKey(), now);
+            log.info("Draining legacy API key statistics counters for {}", properties.getLegacyDrainWindow());
+            return true;
+        }
+        try {
+            return Instant.now().isBefore(Instant.ofEpochMilli(Long.parseLong(started)).plus(properties.getLegacyDrainWindow()));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed legacy drain start {} in {}", started, properties.getLegacyDrainKey());
+            return false;
+        }
+    }
+
+    /**
+     * Reads from {@code offset} until the stream is exhausted or {@code budget} entries are
+     * applied. Reading pending entries from {@code 0} again after acknowledging a batch returns
+     * the next pending ones.
+     */
+    private int drain(ReadOffset offset, int budget) {
+        int applied = 0;
+        Consumer consumer = Consumer.from(properties.getConsumerGroup(), properties.getConsumerName());
+        while (applied < budget) {
+            List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(consumer,
+                    StreamReadOptions.empty().count(Math.min(properties.getReadCount(), budget - applied)),
+                    StreamOffset.create(properties.getStreamKey(), offset));
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            apply(records);
+            RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+            redisTemplate.opsForStream().acknowledge(properties.getStreamKey(), properties.getConsumerGroup(), ids);
+            redisTemplate.opsForStream().delete(properties.getStreamKey(), ids);
+            applied += records.size();
+            appliedEntries.increment(records.size());
+        }
+        return applied;
+    }
+
+    private void apply(List<MapRecord<String, Object, Object>> records) {
+        Map<String, KeyDelta> deltas = new HashMap<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            // trimmed entries come back without fields
+            if (record.getValue() == null) {
+                continue;
+            }
+            record.getValue().forEach((field, value) -> add(deltas, String.valueOf(field), String.valueOf(value)));
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ApiKeyStats.class);
+        deltas.forEach((apiKeyId, delta) -> {
+            Update update = new Update();
+            delta.counts.forEach(update::inc);
+            if (delta.lastUsed > 0) {
+                update.max(properties.getLastUsedField(), Instant.ofEpochMilli(delta.lastUsed));
+            }
+            bulk.upsert(Query.query(Criteria.where(properties.getIdField()).is(apiKeyId)), update);
+        });
+        bulk.execute();
+        updatedKeys.increment(deltas.size());
+    }
+
+    private void add(Map<String, KeyDelta> deltas, String field, String value) {
+        int separator = field.lastIndexOf(FIELD_SEPARATOR);
+        if (separator <= 0) {
+            return;
+        }
+        String apiKeyId = field.substring(0, separator);
+        String name = field.substring(separator + 1);
+        try {
+            if (properties.getLastUsedField().equals(name)) {
+                KeyDelta delta = deltas.computeIfAbsent(apiKeyId, id -> new KeyDelta());
+                delta.lastUsed = Math.max(delta.lastUsed, Long.parseLong(value));
+            } else if (counters.contains(name)) {
+                deltas.computeIfAbsent(apiKeyId, id -> new KeyDelta()).counts.merge(name, Long.parseLong(value), Long::sum);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Skipping malformed API key statistics delta {}={}", field, value);
+        }
+    }
+
+    private void ensureGroup() {
+        if (groupCreated) {
+            return;
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(properties.getStreamKey(), ReadOffset.from("0"), properties.getConsumerGroup());
+        } catch (RedisSystemException e) {
+            if (!isBusyGroup(e)) {
+                throw e;
+            }
+        }
+        groupCreated = true;
+    }
+
+    private static boolean isBusyGroup(Throwable e) {
+        Set<Throwable> seen = new HashSet<>();
+        for (Throwable cause = e; cause != null && seen.add(cause); cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(BUSY_GROUP)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class KeyDelta {
+
+        private final Map<String, Long> counts = new HashMap<>();
+        private long lastUsed;
+    }
+}
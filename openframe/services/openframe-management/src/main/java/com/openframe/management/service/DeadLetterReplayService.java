@@ -0,0 +1,203 @@
+package com.openframe.management.service;
+
+import com.openframe.management.config.DeadLetterReplayProperties;
+import com.openframe.management.dto.DeadLetterReplayResult;
+import com.openframe.management.dto.DeadLetterTopicStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the stream service dead letter topics back to the topics their records were meant for.
+ * <p>
+ * The target comes from the {@value #TARGET_TOPIC_HEADER} header set by openframe-stream when a
+ * record is parked. Offsets are committed in the replay consumer group only after the replayed
+ * records are acknowledged by the broker, so an interrupted replay resumes where it stopped.
+ * <p>
+ * A replay subscribes to the dead letter topic as a member of the replay consumer group, so
+ * replays running at the same time, on this or another replica, are handed disjoint partitions by
+ * the group coordinator and never republish the same records. Offsets are committed after every
+ * poll, before the next one can revoke partitions.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "openframe.dead-letter-replay", name = "enabled", havingValue = "true")
+public class DeadLetterReplayService {
+
+    static final String TARGET_TOPIC_HEADER = "openframe-target-topic";
+    private static final String FAILURE_HEADER = "openframe-publish-failure";
+    private static final String SPRING_KAFKA_HEADER_PREFIX = "kafka_";
+
+    private final DeadLetterReplayProperties properties;
+
+    public boolean isReplayable(String topic) {
+        return properties.getTopics().contains(topic);
+    }
+
+    public List<DeadLetterTopicStatus> status() {
+        List<DeadLetterTopicStatus> statuses = new ArrayList<>();
+        try (KafkaConsumer<String, byte[]> consumer = consumer()) {
+            for (String topic : properties.getTopics()) {
+                statuses.add(new DeadLetterTopicStatus(topic, pending(consumer, partitions(consumer, topic))));
+            }
+        }
+        return statuses;
+    }
+
+    public DeadLetterReplayResult replay(String topic, Integer maxRecords) {
+        int limit = maxRecords != null ? Math.min(maxRecords, properties.getMaxRecordsPerReplay()) : properties.getMaxRecordsPerReplay();
+        try (KafkaConsumer<String, byte[]> consumer = consumer();
+             KafkaProducer<String, byte[]> producer = producer()) {
+            consumer.subscribe(List.of(topic));
+            Instant assignmentDeadline = Instant.now().plus(properties.getAssignmentTimeout());
+            Map<TopicPartition, Long> endOffsets = Map.of();
+
+            Map<String, Long> replayed = new TreeMap<>();
+            long skipped = 0;
+            long processed = 0;
+            while (processed < limit) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(properties.getPollTimeout());
+                List<Future<RecordMetadata>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (processed >= limit) {
+                        break;
+                    }
+                    String target = targetTopic(record);
+                    if (target == null) {
+                        log.warn("Skipping dead letter without target topic: {}-{}@{}", record.topic(), record.partition(), record.offset());
+                        skipped++;
+                    } else {
+                        sends.add(producer.send(redelivery(target, record)));
+                        replayed.merge(target, 1L, Long::sum);
+                    }
+                    offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                    processed++;
+                }
+                awaitSends(sends);
+                if (!offsets.isEmpty()) {
+                    consumer.commitSync(offsets);
+                }
+
+                Set<TopicPartition> assignment = consumer.assignment();
+                if (assignment.isEmpty()) {
+                    if (Instant.now().isAfter(assignmentDeadline)) {
+                        log.info("No partition of {} assigned, replays already running on the other members", topic);
+                        break;
+                    }
+                    continue;
+                }
+                if (!endOffsets.keySet().equals(assignment)) {
+                    endOffsets = consumer.endOffsets(assignment);
+                }
+                if (caughtUp(consumer, endOffsets)) {
+                    break;
+                }
+            }
+            long pending = pending(consumer, partitions(consumer, topic));
+            log.info("Replayed {} dead letters from {} ({} skipped, {} pending)", processed - skipped, topic, skipped, pending);
+            return new DeadLetterReplayResult(topic, replayed, skipped, pending);
+        }
+    }
+
+    private String targetTopic(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(TARGET_TOPIC_HEADER);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private ProducerRecord<String, byte[]> redelivery(String target, ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, byte[]> redelivery = new ProducerRecord<>(target, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(SPRING_KAFKA_HEADER_PREFIX)
+                    && !header.key().equals(TARGET_TOPIC_HEADER)
+                    && !header.key().equals(FAILURE_HEADER)) {
+                redelivery.headers().add(header);
+            }
+        }
+        return redelivery;
+    }
+
+    private void awaitSends(List<Future<RecordMetadata>> sends) {
+        try {
+            for (Future<RecordMetadata> send : sends) {
+                send.get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying dead letters", e);
+        } catch (Exception e) {
+            // Offsets of the current poll are not committed; the next replay starts from them again
+            throw new IllegalStateException("Failed to replay dead letters: " + e.getMessage(), e);
+        }
+    }
+
+    private List<TopicPartition> partitions(KafkaConsumer<String, byte[]> consumer, String topic) {
+        return consumer.partitionsFor(topic).stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .toList();
+    }
+
+    private boolean caughtUp(KafkaConsumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream().allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+
+    private long pending(KafkaConsumer<String, byte[]> consumer, List<TopicPartition> partitions) {
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.copyOf(partitions));
+        long pending = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            long from = Math.max(offset != null ? offset.offset() : 0, beginningOffsets.get(partition));
+            pending += Math.max(0, endOffsets.get(partition) - from);
+        }
+        return pending;
+    }
+
+    private KafkaConsumer<String, byte[]> consumer() {
+        Properties config = new Properties();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers());
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, properties.getGroupId());
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        return new KafkaConsumer<>(config, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private KafkaProducer<String, byte[]> producer() {
+        Properties config = new Properties();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers());
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new KafkaProducer<>(config, new StringSerializer(), new ByteArraySerializer());
+    }
+}
@@ -0,0 +1,57 @@
+package com.openframe.management.stats;
+
+import com.openframe.management.config.ApiKeyStatsDeltaSyncProperties;
+import com.openframe.management.service.ApiKeyStatsDeltaSyncService;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+
+/**
+ * Runs the {@link ApiKeyStatsDeltaSyncService} in place of the {@code ApiKeyStatsSyncService}
+ * {@code sync*} methods called by {@code ApiKeyStatsSyncScheduler}, so the delta sync keeps the
+ * scheduler's {@code sync-interval} and ShedLock lock. The key-scanning sync only runs as well
+ * during the one-off {@code legacy-drain-window}, or always with {@code legacy-sync} enabled.
+ * Every other method is passed through untouched.
+ */
+@RequiredArgsConstructor
+public class ApiKeyStatsDeltaSyncBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String SERVICE_CLASS = "ApiKeyStatsSyncService";
+    private static final String SYNC_METHOD_PREFIX = "sync";
+
+    private final ObjectProvider<ApiKeyStatsDeltaSyncService> deltaSync;
+    private final ObjectProvider<ApiKeyStatsDeltaSyncProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!SERVICE_CLASS.equals(AopUtils.getTargetClass(bean).getSimpleName())) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(deltaSyncInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(deltaSyncInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor deltaSyncInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (!method.getName().startsWith(SYNC_METHOD_PREFIX) || method.getReturnType() != void.class) {
+                return invocation.proceed();
+            }
+            ApiKeyStatsDeltaSyncService service = deltaSync.getObject();
+            service.sync();
+            return properties.getObject().isLegacySync() || service.legacyDrainDue() ? invocation.proceed() : null;
+        };
+    }
+}
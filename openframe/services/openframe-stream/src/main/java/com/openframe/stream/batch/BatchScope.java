@@ -0,0 +1,114 @@
+package com.openframe.stream.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound state for one Kafka poll batch.
+ * <p>
+ * While a scope is open, Cassandra saves issued by the message handlers are buffered instead of
+ * written one by one, outbound publishes are collected to be awaited before the batch is
+ * acknowledged, and enrichment lookups are resolved once per distinct key. A scope can be
+ * attached to worker threads with {@link #runAttached(Runnable)}; concurrent lookups of the same
+ * key then share a single load.
+ */
+public final class BatchScope implements AutoCloseable {
+
+    private static final ThreadLocal<BatchScope> CURRENT = new ThreadLocal<>();
+
+    private final List<Object> pendingWrites = new ArrayList<>();
+    private final List<CompletableFuture<?>> pendingPublishes = new ArrayList<>();
+    private final Map<Object, CompletableFuture<Object>> lookups = new ConcurrentHashMap<>();
+
+    private BatchScope() {
+    }
+
+    public static BatchScope open() {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("Batch scope is already open on thread " + Thread.currentThread().getName());
+        }
+        BatchScope scope = new BatchScope();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Optional<BatchScope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public void runAttached(Runnable task) {
+        BatchScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public void bufferWrite(Object entity) {
+        synchronized (pendingWrites) {
+            pendingWrites.add(entity);
+        }
+    }
+
+    public List<Object> pendingWrites() {
+        synchronized (pendingWrites) {
+            return List.copyOf(pendingWrites);
+        }
+    }
+
+    public void bufferPublish(CompletableFuture<?> publish) {
+        synchronized (pendingPublishes) {
+            pendingPublishes.add(publish);
+        }
+    }
+
+    public List<CompletableFuture<?>> pendingPublishes() {
+        synchronized (pendingPublishes) {
+            return List.copyOf(pendingPublishes);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T lookup(Object key, Supplier<T> loader) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = lookups.putIfAbsent(key, created);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            T value = loader.get();
+            created.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            // Not memoized: a later record of the batch retries the lookup
+            lookups.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int distinctLookups() {
+        return lookups.size();
+    }
+
+    @Override
+    public void close() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,85 @@
+package com.openframe.stream.batch;
+
+import com.openframe.data.repository.cassandra.UnifiedLogEventRepository;
+import com.openframe.data.repository.redis.MachineIdCacheService;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Makes the existing per-record collaborators batch aware without changing the handlers:
+ * <ul>
+ *     <li>{@link UnifiedLogEventRepository#save} buffers the entity into the open {@link BatchScope};</li>
+ *     <li>{@link MachineIdCacheService} lookups are resolved once per distinct argument list per batch.</li>
+ * </ul>
+ * Outside a batch scope both proxies delegate straight to the target.
+ */
+public class BatchScopeBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String SAVE_METHOD = "save";
+    private static final List<String> LOOKUP_METHOD_PREFIXES = List.of("get", "find");
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof UnifiedLogEventRepository) {
+            return proxy(bean, false, bufferingSaveInterceptor());
+        }
+        if (bean instanceof MachineIdCacheService) {
+            return proxy(bean, true, memoizingLookupInterceptor());
+        }
+        return bean;
+    }
+
+    private Object proxy(Object bean, boolean proxyTargetClass, MethodInterceptor interceptor) {
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(proxyTargetClass);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor bufferingSaveInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            if (SAVE_METHOD.equals(method.getName()) && args.length == 1 && BatchScope.current().isPresent()) {
+                BatchScope.current().get().bufferWrite(args[0]);
+                return args[0];
+            }
+            return invocation.proceed();
+        };
+    }
+
+    private MethodInterceptor memoizingLookupInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (!isLookup(method) || BatchScope.current().isEmpty()) {
+                return invocation.proceed();
+            }
+            List<Object> key = List.of(method.getName(), Arrays.asList(invocation.getArguments()));
+            return BatchScope.current().get().lookup(key, () -> {
+                try {
+                    return invocation.proceed();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        };
+    }
+
+    private boolean isLookup(Method method) {
+        return method.getParameterCount() > 0
+                && method.getReturnType() != void.class
+                && LOOKUP_METHOD_PREFIXES.stream().anyMatch(method.getName()::startsWith);
+    }
+}
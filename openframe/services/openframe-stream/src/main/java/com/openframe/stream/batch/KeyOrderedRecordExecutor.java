@@ -0,0 +1,82 @@
+package com.openframe.stream.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the records of a poll batch on virtual threads, one task per ordering key.
+ * <p>
+ * Records sharing a key are handed to a single task in poll order, so they are processed
+ * sequentially; distinct keys run concurrently, bounded by {@code maxConcurrency}. The consumer
+ * thread blocks until every task has finished, so offsets are still acknowledged only after the
+ * whole batch has been processed.
+ */
+@Slf4j
+public class KeyOrderedRecordExecutor implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("stream-key-ordered-", 0).factory());
+    private final Semaphore permits;
+
+    public KeyOrderedRecordExecutor(int maxConcurrency) {
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    public <R extends ConsumerRecord<?, ?>> void execute(List<R> records,
+                                                         Function<R, Object> orderingKey,
+                                                         Consumer<List<R>> groupAction) {
+        Map<Object, List<R>> groups = new LinkedHashMap<>();
+        for (R record : records) {
+            groups.computeIfAbsent(orderingKey.apply(record), key -> new ArrayList<>()).add(record);
+        }
+        if (groups.size() <= 1) {
+            groups.values().forEach(groupAction);
+            return;
+        }
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(groups.size());
+        try {
+            for (List<R> group : groups.values()) {
+                permits.acquire();
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        groupAction.accept(group);
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dispatching batch of " + records.size() + " records", e);
+        } finally {
+            awaitAll(tasks);
+        }
+        log.trace("Processed {} records across {} ordering keys", records.size(), groups.size());
+    }
+
+    private void awaitAll(List<CompletableFuture<Void>> tasks) {
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
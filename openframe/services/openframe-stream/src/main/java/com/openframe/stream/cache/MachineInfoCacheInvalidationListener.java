@@ -0,0 +1,113 @@
+package com.openframe.stream.cache;
+
+import com.openframe.kafka.model.MachinePinotMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Evicts local machine cache entries when openframe-api / openframe-client publish a machine,
+ * tag or organization change to the devices topic.
+ * <p>
+ * Every stream pod needs to see every update, so each instance assigns itself all partitions of
+ * the topic from their end, without joining a consumer group or committing offsets. Nothing is
+ * left behind on the brokers when a pod goes away. Partitions are read on start, so partitions
+ * added to the topic later are picked up on the next restart.
+ */
+@Slf4j
+public class MachineInfoCacheInvalidationListener implements SmartLifecycle {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final MachineInfoLocalCache localCache;
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final String topic;
+    private volatile Consumer<?, ?> consumer;
+
+    public MachineInfoCacheInvalidationListener(MachineInfoLocalCache localCache,
+                                                ConsumerFactory<?, ?> consumerFactory,
+                                                String topic) {
+        this.localCache = localCache;
+        this.consumerFactory = consumerFactory;
+        this.topic = topic;
+    }
+
+    @Override
+    public void start() {
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        Consumer<?, ?> created = consumerFactory.createConsumer(null, "machine-cache-invalidation", null, overrides);
+        List<TopicPartition> partitions;
+        try {
+            partitions = created.partitionsFor(topic).stream()
+                    .map(partition -> new TopicPartition(topic, partition.partition()))
+                    .toList();
+            created.assign(partitions);
+            created.seekToEnd(partitions);
+        } catch (RuntimeException e) {
+            created.close();
+            log.error("Cannot assign {}, local machine cache entries expire by TTL only", topic, e);
+            return;
+        }
+        consumer = created;
+        Thread.ofVirtual().name("machine-cache-invalidation").start(() -> poll(created));
+        log.info("Listening for machine updates on {} partitions of {}", partitions.size(), topic);
+    }
+
+    private void poll(Consumer<?, ?> consumer) {
+        try (consumer) {
+            while (true) {
+                try {
+                    for (ConsumerRecord<?, ?> record : consumer.poll(POLL_TIMEOUT)) {
+                        onMachineUpdate(record.value());
+                    }
+                } catch (RecordDeserializationException e) {
+                    log.warn("Skipping unreadable machine update {}@{}", e.topicPartition(), e.offset(), e);
+                    consumer.seek(e.topicPartition(), e.offset() + 1);
+                }
+            }
+        } catch (WakeupException e) {
+            log.debug("Stopped listening for machine updates on {}", topic);
+        } catch (RuntimeException e) {
+            log.error("Machine update listener on {} failed, local machine cache entries expire by TTL only", topic, e);
+        }
+    }
+
+    void onMachineUpdate(Object value) {
+        if (!(value instanceof MachinePinotMessage message) || message.getMachineId() == null) {
+            return;
+        }
+        localCache.invalidateMachine(message.getMachineId(), message.getOrganizationId());
+    }
+
+    @Override
+    public void stop() {
+        Consumer<?, ?> current = consumer;
+        consumer = null;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return consumer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 1;
+    }
+}
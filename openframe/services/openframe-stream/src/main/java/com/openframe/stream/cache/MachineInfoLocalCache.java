@@ -0,0 +1,192 @@
+package com.openframe.stream.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.openframe.data.model.redis.CachedMachineInfo;
+import com.openframe.data.model.redis.CachedOrganizationInfo;
+import com.openframe.stream.config.MachineInfoLocalCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process L1 in front of the Redis backed {@code MachineIdCacheService}.
+ * <p>
+ * Positive entries are indexed by machine and organization id so a devices-topic update can
+ * evict exactly the entries it affects. Empty lookups go to a separate, short-lived negative
+ * cache which is cleared on every machine update.
+ * <p>
+ * Concurrent misses for a key share one load. A load overlapping any invalidation is returned
+ * but not cached, as it may have read the value the invalidation was about.
+ */
+@Slf4j
+public class MachineInfoLocalCache {
+
+    private static final String CACHE_NAME = "machine-info-l1";
+    private static final String NEGATIVE_CACHE_NAME = "machine-info-l1-negative";
+
+    private final Cache<Object, Object> cache;
+    private final Cache<Object, Boolean> negativeCache;
+    private final ConcurrentHashMap<String, Set<Object>> keysByMachineId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Object>> keysByOrganizationId = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+    private final Counter invalidations;
+
+    public MachineInfoLocalCache(MachineInfoLocalCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .removalListener((Object key, Object value, RemovalCause cause) -> unindex(key, value))
+                .recordStats()
+                .build();
+        this.negativeCache = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeMaximumSize())
+                .expireAfterWrite(properties.getNegativeTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, NEGATIVE_CACHE_NAME);
+        this.invalidations = Counter.builder("openframe.machine.cache.invalidations")
+                .description("Local machine cache entries evicted by devices-topic updates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param emptyValue value returned for keys found in the negative cache, matching what the
+     *                   backing lookup returns for an unknown agent ({@code null}, empty Optional, ...)
+     */
+    public Object get(Object key, Supplier<Object> loader, Object emptyValue) {
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (negativeCache.getIfPresent(key) != null) {
+            return emptyValue;
+        }
+
+        Object[] loaded = new Object[1];
+        Object value = cache.get(key, ignored -> load(key, loader, loaded));
+        return value != null ? value : loaded[0];
+    }
+
+    /**
+     * Runs inside the cache's compute for {@code key}. The key is indexed before the epoch is
+     * checked again, so an invalidation either finds it in the index, and waits for this load to
+     * finish before evicting it, or has already moved the epoch and the value is not cached.
+     */
+    private Object load(Object key, Supplier<Object> loader, Object[] loaded) {
+        long epoch = invalidationEpoch.get();
+        Object value = loader.get();
+        loaded[0] = value;
+        if (isEmpty(value)) {
+            if (invalidationEpoch.get() == epoch) {
+                negativeCache.put(key, Boolean.TRUE);
+            }
+            return null;
+        }
+        index(key, value);
+        if (invalidationEpoch.get() != epoch) {
+            unindex(key, value);
+            return null;
+        }
+        return value;
+    }
+
+    public void invalidateMachine(String machineId, String organizationId) {
+        invalidationEpoch.incrementAndGet();
+        int evicted = invalidate(keysByMachineId.get(machineId));
+        if (organizationId != null) {
+            evicted += invalidate(keysByOrganizationId.get(organizationId));
+        }
+        negativeCache.invalidateAll();
+        invalidations.increment(evicted);
+        log.debug("Invalidated {} local machine cache entries for machine {}", evicted, machineId);
+    }
+
+    private int invalidate(Set<Object> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        Set<Object> snapshot = Set.copyOf(keys);
+        cache.invalidateAll(snapshot);
+        return snapshot.size();
+    }
+
+    private void index(Object key, Object value) {
+        Object unwrapped = unwrap(value);
+        if (unwrapped instanceof CachedMachineInfo machineInfo) {
+            addKey(keysByMachineId, machineInfo.getMachineId(), key);
+            addKey(keysByOrganizationId, machineInfo.getOrganizationId(), key);
+        } else if (unwrapped instanceof CachedOrganizationInfo organizationInfo) {
+            addKey(keysByOrganizationId, organizationInfo.getOrganizationId(), key);
+        }
+    }
+
+    /**
+     * Runs asynchronously after the removal, so by then the key may hold a newer value: a
+     * replacement, or a reload after an invalidation. Its index entries are kept for the ids the
+     * current value is still indexed under.
+     */
+    private void unindex(Object key, Object value) {
+        Object current = unwrap(cache.asMap().get(key));
+        Object unwrapped = unwrap(value);
+        if (unwrapped instanceof CachedMachineInfo machineInfo) {
+            if (!(current instanceof CachedMachineInfo currentInfo)
+                    || !Objects.equals(currentInfo.getMachineId(), machineInfo.getMachineId())) {
+                removeKey(keysByMachineId, machineInfo.getMachineId(), key);
+            }
+            if (!Objects.equals(organizationIdOf(current), machineInfo.getOrganizationId())) {
+                removeKey(keysByOrganizationId, machineInfo.getOrganizationId(), key);
+            }
+        } else if (unwrapped instanceof CachedOrganizationInfo organizationInfo
+                && !Objects.equals(organizationIdOf(current), organizationInfo.getOrganizationId())) {
+            removeKey(keysByOrganizationId, organizationInfo.getOrganizationId(), key);
+        }
+    }
+
+    private static String organizationIdOf(Object value) {
+        if (value instanceof CachedMachineInfo machineInfo) {
+            return machineInfo.getOrganizationId();
+        }
+        if (value instanceof CachedOrganizationInfo organizationInfo) {
+            return organizationInfo.getOrganizationId();
+        }
+        return null;
+    }
+
+    private static void addKey(ConcurrentHashMap<String, Set<Object>> index, String id, Object key) {
+        if (id != null) {
+            index.computeIfAbsent(id, ignored -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private static void removeKey(ConcurrentHashMap<String, Set<Object>> index, String id, Object key) {
+        if (id != null) {
+            index.computeIfPresent(id, (ignored, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof Optional<?> optional ? optional.orElse(null) : value;
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null
+                || value instanceof Optional<?> optional && optional.isEmpty()
+                || value instanceof Collection<?> collection && collection.isEmpty();
+    }
+}
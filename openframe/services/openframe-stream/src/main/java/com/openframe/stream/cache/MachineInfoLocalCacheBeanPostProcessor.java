@@ -0,0 +1,85 @@
+package com.openframe.stream.cache;
+
+import com.openframe.data.repository.redis.MachineIdCacheService;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Routes {@link MachineIdCacheService} lookups through {@link MachineInfoLocalCache}, so the Redis
+ * backed service becomes the L2 behind an in-process L1. Write and eviction methods are passed
+ * through untouched.
+ */
+@RequiredArgsConstructor
+public class MachineInfoLocalCacheBeanPostProcessor implements BeanPostProcessor {
+
+    private static final List<String> LOOKUP_METHOD_PREFIXES = List.of("get", "find");
+
+    private final ObjectProvider<MachineInfoLocalCache> localCache;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof MachineIdCacheService)) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(lookupInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(lookupInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor lookupInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (!isLookup(method)) {
+                return invocation.proceed();
+            }
+            List<Object> key = List.of(method.getName(), Arrays.asList(invocation.getArguments()));
+            return localCache.getObject().get(key, () -> {
+                try {
+                    return invocation.proceed();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }, emptyValueOf(method.getReturnType()));
+        };
+    }
+
+    private static boolean isLookup(Method method) {
+        return method.getParameterCount() > 0
+                && method.getReturnType() != void.class
+                && LOOKUP_METHOD_PREFIXES.stream().anyMatch(method.getName()::startsWith);
+    }
+
+    private static Object emptyValueOf(Class<?> returnType) {
+        if (Optional.class.equals(returnType)) {
+            return Optional.empty();
+        }
+        if (List.class.isAssignableFrom(returnType)) {
+            return List.of();
+        }
+        if (Set.class.isAssignableFrom(returnType)) {
+            return Set.of();
+        }
+        if (Map.class.isAssignableFrom(returnType)) {
+            return Map.of();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.openframe.stream.cache;
+
+import com.openframe.stream.config.ToolCacheProperties;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Routes the lookups of the tool cache services configured under
+ * {@code openframe.stream.tool-cache.services} (e.g. {@code FleetMdmCacheService},
+ * {@code TacticalRmmCacheService}) through a {@link ToolLookupCache}. Other methods are passed
+ * through untouched.
+ */
+@RequiredArgsConstructor
+public class ToolCacheBeanPostProcessor implements BeanPostProcessor {
+
+    private static final List<String> LOOKUP_METHOD_PREFIXES = List.of("get", "find");
+
+    private final ObjectProvider<ToolCacheProperties> properties;
+    private final ObjectProvider<ToolLookupCaches> caches;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String name = AopUtils.getTargetClass(bean).getSimpleName();
+        if (!properties.getObject().getServices().containsKey(name)) {
+            return bean;
+        }
+        // Always a proxy of its own: the cache calls back into the bean on misses and refreshes
+        ToolLookupCache cache = caches.getObject().register(name, bean);
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(lookupInterceptor(cache));
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor lookupInterceptor(ToolLookupCache cache) {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (!isLookup(method)) {
+                return invocation.proceed();
+            }
+            return cache.get(method, invocation.getArguments());
+        };
+    }
+
+    private static boolean isLookup(Method method) {
+        return method.getParameterCount() > 0
+                && method.getReturnType() != void.class
+                && LOOKUP_METHOD_PREFIXES.stream().anyMatch(method.getName()::startsWith);
+    }
+}
@@ -0,0 +1,67 @@
+package com.openframe.stream.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per tool cache service, the most recently resolved lookups in a Redis sorted set
+ * scored by time, so a starting pod can replay the lookups its peers needed.
+ * <p>
+ * Lookups are collected in memory by {@link #record} and written by {@link #flush} in one
+ * {@code ZADD} per service, followed by a single trim to {@code max-keys}.
+ */
+@Slf4j
+public class ToolCacheKeyJournal {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final int maxKeys;
+    private final Map<String, Map<String, Long>> pending = new ConcurrentHashMap<>();
+
+    public ToolCacheKeyJournal(StringRedisTemplate redisTemplate, String keyPrefix, int maxKeys) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.maxKeys = maxKeys;
+    }
+
+    public void record(String service, String lookup) {
+        pending.computeIfAbsent(service, name -> new ConcurrentHashMap<>()).put(lookup, System.currentTimeMillis());
+    }
+
+    /**
+     * Writes the lookups recorded since the last flush. Failed writes are dropped, the journal
+     * only steers the warm-up.
+     */
+    public void flush() {
+        pending.forEach((service, lookups) -> {
+            if (lookups.isEmpty()) {
+                return;
+            }
+            Map<String, Long> batch = new HashMap<>(lookups);
+            // A lookup recorded again since the copy keeps its newer entry for the next flush
+            batch.forEach((lookup, recordedAt) -> lookups.remove(lookup, recordedAt));
+            Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>(batch.size());
+            batch.forEach((lookup, recordedAt) -> tuples.add(ZSetOperations.TypedTuple.of(lookup, recordedAt.doubleValue())));
+            String key = keyPrefix + service;
+            try {
+                redisTemplate.opsForZSet().add(key, tuples);
+                redisTemplate.opsForZSet().removeRange(key, 0, -maxKeys - 1L);
+            } catch (Exception e) {
+                log.debug("Failed to record {} tool cache lookups for {}", tuples.size(), service, e);
+            }
+        });
+    }
+
+    public List<String> recent(String service) {
+        Set<String> lookups = redisTemplate.opsForZSet().reverseRange(keyPrefix + service, 0, maxKeys - 1L);
+        return lookups == null ? List.of() : List.copyOf(lookups);
+    }
+}
@@ -0,0 +1,283 @@
+package com.openframe.stream.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.openframe.stream.config.ToolCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free, in-process cache in front of the lookup methods of one tool cache service.
+ * <ul>
+ *     <li>A miss never blocks the caller, typically a Kafka consumer thread: the lookup is loaded
+ *     in the background and the caller gets an empty result ({@code null}, or an empty
+ *     {@code Optional}, collection or map) until the load completes, unless {@code wait-on-miss}
+ *     is set. Lookups returning primitives always wait.</li>
+ *     <li>Concurrent misses for the same lookup share a single call to the service.</li>
+ *     <li>Entries past {@code refresh-after} are served while they are reloaded in the
+ *     background, so steady-state reads never wait for the tool API.</li>
+ *     <li>Lookups first loaded by this instance are recorded in {@link ToolCacheKeyJournal} and
+ *     replayed in bulk by {@link #warmUp} on startup; refreshes and warm-up loads are not recorded
+ *     again.</li>
+ * </ul>
+ * Empty results ({@code null}, empty {@code Optional}, collection, map or array) expire after
+ * {@code empty-expire-after}, so an id the tool did not know yet is looked up again soon.
+ */
+@Slf4j
+public class ToolLookupCache {
+
+    private static final String METHOD = "method";
+    private static final String PARAMETER_TYPES = "parameterTypes";
+    private static final String ARGS = "args";
+
+    private final String name;
+    private final Object target;
+    private final Class<?> targetClass;
+    private final AsyncLoadingCache<Lookup, Value> cache;
+    private final boolean waitOnMiss;
+    private final Counter missesServedEmpty;
+    private final ToolCacheKeyJournal journal;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+
+    public ToolLookupCache(String name,
+                           Object target,
+                           ToolCacheProperties.ServiceCache properties,
+                           ToolCacheKeyJournal journal,
+                           ExecutorService executor,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.name = name;
+        this.target = target;
+        this.targetClass = AopUtils.getTargetClass(target);
+        this.journal = journal;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.waitOnMiss = properties.isWaitOnMiss();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .refreshAfterWrite(properties.getRefreshAfter())
+                .expireAfter(new ValueExpiry(properties.getExpireAfter(), properties.getEmptyExpireAfter()))
+                .executor(executor)
+                .recordStats()
+                .buildAsync(new CacheLoader<Lookup, Value>() {
+                    @Override
+                    public Value load(Lookup lookup) throws Exception {
+                        Value value = invoke(lookup);
+                        if (journal != null) {
+                            journal.record(name, encode(lookup));
+                        }
+                        return value;
+                    }
+
+                    @Override
+                    public Value reload(Lookup lookup, Value oldValue) throws Exception {
+                        return invoke(lookup);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "tool-cache-" + name);
+        this.missesServedEmpty = Counter.builder("openframe.stream.tool-cache.miss.served-empty")
+                .description("Lookups answered with an empty result while their load runs in the background")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object get(Method method, Object[] args) {
+        Lookup lookup = new Lookup(method, Arrays.asList(args.clone()));
+        CompletableFuture<Value> cached = cache.getIfPresent(lookup);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            return cached.join().value();
+        }
+        CompletableFuture<Value> loading = cached != null && !cached.isCompletedExceptionally() ? cached : cache.get(lookup);
+        if (waitOnMiss || method.getReturnType().isPrimitive()) {
+            return join(loading).value();
+        }
+        missesServedEmpty.increment();
+        return emptyResult(method.getReturnType());
+    }
+
+    private static Value join(CompletableFuture<Value> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * What a lookup not loaded yet answers: what the service returns for an id it does not know.
+     */
+    private static Object emptyResult(Class<?> returnType) {
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        if (returnType == List.class || returnType == Collection.class) {
+            return List.of();
+        }
+        if (returnType == Set.class) {
+            return Set.of();
+        }
+        if (returnType == Map.class) {
+            return Map.of();
+        }
+        return null;
+    }
+
+    /**
+     * Replays the lookups recorded by all instances, at most {@code parallelism} at a time.
+     *
+     * @return the number of lookups loaded within {@code timeout}
+     */
+    public int warmUp(int parallelism, Duration timeout) throws InterruptedException {
+        if (journal == null) {
+            return 0;
+        }
+        List<Lookup> lookups = new ArrayList<>();
+        for (String encoded : journal.recent(name)) {
+            Lookup lookup = decode(encoded);
+            if (lookup != null) {
+                lookups.add(lookup);
+            }
+        }
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicInteger loaded = new AtomicInteger();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Lookup lookup : lookups) {
+            if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                break;
+            }
+            executor.execute(() -> {
+                try {
+                    cache.get(lookup, this::warmUpLoad).join();
+                    loaded.incrementAndGet();
+                } catch (Exception e) {
+                    log.debug("Failed to warm up {} lookup {}", name, lookup, e);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        permits.tryAcquire(parallelism, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        return loaded.get();
+    }
+
+    private Value warmUpLoad(Lookup lookup) {
+        try {
+            return invoke(lookup);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private Value invoke(Lookup lookup) throws Exception {
+        try {
+            return new Value(lookup.method().invoke(target, lookup.args().toArray()));
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private String encode(Lookup lookup) {
+        ObjectNode node = objectMapper.createObjectNode().put(METHOD, lookup.method().getName());
+        ArrayNode parameterTypes = node.putArray(PARAMETER_TYPES);
+        for (Class<?> parameterType : lookup.method().getParameterTypes()) {
+            parameterTypes.add(parameterType.getName());
+        }
+        node.set(ARGS, objectMapper.valueToTree(lookup.args()));
+        return node.toString();
+    }
+
+    private Lookup decode(String encoded) {
+        try {
+            JsonNode node = objectMapper.readTree(encoded);
+            JsonNode parameterTypeNames = node.path(PARAMETER_TYPES);
+            Class<?>[] parameterTypes = new Class<?>[parameterTypeNames.size()];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                parameterTypes[i] = ClassUtils.forName(parameterTypeNames.get(i).asText(), targetClass.getClassLoader());
+            }
+            Method method = ReflectionUtils.findMethod(targetClass, node.path(METHOD).asText(), parameterTypes);
+            if (method == null) {
+                return null;
+            }
+            List<Object> args = new ArrayList<>(parameterTypes.length);
+            for (int i = 0; i < parameterTypes.length; i++) {
+                args.add(objectMapper.convertValue(node.path(ARGS).get(i), parameterTypes[i]));
+            }
+            return new Lookup(method, args);
+        } catch (Exception e) {
+            // Recorded by another version of the service, skip it
+            log.debug("Skipping unreadable {} lookup {}", name, encoded, e);
+            return null;
+        }
+    }
+
+    private record Lookup(Method method, List<Object> args) {
+    }
+
+    private record Value(Object value) {
+
+        boolean empty() {
+            return value == null
+                    || value instanceof Optional<?> optional && optional.isEmpty()
+                    || value instanceof Collection<?> collection && collection.isEmpty()
+                    || value instanceof Map<?, ?> map && map.isEmpty()
+                    || value.getClass().isArray() && Array.getLength(value) == 0;
+        }
+    }
+
+    private record ValueExpiry(Duration expireAfter, Duration emptyExpireAfter) implements Expiry<Lookup, Value> {
+
+        @Override
+        public long expireAfterCreate(Lookup lookup, Value value, long currentTime) {
+            return (value.empty() ? emptyExpireAfter : expireAfter).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Lookup lookup, Value value, long currentTime, long currentDuration) {
+            return expireAfterCreate(lookup, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Lookup lookup, Value value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
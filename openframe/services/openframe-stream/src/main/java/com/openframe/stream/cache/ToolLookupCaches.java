@@ -0,0 +1,119 @@
+package com.openframe.stream.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.stream.config.ToolCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the {@link ToolLookupCache} of every proxied tool cache service.
+ * <p>
+ * On start the caches are warmed up in the background, so startup is not held back by the tool
+ * APIs; records arriving during the warm-up get empty results for lookups still loading, unless
+ * the service waits on misses. The lookups recorded in
+ * {@link ToolCacheKeyJournal} are flushed every {@code flush-interval} and once more on stop.
+ */
+@Slf4j
+public class ToolLookupCaches implements SmartLifecycle, AutoCloseable {
+
+    private final ToolCacheProperties properties;
+    private final ToolCacheKeyJournal journal;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tool-cache-journal-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<ToolLookupCache> caches = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+
+    public ToolLookupCaches(ToolCacheProperties properties,
+                            ToolCacheKeyJournal journal,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.journal = journal;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ToolLookupCache register(String name, Object target) {
+        ToolLookupCache cache = new ToolLookupCache(name, target, properties.getServices().get(name),
+                journal, executor, objectMapper, meterRegistry);
+        caches.add(cache);
+        return cache;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (journal != null) {
+            long interval = properties.getWarmUp().getFlushInterval().toMillis();
+            flushExecutor.scheduleWithFixedDelay(this::flushJournal, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        ToolCacheProperties.WarmUp warmUp = properties.getWarmUp();
+        if (warmUp.isEnabled()) {
+            executor.execute(() -> warmUp(warmUp));
+        }
+    }
+
+    private void warmUp(ToolCacheProperties.WarmUp warmUp) {
+        for (ToolLookupCache cache : caches) {
+            long started = System.nanoTime();
+            try {
+                int loaded = cache.warmUp(warmUp.getParallelism(), warmUp.getTimeout());
+                log.info("Warmed up {} with {} lookups in {} ms", cache.getName(), loaded,
+                        (System.nanoTime() - started) / 1_000_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Failed to warm up {}, lookups are loaded on demand", cache.getName(), e);
+            }
+        }
+    }
+
+    private void flushJournal() {
+        try {
+            journal.flush();
+        } catch (Exception e) {
+            log.debug("Failed to flush tool cache journal", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flushExecutor.shutdown();
+        if (journal != null) {
+            flushJournal();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 2;
+    }
+
+    @Override
+    public void close() {
+        flushExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,70 @@
+package com.openframe.stream.cassandra;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pauses the listener containers consuming the configured topics while Cassandra is saturated.
+ * A paused container keeps polling, so it stays in its group, but fetches no records until
+ * {@link #release()}.
+ */
+@Slf4j
+public class CassandraBackpressure {
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> registry;
+    private final Collection<String> topics;
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final Counter pauses;
+
+    public CassandraBackpressure(ObjectProvider<KafkaListenerEndpointRegistry> registry,
+                                 Collection<String> topics,
+                                 MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.topics = topics;
+        this.pauses = Counter.builder("openframe.stream.cassandra.backpressure.pauses")
+                .description("Times the inbound listener containers were paused by Cassandra backpressure")
+                .register(meterRegistry);
+        meterRegistry.gauge("openframe.stream.cassandra.backpressure.paused", paused, state -> state.get() ? 1 : 0);
+    }
+
+    public boolean isPaused() {
+        return paused.get();
+    }
+
+    public void apply() {
+        if (paused.compareAndSet(false, true)) {
+            pauses.increment();
+            log.warn("Cassandra is saturated, pausing consumption of {}", topics);
+            containers().forEach(MessageListenerContainer::pause);
+        }
+    }
+
+    public void release() {
+        if (paused.compareAndSet(true, false)) {
+            log.info("Cassandra recovered, resuming consumption of {}", topics);
+            containers().forEach(MessageListenerContainer::resume);
+        }
+    }
+
+    private Collection<MessageListenerContainer> containers() {
+        KafkaListenerEndpointRegistry endpointRegistry = registry.getIfAvailable();
+        if (endpointRegistry == null) {
+            return List.of();
+        }
+        return endpointRegistry.getAllListenerContainers().stream()
+                .filter(container -> {
+                    String[] containerTopics = container.getContainerProperties().getTopics();
+                    return containerTopics != null && Arrays.stream(containerTopics).anyMatch(topics::contains);
+                })
+                .toList();
+    }
+}
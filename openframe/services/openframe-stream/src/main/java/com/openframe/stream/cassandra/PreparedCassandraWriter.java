@@ -0,0 +1,297 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.querybuilder.QueryBuilder;
+import com.datastax.oss.driver.api.querybuilder.insert.RegularInsert;
+import com.openframe.stream.config.CassandraWriterProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.cassandra.core.convert.CassandraConverter;
+import org.springframework.data.cassandra.core.mapping.CassandraMappingContext;
+import org.springframework.data.cassandra.core.mapping.CassandraPersistentEntity;
+import org.springframework.data.cassandra.core.mapping.CassandraPersistentProperty;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous Cassandra writer for mapped entities such as {@code UnifiedLogEvent}.
+ * <p>
+ * One {@code INSERT} is prepared per entity type and reused; entities are only converted to
+ * column values and bound positionally, with {@code null} columns left unset so no tombstones
+ * are written. Rows are grouped by partition key into single-partition unlogged batches, whose
+ * routing key lets the driver's token-aware policy send them straight to a replica.
+ * <p>
+ * In-flight requests are capped per host: a write takes a permit from every replica of its
+ * partition, since each of them applies it whichever one coordinates. When a replica is at its
+ * cap, {@link CassandraBackpressure} pauses the inbound containers and the caller waits for the
+ * permits, bounded by the write timeout; consumption resumes once every replica is back under
+ * {@code resume-ratio} of the cap.
+ */
+@Slf4j
+public class PreparedCassandraWriter {
+
+    private static final String METRIC_PREFIX = "openframe.stream.cassandra.write";
+
+    private final CqlSession session;
+    private final CassandraConverter converter;
+    private final CassandraMappingContext mappingContext;
+    private final CassandraWriterProperties properties;
+    private final CassandraBackpressure backpressure;
+    private final Map<Class<?>, PreparedInsert> inserts = new ConcurrentHashMap<>();
+    private final Map<Node, HostPermits> inFlightByNode = new ConcurrentHashMap<>();
+    private final AtomicInteger hostOrdinals = new AtomicInteger();
+    private final Semaphore unroutedInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int resumeBelow;
+    private final Timer successLatency;
+    private final Timer failureLatency;
+    private final DistributionSummary batchSize;
+
+    public PreparedCassandraWriter(CqlSession session,
+                                   CassandraConverter converter,
+                                   CassandraWriterProperties properties,
+                                   CassandraBackpressure backpressure,
+                                   MeterRegistry meterRegistry) {
+        this.session = session;
+        this.converter = converter;
+        this.mappingContext = converter.getMappingContext();
+        this.properties = properties;
+        this.backpressure = backpressure;
+        this.unroutedInFlight = new Semaphore(properties.getMaxInFlightPerHost());
+        this.resumeBelow = (int) Math.ceil(properties.getMaxInFlightPerHost() * properties.getResumeRatio());
+        this.successLatency = latency("success", meterRegistry);
+        this.failureLatency = latency("failure", meterRegistry);
+        this.batchSize = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Rows per Cassandra write")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge(METRIC_PREFIX + ".in.flight", inFlight);
+    }
+
+    private static Timer latency(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder(METRIC_PREFIX)
+                .description("Latency of Cassandra writes issued by the stream service")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    public Duration getWriteTimeout() {
+        return properties.getWriteTimeout();
+    }
+
+    public CompletableFuture<Void> write(List<?> entities) {
+        if (entities.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<PartitionKey, List<BoundStatement>> partitions = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            PreparedInsert insert = inserts.computeIfAbsent(entity.getClass(), this::prepare);
+            Map<CqlIdentifier, Object> columns = new LinkedHashMap<>();
+            converter.write(entity, columns);
+            partitions.computeIfAbsent(insert.partitionKeyOf(columns), key -> new ArrayList<>()).add(insert.bind(columns));
+        }
+
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (List<BoundStatement> partition : partitions.values()) {
+            for (int from = 0; from < partition.size(); from += properties.getMaxStatementsPerBatch()) {
+                int to = Math.min(from + properties.getMaxStatementsPerBatch(), partition.size());
+                futures.add(execute(partition.subList(from, to)));
+            }
+        }
+
+        log.debug("Writing {} rows to Cassandra in {} partitions / {} requests",
+                entities.size(), partitions.size(), futures.size());
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    CompletableFuture<?> execute(List<BoundStatement> statements) {
+        Statement<?> statement = statements.size() == 1
+                ? statements.get(0)
+                : new BatchStatementBuilder(DefaultBatchType.UNLOGGED).addStatements(new ArrayList<>(statements)).build();
+        List<Semaphore> permits = permitsFor(statements.get(0));
+        try {
+            acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        inFlight.incrementAndGet();
+        batchSize.record(statements.size());
+        long started = System.nanoTime();
+        try {
+            return session.executeAsync(statement).toCompletableFuture()
+                    .whenComplete((result, error) -> {
+                        (error == null ? successLatency : failureLatency)
+                                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                        release(permits);
+                    });
+        } catch (RuntimeException e) {
+            release(permits);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Takes one permit per replica, in a fixed host order so that writes to overlapping replica
+     * sets cannot hold each other's permits. Permits already taken are given back when the
+     * remaining ones cannot be had within the write timeout.
+     */
+    private void acquire(List<Semaphore> permits) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.getWriteTimeout().toNanos();
+        int acquired = 0;
+        try {
+            for (Semaphore replica : permits) {
+                if (!replica.tryAcquire()) {
+                    backpressure.apply();
+                    if (!replica.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        throw new IllegalStateException("No Cassandra write permit within " + properties.getWriteTimeout());
+                    }
+                }
+                acquired++;
+            }
+        } finally {
+            if (acquired < permits.size()) {
+                permits.subList(0, acquired).forEach(Semaphore::release);
+            }
+        }
+    }
+
+    private void release(List<Semaphore> permits) {
+        permits.forEach(Semaphore::release);
+        inFlight.decrementAndGet();
+        if (backpressure.isPaused() && belowResumeThreshold()) {
+            backpressure.release();
+        }
+    }
+
+    private boolean belowResumeThreshold() {
+        int max = properties.getMaxInFlightPerHost();
+        if (max - unroutedInFlight.availablePermits() > resumeBelow) {
+            return false;
+        }
+        for (HostPermits host : inFlightByNode.values()) {
+            if (max - host.permits().availablePermits() > resumeBelow) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Permits of every replica of the statement's partition, as listed by the token map, in host
+     * order. Statements without routing information share one pool.
+     */
+    private List<Semaphore> permitsFor(BoundStatement statement) {
+        ByteBuffer routingKey = statement.getRoutingKey();
+        CqlIdentifier keyspace = statement.getRoutingKeyspace() != null
+                ? statement.getRoutingKeyspace()
+                : session.getKeyspace().orElse(null);
+        Optional<TokenMap> tokenMap = session.getMetadata().getTokenMap();
+        if (routingKey == null || keyspace == null || tokenMap.isEmpty()) {
+            return List.of(unroutedInFlight);
+        }
+        List<Semaphore> permits = tokenMap.get().getReplicas(keyspace, routingKey).stream()
+                .map(node -> inFlightByNode.computeIfAbsent(node, ignored ->
+                        new HostPermits(hostOrdinals.getAndIncrement(), new Semaphore(properties.getMaxInFlightPerHost()))))
+                .sorted(Comparator.comparingInt(HostPermits::ordinal))
+                .map(HostPermits::permits)
+                .toList();
+        return permits.isEmpty() ? List.of(unroutedInFlight) : permits;
+    }
+
+    private PreparedInsert prepare(Class<?> type) {
+        CassandraPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(type);
+        List<CqlIdentifier> columns = new ArrayList<>();
+        List<CqlIdentifier> partitionKeyColumns = new ArrayList<>();
+        collectColumns(entity, columns, partitionKeyColumns);
+
+        RegularInsert insert = null;
+        for (CqlIdentifier column : columns) {
+            insert = insert == null
+                    ? QueryBuilder.insertInto(entity.getTableName()).value(column, QueryBuilder.bindMarker())
+                    : insert.value(column, QueryBuilder.bindMarker());
+        }
+        if (insert == null) {
+            throw new IllegalStateException("No columns mapped for " + type.getName());
+        }
+        PreparedStatement prepared = session.prepare(insert.build());
+        log.info("Prepared Cassandra insert for {}: {}", type.getSimpleName(), prepared.getQuery());
+        return new PreparedInsert(prepared, columns, partitionKeyColumns);
+    }
+
+    private void collectColumns(CassandraPersistentEntity<?> entity,
+                                List<CqlIdentifier> columns,
+                                List<CqlIdentifier> partitionKeyColumns) {
+        for (CassandraPersistentProperty property : entity) {
+            if (property.isCompositePrimaryKey()) {
+                collectColumns(mappingContext.getRequiredPersistentEntity(property), columns, partitionKeyColumns);
+            } else if (!property.isTransient()) {
+                columns.add(property.getRequiredColumnName());
+                if (property.isPartitionKeyColumn()) {
+                    partitionKeyColumns.add(property.getRequiredColumnName());
+                }
+            }
+        }
+    }
+
+    private record PreparedInsert(PreparedStatement statement,
+                                  List<CqlIdentifier> columns,
+                                  List<CqlIdentifier> partitionKeyColumns) {
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        BoundStatement bind(Map<CqlIdentifier, Object> values) {
+            BoundStatementBuilder builder = statement.boundStatementBuilder();
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = values.get(columns.get(i));
+                if (value != null) {
+                    builder = builder.set(i, value, (Class) value.getClass());
+                }
+            }
+            return builder.build();
+        }
+
+        PartitionKey partitionKeyOf(Map<CqlIdentifier, Object> values) {
+            List<Object> key = new ArrayList<>(partitionKeyColumns.size());
+            for (CqlIdentifier column : partitionKeyColumns) {
+                key.add(values.get(column));
+            }
+            return new PartitionKey(statement, key);
+        }
+    }
+
+    private record HostPermits(int ordinal, Semaphore permits) {
+    }
+
+    private record PartitionKey(PreparedStatement statement, List<Object> values) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.openframe.stream.cassandra;
+
+import com.openframe.data.repository.cassandra.UnifiedLogEventRepository;
+import com.openframe.stream.batch.BatchScope;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Routes record-mode {@link UnifiedLogEventRepository#save} calls of
+ * {@code DebeziumCassandraMessageHandler} through {@link PreparedCassandraWriter}. The call still
+ * waits for the write, so a record is only acknowledged once its row is stored. Saves inside a
+ * {@link BatchScope} are left to the batch buffering.
+ */
+@RequiredArgsConstructor
+public class PreparedWriteBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String SAVE_METHOD = "save";
+
+    private final ObjectProvider<PreparedCassandraWriter> writer;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof UnifiedLogEventRepository)) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(saveInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(saveInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor saveInterceptor() {
+        return invocation -> {
+            Object[] args = invocation.getArguments();
+            if (!SAVE_METHOD.equals(invocation.getMethod().getName()) || args.length != 1
+                    || args[0] == null || BatchScope.current().isPresent()) {
+                return invocation.proceed();
+            }
+            PreparedCassandraWriter preparedWriter = writer.getObject();
+            try {
+                preparedWriter.write(List.of(args[0]))
+                        .get(preparedWriter.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while writing to Cassandra", e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new IllegalStateException("Failed to write " + args[0].getClass().getSimpleName() + " to Cassandra", e);
+            }
+            return args[0];
+        };
+    }
+}
@@ -0,0 +1,201 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.openframe.stream.config.CassandraSchemaProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Brings the tenant keyspace and the unified log table to the configured storage settings on
+ * startup, before the listener containers write to it:
+ * <ul>
+ *     <li>{@code NetworkTopologyStrategy} replication with the configured factor per datacenter;
+ *     keyspaces created with another strategy, such as the {@code SimpleStrategy} of earlier
+ *     chart versions, are altered to it;</li>
+ *     <li>{@code TimeWindowCompactionStrategy} with windows aligned to {@code ingest_day}, so a
+ *     day of rows ends up in one SSTable and whole SSTables drop once expired;</li>
+ *     <li>a per-tenant {@code default_time_to_live}.</li>
+ * </ul>
+ * Current settings are read from {@code system_schema} and only differing ones are altered, so
+ * applying it on every start is a no-op once converged. Only the replica holding the Redis lock
+ * {@code lock-key} applies them, so a rollout does not send concurrent schema changes from every
+ * pod; the others skip the step. Without Redis every replica applies them.
+ */
+@Slf4j
+public class UnifiedLogSchemaManager implements SmartLifecycle {
+
+    private static final String NETWORK_TOPOLOGY_STRATEGY = "NetworkTopologyStrategy";
+    private static final String TIME_WINDOW_COMPACTION_STRATEGY = "TimeWindowCompactionStrategy";
+    private static final String CLASS = "class";
+    private static final String WINDOW_UNIT = "compaction_window_unit";
+    private static final String WINDOW_SIZE = "compaction_window_size";
+
+    private final CqlSession session;
+    private final CassandraSchemaProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private volatile boolean running;
+
+    public UnifiedLogSchemaManager(CqlSession session,
+                                   CassandraSchemaProperties properties,
+                                   StringRedisTemplate redisTemplate) {
+        this.session = session;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        CqlIdentifier keyspace = session.getKeyspace()
+                .orElseThrow(() -> new IllegalStateException("Cassandra session has no keyspace"));
+        String owner = UUID.randomUUID().toString();
+        if (!lock(owner)) {
+            log.info("Storage settings of {}.{} are being applied by another replica, skipping",
+                    keyspace.asInternal(), properties.getTable());
+            return;
+        }
+        try {
+            applyReplication(keyspace);
+            applyTableOptions(keyspace);
+        } finally {
+            unlock(owner);
+        }
+    }
+
+    private boolean lock(String owner) {
+        if (redisTemplate == null) {
+            return true;
+        }
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(properties.getLockKey(), owner, properties.getLockTimeout()));
+    }
+
+    private void unlock(String owner) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            if (owner.equals(redisTemplate.opsForValue().get(properties.getLockKey()))) {
+                redisTemplate.delete(properties.getLockKey());
+            }
+        } catch (Exception e) {
+            log.debug("Failed to release {}, it expires after {}", properties.getLockKey(), properties.getLockTimeout(), e);
+        }
+    }
+
+    private void applyReplication(CqlIdentifier keyspace) {
+        Map<String, String> desired = desiredReplication();
+        if (desired.isEmpty()) {
+            return;
+        }
+        Row row = session.execute(SimpleStatement.newInstance(
+                "SELECT replication FROM system_schema.keyspaces WHERE keyspace_name = ?", keyspace.asInternal())).one();
+        Map<String, String> current = row != null ? row.getMap("replication", String.class, String.class) : Map.of();
+
+        if (current.getOrDefault(CLASS, "").endsWith(NETWORK_TOPOLOGY_STRATEGY) && withoutClass(current).equals(desired)) {
+            return;
+        }
+
+        String replication = desired.entrySet().stream()
+                .map(entry -> "'" + entry.getKey() + "': " + entry.getValue())
+                .collect(Collectors.joining(", "));
+        session.execute("ALTER KEYSPACE " + keyspace.asCql(true)
+                + " WITH replication = {'class': '" + NETWORK_TOPOLOGY_STRATEGY + "', " + replication + "}");
+        log.warn("Changed replication of keyspace {} from {} to {}; run a full repair to move existing data",
+                keyspace.asInternal(), current, desired);
+    }
+
+    private Map<String, String> desiredReplication() {
+        Map<String, String> desired = new LinkedHashMap<>();
+        if (properties.getReplicationFactor() != null) {
+            desired.put(properties.getDatacenter(), String.valueOf(properties.getReplicationFactor()));
+        }
+        properties.getReplication().forEach((datacenter, factor) -> desired.put(datacenter, String.valueOf(factor)));
+        return desired;
+    }
+
+    private void applyTableOptions(CqlIdentifier keyspace) {
+        Row row = session.execute(SimpleStatement.newInstance(
+                "SELECT compaction, default_time_to_live, gc_grace_seconds FROM system_schema.tables"
+                        + " WHERE keyspace_name = ? AND table_name = ?",
+                keyspace.asInternal(), properties.getTable())).one();
+        if (row == null) {
+            log.warn("Table {}.{} does not exist yet, skipping storage settings", keyspace.asInternal(), properties.getTable());
+            return;
+        }
+
+        Window window = Window.of(properties.getCompactionWindow());
+        int ttlSeconds = (int) properties.getTtlByKeyspace()
+                .getOrDefault(keyspace.asInternal(), properties.getTtl()).toSeconds();
+
+        Map<String, String> compaction = row.getMap("compaction", String.class, String.class);
+        boolean compactionMatches = compaction.getOrDefault(CLASS, "").endsWith(TIME_WINDOW_COMPACTION_STRATEGY)
+                && window.unit().equals(compaction.get(WINDOW_UNIT))
+                && String.valueOf(window.size()).equals(compaction.get(WINDOW_SIZE));
+        boolean ttlMatches = row.getInt("default_time_to_live") == ttlSeconds;
+        Integer gcGraceSeconds = properties.getGcGrace() != null ? (int) properties.getGcGrace().toSeconds() : null;
+        boolean gcGraceMatches = gcGraceSeconds == null || row.getInt("gc_grace_seconds") == gcGraceSeconds;
+        if (compactionMatches && ttlMatches && gcGraceMatches) {
+            log.debug("Storage settings of {}.{} are up to date", keyspace.asInternal(), properties.getTable());
+            return;
+        }
+
+        StringBuilder alter = new StringBuilder("ALTER TABLE ")
+                .append(keyspace.asCql(true)).append('.').append(CqlIdentifier.fromInternal(properties.getTable()).asCql(true))
+                .append(" WITH compaction = {'class': '").append(TIME_WINDOW_COMPACTION_STRATEGY)
+                .append("', '").append(WINDOW_UNIT).append("': '").append(window.unit())
+                .append("', '").append(WINDOW_SIZE).append("': '").append(window.size()).append("'}")
+                .append(" AND default_time_to_live = ").append(ttlSeconds);
+        if (gcGraceSeconds != null) {
+            alter.append(" AND gc_grace_seconds = ").append(gcGraceSeconds);
+        }
+        session.execute(alter.toString());
+        log.info("Applied storage settings to {}.{}: {} windows of {} {}, ttl {}s",
+                keyspace.asInternal(), properties.getTable(), TIME_WINDOW_COMPACTION_STRATEGY, window.size(), window.unit(), ttlSeconds);
+    }
+
+    private static Map<String, String> withoutClass(Map<String, String> replication) {
+        Map<String, String> datacenters = new LinkedHashMap<>(replication);
+        datacenters.remove(CLASS);
+        return datacenters;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 3;
+    }
+
+    private record Window(String unit, long size) {
+
+        static Window of(Duration duration) {
+            if (duration.toDays() > 0 && duration.equals(Duration.ofDays(duration.toDays()))) {
+                return new Window("DAYS", duration.toDays());
+            }
+            if (duration.toHours() > 0 && duration.equals(Duration.ofHours(duration.toHours()))) {
+                return new Window("HOURS", duration.toHours());
+            }
+            return new Window("MINUTES", Math.max(1, duration.toMinutes()));
+        }
+    }
+}
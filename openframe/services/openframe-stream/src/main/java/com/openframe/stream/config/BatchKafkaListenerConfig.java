@@ -0,0 +1,117 @@
+package com.openframe.stream.config;
+
+import com.openframe.data.model.enums.MessageType;
+import com.openframe.kafka.model.debezium.CommonDebeziumMessage;
+import com.openframe.stream.batch.BatchScopeBeanPostProcessor;
+import com.openframe.stream.batch.KeyOrderedRecordExecutor;
+import com.openframe.stream.cassandra.PreparedCassandraWriter;
+import com.openframe.stream.listener.BatchJsonKafkaListener;
+import com.openframe.stream.listener.RecordProcessingException;
+import com.openframe.stream.processor.GenericJsonMessageProcessor;
+import com.openframe.stream.redelivery.RedeliveryHeaders;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Batch consumption mode for integrated tool Debezium topics, enabled with
+ * {@code openframe.stream.batch.enabled=true}.
+ * <p>
+ * The {@code jsonKafkaListener} bean defined here replaces the record-mode listener from
+ * stream-service-core (bean definition overriding is enabled platform-wide), so the same
+ * consumer group never runs both modes at once.
+ * <p>
+ * Nothing is acknowledged past a record that was not written or parked, and every record is
+ * dead-lettered by the one {@link DefaultErrorHandler} of the container: records failing
+ * processing are published to their dead letter topic without retries, and a batch whose
+ * Cassandra write fails is redelivered with backoff until it succeeds or
+ * {@code retry-max-elapsed-time} has passed, after which its records are dead-lettered as well.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.batch", name = "enabled", havingValue = "true")
+public class BatchKafkaListenerConfig {
+
+    @Bean
+    public static BatchScopeBeanPostProcessor batchScopeBeanPostProcessor() {
+        return new BatchScopeBeanPostProcessor();
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CommonDebeziumMessage> batchKafkaListenerContainerFactory(
+            ConsumerFactory<String, CommonDebeziumMessage> consumerFactory,
+            DeadLetterPublishingRecoverer batchDeadLetterRecoverer,
+            BatchListenerProperties properties) {
+        ConcurrentKafkaListenerContainerFactory<String, CommonDebeziumMessage> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        if (properties.getConcurrency() != null) {
+            factory.setConcurrency(properties.getConcurrency());
+        }
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setPollTimeout(properties.getPollTimeout().toMillis());
+
+        Properties consumerOverrides = new Properties();
+        consumerOverrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(properties.getMaxPollRecords()));
+        containerProperties.setKafkaConsumerProperties(consumerOverrides);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(properties.getRetryInitialInterval().toMillis(),
+                properties.getRetryMultiplier());
+        backOff.setMaxInterval(properties.getRetryMaxInterval().toMillis());
+        backOff.setMaxElapsedTime(properties.getRetryMaxElapsedTime().toMillis());
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(batchDeadLetterRecoverer, backOff);
+        errorHandler.addNotRetryableExceptions(RecordProcessingException.class);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    /**
+     * Publishes with the shared oss-tenant template to {@code <topic><dlt-suffix>}, leaving the
+     * partition to the producer, with the {@link RedeliveryHeaders#TARGET_TOPIC} header the
+     * openframe-management replay endpoint reads. The send is awaited, so a failed dead letter
+     * publish leaves the record to be redelivered instead of skipping it.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer batchDeadLetterRecoverer(KafkaTemplate<String, Object> kafkaTemplate,
+                                                                  BatchListenerProperties properties) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(record.topic() + properties.getDltSuffix(), -1));
+        recoverer.setHeadersFunction((record, e) -> new RecordHeaders(new RecordHeader[]{
+                new RecordHeader(RedeliveryHeaders.TARGET_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8))}));
+        return recoverer;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "openframe.stream.batch.key-ordered", name = "enabled", havingValue = "true")
+    public KeyOrderedRecordExecutor keyOrderedRecordExecutor(BatchListenerProperties properties) {
+        return new KeyOrderedRecordExecutor(properties.getKeyOrdered().getMaxConcurrency());
+    }
+
+    @Bean("jsonKafkaListener")
+    public BatchJsonKafkaListener jsonKafkaListener(GenericJsonMessageProcessor messageProcessor,
+                                                    Converter<byte[], MessageType> messageTypeConverter,
+                                                    PreparedCassandraWriter cassandraWriter,
+                                                    BatchListenerProperties properties,
+                                                    ObjectProvider<KeyOrderedRecordExecutor> keyOrderedExecutor) {
+        return new BatchJsonKafkaListener(messageProcessor, messageTypeConverter, cassandraWriter, properties,
+                keyOrderedExecutor.getIfAvailable());
+    }
+}
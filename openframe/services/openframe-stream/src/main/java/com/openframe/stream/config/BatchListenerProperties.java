@@ -0,0 +1,71 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.batch")
+public class BatchListenerProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Inbound Debezium topics consumed in batch mode.
+     */
+    private List<String> topics = new ArrayList<>();
+
+    private Integer concurrency;
+    private int maxPollRecords = 500;
+    private Duration pollTimeout = Duration.ofSeconds(3);
+
+    private KeyOrdered keyOrdered = new KeyOrdered();
+
+    /**
+     * Records failing processing, and whole batches whose Cassandra write still fails once the
+     * backoff is exhausted, are published to {@code <topic><dlt-suffix>}.
+     */
+    private String dltSuffix = "-dlt";
+
+    /**
+     * Backoff of whole batch redelivery after a failed Cassandra write. The consumer is paused,
+     * not rebalanced, while it waits.
+     */
+    private Duration retryInitialInterval = Duration.ofSeconds(1);
+    private double retryMultiplier = 2.0;
+    private Duration retryMaxInterval = Duration.ofMinutes(1);
+    private Duration retryMaxElapsedTime = Duration.ofMinutes(30);
+
+    @Data
+    public static class KeyOrdered {
+        /**
+         * Process the records of a batch on virtual threads, sequentially per agent and
+         * concurrently across agents.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Upper bound of agents processed at once per listener, which also bounds the concurrent
+         * blocking Redis and Cassandra calls issued by one batch.
+         */
+        private int maxConcurrency = 64;
+
+        /**
+         * Property path of the Debezium {@code after} image on the deserialized message.
+         */
+        private String afterPath = "payload.after";
+
+        /**
+         * Per message type, the field of the {@code after} image holding the agent id records are
+         * ordered by. Records of other message types are ordered per partition.
+         */
+        private Map<String, String> agentIdFields = new HashMap<>();
+    }
+}
@@ -0,0 +1,92 @@
+package com.openframe.stream.config;
+
+import com.openframe.stream.serde.FileSchemaRegistry;
+import com.openframe.stream.serde.SchemaBinaryDeserializer;
+import com.openframe.stream.serde.SchemaBinarySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Schema based binary values for the topics listed in {@code openframe.stream.serde.topics},
+ * enabled with {@code openframe.stream.serde.enabled=true}.
+ * <p>
+ * The value serializer of the oss-tenant producer factory is wrapped so listed topics are
+ * written as Avro binary, and consumer factories read binary records by their schema id header.
+ * Both fall back to the JSON serde for everything else.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.serde", name = "enabled", havingValue = "true")
+public class BinarySerdeConfig {
+
+    @Bean
+    public FileSchemaRegistry fileSchemaRegistry(ResourceLoader resourceLoader, BinarySerdeProperties properties) {
+        return new FileSchemaRegistry(resourceLoader, properties.getRegistryLocation(), JacksonUtils.enhancedObjectMapper());
+    }
+
+    @Bean
+    public static BeanPostProcessor binarySerdeBeanPostProcessor(ObjectProvider<FileSchemaRegistry> registry,
+                                                                 ObjectProvider<BinarySerdeProperties> properties,
+                                                                 ObjectProvider<RedeliveryProperties> redeliveryProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof DefaultKafkaProducerFactory<?, ?> producerFactory) {
+                    wrapValueSerializer(producerFactory, registry.getObject(),
+                            subjectByTopic(properties.getObject(), redeliveryProperties.getIfAvailable()));
+                } else if (bean instanceof DefaultKafkaConsumerFactory<?, ?> consumerFactory) {
+                    wrapValueDeserializer(consumerFactory, registry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Parked records are written with the format of their target topic, so redelivery forwards
+     * them unchanged.
+     */
+    private static Map<String, String> subjectByTopic(BinarySerdeProperties properties, RedeliveryProperties redeliveryProperties) {
+        Map<String, String> subjectByTopic = new HashMap<>();
+        for (BinarySerdeProperties.TopicSchema topic : properties.getTopics()) {
+            subjectByTopic.put(topic.getName(), topic.getSubject());
+            if (redeliveryProperties != null && redeliveryProperties.isEnabled()
+                    && redeliveryProperties.getTopics().contains(topic.getName())) {
+                subjectByTopic.put(topic.getName() + redeliveryProperties.getRedeliveryTopicSuffix(), topic.getSubject());
+            }
+        }
+        return subjectByTopic;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void wrapValueSerializer(DefaultKafkaProducerFactory producerFactory,
+                                            FileSchemaRegistry registry,
+                                            Map<String, String> subjectByTopic) {
+        Serializer<Object> delegate = KafkaSerdeSupport.valueSerializer(producerFactory);
+        if (delegate == null || delegate instanceof SchemaBinarySerializer) {
+            return;
+        }
+        subjectByTopic.values().forEach(registry::latest);
+        producerFactory.setValueSerializer(new SchemaBinarySerializer(delegate, registry, subjectByTopic,
+                JacksonUtils.enhancedObjectMapper()));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void wrapValueDeserializer(DefaultKafkaConsumerFactory consumerFactory, FileSchemaRegistry registry) {
+        Deserializer<Object> delegate = KafkaSerdeSupport.valueDeserializer(consumerFactory);
+        if (delegate != null && !(delegate instanceof SchemaBinaryDeserializer)) {
+            consumerFactory.setValueDeserializer(new SchemaBinaryDeserializer(delegate, registry, JacksonUtils.enhancedObjectMapper()));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.serde")
+public class BinarySerdeProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Index of the file based schema registry; schema files are resolved relative to it.
+     */
+    private String registryLocation = "classpath:schemas/registry.json";
+
+    /**
+     * Topics written as schema based binary; every other topic keeps JSON.
+     */
+    private List<TopicSchema> topics = new ArrayList<>();
+
+    @Data
+    public static class TopicSchema {
+        private String name;
+        private String subject;
+    }
+}
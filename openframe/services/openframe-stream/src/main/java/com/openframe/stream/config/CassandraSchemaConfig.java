@@ -0,0 +1,21 @@
+package com.openframe.stream.config;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.openframe.stream.cassandra.UnifiedLogSchemaManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.cassandra.schema", name = "enabled", havingValue = "true")
+public class CassandraSchemaConfig {
+
+    @Bean
+    public UnifiedLogSchemaManager unifiedLogSchemaManager(CqlSession session,
+                                                           CassandraSchemaProperties properties,
+                                                           ObjectProvider<StringRedisTemplate> redisTemplate) {
+        return new UnifiedLogSchemaManager(session, properties, redisTemplate.getIfAvailable());
+    }
+}
@@ -0,0 +1,67 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.cassandra.schema")
+public class CassandraSchemaProperties {
+
+    private boolean enabled = false;
+
+    private String table = "unified_logs";
+
+    /**
+     * Datacenter the keyspace is replicated to with {@code NetworkTopologyStrategy}. Must be the
+     * name the nodes report, which is {@code datacenter1} under the chart's default snitch.
+     */
+    private String datacenter = "datacenter1";
+
+    /**
+     * Replicas in {@link #datacenter}. A keyspace with another strategy or factor is altered on
+     * startup; unset leaves the keyspace replication as it is.
+     */
+    private Integer replicationFactor = 1;
+
+    /**
+     * Replication factors of further datacenters.
+     */
+    private Map<String, Integer> replication = new LinkedHashMap<>();
+
+    /**
+     * Default TTL of the table. Only applies to rows written after it changes.
+     */
+    private Duration ttl = Duration.ofDays(90);
+
+    /**
+     * Per tenant keyspace overrides of {@link #ttl}.
+     */
+    private Map<String, Duration> ttlByKeyspace = new HashMap<>();
+
+    /**
+     * Time window of the compaction strategy; one day matches the {@code ingest_day} partitions.
+     */
+    private Duration compactionWindow = Duration.ofDays(1);
+
+    /**
+     * Optional {@code gc_grace_seconds}; left as is when not set.
+     */
+    private Duration gcGrace;
+
+    /**
+     * Redis lock held by the one replica applying the settings.
+     */
+    private String lockKey = "openframe:stream:cassandra-schema:lock";
+
+    /**
+     * Expiry of {@link #lockKey}, in case its holder dies while applying the settings.
+     */
+    private Duration lockTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,43 @@
+package com.openframe.stream.config;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.openframe.stream.cassandra.CassandraBackpressure;
+import com.openframe.stream.cassandra.PreparedCassandraWriter;
+import com.openframe.stream.cassandra.PreparedWriteBeanPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.cassandra.core.convert.CassandraConverter;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+
+/**
+ * Prepared statement Cassandra writer used by batch mode, and by record mode with
+ * {@code openframe.stream.cassandra.writer.enabled=true}.
+ */
+@Configuration
+public class CassandraWriterConfig {
+
+    @Bean
+    public CassandraBackpressure cassandraBackpressure(ObjectProvider<KafkaListenerEndpointRegistry> registry,
+                                                       CassandraWriterProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new CassandraBackpressure(registry, properties.getPauseTopics(), meterRegistry);
+    }
+
+    @Bean
+    public PreparedCassandraWriter preparedCassandraWriter(CqlSession session,
+                                                           CassandraConverter cassandraConverter,
+                                                           CassandraWriterProperties properties,
+                                                           CassandraBackpressure backpressure,
+                                                           MeterRegistry meterRegistry) {
+        return new PreparedCassandraWriter(session, cassandraConverter, properties, backpressure, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "openframe.stream.cassandra.writer", name = "enabled", havingValue = "true")
+    public static PreparedWriteBeanPostProcessor preparedWriteBeanPostProcessor(ObjectProvider<PreparedCassandraWriter> writer) {
+        return new PreparedWriteBeanPostProcessor(writer);
+    }
+}
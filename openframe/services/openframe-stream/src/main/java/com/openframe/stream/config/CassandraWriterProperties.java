@@ -0,0 +1,43 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.cassandra.writer")
+public class CassandraWriterProperties {
+
+    /**
+     * Routes record-mode {@code UnifiedLogEventRepository.save()} calls through the prepared
+     * statement writer. Batch mode always uses it.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Upper bound of statements in one unlogged batch. Cassandra warns above 5kb per batch,
+     * so keep this small enough for typical UnifiedLogEvent rows.
+     */
+    private int maxStatementsPerBatch = 50;
+
+    /**
+     * In-flight requests per Cassandra host; a write counts against every replica of its
+     * partition. Reaching it pauses the containers consuming {@link #pauseTopics}.
+     */
+    private int maxInFlightPerHost = 64;
+
+    /**
+     * Paused containers are resumed once every replica is back under this share of
+     * {@link #maxInFlightPerHost}.
+     */
+    private double resumeRatio = 0.5;
+
+    private Duration writeTimeout = Duration.ofSeconds(30);
+
+    private List<String> pauseTopics = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.openframe.stream.config;
+
+import com.openframe.stream.mapping.CompiledLookupEventTypeMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.event-type-mapping", name = "compiled", havingValue = "true")
+public class EventTypeMappingConfig {
+
+    @Bean
+    @Primary
+    public CompiledLookupEventTypeMapper compiledLookupEventTypeMapper(EventTypeMappingProperties properties) {
+        return new CompiledLookupEventTypeMapper(properties.getToolDbNames());
+    }
+}
@@ -0,0 +1,26 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.event-type-mapping")
+public class EventTypeMappingProperties {
+
+    /**
+     * Answer the {@code EventTypeMapper} lookups of the library deserializers from a
+     * {@link com.openframe.stream.mapping.CompiledEventTypeTable}.
+     */
+    private boolean compiled = false;
+
+    /**
+     * Tool db names compiled for mapping methods that take the tool as a {@code String}; enum typed
+     * tools are compiled for every constant.
+     */
+    private List<String> toolDbNames = new ArrayList<>();
+}
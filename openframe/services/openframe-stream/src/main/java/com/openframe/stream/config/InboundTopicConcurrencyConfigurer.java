@@ -0,0 +1,83 @@
+package com.openframe.stream.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies {@link InboundTopicConcurrencyProperties} to the {@code @KafkaListener} containers.
+ * <p>
+ * Runs in the phase right before the listener registry starts the containers, so it works on
+ * whatever container factory the listener was declared with, without replacing its customizer.
+ * A container subscribed to several topics gets the highest concurrency configured among them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InboundTopicConcurrencyConfigurer implements SmartLifecycle {
+
+    private final InboundTopicConcurrencyProperties properties;
+    private final KafkaListenerEndpointRegistry registry;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        Map<String, Integer> concurrencyByTopic = new HashMap<>();
+        properties.getInbound().values().forEach(topic -> {
+            if (topic.getName() != null && topic.getConcurrency() != null) {
+                concurrencyByTopic.put(topic.getName(), topic.getConcurrency());
+            }
+        });
+        if (!concurrencyByTopic.isEmpty()) {
+            for (MessageListenerContainer container : registry.getListenerContainers()) {
+                apply(container, concurrencyByTopic);
+            }
+        }
+        running = true;
+    }
+
+    private void apply(MessageListenerContainer container, Map<String, Integer> concurrencyByTopic) {
+        if (!(container instanceof ConcurrentMessageListenerContainer<?, ?> concurrentContainer) || container.isRunning()) {
+            return;
+        }
+        String[] topics = concurrentContainer.getContainerProperties().getTopics();
+        if (topics == null) {
+            return;
+        }
+        Integer concurrency = null;
+        for (String topic : topics) {
+            Integer configured = concurrencyByTopic.get(topic);
+            if (configured != null && (concurrency == null || configured > concurrency)) {
+                concurrency = configured;
+            }
+        }
+        if (concurrency != null) {
+            concurrentContainer.setConcurrency(concurrency);
+            log.info("Set concurrency {} for listener {} on topics {}", concurrency, container.getListenerId(), topics);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 1;
+    }
+}
@@ -0,0 +1,37 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per inbound topic consumer concurrency, read from the same
+ * {@code openframe.oss-tenant.kafka.topics.inbound} entries as {@code KafkaTopicProperties}:
+ * <pre>
+ * inbound:
+ *   meshcentral-events:
+ *     name: meshcentral.mongodb.events
+ *     concurrency: 3
+ * </pre>
+ * Topics without a {@code concurrency} keep the container factory default.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.oss-tenant.kafka.topics")
+public class InboundTopicConcurrencyProperties {
+
+    private Map<String, InboundTopic> inbound = new HashMap<>();
+
+    @Data
+    public static class InboundTopic {
+        private String name;
+
+        /**
+         * Number of consumers for the topic; values above the partition count leave consumers idle.
+         */
+        private Integer concurrency;
+    }
+}
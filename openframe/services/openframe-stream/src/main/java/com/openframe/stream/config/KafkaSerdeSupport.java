@@ -0,0 +1,50 @@
+package com.openframe.stream.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+/**
+ * Resolves the value (de)serializer of a library built client factory, whether it was set as an
+ * instance or only named in the client configuration, so it can be wrapped.
+ */
+final class KafkaSerdeSupport {
+
+    private KafkaSerdeSupport() {
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Deserializer<Object> valueDeserializer(DefaultKafkaConsumerFactory consumerFactory) {
+        Deserializer<Object> deserializer = consumerFactory.getValueDeserializer();
+        if (deserializer != null) {
+            return deserializer;
+        }
+        Object configured = consumerFactory.getConfigurationProperties().get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG);
+        return configured != null ? newInstance(configured, Deserializer.class) : null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Serializer<Object> valueSerializer(DefaultKafkaProducerFactory producerFactory) {
+        Serializer<Object> serializer = producerFactory.getValueSerializer();
+        if (serializer != null) {
+            return serializer;
+        }
+        Object configured = producerFactory.getConfigurationProperties().get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG);
+        return configured != null ? newInstance(configured, Serializer.class) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T newInstance(Object configured, Class<?> type) {
+        try {
+            return configured instanceof Class<?> configuredClass
+                    ? (T) Utils.newInstance(configuredClass)
+                    : (T) Utils.newInstance(configured.toString(), type);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot instantiate " + configured, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.openframe.stream.config;
+
+import com.openframe.stream.cache.MachineInfoCacheInvalidationListener;
+import com.openframe.stream.cache.MachineInfoLocalCache;
+import com.openframe.stream.cache.MachineInfoLocalCacheBeanPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.machine-id.cache.local", name = "enabled", havingValue = "true")
+public class MachineInfoLocalCacheConfig {
+
+    @Bean
+    public static MachineInfoLocalCacheBeanPostProcessor machineInfoLocalCacheBeanPostProcessor(
+            ObjectProvider<MachineInfoLocalCache> localCache) {
+        return new MachineInfoLocalCacheBeanPostProcessor(localCache);
+    }
+
+    @Bean
+    public MachineInfoLocalCache machineInfoLocalCache(MachineInfoLocalCacheProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new MachineInfoLocalCache(properties, meterRegistry);
+    }
+
+    @Bean
+    public MachineInfoCacheInvalidationListener machineInfoCacheInvalidationListener(
+            MachineInfoLocalCache localCache,
+            ConsumerFactory<?, ?> consumerFactory,
+            MachineInfoLocalCacheProperties properties) {
+        return new MachineInfoCacheInvalidationListener(localCache, consumerFactory, properties.getInvalidationTopic());
+    }
+}
@@ -0,0 +1,29 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.machine-id.cache.local")
+public class MachineInfoLocalCacheProperties {
+
+    private boolean enabled = false;
+    private long maximumSize = 50_000;
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Unknown agents are remembered for a short time only, so newly registered
+     * machines are picked up quickly even if their devices-topic update is missed.
+     */
+    private long negativeMaximumSize = 10_000;
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    /**
+     * Topic of the machine, tag and organization updates that evict entries.
+     */
+    private String invalidationTopic = "devices-topic";
+}
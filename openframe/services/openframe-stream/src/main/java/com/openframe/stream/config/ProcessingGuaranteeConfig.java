@@ -0,0 +1,86 @@
+package com.openframe.stream.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.streams.StreamsConfig;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.Properties;
+
+/**
+ * Switches the Kafka Streams topologies to {@code exactly_once_v2}, enabled with
+ * {@code openframe.stream.processing.guarantee=exactly_once_v2}.
+ * <p>
+ * The guarantee is a property of the streams application, so it covers every topology built on
+ * the shared {@code StreamsBuilder}, the Fleet activity enrichment join included. The service's
+ * own listeners consume the enriched Fleet topic as well, so every listener container factory is
+ * switched to {@code read_committed}; on topics written without transactions it changes nothing.
+ * What the listeners publish in turn is not part of any transaction, see
+ * {@link ProcessingGuaranteeProperties}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.processing", name = "guarantee", havingValue = StreamsConfig.EXACTLY_ONCE_V2)
+public class ProcessingGuaranteeConfig {
+
+    private static final String READ_COMMITTED = "read_committed";
+
+    @Bean
+    public static BeanPostProcessor readCommittedListenerBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> containerFactory) {
+                    readCommitted(containerFactory.getContainerProperties(), beanName);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Container level consumer properties take precedence over the consumer factory's, so the
+     * shared library consumer factory is left untouched.
+     */
+    private static void readCommitted(ContainerProperties containerProperties, String beanName) {
+        Properties consumerProperties = new Properties();
+        consumerProperties.putAll(containerProperties.getKafkaConsumerProperties());
+        consumerProperties.setProperty(ConsumerConfig.ISOLATION_LEVEL_CONFIG, READ_COMMITTED);
+        containerProperties.setKafkaConsumerProperties(consumerProperties);
+        log.info("Listener container factory {} reads with isolation.level={}", beanName, READ_COMMITTED);
+    }
+
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer exactlyOnceStreamsConfigurer(ProcessingGuaranteeProperties properties) {
+        ProcessingGuaranteeProperties.ExactlyOnce exactlyOnce = properties.getExactlyOnce();
+        if (exactlyOnce.getTransactionTimeout().compareTo(exactlyOnce.getCommitInterval()) <= 0) {
+            throw new IllegalStateException("openframe.stream.processing.exactly-once.transaction-timeout must exceed the commit interval");
+        }
+        return factoryBean -> {
+            Properties streamsConfiguration = new Properties();
+            if (factoryBean.getStreamsConfiguration() != null) {
+                streamsConfiguration.putAll(factoryBean.getStreamsConfiguration());
+            }
+            streamsConfiguration.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, StreamsConfig.EXACTLY_ONCE_V2);
+            streamsConfiguration.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, exactlyOnce.getCommitInterval().toMillis());
+            streamsConfiguration.put(StreamsConfig.producerPrefix(ProducerConfig.TRANSACTION_TIMEOUT_CONFIG),
+                    (int) exactlyOnce.getTransactionTimeout().toMillis());
+            streamsConfiguration.put(StreamsConfig.producerPrefix(ProducerConfig.LINGER_MS_CONFIG),
+                    (int) exactlyOnce.getLinger().toMillis());
+            streamsConfiguration.put(StreamsConfig.producerPrefix(ProducerConfig.BATCH_SIZE_CONFIG),
+                    (int) exactlyOnce.getBatchSize().toBytes());
+            streamsConfiguration.put(StreamsConfig.producerPrefix(ProducerConfig.COMPRESSION_TYPE_CONFIG),
+                    exactlyOnce.getCompressionType());
+            factoryBean.setStreamsConfiguration(streamsConfiguration);
+            log.info("Kafka Streams processing guarantee set to {} (commit interval {})",
+                    StreamsConfig.EXACTLY_ONCE_V2, exactlyOnce.getCommitInterval());
+        };
+    }
+}
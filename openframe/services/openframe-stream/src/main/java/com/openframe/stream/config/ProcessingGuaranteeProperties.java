@@ -0,0 +1,48 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Processing guarantee of the Kafka Streams topologies (Fleet activity enrichment).
+ * <p>
+ * {@code at_least_once} keeps the configuration built by {@code KafkaStreamsConfig};
+ * {@code exactly_once_v2} commits the consumed offsets in the same producer transaction as the
+ * records the topologies write, so consumers of the enriched Fleet topic reading with
+ * {@code read_committed} no longer see the duplicates replayed after a rebalance.
+ * <p>
+ * The guarantee stops at the streams application. The listeners republish to
+ * {@code integrated-tool.events.pinot} with the non-transactional oss-tenant producer and commit
+ * their offsets separately, so that topic stays at-least-once in both modes.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.processing")
+public class ProcessingGuaranteeProperties {
+
+    private String guarantee = "at_least_once";
+
+    private ExactlyOnce exactlyOnce = new ExactlyOnce();
+
+    @Data
+    public static class ExactlyOnce {
+        /**
+         * Transaction commit interval; every commit flushes the stores and ends the producer
+         * transaction, so longer intervals trade end-to-end latency for throughput.
+         */
+        private Duration commitInterval = Duration.ofMillis(500);
+
+        /**
+         * Must stay below the broker's transaction.max.timeout.ms and above the commit interval.
+         */
+        private Duration transactionTimeout = Duration.ofSeconds(30);
+
+        private Duration linger = Duration.ofMillis(20);
+        private DataSize batchSize = DataSize.ofKilobytes(128);
+        private String compressionType = "lz4";
+    }
+}
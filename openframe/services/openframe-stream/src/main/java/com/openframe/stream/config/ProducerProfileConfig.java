@@ -0,0 +1,28 @@
+package com.openframe.stream.config;
+
+import com.openframe.stream.producer.ProducerProfileBeanPostProcessor;
+import com.openframe.stream.producer.ProducerProfiles;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Named producer profiles for the oss-tenant producer, enabled with
+ * {@code openframe.stream.producer.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.producer", name = "enabled", havingValue = "true")
+public class ProducerProfileConfig {
+
+    @Bean
+    public ProducerProfiles producerProfiles(ProducerProfileProperties properties, MeterRegistry meterRegistry) {
+        return new ProducerProfiles(properties, meterRegistry);
+    }
+
+    @Bean
+    public static ProducerProfileBeanPostProcessor producerProfileBeanPostProcessor(ObjectProvider<ProducerProfiles> producerProfiles) {
+        return new ProducerProfileBeanPostProcessor(producerProfiles);
+    }
+}
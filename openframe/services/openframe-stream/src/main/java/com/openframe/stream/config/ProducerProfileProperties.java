@@ -0,0 +1,54 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named producer profiles for the oss-tenant producer. The default profile is applied to the
+ * shared producer; outbound topics mapped to another profile get a producer of their own.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.producer")
+public class ProducerProfileProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * {@code client.id} of the oss-tenant producer factory; profiles are applied only to that
+     * factory and to the templates built on it.
+     */
+    private String clientId = "oss-tenant-producer";
+
+    private String defaultProfile;
+    private Map<String, Profile> profiles = new HashMap<>();
+    private List<TopicProfile> topics = new ArrayList<>();
+
+    @Data
+    public static class Profile {
+        private String compressionType;
+        private Duration linger;
+        private DataSize batchSize;
+        private Boolean enableIdempotence;
+        private String acks;
+
+        /**
+         * Any other producer setting, passed through as is.
+         */
+        private Map<String, String> properties = new HashMap<>();
+    }
+
+    @Data
+    public static class TopicProfile {
+        private String name;
+        private String profile;
+    }
+}
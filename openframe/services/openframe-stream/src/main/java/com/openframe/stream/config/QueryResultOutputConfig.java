@@ -0,0 +1,51 @@
+package com.openframe.stream.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.openframe.stream.deserializer.QueryResultOutputLimiter;
+import com.openframe.stream.deserializer.QueryResultOutputLimitingDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+/**
+ * Caps the osquery output of Fleet query results ahead of the full deserialization, enabled with
+ * {@code openframe.stream.query-result.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.query-result", name = "enabled", havingValue = "true")
+public class QueryResultOutputConfig {
+
+    @Bean
+    public QueryResultOutputLimiter queryResultOutputLimiter(QueryResultOutputProperties properties) {
+        return new QueryResultOutputLimiter(new JsonFactory(), properties.getOutputField(), properties.getMaxOutputChars());
+    }
+
+    @Bean
+    public static BeanPostProcessor queryResultOutputBeanPostProcessor(ObjectProvider<QueryResultOutputLimiter> limiter,
+                                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof DefaultKafkaConsumerFactory<?, ?> consumerFactory) {
+                    wrapValueDeserializer(consumerFactory, limiter.getObject(), meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void wrapValueDeserializer(DefaultKafkaConsumerFactory consumerFactory,
+                                              QueryResultOutputLimiter limiter,
+                                              MeterRegistry meterRegistry) {
+        Deserializer<Object> delegate = KafkaSerdeSupport.valueDeserializer(consumerFactory);
+        if (delegate != null && !(delegate instanceof QueryResultOutputLimitingDeserializer)) {
+            consumerFactory.setValueDeserializer(new QueryResultOutputLimitingDeserializer<>(delegate, limiter, meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.query-result")
+public class QueryResultOutputProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Column of the Fleet {@code query_results} row holding the osquery output.
+     */
+    private String outputField = "data";
+
+    /**
+     * Outputs longer than this many characters are truncated before deserialization. Array
+     * outputs keep their leading rows and stay valid JSON; anything else is cut as plain text.
+     */
+    private int maxOutputChars = 256 * 1024;
+}
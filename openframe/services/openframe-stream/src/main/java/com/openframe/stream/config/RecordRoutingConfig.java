@@ -0,0 +1,134 @@
+package com.openframe.stream.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.openframe.stream.mapping.CompiledEventTypeMapper;
+import com.openframe.stream.mapping.EventTypeMapper;
+import com.openframe.stream.routing.DebeziumRecordProbe;
+import com.openframe.stream.routing.HeaderFirstRecordRouter;
+import com.openframe.stream.routing.HeaderFirstRoutingDeserializer;
+import com.openframe.stream.routing.IgnoredEventTypeRoutingRule;
+import com.openframe.stream.routing.RecordRoutingRule;
+import com.openframe.stream.routing.UnknownEventTypeRoutingRule;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ConsumerPostProcessor;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+
+import java.util.List;
+
+/**
+ * Installs header-first routing in front of the integrated tool consumers. Each container
+ * factory listed in {@code container-factories} gets a consumer factory of its own, a copy of the
+ * one it was built with whose value deserializer is wrapped with
+ * {@link HeaderFirstRoutingDeserializer}, and the {@code null} values it produces for rejected
+ * records are discarded ahead of any record filter the factory already has. The shared consumer
+ * factory, and every listener not on a routed container factory, are left untouched.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.routing", name = "enabled", havingValue = "true")
+public class RecordRoutingConfig {
+
+    private static final String RECORD_FILTER_STRATEGY = "recordFilterStrategy";
+
+    @Bean
+    public DebeziumRecordProbe debeziumRecordProbe() {
+        return new DebeziumRecordProbe(new JsonFactory());
+    }
+
+    @Bean
+    public IgnoredEventTypeRoutingRule ignoredEventTypeRoutingRule(RecordRoutingProperties properties) {
+        return new IgnoredEventTypeRoutingRule(properties);
+    }
+
+    @Bean
+    public CompiledEventTypeMapper compiledEventTypeMapper(EventTypeMapper eventTypeMapper,
+                                                           RecordRoutingProperties properties) {
+        return new CompiledEventTypeMapper(eventTypeMapper, properties.getToolDbNames().values());
+    }
+
+    @Bean
+    public UnknownEventTypeRoutingRule unknownEventTypeRoutingRule(CompiledEventTypeMapper compiledEventTypeMapper,
+                                                                   RecordRoutingProperties properties) {
+        return new UnknownEventTypeRoutingRule(compiledEventTypeMapper, properties);
+    }
+
+    @Bean
+    public HeaderFirstRecordRouter headerFirstRecordRouter(RecordRoutingProperties properties,
+                                                           DebeziumRecordProbe debeziumRecordProbe,
+                                                           List<RecordRoutingRule> rules,
+                                                           MeterRegistry meterRegistry) {
+        return new HeaderFirstRecordRouter(properties, debeziumRecordProbe, rules, meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor headerFirstRoutingBeanPostProcessor(ObjectProvider<HeaderFirstRecordRouter> router,
+                                                                        ObjectProvider<RecordRoutingProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> containerFactory
+                        && properties.getObject().getContainerFactories().contains(beanName)) {
+                    installRouting(containerFactory, beanName, router.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void installRouting(AbstractKafkaListenerContainerFactory containerFactory, String beanName,
+                                       HeaderFirstRecordRouter router) {
+        if (!(containerFactory.getConsumerFactory() instanceof DefaultKafkaConsumerFactory consumerFactory)) {
+            log.warn("Container factory {} has no DefaultKafkaConsumerFactory, header-first routing not installed", beanName);
+            return;
+        }
+        DirectFieldAccessor accessor = new DirectFieldAccessor(containerFactory);
+        if (!accessor.isReadableProperty(RECORD_FILTER_STRATEGY)) {
+            log.warn("Cannot read the record filter of container factory {}, header-first routing not installed", beanName);
+            return;
+        }
+        RecordFilterStrategy existing = (RecordFilterStrategy) accessor.getPropertyValue(RECORD_FILTER_STRATEGY);
+        if (existing == null) {
+            containerFactory.setRecordFilterStrategy(RecordRoutingConfig::isRejected);
+            containerFactory.setAckDiscarded(true);
+        } else {
+            // keep the owner's ackDiscarded, it applies to the records its own filter discards
+            containerFactory.setRecordFilterStrategy(record -> isRejected(record) || existing.filter(record));
+        }
+        Deserializer<Object> delegate = KafkaSerdeSupport.valueDeserializer(consumerFactory);
+        if (delegate == null) {
+            log.warn("Cannot resolve the value deserializer of container factory {}, header-first routing not installed", beanName);
+            return;
+        }
+        if (!(delegate instanceof HeaderFirstRoutingDeserializer)) {
+            containerFactory.setConsumerFactory(routedCopy(consumerFactory, new HeaderFirstRoutingDeserializer<>(delegate, router)));
+        }
+        log.info("Installed header-first routing on container factory {}", beanName);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static DefaultKafkaConsumerFactory routedCopy(DefaultKafkaConsumerFactory consumerFactory,
+                                                          Deserializer<Object> valueDeserializer) {
+        DefaultKafkaConsumerFactory routed = new DefaultKafkaConsumerFactory(consumerFactory.getConfigurationProperties(),
+                consumerFactory.getKeyDeserializer(), valueDeserializer);
+        consumerFactory.getListeners().forEach(listener -> routed.addListener((ConsumerFactory.Listener) listener));
+        consumerFactory.getPostProcessors().forEach(postProcessor -> routed.addPostProcessor((ConsumerPostProcessor) postProcessor));
+        return routed;
+    }
+
+    private static boolean isRejected(Object record) {
+        return ((ConsumerRecord<?, ?>) record).value() == null;
+    }
+}
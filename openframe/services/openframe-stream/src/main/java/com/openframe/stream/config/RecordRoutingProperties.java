@@ -0,0 +1,52 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.routing")
+public class RecordRoutingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Bean names of the listener container factories of the integrated tool topics. Each gets
+     * its own routing copy of its consumer factory; container factories not listed keep reading
+     * every record.
+     */
+    private Set<String> containerFactories = new HashSet<>(Set.of("kafkaListenerContainerFactory", "batchKafkaListenerContainerFactory"));
+
+    /**
+     * Message types (value of the {@code message-type} header) that are dropped without
+     * looking at the payload.
+     */
+    private Set<String> droppedMessageTypes = new HashSet<>();
+
+    /**
+     * Per message type, the fields of the Debezium {@code after} image that compose the source
+     * event type. Multiple fields are joined with {@code "."}, e.g. {@code object_type.action}.
+     */
+    private Map<String, List<String>> eventTypeFields = new HashMap<>();
+
+    private Map<String, String> agentIdFields = new HashMap<>();
+
+    /**
+     * Per message type, the tool the event type mapping is looked up for: the tool db name, or the
+     * enum constant name when {@code EventTypeMapper} takes the tool as an enum. Message types
+     * without an entry are never dropped as unknown.
+     */
+    private Map<String, String> toolDbNames = new HashMap<>();
+
+    /**
+     * Per message type, source event types that never produce a visible event.
+     */
+    private Map<String, Set<String>> ignoredEventTypes = new HashMap<>();
+}
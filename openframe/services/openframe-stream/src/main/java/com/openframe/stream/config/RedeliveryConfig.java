@@ -0,0 +1,100 @@
+package com.openframe.stream.config;
+
+import com.openframe.stream.redelivery.NonBlockingPublishBeanPostProcessor;
+import com.openframe.stream.redelivery.NonBlockingPublisher;
+import com.openframe.stream.redelivery.RedeliveryListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaRetryTopic;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking publishing with tiered redelivery for the outbound topics listed in
+ * {@code openframe.stream.redelivery.topics}, enabled with
+ * {@code openframe.stream.redelivery.enabled=true}.
+ * <p>
+ * Redelivery clients reuse the connection settings of the oss-tenant producer and consumer
+ * factories with byte array values. Retry and DLT topics are provisioned with the Kafka chart,
+ * not created at runtime.
+ */
+@Configuration
+@EnableKafkaRetryTopic
+@ConditionalOnProperty(prefix = "openframe.stream.redelivery", name = "enabled", havingValue = "true")
+public class RedeliveryConfig {
+
+    @Bean
+    public static NonBlockingPublishBeanPostProcessor nonBlockingPublishBeanPostProcessor(ObjectProvider<NonBlockingPublisher> publisher) {
+        return new NonBlockingPublishBeanPostProcessor(publisher);
+    }
+
+    @Bean
+    public NonBlockingPublisher nonBlockingPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                                     RedeliveryProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new NonBlockingPublisher(kafkaTemplate, properties, meterRegistry);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> redeliveryKafkaListenerContainerFactory(
+            ConsumerFactory<String, ?> consumerFactory) {
+        Map<String, Object> configs = new HashMap<>(consumerFactory.getConfigurationProperties());
+        configs.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configs.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configs, new StringDeserializer(), new ByteArrayDeserializer()));
+        return factory;
+    }
+
+    @Bean
+    public RetryTopicConfiguration redeliveryRetryTopicConfiguration(
+            RedeliveryListener redeliveryListener,
+            ConcurrentKafkaListenerContainerFactory<String, byte[]> redeliveryKafkaListenerContainerFactory,
+            RedeliveryProperties properties) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(properties.redeliveryTopics())
+                .maxAttempts(properties.getAttempts())
+                .exponentialBackoff(properties.getInitialDelay().toMillis(), properties.getMultiplier(),
+                        properties.getMaxDelay().toMillis())
+                .retryTopicSuffix(properties.getRetryTopicSuffix())
+                .dltSuffix(properties.getDltSuffix())
+                .suffixTopicsWithIndexValues()
+                .doNotAutoCreateRetryTopics()
+                .listenerFactory(redeliveryKafkaListenerContainerFactory)
+                .create(redeliveryListener.getKafkaTemplate());
+    }
+
+    /**
+     * The byte array template is owned by the listener rather than exposed as a bean, so it does
+     * not take part in by-type {@code KafkaTemplate} resolution of the libraries.
+     */
+    @Bean
+    public RedeliveryListener redeliveryListener(ProducerFactory<String, Object> producerFactory,
+                                                 RedeliveryProperties properties) {
+        Map<String, Object> configs = new HashMap<>(producerFactory.getConfigurationProperties());
+        configs.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configs.remove(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+        KafkaTemplate<String, byte[]> kafkaTemplate = new KafkaTemplate<>(
+                new DefaultKafkaProducerFactory<>(configs, new StringSerializer(), new ByteArraySerializer()));
+        return new RedeliveryListener(kafkaTemplate, properties);
+    }
+}
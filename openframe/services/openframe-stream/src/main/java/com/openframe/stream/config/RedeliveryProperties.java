@@ -0,0 +1,54 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Non-blocking publishing of outbound topics with tiered redelivery.
+ * <p>
+ * A failed publish to one of {@link #topics} is parked on {@code <topic><redelivery-topic-suffix>}
+ * and redelivered from there through the delayed retry topics
+ * ({@code ...<retry-topic-suffix>-<n>}); records still failing end in the
+ * {@code ...<dlt-suffix>} parking lot, drained from openframe-management.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.redelivery")
+public class RedeliveryProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Outbound topics published without blocking the consumer thread.
+     */
+    private List<String> topics = new ArrayList<>();
+
+    private String redeliveryTopicSuffix = ".redelivery";
+    private String retryTopicSuffix = "-retry";
+    private String dltSuffix = "-dlt";
+
+    /**
+     * Delivery attempts from the redelivery topic, including the first one; the number of retry
+     * topics is one less.
+     */
+    private int attempts = 5;
+    private Duration initialDelay = Duration.ofSeconds(1);
+    private double multiplier = 4.0;
+    private Duration maxDelay = Duration.ofMinutes(5);
+
+    /**
+     * Upper bound of one redelivery attempt, and of a publish together with its parking; a
+     * broker still unavailable after it moves the record to the next tier, or fails the consumed
+     * record so it is redelivered.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    public List<String> redeliveryTopics() {
+        return topics.stream().map(topic -> topic + redeliveryTopicSuffix).toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.openframe.stream.config;
+
+import com.openframe.stream.store.BoundedMemoryRocksDbConfigSetter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+
+import java.util.Properties;
+
+/**
+ * Bounds the RocksDB memory of the Kafka Streams topologies, enabled with
+ * {@code openframe.stream.state-store.enabled=true}.
+ * <p>
+ * Per-store RocksDB metrics are exported with the other Kafka Streams metrics by the Spring Boot
+ * Micrometer binding; the gauges registered here report the shared block cache, which those
+ * per-store metrics count once per store.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.state-store", name = "enabled", havingValue = "true")
+public class StateStoreConfig {
+
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer boundedMemoryStateStoreConfigurer(StateStoreProperties properties) {
+        return factoryBean -> {
+            Properties streamsConfiguration = new Properties();
+            if (factoryBean.getStreamsConfiguration() != null) {
+                streamsConfiguration.putAll(factoryBean.getStreamsConfiguration());
+            }
+            streamsConfiguration.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, BoundedMemoryRocksDbConfigSetter.class);
+            streamsConfiguration.put(StreamsConfig.METRICS_RECORDING_LEVEL_CONFIG, properties.getMetricsRecordingLevel());
+            streamsConfiguration.put(BoundedMemoryRocksDbConfigSetter.TOTAL_OFF_HEAP_MEMORY_CONFIG,
+                    properties.getTotalOffHeapMemory().toBytes());
+            streamsConfiguration.put(BoundedMemoryRocksDbConfigSetter.TOTAL_MEMTABLE_MEMORY_CONFIG,
+                    properties.getTotalMemtableMemory().toBytes());
+            streamsConfiguration.put(BoundedMemoryRocksDbConfigSetter.INDEX_FILTER_BLOCK_RATIO_CONFIG,
+                    properties.getIndexFilterBlockRatio());
+            streamsConfiguration.put(BoundedMemoryRocksDbConfigSetter.WRITE_BUFFER_SIZE_CONFIG,
+                    properties.getWriteBufferSize().toBytes());
+            streamsConfiguration.put(BoundedMemoryRocksDbConfigSetter.MAX_WRITE_BUFFER_NUMBER_CONFIG,
+                    properties.getMaxWriteBufferNumber());
+            streamsConfiguration.put(BoundedMemoryRocksDbConfigSetter.BLOCK_SIZE_CONFIG,
+                    properties.getBlockSize().toBytes());
+            streamsConfiguration.put(BoundedMemoryRocksDbConfigSetter.BLOOM_FILTER_BITS_PER_KEY_CONFIG,
+                    properties.getBloomFilterBitsPerKey());
+            factoryBean.setStreamsConfiguration(streamsConfiguration);
+        };
+    }
+
+    @Bean
+    public MeterBinder rocksDbSharedCacheMetrics() {
+        return registry -> {
+            Gauge.builder("openframe.stream.rocksdb.block.cache.capacity", BoundedMemoryRocksDbConfigSetter::sharedCacheCapacity)
+                    .description("Capacity of the block cache shared by all RocksDB state stores")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("openframe.stream.rocksdb.block.cache.usage", BoundedMemoryRocksDbConfigSetter::sharedCacheUsage)
+                    .description("Usage of the block cache shared by all RocksDB state stores, memtables included")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("openframe.stream.rocksdb.block.cache.pinned.usage", BoundedMemoryRocksDbConfigSetter::sharedCachePinnedUsage)
+                    .description("Pinned entries in the shared RocksDB block cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Memory bounds of the RocksDB state stores used by the Kafka Streams topologies, such as the
+ * Fleet activity enrichment join windows.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.state-store")
+public class StateStoreProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Block cache shared by every store instance of the pod; memtables and index/filter blocks
+     * are charged to it, so this is the RocksDB off-heap budget of the pod.
+     */
+    private DataSize totalOffHeapMemory = DataSize.ofMegabytes(128);
+
+    /**
+     * Part of {@link #totalOffHeapMemory} usable by memtables across all stores.
+     */
+    private DataSize totalMemtableMemory = DataSize.ofMegabytes(32);
+
+    /**
+     * Share of the block cache reserved for high priority index and filter blocks.
+     */
+    private double indexFilterBlockRatio = 0.1;
+
+    private DataSize writeBufferSize = DataSize.ofMegabytes(4);
+    private int maxWriteBufferNumber = 2;
+    private DataSize blockSize = DataSize.ofKilobytes(16);
+    private double bloomFilterBitsPerKey = 10;
+
+    /**
+     * Kafka Streams metrics recording level; RocksDB statistics based metrics need DEBUG, the
+     * memory usage property metrics are recorded at INFO.
+     */
+    private String metricsRecordingLevel = "INFO";
+}
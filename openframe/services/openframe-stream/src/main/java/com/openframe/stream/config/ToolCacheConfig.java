@@ -0,0 +1,34 @@
+package com.openframe.stream.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.stream.cache.ToolCacheBeanPostProcessor;
+import com.openframe.stream.cache.ToolCacheKeyJournal;
+import com.openframe.stream.cache.ToolLookupCaches;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@ConditionalOnProperty(prefix = "openframe.stream.tool-cache", name = "enabled", havingValue = "true")
+public class ToolCacheConfig {
+
+    @Bean
+    public static ToolCacheBeanPostProcessor toolCacheBeanPostProcessor(ObjectProvider<ToolCacheProperties> properties,
+                                                                        ObjectProvider<ToolLookupCaches> caches) {
+        return new ToolCacheBeanPostProcessor(properties, caches);
+    }
+
+    @Bean
+    public ToolLookupCaches toolLookupCaches(ToolCacheProperties properties,
+                                             ObjectProvider<StringRedisTemplate> redisTemplate,
+                                             ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry) {
+        StringRedisTemplate template = redisTemplate.getIfAvailable();
+        ToolCacheKeyJournal journal = template == null ? null : new ToolCacheKeyJournal(template,
+                properties.getWarmUp().getKeyPrefix(), properties.getWarmUp().getMaxKeys());
+        return new ToolLookupCaches(properties, journal, objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,68 @@
+package com.openframe.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "openframe.stream.tool-cache")
+public class ToolCacheProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Per simple class name of a tool cache service, e.g. {@code FleetMdmCacheService}.
+     */
+    private Map<String, ServiceCache> services = new HashMap<>();
+
+    private WarmUp warmUp = new WarmUp();
+
+    @Data
+    public static class ServiceCache {
+        private long maximumSize = 10_000;
+
+        /**
+         * Entries older than this are reloaded in the background on their next read, while the
+         * current value keeps being served.
+         */
+        private Duration refreshAfter = Duration.ofMinutes(5);
+
+        private Duration expireAfter = Duration.ofMinutes(30);
+
+        /**
+         * Expiry of empty results, e.g. an agent the tool does not know yet.
+         */
+        private Duration emptyExpireAfter = Duration.ofSeconds(30);
+
+        /**
+         * Whether a miss waits for the tool API on the calling thread instead of answering an
+         * empty result while the lookup loads in the background.
+         */
+        private boolean waitOnMiss = false;
+    }
+
+    @Data
+    public static class WarmUp {
+        private boolean enabled = true;
+
+        /**
+         * Most recently resolved lookups remembered per service and replayed on startup.
+         */
+        private int maxKeys = 5_000;
+
+        private int parallelism = 16;
+        private Duration timeout = Duration.ofSeconds(30);
+
+        /**
+         * How often the lookups resolved since the last flush are written to Redis.
+         */
+        private Duration flushInterval = Duration.ofSeconds(10);
+
+        private String keyPrefix = "openframe:stream:tool-cache:";
+    }
+}
@@ -0,0 +1,247 @@
+package com.openframe.stream.deserializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * Caps the osquery output column of Fleet query result Debezium records before they reach
+ * {@link FleetQueryResultEventDeserializer}, so a single large result no longer costs several
+ * copies of itself (text, parsed tree, embedded tree, serialized result) on the heap.
+ * <p>
+ * Records are only read at token level. A first pass measures the output column of the
+ * {@code before}/{@code after} images; records within the cap are returned as they are. Larger
+ * ones are copied event by event into a new envelope where the column is replaced by a cut of
+ * its first {@code max-output-chars} chars, the only part of it read into memory as text:
+ * <ul>
+ *     <li>a JSON array keeps as many leading rows as fit, validated while skipped over, so the
+ *     deserializer still embeds it as JSON;</li>
+ *     <li>any other value, valid JSON or not, is cut as plain text.</li>
+ * </ul>
+ * The truncated image gets {@code <column>_truncated} and {@code <column>_original_size} fields.
+ */
+public class QueryResultOutputLimiter {
+
+    private static final String PAYLOAD = "payload";
+    private static final Set<String> IMAGES = Set.of("before", "after");
+    private static final String TRUNCATED_SUFFIX = "_truncated";
+    private static final String ORIGINAL_SIZE_SUFFIX = "_original_size";
+
+    private final JsonFactory jsonFactory;
+    private final String outputField;
+    private final int maxOutputChars;
+
+    public QueryResultOutputLimiter(JsonFactory jsonFactory, String outputField, int maxOutputChars) {
+        this.jsonFactory = jsonFactory;
+        this.outputField = outputField;
+        this.maxOutputChars = maxOutputChars;
+    }
+
+    /**
+     * @return the record with its output capped, or {@code data} itself when nothing exceeds the cap
+     */
+    public Result limit(byte[] data) throws IOException {
+        int originalSize = largestOutputSize(data);
+        if (originalSize <= maxOutputChars) {
+            return new Result(data, false, originalSize);
+        }
+        return new Result(copyTruncated(data), true, originalSize);
+    }
+
+    private int largestOutputSize(byte[] data) throws IOException {
+        int largest = 0;
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && isOutputField(parser)
+                        && parser.nextToken() == JsonToken.VALUE_STRING) {
+                    largest = Math.max(largest, parser.getTextLength());
+                } else if (token.isStructStart() && !isEnvelopePath(parser.getParsingContext())) {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return largest;
+    }
+
+    private byte[] copyTruncated(byte[] data) throws IOException {
+        ByteArrayBuilder out = new ByteArrayBuilder(Math.min(data.length, maxOutputChars * 2));
+        try (JsonParser parser = jsonFactory.createParser(data);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            int truncatedSize = -1;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && isOutputField(parser)) {
+                    generator.copyCurrentEvent(parser);
+                    if (parser.nextToken() == JsonToken.VALUE_STRING && parser.getTextLength() > maxOutputChars) {
+                        OutputPrefix prefix = new OutputPrefix(maxOutputChars);
+                        truncatedSize = parser.getText(prefix);
+                        generator.writeString(truncate(prefix.toString()));
+                    } else {
+                        generator.copyCurrentStructure(parser);
+                    }
+                    continue;
+                }
+                if (token == JsonToken.END_OBJECT && truncatedSize >= 0 && isClosingImage(parser.getParsingContext())) {
+                    generator.writeBooleanField(outputField + TRUNCATED_SUFFIX, true);
+                    generator.writeNumberField(outputField + ORIGINAL_SIZE_SUFFIX, truncatedSize);
+                    truncatedSize = -1;
+                }
+                generator.copyCurrentEvent(parser);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Keeps the leading rows of an array output that fit within the cap, copied from the source
+     * text by span once the parser has validated them. Other outputs are cut as text.
+     * <p>
+     * {@code output} may be only the first {@code max-output-chars} chars of the column: a row
+     * cut off by its end is dropped, and a kept row always ends at least two chars before it, so
+     * a trailing number is never mistaken for a complete one.
+     */
+    String truncate(String output) {
+        try (JsonParser parser = jsonFactory.createParser(output)) {
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                String rows = leadingRows(parser, output);
+                if (rows != null) {
+                    return rows;
+                }
+            }
+        } catch (IOException e) {
+            // Not JSON, cut as text
+        }
+        int end = Math.min(maxOutputChars, output.length());
+        // never split a surrogate pair, the generator would write an unpaired surrogate
+        if (end > 0 && Character.isHighSurrogate(output.charAt(end - 1))) {
+            end--;
+        }
+        return output.substring(0, end);
+    }
+
+    /**
+     * @return the kept rows as an array, or null when the output is not a JSON array after all
+     */
+    private String leadingRows(JsonParser parser, String output) {
+        StringBuilder rows = new StringBuilder(maxOutputChars).append('[');
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                int start = (int) parser.currentTokenLocation().getCharOffset();
+                parser.skipChildren();
+                parser.finishToken();
+                int end = (int) parser.currentLocation().getCharOffset();
+                if (rows.length() + (end - start) + 2 > maxOutputChars) {
+                    break;
+                }
+                if (rows.length() > 1) {
+                    rows.append(',');
+                }
+                rows.append(output, start, end);
+            }
+        } catch (IOException e) {
+            // Cut off by the end of the prefix, or invalid past the rows kept so far
+            if (rows.length() == 1) {
+                return null;
+            }
+        }
+        return rows.append(']').toString();
+    }
+
+    private boolean isOutputField(JsonParser parser) throws IOException {
+        return outputField.equals(parser.currentName()) && isImage(parser.getParsingContext());
+    }
+
+    /**
+     * Whether {@code context} is the object of a {@code before}/{@code after} image, either
+     * directly in the envelope or under its {@code payload}.
+     */
+    private static boolean isImage(JsonStreamContext context) {
+        JsonStreamContext envelope = context.getParent();
+        return context.inObject() && envelope != null
+                && IMAGES.contains(envelope.getCurrentName())
+                && isEnvelope(envelope);
+    }
+
+    /**
+     * On {@code END_OBJECT} the parser has already returned to the enclosing context.
+     */
+    private static boolean isClosingImage(JsonStreamContext context) {
+        return context.inObject() && IMAGES.contains(context.getCurrentName()) && isEnvelope(context);
+    }
+
+    private static boolean isEnvelope(JsonStreamContext context) {
+        JsonStreamContext parent = context.getParent();
+        return parent != null && (parent.inRoot()
+                || (PAYLOAD.equals(parent.getCurrentName()) && parent.getParent() != null && parent.getParent().inRoot()));
+    }
+
+    /**
+     * Whether a structure just opened is one the output column can live in: the envelope, its
+     * {@code payload} or an image. Every other subtree is skipped by the measuring pass.
+     */
+    private static boolean isEnvelopePath(JsonStreamContext context) {
+        JsonStreamContext parent = context.getParent();
+        if (parent == null || parent.inRoot()) {
+            return true;
+        }
+        String name = parent.getCurrentName();
+        return (PAYLOAD.equals(name) && parent.getParent() != null && parent.getParent().inRoot())
+                || (IMAGES.contains(name) && isEnvelope(parent));
+    }
+
+    public record Result(byte[] data, boolean truncated, int originalSize) {
+    }
+
+    /**
+     * Receives a string token from {@link JsonParser#getText(Writer)}, keeping only its first
+     * {@code limit} chars, so an output over the cap is never materialized as one string.
+     */
+    private static final class OutputPrefix extends Writer {
+
+        private final StringBuilder prefix;
+        private final int limit;
+
+        OutputPrefix(int limit) {
+            this.prefix = new StringBuilder(limit);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            int kept = Math.min(length, limit - prefix.length());
+            if (kept > 0) {
+                prefix.append(chars, offset, kept);
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            int kept = Math.min(length, limit - prefix.length());
+            if (kept > 0) {
+                prefix.append(text, offset, offset + kept);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return prefix.toString();
+        }
+    }
+}
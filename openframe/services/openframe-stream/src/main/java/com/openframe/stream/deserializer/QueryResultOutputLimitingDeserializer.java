@@ -0,0 +1,91 @@
+package com.openframe.stream.deserializer;
+
+import com.openframe.data.model.enums.MessageType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Wraps the value deserializer of the integrated tool consumers and passes
+ * {@code FLEET_MDM_QUERY_RESULT_EVENT} records through {@link QueryResultOutputLimiter} first.
+ * The size of a truncated output is also exposed as the {@value #OUTPUT_ORIGINAL_SIZE_HEADER}
+ * header.
+ */
+@Slf4j
+public class QueryResultOutputLimitingDeserializer<T> implements Deserializer<T> {
+
+    public static final String OUTPUT_ORIGINAL_SIZE_HEADER = "openframe-output-original-size";
+
+    private static final String MESSAGE_TYPE_HEADER = "message-type";
+    private static final byte[] QUERY_RESULT_TYPE =
+            MessageType.FLEET_MDM_QUERY_RESULT_EVENT.name().getBytes(StandardCharsets.UTF_8);
+
+    private final Deserializer<T> delegate;
+    private final QueryResultOutputLimiter limiter;
+    private final Counter truncated;
+    private final DistributionSummary originalSize;
+
+    public QueryResultOutputLimitingDeserializer(Deserializer<T> delegate,
+                                                 QueryResultOutputLimiter limiter,
+                                                 MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.truncated = Counter.builder("openframe.stream.query-result.truncated")
+                .description("Fleet query results whose output was truncated before deserialization")
+                .register(meterRegistry);
+        this.originalSize = DistributionSummary.builder("openframe.stream.query-result.output.size")
+                .description("Size in characters of truncated Fleet query result outputs")
+                .baseUnit("characters")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || headers == null || !isQueryResult(headers)) {
+            return delegate.deserialize(topic, headers, data);
+        }
+        byte[] value = data;
+        try {
+            QueryResultOutputLimiter.Result result = limiter.limit(data);
+            if (result.truncated()) {
+                value = result.data();
+                headers.add(OUTPUT_ORIGINAL_SIZE_HEADER,
+                        Integer.toString(result.originalSize()).getBytes(StandardCharsets.UTF_8));
+                truncated.increment();
+                originalSize.record(result.originalSize());
+            }
+        } catch (Exception e) {
+            // Let the full deserializer report malformed payloads as before
+            log.debug("Failed to limit query result output from topic {}", topic, e);
+        }
+        return delegate.deserialize(topic, headers, value);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static boolean isQueryResult(Headers headers) {
+        Header header = headers.lastHeader(MESSAGE_TYPE_HEADER);
+        return header != null && Arrays.equals(QUERY_RESULT_TYPE, header.value());
+    }
+}
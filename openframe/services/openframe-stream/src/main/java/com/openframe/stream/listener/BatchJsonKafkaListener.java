@@ -0,0 +1,178 @@
+package com.openframe.stream.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.openframe.data.model.enums.MessageType;
+import com.openframe.kafka.model.debezium.CommonDebeziumMessage;
+import com.openframe.stream.batch.BatchScope;
+import com.openframe.stream.batch.KeyOrderedRecordExecutor;
+import com.openframe.stream.cassandra.PreparedCassandraWriter;
+import com.openframe.stream.config.BatchListenerProperties;
+import com.openframe.stream.processor.GenericJsonMessageProcessor;
+import com.openframe.stream.routing.HeaderFirstRecordRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Batch counterpart of {@link JsonKafkaListener}.
+ * <p>
+ * Every record of a poll batch goes through the regular {@link GenericJsonMessageProcessor}
+ * pipeline inside a {@link BatchScope}, so enrichment lookups are shared across the batch and the
+ * resulting {@code UnifiedLogEvent}s are collected instead of saved one by one. The collected rows
+ * are then written as partition-grouped unlogged batches of prepared statements and the offsets are acknowledged only
+ * once every write has completed and every outbound record of the batch is published or parked.
+ * <p>
+ * Dead-lettering is left to the container error handler alone. A record failing processing is
+ * reported as a {@link BatchListenerFailedException} at its index once the rows of the batch are
+ * written: the records before it are committed, the record itself is dead-lettered and the rest
+ * are redelivered. Rows of records after the failed one are written as well and simply written
+ * again on redelivery. A failed write is thrown as is, so the whole batch is redelivered with
+ * backoff and dead-lettered once the backoff is exhausted.
+ * <p>
+ * With a {@link KeyOrderedRecordExecutor}, the records of a batch are processed concurrently
+ * across agents and sequentially per agent. The agent id is read from the deserialized payload,
+ * at the {@code agent-id-fields} field of the message type in the {@code after-path} image, or
+ * taken from the {@value HeaderFirstRecordRouter#AGENT_ID_HEADER} header when routing already
+ * found it. Records without an agent id are ordered per partition, never by the record key, which
+ * is the row's primary key and would let two events of one agent run at once.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BatchJsonKafkaListener {
+
+    private static final String MESSAGE_TYPE_HEADER = "message-type";
+
+    private final GenericJsonMessageProcessor messageProcessor;
+    private final Converter<byte[], MessageType> messageTypeConverter;
+    private final PreparedCassandraWriter cassandraWriter;
+    private final BatchListenerProperties properties;
+    private final KeyOrderedRecordExecutor keyOrderedExecutor;
+
+    public List<String> getTopics() {
+        return properties.getTopics();
+    }
+
+    @KafkaListener(
+            topics = "#{__listener.topics}",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void listen(List<ConsumerRecord<String, CommonDebeziumMessage>> records, Acknowledgment acknowledgment) {
+        Map<Integer, Exception> failures = new ConcurrentSkipListMap<>();
+        try (BatchScope scope = BatchScope.open()) {
+            if (keyOrderedExecutor != null) {
+                keyOrderedExecutor.execute(records, this::orderingKey,
+                        group -> scope.runAttached(() -> group.forEach(record -> processRecord(records, record, failures))));
+            } else {
+                records.forEach(record -> processRecord(records, record, failures));
+            }
+            awaitWrites(scope.pendingWrites());
+            awaitPublishes(scope.pendingPublishes());
+            log.debug("Processed batch of {} records ({} Cassandra rows, {} distinct lookups)",
+                    records.size(), scope.pendingWrites().size(), scope.distinctLookups());
+        }
+        if (!failures.isEmpty()) {
+            Map.Entry<Integer, Exception> first = failures.entrySet().iterator().next();
+            throw new BatchListenerFailedException("Failed to process record", first.getValue(), first.getKey());
+        }
+        acknowledgment.acknowledge();
+    }
+
+    private void processRecord(List<ConsumerRecord<String, CommonDebeziumMessage>> records,
+                               ConsumerRecord<String, CommonDebeziumMessage> record,
+                               Map<Integer, Exception> failures) {
+        if (record.value() == null) {
+            log.warn("Skipping empty record topic={} partition={} offset={}", record.topic(), record.partition(), record.offset());
+            return;
+        }
+        try {
+            messageProcessor.process(record.value(), resolveMessageType(record));
+        } catch (Exception e) {
+            log.error("Failed to process record topic={} partition={} offset={}, handing it to the error handler",
+                    record.topic(), record.partition(), record.offset(), e);
+            failures.put(records.indexOf(record), new RecordProcessingException(
+                    "Failed to process record " + record.topic() + "-" + record.partition() + "@" + record.offset(), e));
+        }
+    }
+
+    private MessageType resolveMessageType(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(MESSAGE_TYPE_HEADER);
+        return header != null ? messageTypeConverter.convert(header.value()) : null;
+    }
+
+    private Object orderingKey(ConsumerRecord<String, CommonDebeziumMessage> record) {
+        Header header = record.headers().lastHeader(HeaderFirstRecordRouter.AGENT_ID_HEADER);
+        if (header != null) {
+            return new String(header.value(), StandardCharsets.UTF_8);
+        }
+        MessageType messageType = resolveMessageType(record);
+        String field = messageType != null ? properties.getKeyOrdered().getAgentIdFields().get(messageType.name()) : null;
+        Object agentId = field != null ? agentIdOf(record.value(), field) : null;
+        return agentId != null ? agentId.toString() : record.topic() + '-' + record.partition();
+    }
+
+    private Object agentIdOf(CommonDebeziumMessage message, String field) {
+        if (message == null) {
+            return null;
+        }
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(message);
+        String afterPath = properties.getKeyOrdered().getAfterPath();
+        Object after = wrapper.isReadableProperty(afterPath) ? wrapper.getPropertyValue(afterPath) : null;
+        if (after instanceof JsonNode node) {
+            JsonNode value = node.get(field);
+            return value != null && !value.isNull() ? value.asText() : null;
+        }
+        if (after instanceof Map<?, ?> map) {
+            return map.get(field);
+        }
+        if (after != null) {
+            BeanWrapper image = PropertyAccessorFactory.forBeanPropertyAccess(after);
+            return image.isReadableProperty(field) ? image.getPropertyValue(field) : null;
+        }
+        return null;
+    }
+
+    private void awaitWrites(List<Object> entities) {
+        try {
+            cassandraWriter.write(entities)
+                    .get(cassandraWriter.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing batch to Cassandra", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Not acknowledged: the container error handler redelivers the whole batch
+            throw new IllegalStateException("Failed to write batch of " + entities.size() + " rows to Cassandra", e);
+        }
+    }
+
+    /**
+     * Waits for the outbound records published or parked by the batch; publishes are bounded by
+     * the send timeout of the redelivery publisher.
+     */
+    private void awaitPublishes(List<CompletableFuture<?>> publishes) {
+        try {
+            CompletableFuture.allOf(publishes.toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing batch", e);
+        } catch (ExecutionException e) {
+            // Not acknowledged: the container error handler redelivers the whole batch
+            throw new IllegalStateException("Failed to publish or park " + publishes.size() + " outbound records of batch", e);
+        }
+    }
+}
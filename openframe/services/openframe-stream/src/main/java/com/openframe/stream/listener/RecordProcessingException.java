@@ -0,0 +1,13 @@
+package com.openframe.stream.listener;
+
+/**
+ * Wraps the failure of a single batch record in {@link BatchJsonKafkaListener}. Processing is
+ * deterministic, so the batch error handler dead-letters the record right away instead of
+ * redelivering it with the Cassandra write backoff.
+ */
+public class RecordProcessingException extends RuntimeException {
+
+    public RecordProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
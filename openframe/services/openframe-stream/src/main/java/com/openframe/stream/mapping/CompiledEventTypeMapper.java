@@ -0,0 +1,182 @@
+package com.openframe.stream.mapping;
+
+import com.openframe.data.model.enums.UnifiedEventType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Allocation-free view of the {@link EventTypeMapper} table.
+ * <p>
+ * At startup every source event type constant of {@link SourceEventTypes} is resolved once per
+ * tool through the public mapping methods of {@link EventTypeMapper}, and the mapped entries are
+ * compiled into a {@link CompiledEventTypeTable}. Hot-path callers pass the tool and the event type
+ * (or its two parts) separately instead of building a composite key per message. Event types the
+ * table does not hold are resolved by {@link EventTypeMapper} itself, so results never differ from
+ * the library mapping.
+ * <p>
+ * Mapping methods are the public {@code UnifiedEventType m(tool, String sourceEventType)} methods.
+ * Tools of an enum typed first parameter are its constants, keyed by name; tools of a
+ * {@code String} typed one are the configured tool db names.
+ */
+@Slf4j
+public class CompiledEventTypeMapper {
+
+    private final EventTypeMapper delegate;
+    private final List<Method> mappingMethods;
+    private final Map<String, Map<String, UnifiedEventType>> mappings;
+    private final CompiledEventTypeTable<UnifiedEventType> table;
+
+    public CompiledEventTypeMapper(EventTypeMapper delegate, Collection<String> toolDbNames) {
+        this.delegate = delegate;
+        this.mappingMethods = mappingMethods(delegate.getClass());
+        if (mappingMethods.isEmpty()) {
+            throw new IllegalStateException("No mapping method found on " + EventTypeMapper.class.getName());
+        }
+        this.mappings = resolve(toolDbNames);
+        this.table = CompiledEventTypeTable.compile(mappings);
+        log.info("Compiled event type mappings for tools {} ({} entries)", mappings.keySet(),
+                mappings.values().stream().mapToInt(Map::size).sum());
+    }
+
+    public boolean supportsTool(CharSequence tool) {
+        return table.containsTool(tool);
+    }
+
+    /**
+     * @return the compiled value, or {@code null} when the table does not hold the event type
+     */
+    public UnifiedEventType lookup(CharSequence tool, CharSequence sourceEventType) {
+        return table.get(tool, sourceEventType);
+    }
+
+    public UnifiedEventType map(CharSequence tool, CharSequence sourceEventType) {
+        UnifiedEventType type = table.get(tool, sourceEventType);
+        return type != null ? type : mapUncompiled(tool, sourceEventType.toString());
+    }
+
+    public UnifiedEventType map(CharSequence tool, CharSequence first, char separator, CharSequence second) {
+        UnifiedEventType type = table.get(tool, first, separator, second);
+        return type != null ? type : mapUncompiled(tool, first.toString() + separator + second);
+    }
+
+    /**
+     * The compiled entries, {@code tool -> source event type -> unified type}.
+     */
+    public Map<String, Map<String, UnifiedEventType>> mappings() {
+        return mappings;
+    }
+
+    /**
+     * Whether {@code method} is one of the mapping methods answered from the compiled table.
+     */
+    private static boolean isMappingMethod(Method method) {
+        Class<?>[] parameters = method.getParameterTypes();
+        return Modifier.isPublic(method.getModifiers())
+                && !Modifier.isStatic(method.getModifiers())
+                && method.getReturnType() == UnifiedEventType.class
+                && parameters.length == 2
+                && (parameters[0] == String.class || parameters[0].isEnum())
+                && parameters[1] == String.class;
+    }
+
+    /**
+     * Table key of a tool argument: enum constants by name, anything else as its string form.
+     */
+    private static String toolKey(Object tool) {
+        return tool instanceof Enum<?> constant ? constant.name() : String.valueOf(tool);
+    }
+
+    /**
+     * The public {@code String} constants of {@link SourceEventTypes} and its nested classes.
+     */
+    static Set<String> sourceEventTypes() {
+        Set<String> eventTypes = new LinkedHashSet<>();
+        List<Class<?>> holders = new ArrayList<>(List.of(SourceEventTypes.class.getClasses()));
+        holders.add(SourceEventTypes.class);
+        for (Class<?> holder : holders) {
+            for (var field : holder.getFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                    try {
+                        eventTypes.add((String) field.get(null));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Cannot read " + field, e);
+                    }
+                }
+            }
+        }
+        return eventTypes;
+    }
+
+    private Map<String, Map<String, UnifiedEventType>> resolve(Collection<String> toolDbNames) {
+        Set<String> eventTypes = sourceEventTypes();
+        Map<String, Map<String, UnifiedEventType>> resolved = new LinkedHashMap<>();
+        for (Method method : mappingMethods) {
+            for (Object tool : tools(method, toolDbNames)) {
+                Map<String, UnifiedEventType> byEventType = new LinkedHashMap<>();
+                for (String eventType : eventTypes) {
+                    UnifiedEventType type = invoke(method, tool, eventType);
+                    if (type != null && type != UnifiedEventType.UNKNOWN) {
+                        byEventType.put(eventType, type);
+                    }
+                }
+                if (!byEventType.isEmpty()) {
+                    resolved.computeIfAbsent(toolKey(tool), key -> new LinkedHashMap<>()).putAll(byEventType);
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private static List<?> tools(Method method, Collection<String> toolDbNames) {
+        Class<?> toolType = method.getParameterTypes()[0];
+        return toolType.isEnum() ? List.of(toolType.getEnumConstants()) : List.copyOf(toolDbNames);
+    }
+
+    private UnifiedEventType mapUncompiled(CharSequence tool, String sourceEventType) {
+        String toolName = tool.toString();
+        for (Method method : mappingMethods) {
+            Class<?> toolType = method.getParameterTypes()[0];
+            if (toolType == String.class) {
+                return invoke(method, toolName, sourceEventType);
+            }
+            for (Object constant : toolType.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(toolName)) {
+                    return invoke(method, constant, sourceEventType);
+                }
+            }
+        }
+        return UnifiedEventType.UNKNOWN;
+    }
+
+    private UnifiedEventType invoke(Method method, Object tool, String sourceEventType) {
+        try {
+            UnifiedEventType type = (UnifiedEventType) method.invoke(delegate, tool, sourceEventType);
+            return type != null ? type : UnifiedEventType.UNKNOWN;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot call " + method, e);
+        } catch (InvocationTargetException e) {
+            log.debug("Mapping {} of {} failed", sourceEventType, tool, e.getCause());
+            return UnifiedEventType.UNKNOWN;
+        }
+    }
+
+    private static List<Method> mappingMethods(Class<?> type) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (method.getDeclaringClass() != Object.class && isMappingMethod(method)) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+}
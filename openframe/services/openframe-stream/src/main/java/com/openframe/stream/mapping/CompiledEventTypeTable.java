@@ -0,0 +1,206 @@
+package com.openframe.stream.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable two-level lookup table {@code tool -> source event type -> value}, compiled once.
+ * <p>
+ * The first level is a linear scan over the (few) tool names. The second level is a minimal
+ * perfect hash built with the hash-and-displace scheme: keys are spread over buckets by a base
+ * hash, and every bucket gets a seed under which its keys land in free slots. A lookup therefore
+ * costs two hashes and one key comparison, and never allocates: the event type may be passed as
+ * one {@link CharSequence} or as two parts joined by a separator, without concatenating them.
+ */
+public final class CompiledEventTypeTable<V> {
+
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final int MAX_SEED = 1 << 20;
+
+    private final String[] tools;
+    private final ToolTable<V>[] tables;
+
+    private CompiledEventTypeTable(String[] tools, ToolTable<V>[] tables) {
+        this.tools = tools;
+        this.tables = tables;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> CompiledEventTypeTable<V> compile(Map<String, Map<String, V>> mappings) {
+        String[] tools = mappings.keySet().toArray(String[]::new);
+        ToolTable<V>[] tables = new ToolTable[tools.length];
+        for (int i = 0; i < tools.length; i++) {
+            tables[i] = ToolTable.build(mappings.get(tools[i]));
+        }
+        return new CompiledEventTypeTable<>(tools, tables);
+    }
+
+    public boolean containsTool(CharSequence tool) {
+        return toolIndex(tool) >= 0;
+    }
+
+    public V get(CharSequence tool, CharSequence eventType) {
+        int index = toolIndex(tool);
+        return index < 0 || eventType == null ? null : tables[index].get(eventType, (char) 0, null);
+    }
+
+    /**
+     * Looks up {@code first + separator + second} without building the joined string.
+     */
+    public V get(CharSequence tool, CharSequence first, char separator, CharSequence second) {
+        int index = toolIndex(tool);
+        return index < 0 || first == null || second == null ? null : tables[index].get(first, separator, second);
+    }
+
+    private int toolIndex(CharSequence tool) {
+        if (tool == null) {
+            return -1;
+        }
+        for (int i = 0; i < tools.length; i++) {
+            if (contentEquals(tools[i], tool)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contentEquals(String expected, CharSequence actual) {
+        int length = expected.length();
+        if (actual.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (expected.charAt(i) != actual.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(int seed, CharSequence first, char separator, CharSequence second) {
+        int hash = FNV_OFFSET ^ seed * FNV_PRIME;
+        for (int i = 0; i < first.length(); i++) {
+            hash = (hash ^ first.charAt(i)) * FNV_PRIME;
+        }
+        if (second != null) {
+            hash = (hash ^ separator) * FNV_PRIME;
+            for (int i = 0; i < second.length(); i++) {
+                hash = (hash ^ second.charAt(i)) * FNV_PRIME;
+            }
+        }
+        // final avalanche so low bits depend on every char
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash & Integer.MAX_VALUE;
+    }
+
+    private static final class ToolTable<V> {
+        private final int[] seeds;
+        private final String[] keys;
+        private final Object[] values;
+
+        private ToolTable(int[] seeds, String[] keys, Object[] values) {
+            this.seeds = seeds;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private static <V> ToolTable<V> build(Map<String, V> mapping) {
+            int size = Math.max(1, mapping.size());
+            int bucketCount = Math.max(1, size / 2);
+            List<List<String>> buckets = new ArrayList<>(bucketCount);
+            for (int i = 0; i < bucketCount; i++) {
+                buckets.add(new ArrayList<>());
+            }
+            for (String key : mapping.keySet()) {
+                buckets.get(hash(0, key, (char) 0, null) % bucketCount).add(key);
+            }
+
+            int[] seeds = new int[bucketCount];
+            String[] keys = new String[size];
+            Object[] values = new Object[size];
+            boolean[] occupied = new boolean[size];
+            Integer[] order = new Integer[bucketCount];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparingInt((Integer i) -> buckets.get(i).size()).reversed());
+
+            for (int bucketIndex : order) {
+                List<String> bucket = buckets.get(bucketIndex);
+                if (bucket.isEmpty()) {
+                    continue;
+                }
+                int[] slots = new int[bucket.size()];
+                int seed = 1;
+                while (!place(bucket, seed, size, occupied, slots)) {
+                    if (++seed > MAX_SEED) {
+                        throw new IllegalStateException("Cannot build perfect hash for " + bucket);
+                    }
+                }
+                seeds[bucketIndex] = seed;
+                for (int i = 0; i < bucket.size(); i++) {
+                    occupied[slots[i]] = true;
+                    keys[slots[i]] = bucket.get(i);
+                    values[slots[i]] = mapping.get(bucket.get(i));
+                }
+            }
+            return new ToolTable<>(seeds, keys, values);
+        }
+
+        private static boolean place(List<String> bucket, int seed, int size, boolean[] occupied, int[] slots) {
+            for (int i = 0; i < bucket.size(); i++) {
+                int slot = hash(seed, bucket.get(i), (char) 0, null) % size;
+                if (occupied[slot]) {
+                    return false;
+                }
+                for (int j = 0; j < i; j++) {
+                    if (slots[j] == slot) {
+                        return false;
+                    }
+                }
+                slots[i] = slot;
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V get(CharSequence first, char separator, CharSequence second) {
+            int seed = seeds[hash(0, first, separator, second) % seeds.length];
+            if (seed == 0) {
+                return null;
+            }
+            int slot = hash(seed, first, separator, second) % keys.length;
+            String key = keys[slot];
+            return key != null && matches(key, first, separator, second) ? (V) values[slot] : null;
+        }
+
+        private static boolean matches(String key, CharSequence first, char separator, CharSequence second) {
+            int firstLength = first.length();
+            int expectedLength = second == null ? firstLength : firstLength + 1 + second.length();
+            if (key.length() != expectedLength) {
+                return false;
+            }
+            for (int i = 0; i < firstLength; i++) {
+                if (key.charAt(i) != first.charAt(i)) {
+                    return false;
+                }
+            }
+            if (second == null) {
+                return true;
+            }
+            if (key.charAt(firstLength) != separator) {
+                return false;
+            }
+            for (int i = 0; i < second.length(); i++) {
+                if (key.charAt(firstLength + 1 + i) != second.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
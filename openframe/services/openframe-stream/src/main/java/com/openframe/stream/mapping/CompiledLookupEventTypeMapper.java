@@ -0,0 +1,36 @@
+package com.openframe.stream.mapping;
+
+import com.openframe.data.model.enums.IntegratedToolType;
+import com.openframe.data.model.enums.UnifiedEventType;
+
+import java.util.Collection;
+
+/**
+ * {@link EventTypeMapper} answering {@link #mapToUnifiedType} from a {@link CompiledEventTypeMapper}
+ * table, so the library deserializers stop building a {@code "<tool>:<event type>"} key per
+ * message. Registered as the primary mapper; a plain subclass, so calls are direct with no proxy
+ * in between. Event types missing from the compiled table go to the library mapping.
+ */
+public class CompiledLookupEventTypeMapper extends EventTypeMapper {
+
+    private final CompiledEventTypeMapper compiled;
+
+    public CompiledLookupEventTypeMapper(Collection<String> toolDbNames) {
+        this.compiled = new CompiledEventTypeMapper(new EventTypeMapper(), toolDbNames);
+    }
+
+    @Override
+    public UnifiedEventType mapToUnifiedType(IntegratedToolType toolType, String sourceEventType) {
+        if (toolType != null && sourceEventType != null) {
+            UnifiedEventType type = compiled.lookup(toolType.name(), sourceEventType);
+            if (type != null) {
+                return type;
+            }
+        }
+        return super.mapToUnifiedType(toolType, sourceEventType);
+    }
+
+    public CompiledEventTypeMapper compiled() {
+        return compiled;
+    }
+}
@@ -0,0 +1,81 @@
+package com.openframe.stream.producer;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Applies {@link ProducerProfiles} to the oss-tenant producer: the shared producer factory gets the
+ * default profile, and {@code send} calls of the templates built on it for topics mapped to another
+ * profile are redirected to that profile's template. Other producer factories and templates are
+ * left untouched.
+ */
+@RequiredArgsConstructor
+public class ProducerProfileBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String SEND_METHOD = "send";
+
+    private final ObjectProvider<ProducerProfiles> producerProfiles;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaProducerFactory<?, ?> producerFactory
+                && producerProfiles.getObject().isShared(producerFactory)) {
+            producerProfiles.getObject().customizeDefault(producerFactory);
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof KafkaTemplate<?, ?> template)) {
+            return bean;
+        }
+        ProducerProfiles profiles = producerProfiles.getObject();
+        if (!profiles.isShared(template.getProducerFactory())) {
+            return bean;
+        }
+        profiles.initTopicTemplates(template.getProducerFactory());
+        if (!profiles.hasTopicTemplates()) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(routingInterceptor(profiles));
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(routingInterceptor(profiles));
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor routingInterceptor(ProducerProfiles profiles) {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            if (!SEND_METHOD.equals(method.getName()) || args.length == 0) {
+                return invocation.proceed();
+            }
+            String topic = args[0] instanceof String name ? name
+                    : args[0] instanceof ProducerRecord<?, ?> record ? record.topic() : null;
+            KafkaTemplate<Object, Object> profileTemplate = topic != null ? profiles.templateFor(topic) : null;
+            if (profileTemplate == null) {
+                return invocation.proceed();
+            }
+            try {
+                return method.invoke(profileTemplate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+    }
+}
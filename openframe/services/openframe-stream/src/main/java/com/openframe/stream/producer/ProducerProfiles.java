@@ -0,0 +1,120 @@
+package com.openframe.stream.producer;
+
+import com.openframe.stream.config.ProducerProfileProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the producers of the configured profiles.
+ * <p>
+ * Every profile producer is a copy of the oss-tenant producer factory with the profile settings
+ * on top, so serializers and connection settings stay those of the platform. Producer metrics of
+ * every factory are bound to Micrometer with a {@code profile} tag and exported through the
+ * actuator like the other Kafka client metrics.
+ */
+public class ProducerProfiles {
+
+    private static final String PROFILE_TAG = "profile";
+    private static final String DEFAULT_PROFILE = "default";
+
+    private final ProducerProfileProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, KafkaTemplate<Object, Object>> templatesByTopic = new HashMap<>();
+
+    public ProducerProfiles(ProducerProfileProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        properties.getTopics().forEach(topic -> profile(topic.getProfile()));
+        if (properties.getDefaultProfile() != null) {
+            profile(properties.getDefaultProfile());
+        }
+    }
+
+    /**
+     * Whether {@code producerFactory} is the oss-tenant producer factory, told apart from other
+     * factories by its {@code client.id}.
+     */
+    public boolean isShared(ProducerFactory<?, ?> producerFactory) {
+        return producerFactory instanceof DefaultKafkaProducerFactory<?, ?> factory
+                && properties.getClientId().equals(String.valueOf(factory.getConfigurationProperties().get(ProducerConfig.CLIENT_ID_CONFIG)));
+    }
+
+    /**
+     * Applies the default profile to the shared producer factory and binds its metrics.
+     */
+    public void customizeDefault(DefaultKafkaProducerFactory<?, ?> producerFactory) {
+        String name = properties.getDefaultProfile();
+        if (name != null) {
+            producerFactory.updateConfigs(configs(profile(name)));
+        }
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry,
+                List.of(Tag.of(PROFILE_TAG, name != null ? name : DEFAULT_PROFILE))));
+    }
+
+    /**
+     * Creates the templates of the topics mapped to a profile, on top of the shared factory.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public synchronized void initTopicTemplates(ProducerFactory<?, ?> sharedFactory) {
+        if (!templatesByTopic.isEmpty()) {
+            return;
+        }
+        Map<String, KafkaTemplate<Object, Object>> templatesByProfile = new HashMap<>();
+        for (ProducerProfileProperties.TopicProfile topic : properties.getTopics()) {
+            KafkaTemplate<Object, Object> template = templatesByProfile.computeIfAbsent(topic.getProfile(), name -> {
+                ProducerFactory factory = sharedFactory.copyWithConfigurationOverride(configs(profile(name)));
+                // the copy inherits the default profile's metrics listener, which would bind its meters twice
+                List<ProducerFactory.Listener> inherited = List.copyOf(factory.getListeners());
+                inherited.stream().filter(MicrometerProducerListener.class::isInstance).forEach(factory::removeListener);
+                factory.addListener(new MicrometerProducerListener<>(meterRegistry, List.of(Tag.of(PROFILE_TAG, name))));
+                return new KafkaTemplate<>(factory);
+            });
+            templatesByTopic.put(topic.getName(), template);
+        }
+    }
+
+    public KafkaTemplate<Object, Object> templateFor(String topic) {
+        return templatesByTopic.get(topic);
+    }
+
+    public boolean hasTopicTemplates() {
+        return !templatesByTopic.isEmpty();
+    }
+
+    private ProducerProfileProperties.Profile profile(String name) {
+        ProducerProfileProperties.Profile profile = properties.getProfiles().get(name);
+        if (profile == null) {
+            throw new IllegalStateException("Unknown producer profile " + name);
+        }
+        return profile;
+    }
+
+    private static Map<String, Object> configs(ProducerProfileProperties.Profile profile) {
+        Map<String, Object> configs = new HashMap<>(profile.getProperties());
+        if (profile.getCompressionType() != null) {
+            configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, profile.getCompressionType());
+        }
+        if (profile.getLinger() != null) {
+            configs.put(ProducerConfig.LINGER_MS_CONFIG, (int) profile.getLinger().toMillis());
+        }
+        if (profile.getBatchSize() != null) {
+            configs.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) profile.getBatchSize().toBytes());
+        }
+        if (profile.getEnableIdempotence() != null) {
+            configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, profile.getEnableIdempotence());
+        }
+        if (profile.getAcks() != null) {
+            configs.put(ProducerConfig.ACKS_CONFIG, profile.getAcks());
+        }
+        return configs;
+    }
+}
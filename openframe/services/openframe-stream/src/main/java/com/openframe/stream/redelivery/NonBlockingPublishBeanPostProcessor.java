@@ -0,0 +1,82 @@
+package com.openframe.stream.redelivery;
+
+import com.openframe.kafka.producer.retry.OssTenantRetryingKafkaProducer;
+import com.openframe.stream.batch.BatchScope;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Routes {@code publish(topic, key, message)} calls of {@link OssTenantRetryingKafkaProducer}
+ * for the configured topics through {@link NonBlockingPublisher}, replacing the inline retry
+ * loop. In record mode the call waits until the record is published or parked and throws when
+ * both fail, so the consumed record is not acknowledged before; inside a {@link BatchScope} the
+ * publish is collected and awaited by the batch listener before it acknowledges. Other topics
+ * and methods are passed through untouched.
+ */
+@RequiredArgsConstructor
+public class NonBlockingPublishBeanPostProcessor implements BeanPostProcessor {
+
+    private static final String PUBLISH_METHOD = "publish";
+
+    private final ObjectProvider<NonBlockingPublisher> publisher;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof OssTenantRetryingKafkaProducer)) {
+            return bean;
+        }
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(publishInterceptor());
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(publishInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    private MethodInterceptor publishInterceptor() {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            NonBlockingPublisher nonBlockingPublisher = publisher.getObject();
+            if (!isPublish(method, args) || !nonBlockingPublisher.handles(args[0])) {
+                return invocation.proceed();
+            }
+            CompletableFuture<?> result = nonBlockingPublisher.publish((String) args[0], (String) args[1], args[2]);
+            if (BatchScope.current().isPresent()) {
+                BatchScope.current().get().bufferPublish(result);
+            } else {
+                await(result, (String) args[0]);
+            }
+            return method.getReturnType() == void.class ? null : result;
+        };
+    }
+
+    private void await(CompletableFuture<?> result, String topic) {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing to " + topic, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to publish or park record for " + topic, e.getCause());
+        }
+    }
+
+    private boolean isPublish(Method method, Object[] args) {
+        return PUBLISH_METHOD.equals(method.getName())
+                && args.length == 3
+                && (args[1] == null || args[1] instanceof String)
+                && (method.getReturnType() == void.class
+                || method.getReturnType().isAssignableFrom(CompletableFuture.class));
+    }
+}
@@ -0,0 +1,100 @@
+package com.openframe.stream.redelivery;
+
+import com.openframe.stream.config.RedeliveryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes outbound records without the inline retry loop of the producer.
+ * <p>
+ * A failed send is parked on the redelivery topic of its target instead of being retried with
+ * backoff, so a partition leader election or a short broker outage no longer stalls the consumer
+ * thread that produced the record.
+ * <p>
+ * The returned future completes once the record is on its target or its redelivery topic, and
+ * fails when both sends fail or take longer than {@code send-timeout}. Callers acknowledge the
+ * consumed record only after it completed; a failed future fails the record, and the container
+ * error handler seeks back and processes it again.
+ */
+@Slf4j
+public class NonBlockingPublisher {
+
+    private static final String METRIC_NAME = "openframe.stream.redelivery.publish";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final RedeliveryProperties properties;
+    private final Set<String> topics;
+    private final Counter published;
+    private final Counter parked;
+    private final Counter failed;
+
+    public NonBlockingPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                RedeliveryProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.topics = Set.copyOf(properties.getTopics());
+        this.published = counter(meterRegistry, "published");
+        this.parked = counter(meterRegistry, "parked");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    public boolean handles(Object topic) {
+        return topic instanceof String name && topics.contains(name);
+    }
+
+    public CompletableFuture<SendResult<String, Object>> publish(String topic, String key, Object message) {
+        return kafkaTemplate.send(topic, key, message)
+                .handle((result, e) -> {
+                    if (e == null) {
+                        published.increment();
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    return park(topic, key, message, e);
+                })
+                .thenCompose(future -> future)
+                .orTimeout(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        failed.increment();
+                    }
+                });
+    }
+
+    private CompletableFuture<SendResult<String, Object>> park(String topic, String key, Object message, Throwable cause) {
+        log.warn("Failed to publish to {} with key {}, parking on {}: {}", topic, key,
+                topic + properties.getRedeliveryTopicSuffix(), cause.getMessage());
+        return kafkaTemplate.send(parkedRecord(topic, key, message, cause))
+                .whenComplete((result, e) -> {
+                    if (e == null) {
+                        parked.increment();
+                    } else {
+                        log.warn("Failed to park record for {} with key {}, failing the consumed record: {}",
+                                topic, key, e.getMessage());
+                    }
+                });
+    }
+
+    private ProducerRecord<String, Object> parkedRecord(String topic, String key, Object message, Throwable cause) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic + properties.getRedeliveryTopicSuffix(), key, message);
+        record.headers().add(RedeliveryHeaders.TARGET_TOPIC, topic.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(RedeliveryHeaders.FAILURE, cause.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_NAME)
+                .description("Outbound records published without the inline retry loop, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.openframe.stream.redelivery;
+
+/**
+ * Headers set on parked records; mirrored by the replay endpoint of openframe-management.
+ */
+public final class RedeliveryHeaders {
+
+    /**
+     * Outbound topic the record was originally published to.
+     */
+    public static final String TARGET_TOPIC = "openframe-target-topic";
+
+    /**
+     * Class of the exception of the first failed publish.
+     */
+    public static final String FAILURE = "openframe-publish-failure";
+
+    private RedeliveryHeaders() {
+    }
+}
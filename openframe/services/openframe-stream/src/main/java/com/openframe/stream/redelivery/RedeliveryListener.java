@@ -0,0 +1,68 @@
+package com.openframe.stream.redelivery;
+
+import com.openframe.stream.config.RedeliveryProperties;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Redelivers parked records to their target topic.
+ * <p>
+ * Values are forwarded as raw bytes with their original headers, so the record reaching the
+ * target is the one the failed publish would have written. A failed attempt throws, and the
+ * retry topic configuration moves the record to the next delayed tier, then to the DLT.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedeliveryListener {
+
+    private static final String SPRING_KAFKA_HEADER_PREFIX = "kafka_";
+
+    @Getter
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final RedeliveryProperties properties;
+
+    public List<String> getTopics() {
+        return properties.redeliveryTopics();
+    }
+
+    @KafkaListener(
+            topics = "#{__listener.topics}",
+            groupId = "${spring.oss-tenant.kafka.consumer.group-id}-redelivery",
+            containerFactory = "redeliveryKafkaListenerContainerFactory"
+    )
+    public void redeliver(ConsumerRecord<String, byte[]> record) throws Exception {
+        Header target = record.headers().lastHeader(RedeliveryHeaders.TARGET_TOPIC);
+        if (target == null) {
+            throw new IllegalArgumentException("Parked record without " + RedeliveryHeaders.TARGET_TOPIC + " header");
+        }
+        String topic = new String(target.value(), StandardCharsets.UTF_8);
+
+        ProducerRecord<String, byte[]> redelivered = new ProducerRecord<>(topic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(SPRING_KAFKA_HEADER_PREFIX)
+                    && !header.key().equals(RedeliveryHeaders.TARGET_TOPIC)
+                    && !header.key().equals(RedeliveryHeaders.FAILURE)) {
+                redelivered.headers().add(header);
+            }
+        }
+        try {
+            kafkaTemplate.send(redelivered).get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Redelivery to {} failed for key {} from {}", topic, record.key(), record.topic());
+            throw e;
+        }
+        log.debug("Redelivered record with key {} from {} to {}", record.key(), record.topic(), topic);
+    }
+}
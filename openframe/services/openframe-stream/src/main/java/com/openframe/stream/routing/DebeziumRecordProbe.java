@@ -0,0 +1,148 @@
+package com.openframe.stream.routing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Streaming, partial read of a Debezium envelope.
+ * <p>
+ * Only {@code op} and a handful of fields of the {@code after} image are read; every other subtree
+ * ({@code before}, {@code source}, {@code schema}, large columns) is skipped at token level without
+ * being materialized. Works for both the plain envelope and the {@code {"schema":..,"payload":..}}
+ * form, and for Mongo connectors where {@code after} is itself a JSON string.
+ */
+public class DebeziumRecordProbe {
+
+    private static final String PAYLOAD = "payload";
+    private static final String OP = "op";
+    private static final String AFTER = "after";
+    private static final String EVENT_TYPE_SEPARATOR = ".";
+
+    private final JsonFactory jsonFactory;
+
+    public DebeziumRecordProbe(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public ProbeResult probe(byte[] data, List<String> eventTypeFields, String agentIdField) throws IOException {
+        Collector collector = new Collector(eventTypeFields, agentIdField);
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            readEnvelope(parser, collector);
+        }
+        return collector.result();
+    }
+
+    private void readEnvelope(JsonParser parser, Collector collector) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (PAYLOAD.equals(field) && value == JsonToken.START_OBJECT) {
+                readEnvelopeFields(parser, collector);
+                return;
+            }
+            readEnvelopeField(parser, field, value, collector);
+            if (collector.isComplete()) {
+                return;
+            }
+        }
+    }
+
+    private void readEnvelopeFields(JsonParser parser, Collector collector) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            readEnvelopeField(parser, field, value, collector);
+            if (collector.isComplete()) {
+                return;
+            }
+        }
+    }
+
+    private void readEnvelopeField(JsonParser parser, String field, JsonToken value, Collector collector) throws IOException {
+        if (OP.equals(field) && value == JsonToken.VALUE_STRING) {
+            collector.op = parser.getText();
+        } else if (AFTER.equals(field) && value == JsonToken.START_OBJECT) {
+            readAfter(parser, collector);
+        } else if (AFTER.equals(field) && value == JsonToken.VALUE_STRING) {
+            try (JsonParser nested = jsonFactory.createParser(parser.getText())) {
+                if (nested.nextToken() == JsonToken.START_OBJECT) {
+                    readAfter(nested, collector);
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void readAfter(JsonParser parser, Collector collector) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                collector.accept(field, parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    public record ProbeResult(String op, String agentId, String[] eventTypeParts) {
+
+        public boolean hasEventType() {
+            return eventTypeParts != null;
+        }
+
+        /**
+         * Source event type as the deserializers build it, e.g. {@code object_type.action}.
+         */
+        public String sourceEventType() {
+            return eventTypeParts == null ? null : String.join(EVENT_TYPE_SEPARATOR, eventTypeParts);
+        }
+    }
+
+    private static final class Collector {
+        private final List<String> eventTypeFields;
+        private final String agentIdField;
+        private final String[] eventTypeParts;
+        private int eventTypePartsFound;
+        private String op;
+        private String agentId;
+        private boolean afterRead;
+
+        private Collector(List<String> eventTypeFields, String agentIdField) {
+            this.eventTypeFields = eventTypeFields;
+            this.agentIdField = agentIdField;
+            this.eventTypeParts = new String[eventTypeFields.size()];
+        }
+
+        private void accept(String field, String value) {
+            afterRead = true;
+            if (field.equals(agentIdField)) {
+                agentId = value;
+            }
+            int index = eventTypeFields.indexOf(field);
+            if (index >= 0 && eventTypeParts[index] == null) {
+                eventTypeParts[index] = value;
+                eventTypePartsFound++;
+            }
+        }
+
+        private boolean isComplete() {
+            return op != null && afterRead
+                    && eventTypePartsFound == eventTypeParts.length
+                    && (agentIdField == null || agentId != null);
+        }
+
+        private ProbeResult result() {
+            boolean eventTypeFound = eventTypeParts.length > 0 && eventTypePartsFound == eventTypeParts.length;
+            return new ProbeResult(op, agentId, eventTypeFound ? eventTypeParts : null);
+        }
+    }
+}
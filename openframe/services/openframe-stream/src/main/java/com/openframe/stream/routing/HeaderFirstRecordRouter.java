@@ -0,0 +1,131 @@
+package com.openframe.stream.routing;
+
+import com.openframe.data.model.enums.MessageType;
+import com.openframe.stream.config.RecordRoutingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Header-first routing for integrated tool records.
+ * <p>
+ * The {@code message-type} header is matched against pre-encoded enum names, so no String is
+ * built per record. Records of dropped message types are rejected from the header alone; the rest
+ * are probed with {@link DebeziumRecordProbe} and checked against the {@link RecordRoutingRule}s.
+ * Records without the header are not integrated tool events and are always accepted.
+ * <p>
+ * The agent id found by the probe of an accepted record is exposed as the
+ * {@value #AGENT_ID_HEADER} header, so listeners can order work per agent without reading the
+ * deserialized payload.
+ */
+@Slf4j
+public class HeaderFirstRecordRouter {
+
+    public static final String AGENT_ID_HEADER = "openframe-agent-id";
+
+    private static final String MESSAGE_TYPE_HEADER = "message-type";
+    private static final String METRIC_NAME = "openframe.stream.routing.dropped";
+
+    private final MessageType[] messageTypes = MessageType.values();
+    private final byte[][] encodedMessageTypes;
+    private final Map<MessageType, Route> routes = new EnumMap<>(MessageType.class);
+    private final DebeziumRecordProbe probe;
+    private final List<RecordRoutingRule> rules;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> dropCounters = new ConcurrentHashMap<>();
+
+    public HeaderFirstRecordRouter(RecordRoutingProperties properties,
+                                   DebeziumRecordProbe probe,
+                                   List<RecordRoutingRule> rules,
+                                   MeterRegistry meterRegistry) {
+        this.probe = probe;
+        this.rules = rules;
+        this.meterRegistry = meterRegistry;
+        this.encodedMessageTypes = new byte[messageTypes.length][];
+        for (int i = 0; i < messageTypes.length; i++) {
+            MessageType messageType = messageTypes[i];
+            encodedMessageTypes[i] = messageType.name().getBytes(StandardCharsets.UTF_8);
+            routes.put(messageType, new Route(
+                    properties.getDroppedMessageTypes().contains(messageType.name()),
+                    properties.getEventTypeFields().getOrDefault(messageType.name(), List.of()),
+                    properties.getAgentIdFields().get(messageType.name())));
+        }
+    }
+
+    public boolean accept(String topic, Headers headers, byte[] data) {
+        if (data == null || headers == null) {
+            return true;
+        }
+        Header header = headers.lastHeader(MESSAGE_TYPE_HEADER);
+        if (header == null) {
+            return true;
+        }
+        MessageType messageType = resolve(header.value());
+        if (messageType == null) {
+            return drop(topic, "unknown_message_type", null);
+        }
+
+        Route route = routes.get(messageType);
+        if (route.dropped()) {
+            return drop(topic, "dropped_message_type", messageType);
+        }
+        if (route.eventTypeFields().isEmpty() && route.agentIdField() == null) {
+            return true;
+        }
+
+        DebeziumRecordProbe.ProbeResult result;
+        try {
+            result = probe.probe(data, route.eventTypeFields(), route.agentIdField());
+        } catch (Exception e) {
+            // Let the full deserializer report malformed payloads as before
+            log.debug("Failed to probe record from topic {}", topic, e);
+            return true;
+        }
+        for (RecordRoutingRule rule : rules) {
+            String reason = rule.dropReason(messageType, result);
+            if (reason != null) {
+                return drop(topic, reason, messageType);
+            }
+        }
+        if (result.agentId() != null) {
+            headers.add(AGENT_ID_HEADER, result.agentId().getBytes(StandardCharsets.UTF_8));
+        }
+        return true;
+    }
+
+    private MessageType resolve(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        for (int i = 0; i < encodedMessageTypes.length; i++) {
+            if (Arrays.equals(encodedMessageTypes[i], value)) {
+                return messageTypes[i];
+            }
+        }
+        return null;
+    }
+
+    private boolean drop(String topic, String reason, MessageType messageType) {
+        String type = messageType != null ? messageType.name() : "none";
+        dropCounters.computeIfAbsent(reason + ':' + type, key -> Counter.builder(METRIC_NAME)
+                        .description("Integrated tool records dropped before full deserialization")
+                        .tag("reason", reason)
+                        .tag("message_type", type)
+                        .register(meterRegistry))
+                .increment();
+        log.trace("Dropped record from topic {}: {} ({})", topic, reason, type);
+        return false;
+    }
+
+    private record Route(boolean dropped, List<String> eventTypeFields, String agentIdField) {
+    }
+}
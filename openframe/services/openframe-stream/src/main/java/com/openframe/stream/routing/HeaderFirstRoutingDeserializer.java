@@ -0,0 +1,45 @@
+package com.openframe.stream.routing;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Wraps the value deserializer of the integrated tool consumers. Records rejected by
+ * {@link HeaderFirstRecordRouter} deserialize to {@code null} and are then discarded by the
+ * container's record filter, so they never reach the full Jackson tree mapping.
+ */
+public class HeaderFirstRoutingDeserializer<T> implements Deserializer<T> {
+
+    private final Deserializer<T> delegate;
+    private final HeaderFirstRecordRouter router;
+
+    public HeaderFirstRoutingDeserializer(Deserializer<T> delegate, HeaderFirstRecordRouter router) {
+        this.delegate = delegate;
+        this.router = router;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (!router.accept(topic, headers, data)) {
+            return null;
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,24 @@
+package com.openframe.stream.routing;
+
+import com.openframe.data.model.enums.MessageType;
+import com.openframe.stream.config.RecordRoutingProperties;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class IgnoredEventTypeRoutingRule implements RecordRoutingRule {
+
+    private static final String REASON = "ignored_event_type";
+
+    private final RecordRoutingProperties properties;
+
+    @Override
+    public String dropReason(MessageType messageType, DebeziumRecordProbe.ProbeResult probe) {
+        Set<String> ignored = properties.getIgnoredEventTypes().get(messageType.name());
+        if (ignored == null || ignored.isEmpty() || !probe.hasEventType()) {
+            return null;
+        }
+        return ignored.contains(probe.sourceEventType()) ? REASON : null;
+    }
+}
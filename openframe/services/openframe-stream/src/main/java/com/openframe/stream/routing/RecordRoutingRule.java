@@ -0,0 +1,15 @@
+package com.openframe.stream.routing;
+
+import com.openframe.data.model.enums.MessageType;
+
+/**
+ * Decides from the header and the partial payload probe whether a record can be dropped before
+ * it is fully deserialized.
+ */
+public interface RecordRoutingRule {
+
+    /**
+     * @return drop reason used as metric tag, or {@code null} to keep the record
+     */
+    String dropReason(MessageType messageType, DebeziumRecordProbe.ProbeResult probe);
+}
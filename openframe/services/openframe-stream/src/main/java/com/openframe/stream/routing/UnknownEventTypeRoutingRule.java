@@ -0,0 +1,55 @@
+package com.openframe.stream.routing;
+
+import com.openframe.data.model.enums.MessageType;
+import com.openframe.data.model.enums.UnifiedEventType;
+import com.openframe.stream.config.RecordRoutingProperties;
+import com.openframe.stream.mapping.CompiledEventTypeMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Drops records whose source event type maps to {@link UnifiedEventType#UNKNOWN}; those never
+ * produce a visible event downstream.
+ */
+@Slf4j
+public class UnknownEventTypeRoutingRule implements RecordRoutingRule {
+
+    private static final String REASON = "unknown_event_type";
+    private static final char EVENT_TYPE_SEPARATOR = '.';
+
+    private final CompiledEventTypeMapper eventTypeMapper;
+    private final Map<MessageType, String> toolByMessageType = new EnumMap<>(MessageType.class);
+
+    public UnknownEventTypeRoutingRule(CompiledEventTypeMapper eventTypeMapper, RecordRoutingProperties properties) {
+        this.eventTypeMapper = eventTypeMapper;
+        properties.getToolDbNames().forEach((messageType, tool) -> {
+            MessageType type = Arrays.stream(MessageType.values())
+                    .filter(candidate -> candidate.name().equals(messageType))
+                    .findFirst()
+                    .orElse(null);
+            if (type == null) {
+                log.warn("Unknown message type {} in tool-db-names, ignored", messageType);
+            } else if (eventTypeMapper.supportsTool(tool)) {
+                toolByMessageType.put(type, tool);
+            } else {
+                log.warn("No event type mappings for tool {} ({}), unknown event types will not be dropped", tool, messageType);
+            }
+        });
+    }
+
+    @Override
+    public String dropReason(MessageType messageType, DebeziumRecordProbe.ProbeResult probe) {
+        String tool = toolByMessageType.get(messageType);
+        if (tool == null || !probe.hasEventType()) {
+            return null;
+        }
+        String[] parts = probe.eventTypeParts();
+        UnifiedEventType type = parts.length == 2
+                ? eventTypeMapper.map(tool, parts[0], EVENT_TYPE_SEPARATOR, parts[1])
+                : eventTypeMapper.map(tool, probe.sourceEventType());
+        return type == UnifiedEventType.UNKNOWN ? REASON : null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.openframe.stream.serde;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Converts a decoded Avro record to the Jackson tree of its message, so consumers bind it with
+ * the field names and value formats of the existing JSON contract, without compile-time bindings
+ * to the model classes. Fields with the {@code "openframe.json": "iso-instant"} property are read
+ * back as ISO-8601 text, and fields with {@code "openframe.json": "json"} hold the JSON of a nested
+ * value, read back as that value unless the bound type declares the field as text.
+ */
+final class AvroJsonBridge {
+
+    static final String JSON_FORMAT_PROPERTY = "openframe.json";
+    static final String ISO_INSTANT = "iso-instant";
+    static final String JSON = "json";
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final ObjectMapper JSON_READER = new ObjectMapper();
+
+    private AvroJsonBridge() {
+    }
+
+    static ObjectNode toJson(GenericRecord record, Class<?> type) {
+        ObjectNode node = NODES.objectNode();
+        for (Schema.Field field : record.getSchema().getFields()) {
+            Object value = record.get(field.pos());
+            if (value == null) {
+                continue;
+            }
+            String format = field.getProp(JSON_FORMAT_PROPERTY);
+            node.set(field.name(), JSON.equals(format) && !declaresText(type, field.name())
+                    ? nested(value.toString())
+                    : toJson(field.schema(), value, ISO_INSTANT.equals(format)));
+        }
+        return node;
+    }
+
+    private static JsonNode toJson(Schema schema, Object value, boolean isoInstant) {
+        return switch (schema.getType()) {
+            case UNION -> toJson(nonNullBranch(schema), value, isoInstant);
+            case STRING, ENUM -> NODES.textNode(value.toString());
+            case LONG -> isoInstant
+                    ? NODES.textNode(Instant.ofEpochMilli((Long) value).toString())
+                    : NODES.numberNode((Long) value);
+            case INT -> NODES.numberNode((Integer) value);
+            case DOUBLE -> NODES.numberNode((Double) value);
+            case FLOAT -> NODES.numberNode((Float) value);
+            case BOOLEAN -> NODES.booleanNode((Boolean) value);
+            case ARRAY -> {
+                ArrayNode array = NODES.arrayNode();
+                ((Iterable<?>) value).forEach(item -> array.add(toJson(schema.getElementType(), item, false)));
+                yield array;
+            }
+            case MAP -> {
+                ObjectNode map = NODES.objectNode();
+                ((Map<?, ?>) value).forEach((key, item) -> map.set(key.toString(), toJson(schema.getValueType(), item, false)));
+                yield map;
+            }
+            case RECORD -> toJson((GenericRecord) value, null);
+            default -> throw new IllegalArgumentException("Unsupported schema type " + schema.getType());
+        };
+    }
+
+    private static boolean declaresText(Class<?> type, String name) {
+        Field field = type != null ? ReflectionUtils.findField(type, name) : null;
+        return field != null && CharSequence.class.isAssignableFrom(field.getType());
+    }
+
+    /**
+     * The nested value written as JSON, or the text itself when it is not JSON (a plain text
+     * value written by an older producer).
+     */
+    private static JsonNode nested(String json) {
+        try {
+            return JSON_READER.readTree(json);
+        } catch (JsonProcessingException e) {
+            return NODES.textNode(json);
+        }
+    }
+
+    private static Schema nonNullBranch(Schema union) {
+        for (Schema branch : union.getTypes()) {
+            if (branch.getType() != Schema.Type.NULL) {
+                return branch;
+            }
+        }
+        throw new IllegalArgumentException("Union without non-null branch: " + union);
+    }
+}
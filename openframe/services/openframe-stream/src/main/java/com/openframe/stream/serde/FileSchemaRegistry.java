@@ -0,0 +1,76 @@
+package com.openframe.stream.serde;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Local stand-in for a schema registry.
+ * <p>
+ * Subjects, versions and ids come from a {@code registry.json} index next to the {@code .avsc}
+ * files it references. Ids are global and never reused, so a record written with any registered
+ * version can be decoded after newer versions are added. The {@code type} of a version names the
+ * Java class consumers bind decoded records to.
+ */
+public class FileSchemaRegistry {
+
+    private final Map<Integer, RegisteredSchema> byId = new HashMap<>();
+    private final Map<String, RegisteredSchema> latestBySubject = new HashMap<>();
+
+    public FileSchemaRegistry(ResourceLoader resourceLoader, String location, ObjectMapper objectMapper) {
+        Resource index = resourceLoader.getResource(location);
+        try (InputStream in = index.getInputStream()) {
+            JsonNode subjects = objectMapper.readTree(in).path("subjects");
+            Iterator<Map.Entry<String, JsonNode>> entries = subjects.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> subject = entries.next();
+                for (JsonNode version : subject.getValue()) {
+                    register(index, subject.getKey(), version);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load schema registry " + location, e);
+        }
+    }
+
+    public RegisteredSchema latest(String subject) {
+        RegisteredSchema schema = latestBySubject.get(subject);
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown schema subject " + subject);
+        }
+        return schema;
+    }
+
+    public RegisteredSchema byId(int id) {
+        RegisteredSchema schema = byId.get(id);
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown schema id " + id);
+        }
+        return schema;
+    }
+
+    private void register(Resource index, String subject, JsonNode version) throws IOException {
+        int id = version.path("id").asInt();
+        Schema schema;
+        try (InputStream in = index.createRelative(version.path("schema").asText()).getInputStream()) {
+            schema = new Schema.Parser().parse(in);
+        }
+        RegisteredSchema registered = new RegisteredSchema(id, subject, version.path("version").asInt(), schema,
+                version.path("type").asText(null));
+        if (byId.putIfAbsent(id, registered) != null) {
+            throw new IllegalStateException("Duplicate schema id " + id + " in subject " + subject);
+        }
+        latestBySubject.merge(subject, registered, (current, candidate) -> candidate.version() > current.version() ? candidate : current);
+    }
+
+    public record RegisteredSchema(int id, String subject, int version, Schema schema, String type) {
+    }
+}
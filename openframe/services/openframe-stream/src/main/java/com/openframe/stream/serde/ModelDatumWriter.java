@@ -0,0 +1,108 @@
+package com.openframe.stream.serde;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes model objects straight from their fields, with the value formats of the JSON contract
+ * that {@code ReflectData} does not know: instants and dates go to {@code long} fields as epoch
+ * millis, enums and other simple values to {@code string} fields as text, and nested objects,
+ * maps and collections to {@code string} fields as their Jackson JSON. Schema fields the model
+ * class does not declare are written as null. Unions are the {@code ["null", type]} optionals of
+ * the registered schemas.
+ */
+class ModelDatumWriter extends ReflectDatumWriter<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, Map<String, Optional<Field>>> fields = new ConcurrentHashMap<>();
+
+    ModelDatumWriter(Schema schema, ObjectMapper objectMapper) {
+        super(schema);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void writeField(Object record, Schema.Field field, Encoder out, Object state) throws IOException {
+        Object value = fieldOf(record.getClass(), field.name())
+                .map(accessor -> ReflectionUtils.getField(accessor, record))
+                .orElse(null);
+        write(field.schema(), value, out);
+    }
+
+    @Override
+    protected void write(Schema schema, Object datum, Encoder out) throws IOException {
+        if (datum != null && schema.getType() == Schema.Type.LONG && !(datum instanceof Number)) {
+            out.writeLong(epochMillis(datum));
+        } else if (datum != null && schema.getType() == Schema.Type.STRING && !(datum instanceof CharSequence)) {
+            out.writeString(text(datum));
+        } else {
+            super.write(schema, datum, out);
+        }
+    }
+
+    @Override
+    protected int resolveUnion(Schema union, Object datum) {
+        for (int i = 0; i < union.getTypes().size(); i++) {
+            if ((union.getTypes().get(i).getType() == Schema.Type.NULL) == (datum == null)) {
+                return i;
+            }
+        }
+        return super.resolveUnion(union, datum);
+    }
+
+    private Optional<Field> fieldOf(Class<?> type, String name) {
+        return fields.computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, n -> {
+                    Field field = ReflectionUtils.findField(type, n);
+                    if (field != null) {
+                        ReflectionUtils.makeAccessible(field);
+                    }
+                    return Optional.ofNullable(field);
+                });
+    }
+
+    private String text(Object datum) throws JsonProcessingException {
+        if (datum instanceof Enum<?> value) {
+            return value.name();
+        }
+        if (datum instanceof JsonNode node && node.isValueNode()) {
+            return node.asText();
+        }
+        if (BeanUtils.isSimpleValueType(datum.getClass())) {
+            return datum.toString();
+        }
+        return objectMapper.writeValueAsString(datum);
+    }
+
+    private static long epochMillis(Object datum) {
+        if (datum instanceof Instant instant) {
+            return instant.toEpochMilli();
+        }
+        if (datum instanceof OffsetDateTime dateTime) {
+            return dateTime.toInstant().toEpochMilli();
+        }
+        if (datum instanceof ZonedDateTime dateTime) {
+            return dateTime.toInstant().toEpochMilli();
+        }
+        if (datum instanceof Date date) {
+            return date.getTime();
+        }
+        return Instant.parse(datum.toString()).toEpochMilli();
+    }
+}
@@ -0,0 +1,76 @@
+package com.openframe.stream.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads records carrying a {@link SchemaHeaders#SCHEMA_ID} header with the writer schema of that
+ * id and binds them to the type registered for it; records without the header go through the
+ * delegate, so JSON and binary producers can share a topic during a rollout.
+ */
+public class SchemaBinaryDeserializer implements Deserializer<Object> {
+
+    private final Deserializer<Object> delegate;
+    private final FileSchemaRegistry registry;
+    private final ObjectMapper objectMapper;
+    private final Map<Integer, Reader> readers = new ConcurrentHashMap<>();
+
+    public SchemaBinaryDeserializer(Deserializer<Object> delegate, FileSchemaRegistry registry, ObjectMapper objectMapper) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        Integer schemaId = SchemaHeaders.schemaId(headers);
+        if (schemaId == null || data == null) {
+            return delegate.deserialize(topic, headers, data);
+        }
+        try {
+            Reader reader = readers.computeIfAbsent(schemaId, this::reader);
+            GenericRecord record = reader.datumReader().read(null, DecoderFactory.get().binaryDecoder(data, null));
+            return objectMapper.treeToValue(AvroJsonBridge.toJson(record, reader.type()), reader.type());
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot read record of schema " + schemaId + " from " + topic, e);
+        }
+    }
+
+    private Reader reader(int schemaId) {
+        FileSchemaRegistry.RegisteredSchema schema = registry.byId(schemaId);
+        try {
+            Class<?> type = ClassUtils.forName(schema.type(), getClass().getClassLoader());
+            return new Reader(new GenericDatumReader<>(schema.schema()), type);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown type " + schema.type() + " of schema " + schemaId, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private record Reader(GenericDatumReader<GenericRecord> datumReader, Class<?> type) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.openframe.stream.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the values of the configured topics as Avro binary of the latest schema of their
+ * subject, read straight from the model fields by {@link ModelDatumWriter}; nested values of
+ * {@code string} fields are written as their JSON with the given mapper. Every other topic goes
+ * through the delegate (the platform {@code JsonSerializer}).
+ */
+public class SchemaBinarySerializer implements Serializer<Object> {
+
+    private final Serializer<Object> delegate;
+    private final FileSchemaRegistry registry;
+    private final Map<String, String> subjectByTopic;
+    private final ObjectMapper objectMapper;
+    private final Map<Integer, ModelDatumWriter> writers = new ConcurrentHashMap<>();
+
+    public SchemaBinarySerializer(Serializer<Object> delegate,
+                                  FileSchemaRegistry registry,
+                                  Map<String, String> subjectByTopic,
+                                  ObjectMapper objectMapper) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.subjectByTopic = Map.copyOf(subjectByTopic);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return delegate.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        String subject = subjectByTopic.get(topic);
+        if (subject == null || data == null || headers == null) {
+            return delegate.serialize(topic, headers, data);
+        }
+        FileSchemaRegistry.RegisteredSchema schema = registry.latest(subject);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writers.computeIfAbsent(schema.id(), id -> new ModelDatumWriter(schema.schema(), objectMapper)).write(data, encoder);
+            encoder.flush();
+            SchemaHeaders.setSchemaId(headers, schema.id());
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot write " + data.getClass().getSimpleName() + " to " + topic
+                    + " with schema " + subject + " v" + schema.version(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
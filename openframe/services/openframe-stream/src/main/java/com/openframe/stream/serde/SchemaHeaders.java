@@ -0,0 +1,28 @@
+package com.openframe.stream.serde;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The schema id of a binary record travels in a header rather than as a payload prefix, so the
+ * value stays plain Avro binary readable by Pinot's {@code SimpleAvroMessageDecoder}.
+ */
+public final class SchemaHeaders {
+
+    public static final String SCHEMA_ID = "openframe-schema-id";
+
+    private SchemaHeaders() {
+    }
+
+    static void setSchemaId(Headers headers, int id) {
+        headers.remove(SCHEMA_ID);
+        headers.add(SCHEMA_ID, ByteBuffer.allocate(Integer.BYTES).putInt(id).array());
+    }
+
+    static Integer schemaId(Headers headers) {
+        Header header = headers != null ? headers.lastHeader(SCHEMA_ID) : null;
+        return header != null && header.value().length == Integer.BYTES ? ByteBuffer.wrap(header.value()).getInt() : null;
+    }
+}
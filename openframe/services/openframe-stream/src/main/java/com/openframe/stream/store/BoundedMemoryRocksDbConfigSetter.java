@@ -0,0 +1,118 @@
+package com.openframe.stream.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+import java.util.Map;
+
+/**
+ * Caps the memory of every RocksDB store of the pod.
+ * <p>
+ * All store instances share one LRU block cache, and memtables are charged to that cache through
+ * a shared {@link WriteBufferManager}, so the off-heap footprint stays at the configured total no
+ * matter how many window segments or tasks are open. Index and filter blocks live in the cache
+ * with high priority instead of on the heap of each table reader.
+ * <p>
+ * Kafka Streams instantiates this class per store instance and passes the streams configuration,
+ * hence the {@code openframe.rocksdb.*} keys set by {@code StateStoreConfig}.
+ */
+@Slf4j
+public class BoundedMemoryRocksDbConfigSetter implements RocksDBConfigSetter {
+
+    public static final String TOTAL_OFF_HEAP_MEMORY_CONFIG = "openframe.rocksdb.total.off.heap.memory";
+    public static final String TOTAL_MEMTABLE_MEMORY_CONFIG = "openframe.rocksdb.total.memtable.memory";
+    public static final String INDEX_FILTER_BLOCK_RATIO_CONFIG = "openframe.rocksdb.index.filter.block.ratio";
+    public static final String WRITE_BUFFER_SIZE_CONFIG = "openframe.rocksdb.write.buffer.size";
+    public static final String MAX_WRITE_BUFFER_NUMBER_CONFIG = "openframe.rocksdb.max.write.buffer.number";
+    public static final String BLOCK_SIZE_CONFIG = "openframe.rocksdb.block.size";
+    public static final String BLOOM_FILTER_BITS_PER_KEY_CONFIG = "openframe.rocksdb.bloom.filter.bits.per.key";
+
+    private static final Object LOCK = new Object();
+    private static volatile Cache sharedCache;
+    private static volatile WriteBufferManager sharedWriteBufferManager;
+    private static volatile long sharedCacheCapacity;
+
+    private BloomFilter bloomFilter;
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        initSharedResources(configs);
+
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(sharedCache);
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+        tableConfig.setBlockSize(longConfig(configs, BLOCK_SIZE_CONFIG));
+        bloomFilter = new BloomFilter(doubleConfig(configs, BLOOM_FILTER_BITS_PER_KEY_CONFIG), false);
+        tableConfig.setFilterPolicy(bloomFilter);
+
+        options.setWriteBufferManager(sharedWriteBufferManager);
+        options.setWriteBufferSize(longConfig(configs, WRITE_BUFFER_SIZE_CONFIG));
+        options.setMaxWriteBufferNumber((int) longConfig(configs, MAX_WRITE_BUFFER_NUMBER_CONFIG));
+        options.setTableFormatConfig(tableConfig);
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // The cache and write buffer manager are shared by every store and live as long as the pod
+        if (bloomFilter != null) {
+            bloomFilter.close();
+            bloomFilter = null;
+        }
+    }
+
+    public static long sharedCacheCapacity() {
+        return sharedCacheCapacity;
+    }
+
+    public static long sharedCacheUsage() {
+        Cache cache = sharedCache;
+        return cache != null ? cache.getUsage() : 0;
+    }
+
+    public static long sharedCachePinnedUsage() {
+        Cache cache = sharedCache;
+        return cache != null ? cache.getPinnedUsage() : 0;
+    }
+
+    private static void initSharedResources(Map<String, Object> configs) {
+        if (sharedCache != null) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (sharedCache != null) {
+                return;
+            }
+            long totalOffHeap = longConfig(configs, TOTAL_OFF_HEAP_MEMORY_CONFIG);
+            long totalMemtable = longConfig(configs, TOTAL_MEMTABLE_MEMORY_CONFIG);
+            Cache cache = new LRUCache(totalOffHeap, -1, false, doubleConfig(configs, INDEX_FILTER_BLOCK_RATIO_CONFIG));
+            sharedWriteBufferManager = new WriteBufferManager(totalMemtable, cache);
+            sharedCacheCapacity = totalOffHeap;
+            sharedCache = cache;
+            log.info("RocksDB stores bounded to {} bytes off-heap ({} bytes for memtables)", totalOffHeap, totalMemtable);
+        }
+    }
+
+    private static long longConfig(Map<String, Object> configs, String key) {
+        Object value = configs.get(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing RocksDB config " + key);
+        }
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    private static double doubleConfig(Map<String, Object> configs, String key) {
+        Object value = configs.get(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing RocksDB config " + key);
+        }
+        return value instanceof Number number ? number.doubleValue() : Double.parseDouble(value.toString());
+    }
+}
@@ -0,0 +1,99 @@
+package com.openframe.stream.cache;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ToolCacheKeyJournalTest {
+
+    private static final String PREFIX = "tool-cache:";
+    private static final String SERVICE = "FleetMdmCacheService";
+
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final ToolCacheKeyJournal journal = new ToolCacheKeyJournal(redisTemplate, PREFIX, 100);
+
+    ToolCacheKeyJournalTest() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+    }
+
+    @Test
+    void flushWritesRecordedLookupsOnceAndTrims() {
+        journal.record(SERVICE, "a");
+        journal.record(SERVICE, "b");
+
+        journal.flush();
+        journal.flush();
+
+        assertThat(written()).containsExactlyInAnyOrder("a", "b");
+        verify(zSet).removeRange(PREFIX + SERVICE, 0, -101L);
+    }
+
+    @Test
+    void keepsLookupsRecordedWhileAFlushIsWriting() {
+        journal.record(SERVICE, "a");
+        when(zSet.add(eq(PREFIX + SERVICE), anySet())).thenAnswer(invocation -> {
+            journal.record(SERVICE, "b");
+            return 1L;
+        });
+
+        journal.flush();
+        journal.flush();
+
+        ArgumentCaptor<Set<ZSetOperations.TypedTuple<String>>> tuples = tuplesCaptor();
+        verify(zSet, times(2)).add(eq(PREFIX + SERVICE), tuples.capture());
+        assertThat(values(tuples.getAllValues().get(0))).containsExactly("a");
+        assertThat(values(tuples.getAllValues().get(1))).containsExactly("b");
+    }
+
+    @Test
+    void dropsBatchesRedisRejects() {
+        journal.record(SERVICE, "a");
+        when(zSet.add(anyString(), anySet())).thenThrow(new IllegalStateException("redis down"));
+
+        journal.flush();
+        journal.flush();
+
+        verify(zSet).add(anyString(), anySet());
+        verify(zSet, never()).removeRange(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void readsMostRecentLookupsFirst() {
+        when(zSet.reverseRange(PREFIX + SERVICE, 0, 99L)).thenReturn(new LinkedHashSet<>(List.of("b", "a")));
+
+        assertThat(journal.recent(SERVICE)).containsExactly("b", "a");
+    }
+
+    private List<String> written() {
+        ArgumentCaptor<Set<ZSetOperations.TypedTuple<String>>> tuples = tuplesCaptor();
+        verify(zSet).add(eq(PREFIX + SERVICE), tuples.capture());
+        return values(tuples.getValue());
+    }
+
+    private static List<String> values(Set<ZSetOperations.TypedTuple<String>> tuples) {
+        return tuples.stream().map(ZSetOperations.TypedTuple::getValue).toList();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentCaptor<Set<ZSetOperations.TypedTuple<String>>> tuplesCaptor() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(Set.class);
+    }
+}
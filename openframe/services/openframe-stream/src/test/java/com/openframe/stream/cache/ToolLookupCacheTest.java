@@ -0,0 +1,170 @@
+package com.openframe.stream.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.stream.config.ToolCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ToolLookupCacheTest {
+
+    private static final String NAME = "LookupService";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ToolCacheProperties.ServiceCache properties = new ToolCacheProperties.ServiceCache();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void missAnswersEmptyWhileTheLookupLoadsInTheBackground() throws Exception {
+        LookupService service = new LookupService();
+        ToolLookupCache cache = cache(service, null);
+        Method hostname = hostname();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            assertThat(cache.get(hostname, new Object[]{"agent-1"})).isNull();
+            assertThat(cache.get(hostname, new Object[]{"agent-1"})).isNull();
+        });
+        service.gate.countDown();
+
+        assertThat(eventually(() -> cache.get(hostname, new Object[]{"agent-1"}))).isEqualTo("host-agent-1");
+        assertThat(service.calls).hasValue(1);
+    }
+
+    @Test
+    void missOfOptionalLookupAnswersEmptyOptional() throws Exception {
+        ToolLookupCache cache = cache(new LookupService(), null);
+
+        assertTimeoutPreemptively(TIMEOUT, () ->
+                assertThat(cache.get(query(), new Object[]{42L})).isEqualTo(Optional.empty()));
+    }
+
+    @Test
+    void waitOnMissLoadsOnTheCallingThread() throws Exception {
+        properties.setWaitOnMiss(true);
+        LookupService service = new LookupService();
+        service.gate.countDown();
+        ToolLookupCache cache = cache(service, null);
+
+        assertThat(cache.get(hostname(), new Object[]{"agent-1"})).isEqualTo("host-agent-1");
+        assertThat(cache.get(hostname(), new Object[]{"agent-1"})).isEqualTo("host-agent-1");
+        assertThat(service.calls).hasValue(1);
+    }
+
+    @Test
+    void primitiveLookupsAlwaysWait() throws Exception {
+        LookupService service = new LookupService();
+        service.gate.countDown();
+        ToolLookupCache cache = cache(service, null);
+
+        assertThat(cache.get(LookupService.class.getMethod("getCount", String.class), new Object[]{"abc"})).isEqualTo(3);
+    }
+
+    @Test
+    void waitOnMissRethrowsLookupFailures() throws Exception {
+        properties.setWaitOnMiss(true);
+        LookupService service = new LookupService();
+        service.gate.countDown();
+        ToolLookupCache cache = cache(service, null);
+
+        assertThatThrownBy(() -> cache.get(hostname(), new Object[]{"unknown"}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("unknown agent");
+    }
+
+    @Test
+    void warmUpReplaysJournaledLookupsWithoutRecordingThemAgain() throws Exception {
+        properties.setWaitOnMiss(true);
+        LookupService first = new LookupService();
+        first.gate.countDown();
+        ToolCacheKeyJournal firstJournal = mock(ToolCacheKeyJournal.class);
+        cache(first, firstJournal).get(hostname(), new Object[]{"agent-1"});
+        ArgumentCaptor<String> recorded = ArgumentCaptor.forClass(String.class);
+        verify(firstJournal).record(eq(NAME), recorded.capture());
+
+        properties.setWaitOnMiss(false);
+        LookupService second = new LookupService();
+        second.gate.countDown();
+        ToolCacheKeyJournal secondJournal = mock(ToolCacheKeyJournal.class);
+        when(secondJournal.recent(NAME)).thenReturn(List.of(recorded.getValue(), "{\"method\":\"removedLookup\"}"));
+        ToolLookupCache warmed = cache(second, secondJournal);
+
+        assertThat(warmed.warmUp(4, TIMEOUT)).isEqualTo(1);
+        assertThat(warmed.get(hostname(), new Object[]{"agent-1"})).isEqualTo("host-agent-1");
+        assertThat(second.calls).hasValue(1);
+        verify(secondJournal, never()).record(anyString(), anyString());
+    }
+
+    private ToolLookupCache cache(LookupService service, ToolCacheKeyJournal journal) {
+        return new ToolLookupCache(NAME, service, properties, journal, executor, objectMapper, new SimpleMeterRegistry());
+    }
+
+    private static Method hostname() throws NoSuchMethodException {
+        return LookupService.class.getMethod("getHostname", String.class);
+    }
+
+    private static Method query() throws NoSuchMethodException {
+        return LookupService.class.getMethod("findQuery", Long.class);
+    }
+
+    private static Object eventually(Supplier<Object> lookup) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        Object value = lookup.get();
+        while (value == null && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+            value = lookup.get();
+        }
+        return value;
+    }
+
+    static class LookupService {
+
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        public String getHostname(String agentId) throws InterruptedException {
+            gate.await();
+            calls.incrementAndGet();
+            if ("unknown".equals(agentId)) {
+                throw new IllegalArgumentException("unknown agent");
+            }
+            return "host-" + agentId;
+        }
+
+        public Optional<String> findQuery(Long queryId) throws InterruptedException {
+            gate.await();
+            return Optional.of("query-" + queryId);
+        }
+
+        public int getCount(String value) {
+            return value.length();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.openframe.stream.config.CassandraWriterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.cassandra.core.convert.CassandraConverter;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PreparedCassandraWriterTest {
+
+    private static final CqlIdentifier KEYSPACE = CqlIdentifier.fromCql("openframe");
+
+    private final Node first = mock(Node.class);
+    private final Node second = mock(Node.class);
+    private final Node third = mock(Node.class);
+    private final CqlSession session = mock(CqlSession.class);
+    private final TokenMap tokenMap = mock(TokenMap.class);
+    private final CassandraBackpressure backpressure = mock(CassandraBackpressure.class);
+    private final Deque<CompletableFuture<AsyncResultSet>> responses = new ArrayDeque<>();
+    private final PreparedCassandraWriter writer;
+
+    PreparedCassandraWriterTest() {
+        Metadata metadata = mock(Metadata.class);
+        when(session.getMetadata()).thenReturn(metadata);
+        when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> {
+            CompletableFuture<AsyncResultSet> response = new CompletableFuture<>();
+            responses.add(response);
+            return response;
+        });
+
+        CassandraWriterProperties properties = new CassandraWriterProperties();
+        properties.setMaxInFlightPerHost(1);
+        properties.setWriteTimeout(Duration.ofMillis(100));
+        writer = new PreparedCassandraWriter(session, mock(CassandraConverter.class), properties,
+                backpressure, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void writesWaitForEveryReplicaOfTheirPartition() {
+        CompletableFuture<?> inFlight = writer.execute(List.of(statement(1, first, second)));
+
+        CompletableFuture<?> overlapping = writer.execute(List.of(statement(2, third, second)));
+        CompletableFuture<?> disjoint = writer.execute(List.of(statement(3, third)));
+
+        assertThat(inFlight).isNotDone();
+        assertThat(overlapping).isCompletedExceptionally();
+        assertThat(disjoint).isNotDone();
+        verify(backpressure).apply();
+    }
+
+    @Test
+    void releasesEveryReplicaPermitWhenTheWriteSucceeds() {
+        writer.execute(List.of(statement(1, first, second)));
+        when(backpressure.isPaused()).thenReturn(true);
+
+        responses.poll().complete(mock(AsyncResultSet.class));
+
+        assertThat(writer.execute(List.of(statement(2, first)))).isNotDone();
+        assertThat(writer.execute(List.of(statement(3, second)))).isNotDone();
+        verify(backpressure).release();
+    }
+
+    @Test
+    void releasesEveryReplicaPermitWhenTheWriteFails() {
+        CompletableFuture<?> failing = writer.execute(List.of(statement(1, first, second)));
+
+        responses.poll().completeExceptionally(new IllegalStateException("write timed out"));
+
+        assertThat(failing).isCompletedExceptionally();
+        assertThat(writer.execute(List.of(statement(2, first, second)))).isNotDone();
+    }
+
+    @Test
+    void givesBackPermitsTakenBeforeTimingOut() {
+        writer.execute(List.of(statement(1, first)));
+        responses.poll().complete(mock(AsyncResultSet.class));
+        writer.execute(List.of(statement(2, second)));
+
+        assertThat(writer.execute(List.of(statement(3, first, second)))).isCompletedExceptionally();
+
+        assertThat(writer.execute(List.of(statement(4, first)))).isNotDone();
+        verify(backpressure, never()).release();
+    }
+
+    private BoundStatement statement(int key, Node... replicas) {
+        ByteBuffer routingKey = ByteBuffer.wrap(new byte[]{(byte) key});
+        when(tokenMap.getReplicas(eq(KEYSPACE), eq(routingKey))).thenReturn(Set.of(replicas));
+        BoundStatement statement = mock(BoundStatement.class);
+        when(statement.getRoutingKey()).thenReturn(routingKey);
+        when(statement.getRoutingKeyspace()).thenReturn(KEYSPACE);
+        return statement;
+    }
+}
@@ -0,0 +1,136 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.openframe.stream.config.CassandraSchemaProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnifiedLogSchemaManagerTest {
+
+    private static final Map<String, String> TWCS_DAYS = Map.of(
+            "class", "org.apache.cassandra.db.compaction.TimeWindowCompactionStrategy",
+            "compaction_window_unit", "DAYS",
+            "compaction_window_size", "1");
+
+    private final CqlSession session = mock(CqlSession.class);
+    private final CassandraSchemaProperties properties = new CassandraSchemaProperties();
+    private Row keyspaceRow;
+    private Row tableRow;
+
+    UnifiedLogSchemaManagerTest() {
+        when(session.getKeyspace()).thenReturn(Optional.of(CqlIdentifier.fromInternal("openframe_events")));
+        when(session.execute(any(SimpleStatement.class))).thenAnswer(invocation -> {
+            SimpleStatement statement = invocation.getArgument(0);
+            ResultSet result = mock(ResultSet.class);
+            when(result.one()).thenReturn(statement.getQuery().contains("system_schema.keyspaces") ? keyspaceRow : tableRow);
+            return result;
+        });
+        properties.setDatacenter("dc1");
+        properties.setReplicationFactor(3);
+        properties.setTtl(Duration.ofDays(90));
+    }
+
+    @Test
+    void altersSimpleStrategyKeyspacesToNetworkTopology() {
+        keyspaceRow = replication(Map.of(
+                "class", "org.apache.cassandra.locator.SimpleStrategy",
+                "replication_factor", "1"));
+        properties.getReplication().put("dc2", 2);
+
+        start();
+
+        assertThat(executed()).isEqualTo("ALTER KEYSPACE openframe_events WITH replication ="
+                + " {'class': 'NetworkTopologyStrategy', 'dc1': 3, 'dc2': 2}");
+    }
+
+    @Test
+    void altersKeyspacesWithAnotherReplicationFactor() {
+        keyspaceRow = replication(Map.of("class", "org.apache.cassandra.locator.NetworkTopologyStrategy", "dc1", "1"));
+
+        start();
+
+        assertThat(executed()).isEqualTo("ALTER KEYSPACE openframe_events WITH replication ="
+                + " {'class': 'NetworkTopologyStrategy', 'dc1': 3}");
+    }
+
+    @Test
+    void leavesConvergedKeyspacesAlone() {
+        keyspaceRow = replication(Map.of("class", "org.apache.cassandra.locator.NetworkTopologyStrategy", "dc1", "3"));
+
+        start();
+
+        verify(session, never()).execute(anyString());
+    }
+
+    @Test
+    void leavesReplicationAloneWhenNoFactorIsSet() {
+        properties.setReplicationFactor(null);
+
+        start();
+
+        verify(session, never()).execute(anyString());
+    }
+
+    @Test
+    void altersTableOptionsThatDiffer() {
+        properties.setReplicationFactor(null);
+        properties.setGcGrace(Duration.ofHours(3));
+        tableRow = table(Map.of("class", "org.apache.cassandra.db.compaction.SizeTieredCompactionStrategy"), 0, 864000);
+
+        start();
+
+        assertThat(executed()).isEqualTo("ALTER TABLE openframe_events.unified_logs WITH compaction ="
+                + " {'class': 'TimeWindowCompactionStrategy', 'compaction_window_unit': 'DAYS', 'compaction_window_size': '1'}"
+                + " AND default_time_to_live = 7776000 AND gc_grace_seconds = 10800");
+    }
+
+    @Test
+    void leavesConvergedTableOptionsAlone() {
+        properties.setReplicationFactor(null);
+        tableRow = table(TWCS_DAYS, 7776000, 864000);
+
+        start();
+
+        verify(session, never()).execute(anyString());
+    }
+
+    private void start() {
+        new UnifiedLogSchemaManager(session, properties, null).start();
+    }
+
+    private String executed() {
+        ArgumentCaptor<String> cql = ArgumentCaptor.forClass(String.class);
+        verify(session).execute(cql.capture());
+        return cql.getValue();
+    }
+
+    private static Row replication(Map<String, String> replication) {
+        Row row = mock(Row.class);
+        when(row.getMap("replication", String.class, String.class)).thenReturn(replication);
+        return row;
+    }
+
+    private static Row table(Map<String, String> compaction, int ttlSeconds, int gcGraceSeconds) {
+        Row row = mock(Row.class);
+        when(row.getMap("compaction", String.class, String.class)).thenReturn(compaction);
+        when(row.getInt("default_time_to_live")).thenReturn(ttlSeconds);
+        when(row.getInt("gc_grace_seconds")).thenReturn(gcGraceSeconds);
+        return row;
+    }
+}
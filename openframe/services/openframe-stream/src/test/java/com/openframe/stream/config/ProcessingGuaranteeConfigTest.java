@@ -0,0 +1,96 @@
+package com.openframe.stream.config;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProcessingGuaranteeConfigTest {
+
+    private static final String INPUT = "fleet.activities.events";
+    private static final String OUTPUT = "fleet.activities.enriched";
+
+    @Test
+    void exactlyOnceCommitsConsumedOffsetsInTheProducerTransaction() {
+        StreamsBuilderFactoryBean factoryBean = factoryBean();
+        new ProcessingGuaranteeConfig().exactlyOnceStreamsConfigurer(new ProcessingGuaranteeProperties()).configure(factoryBean);
+
+        try (TopologyTestDriver driver = driver(factoryBean.getStreamsConfiguration())) {
+            TestOutputTopic<String, String> output = pipe(driver, "activity");
+            MockProducer<?, ?> producer = producerOf(driver);
+
+            assertThat(output.readValue()).isEqualTo("activity-enriched");
+            assertThat(producer.transactionInitialized()).isTrue();
+            assertThat(producer.transactionCommitted()).isTrue();
+            assertThat(committedOffsets(producer)).containsEntry(new TopicPartition(INPUT, 0), 1L);
+        }
+    }
+
+    @Test
+    void atLeastOnceCommitsOffsetsOutsideTransactions() {
+        try (TopologyTestDriver driver = driver(factoryBean().getStreamsConfiguration())) {
+            TestOutputTopic<String, String> output = pipe(driver, "activity");
+            MockProducer<?, ?> producer = producerOf(driver);
+
+            assertThat(output.readValue()).isEqualTo("activity-enriched");
+            assertThat(producer.transactionInitialized()).isFalse();
+            assertThat(producer.consumerGroupOffsetsHistory()).isEmpty();
+        }
+    }
+
+    private static StreamsBuilderFactoryBean factoryBean() {
+        return new StreamsBuilderFactoryBean(new KafkaStreamsConfiguration(Map.of(
+                StreamsConfig.APPLICATION_ID_CONFIG, "processing-guarantee-test",
+                StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092")));
+    }
+
+    private static TopologyTestDriver driver(Properties streamsConfiguration) {
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream(INPUT, Consumed.with(Serdes.String(), Serdes.String()))
+                .mapValues(value -> value + "-enriched")
+                .to(OUTPUT, Produced.with(Serdes.String(), Serdes.String()));
+        return new TopologyTestDriver(builder.build(), streamsConfiguration);
+    }
+
+    private static TestOutputTopic<String, String> pipe(TopologyTestDriver driver, String value) {
+        TestInputTopic<String, String> input = driver.createInputTopic(INPUT, new StringSerializer(), new StringSerializer());
+        input.pipeInput("host-1", value);
+        return driver.createOutputTopic(OUTPUT, new StringDeserializer(), new StringDeserializer());
+    }
+
+    /**
+     * The driver's producer, the one its commits go through.
+     */
+    private static MockProducer<?, ?> producerOf(TopologyTestDriver driver) {
+        return (MockProducer<?, ?>) ReflectionTestUtils.getField(driver, "producer");
+    }
+
+    private static Map<TopicPartition, Long> committedOffsets(MockProducer<?, ?> producer) {
+        List<Map<String, Map<TopicPartition, OffsetAndMetadata>>> history = producer.consumerGroupOffsetsHistory();
+        return history.stream()
+                .flatMap(byGroup -> byGroup.values().stream())
+                .flatMap(offsets -> offsets.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset(),
+                        (first, second) -> second));
+    }
+}
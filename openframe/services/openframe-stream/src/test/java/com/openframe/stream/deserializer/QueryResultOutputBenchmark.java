@@ -0,0 +1,116 @@
+package com.openframe.stream.deserializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of a Fleet query result with a 1 MB and a 10 MB osquery output, with and without
+ * {@link QueryResultOutputLimiter} in front of the tree based result extraction done by
+ * {@link FleetQueryResultEventDeserializer}.
+ * <p>
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}:
+ * <pre>
+ * mvn -pl openframe/services/openframe-stream test-compile exec:java \
+ *     -Dexec.classpathScope=test -Dexec.mainClass=com.openframe.stream.deserializer.QueryResultOutputBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class QueryResultOutputBenchmark {
+
+    private static final String OUTPUT_FIELD = "data";
+    private static final int MAX_OUTPUT_CHARS = 256 * 1024;
+
+    @Param({"1048576", "10485760"})
+    private int outputSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private QueryResultOutputLimiter limiter;
+    private byte[] record;
+
+    @Setup
+    public void setUp() throws IOException {
+        limiter = new QueryResultOutputLimiter(new JsonFactory(), OUTPUT_FIELD, MAX_OUTPUT_CHARS);
+        ObjectNode after = objectMapper.createObjectNode()
+                .put("id", 1)
+                .put("query_id", 42)
+                .put("host_id", 7)
+                .put("last_fetched", "2026-10-16T10:15:30Z")
+                .put(OUTPUT_FIELD, rows(outputSize));
+        ObjectNode envelope = objectMapper.createObjectNode().put("op", "c");
+        envelope.putObject("source").put("table", "query_results");
+        envelope.set("after", after);
+        record = objectMapper.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public byte[] treeExtraction() throws IOException {
+        return extractResult(record);
+    }
+
+    @Benchmark
+    public byte[] limitedTreeExtraction() throws IOException {
+        return extractResult(limiter.limit(record).data());
+    }
+
+    @Benchmark
+    public QueryResultOutputLimiter.Result limitOnly() throws IOException {
+        return limiter.limit(record);
+    }
+
+    /**
+     * Mirrors the deserializer: read the envelope, parse valid JSON output and embed it in the
+     * result message.
+     */
+    private byte[] extractResult(byte[] data) throws IOException {
+        JsonNode envelope = objectMapper.readTree(data);
+        String output = envelope.path("after").path(OUTPUT_FIELD).asText();
+        ObjectNode result = objectMapper.createObjectNode();
+        result.set("result", objectMapper.readTree(output));
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    private String rows(int size) {
+        StringBuilder rows = new StringBuilder(size + 256).append('[');
+        for (int i = 0; rows.length() < size; i++) {
+            if (i > 0) {
+                rows.append(',');
+            }
+            rows.append("{\"pid\":\"").append(i)
+                    .append("\",\"name\":\"process-").append(i)
+                    .append("\",\"path\":\"/usr/local/bin/process-").append(i)
+                    .append("\",\"cmdline\":\"/usr/local/bin/process-").append(i).append(" --flag\"}");
+        }
+        return rows.append(']').toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QueryResultOutputBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.openframe.stream.deserializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultOutputLimiterTest {
+
+    private static final int MAX_OUTPUT_CHARS = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QueryResultOutputLimiter limiter = new QueryResultOutputLimiter(new JsonFactory(), "data", MAX_OUTPUT_CHARS);
+
+    @Test
+    void returnsRecordsUnderTheLimitAsTheyAre() throws IOException {
+        byte[] record = record("{\"after\":{\"id\":1,\"data\":\"short\"}}");
+
+        QueryResultOutputLimiter.Result result = limiter.limit(record);
+
+        assertThat(result.truncated()).isFalse();
+        assertThat(result.originalSize()).isEqualTo(5);
+        assertThat(result.data()).isSameAs(record);
+    }
+
+    @Test
+    void returnsRecordsAtTheLimitAsTheyAre() throws IOException {
+        byte[] record = record("{\"after\":{\"data\":\"0123456789\"}}");
+
+        QueryResultOutputLimiter.Result result = limiter.limit(record);
+
+        assertThat(result.truncated()).isFalse();
+        assertThat(result.data()).isSameAs(record);
+    }
+
+    @Test
+    void cutsTextOutputsOverTheLimit() throws IOException {
+        QueryResultOutputLimiter.Result result = limiter.limit(record("{\"after\":{\"id\":1,\"data\":\"0123456789abc\"}}"));
+
+        JsonNode after = objectMapper.readTree(result.data()).get("after");
+        assertThat(result.truncated()).isTrue();
+        assertThat(result.originalSize()).isEqualTo(13);
+        assertThat(after.get("id").asInt()).isEqualTo(1);
+        assertThat(after.get("data").asText()).isEqualTo("0123456789");
+        assertThat(after.get("data_truncated").asBoolean()).isTrue();
+        assertThat(after.get("data_original_size").asInt()).isEqualTo(13);
+    }
+
+    @Test
+    void keepsLeadingRowsOfArrayOutputs() throws IOException {
+        QueryResultOutputLimiter.Result result = limiter.limit(record(
+                "{\"after\":{\"data\":\"[{\\\"a\\\":1},{\\\"b\\\":2},{\\\"c\\\":3}]\"}}"));
+
+        assertThat(objectMapper.readTree(result.data()).get("after").get("data").asText()).isEqualTo("[{\"a\":1}]");
+    }
+
+    @Test
+    void neverKeepsANumberCutOffByTheCap() throws IOException {
+        QueryResultOutputLimiter.Result result = limiter.limit(record("{\"after\":{\"data\":\"[1,22,333333333]\"}}"));
+
+        assertThat(objectMapper.readTree(result.data()).get("after").get("data").asText()).isEqualTo("[1,22]");
+        assertThat(result.originalSize()).isEqualTo(16);
+    }
+
+    @Test
+    void cutsInvalidArraysAsText() throws IOException {
+        QueryResultOutputLimiter.Result result = limiter.limit(record("{\"after\":{\"data\":\"[not json at all\"}}"));
+
+        assertThat(objectMapper.readTree(result.data()).get("after").get("data").asText()).isEqualTo("[not json ");
+    }
+
+    @Test
+    void limitsOutputsOfImagesUnderThePayloadOnly() throws IOException {
+        QueryResultOutputLimiter.Result result = limiter.limit(record("{\"payload\":{"
+                + "\"before\":{\"data\":\"0123456789abc\"},"
+                + "\"source\":{\"data\":\"0123456789abcdef\"},"
+                + "\"after\":{\"nested\":{\"data\":\"0123456789abcdef\"},\"data\":\"short\"}}}"));
+
+        JsonNode payload = objectMapper.readTree(result.data()).get("payload");
+        assertThat(result.truncated()).isTrue();
+        assertThat(payload.get("before").get("data").asText()).isEqualTo("0123456789");
+        assertThat(payload.get("before").get("data_truncated").asBoolean()).isTrue();
+        assertThat(payload.get("source").get("data").asText()).isEqualTo("0123456789abcdef");
+        assertThat(payload.get("after").get("nested").get("data").asText()).isEqualTo("0123456789abcdef");
+        assertThat(payload.get("after").get("data").asText()).isEqualTo("short");
+        assertThat(payload.get("after").has("data_truncated")).isFalse();
+    }
+
+    @Test
+    void measuresAndCutsEscapedSequencesAsDecodedChars() throws IOException {
+        // 13 decoded chars: quote, backslash, newline, tab and e-acute written as escapes, then 8 letters
+        QueryResultOutputLimiter.Result result = limiter.limit(record(
+                "{\"after\":{\"data\":\"\\\"\\\\\\n\\t\\u00e9abcdefgh\"}}"));
+
+        assertThat(result.truncated()).isTrue();
+        assertThat(result.originalSize()).isEqualTo(13);
+        assertThat(objectMapper.readTree(result.data()).get("after").get("data").asText()).isEqualTo("\"\\\n\t\u00e9abcde");
+    }
+
+    @Test
+    void neverSplitsSurrogatePairs() throws IOException {
+        // the emoji takes the 10th and 11th chars
+        String output = "012345678\uD83D\uDE00abc";
+
+        assertThat(limiter.truncate(output)).isEqualTo("012345678");
+        QueryResultOutputLimiter.Result result = limiter.limit(record("{\"after\":{\"data\":\"" + output + "\"}}"));
+        assertThat(objectMapper.readTree(result.data()).get("after").get("data").asText()).isEqualTo("012345678");
+    }
+
+    @Test
+    void keepsSurrogatePairsEndingAtTheLimit() {
+        assertThat(limiter.truncate("01234567\uD83D\uDE00abc")).isEqualTo("01234567\uD83D\uDE00");
+    }
+
+    private static byte[] record(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
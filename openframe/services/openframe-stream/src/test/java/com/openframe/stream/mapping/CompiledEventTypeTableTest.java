@@ -0,0 +1,94 @@
+package com.openframe.stream.mapping;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledEventTypeTableTest {
+
+    private final CompiledEventTypeTable<String> table = CompiledEventTypeTable.compile(Map.of(
+            "meshcentral", Map.of("user.login", "LOGIN", "user.logout", "LOGOUT", "agentconnect", "CONNECTED"),
+            "tactical_rmm", Map.of("user.login", "RMM_LOGIN", "agent.delete", "DELETED")));
+
+    @Test
+    void looksUpWholeEventTypes() {
+        assertThat(table.get("meshcentral", "user.login")).isEqualTo("LOGIN");
+        assertThat(table.get("meshcentral", "agentconnect")).isEqualTo("CONNECTED");
+        assertThat(table.get("tactical_rmm", "agent.delete")).isEqualTo("DELETED");
+    }
+
+    @Test
+    void looksUpEventTypeParts() {
+        assertThat(table.get("meshcentral", "user", '.', "logout")).isEqualTo("LOGOUT");
+        assertThat(table.get(new StringBuilder("tactical_rmm"), new StringBuilder("agent"), '.', "delete"))
+                .isEqualTo("DELETED");
+    }
+
+    @Test
+    void keepsSameEventTypeApartPerTool() {
+        assertThat(table.get("meshcentral", "user.login")).isEqualTo("LOGIN");
+        assertThat(table.get("tactical_rmm", "user.login")).isEqualTo("RMM_LOGIN");
+    }
+
+    @Test
+    void missesUnknownToolsAndEventTypes() {
+        assertThat(table.containsTool("meshcentral")).isTrue();
+        assertThat(table.containsTool("fleet_mdm")).isFalse();
+        assertThat(table.get("fleet_mdm", "user.login")).isNull();
+        assertThat(table.get("meshcentral", "user.delete")).isNull();
+        assertThat(table.get("meshcentral", "agent.delete")).isNull();
+        assertThat(table.get("meshcentral", "")).isNull();
+    }
+
+    @Test
+    void missesNearMatches() {
+        assertThat(table.get("meshcentral", "user.logi")).isNull();
+        assertThat(table.get("meshcentral", "user.login ")).isNull();
+        assertThat(table.get("meshcentral", "userlogin")).isNull();
+        assertThat(table.get("meshcentral", "user", ':', "login")).isNull();
+        assertThat(table.get("meshcentral", "agent", '.', "connect")).isNull();
+        assertThat(table.get("meshcentra", "user.login")).isNull();
+    }
+
+    @Test
+    void missesNullArguments() {
+        assertThat(table.get(null, "user.login")).isNull();
+        assertThat(table.get("meshcentral", null)).isNull();
+        assertThat(table.get("meshcentral", "user", '.', null)).isNull();
+        assertThat(table.get("meshcentral", null, '.', "login")).isNull();
+    }
+
+    @Test
+    void resolvesEveryKeyOfLargeTablesWithBucketCollisions() {
+        Map<String, String> eventTypes = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            eventTypes.put("object_" + (i % 17) + "." + "action_" + i, "TYPE_" + i);
+        }
+        Map<String, Map<String, String>> mappings = new LinkedHashMap<>();
+        mappings.put("tool", eventTypes);
+        CompiledEventTypeTable<String> large = CompiledEventTypeTable.compile(mappings);
+
+        eventTypes.forEach((eventType, type) -> {
+            int separator = eventType.indexOf('.');
+            assertThat(large.get("tool", eventType)).isEqualTo(type);
+            assertThat(large.get("tool", eventType.substring(0, separator), '.', eventType.substring(separator + 1)))
+                    .isEqualTo(type);
+        });
+        for (int i = 5000; i < 6000; i++) {
+            assertThat(large.get("tool", "object_" + (i % 17) + ".action_" + i)).isNull();
+        }
+    }
+
+    @Test
+    void compilesEmptyTables() {
+        CompiledEventTypeTable<String> empty = CompiledEventTypeTable.compile(Map.of("meshcentral", Map.of()));
+
+        assertThat(empty.containsTool("meshcentral")).isTrue();
+        assertThat(empty.get("meshcentral", "user.login")).isNull();
+        assertThat(CompiledEventTypeTable.compile(Map.of()).get("meshcentral", "user.login")).isNull();
+    }
+}
@@ -0,0 +1,117 @@
+package com.openframe.stream.mapping;
+
+import com.openframe.data.model.enums.IntegratedToolType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the library {@link EventTypeMapper} with {@link CompiledLookupEventTypeMapper}, the
+ * primary mapper bean the deserializers call, through {@code mapToUnifiedType} on the real
+ * {@link SourceEventTypes} mappings of MeshCentral, Tactical RMM and Fleet MDM. The split-part
+ * lookup of header-first routing is measured on the same samples.
+ * <p>
+ * Run with {@code -prof gc} to compare allocation per lookup:
+ * <pre>
+ * mvn -pl openframe/services/openframe-stream test-compile exec:java \
+ *     -Dexec.classpathScope=test -Dexec.mainClass=com.openframe.stream.mapping.EventTypeMapperBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventTypeMapperBenchmark {
+
+    private static final List<String> TOOL_DB_NAMES = List.of("meshcentral", "tactical_rmm", "fleet_mdm");
+    private static final int SAMPLES = 1024;
+
+    private EventTypeMapper libraryMapper;
+    private EventTypeMapper compiledMapper;
+    private CompiledEventTypeMapper compiledTable;
+
+    private IntegratedToolType[] sampleTools;
+    private String[] sampleFirst;
+    private String[] sampleSecond;
+    private String[] sampleEventTypes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        libraryMapper = new EventTypeMapper();
+        CompiledLookupEventTypeMapper compiledLookupMapper = new CompiledLookupEventTypeMapper(TOOL_DB_NAMES);
+        compiledMapper = compiledLookupMapper;
+        compiledTable = compiledLookupMapper.compiled();
+
+        List<Object[]> entries = new ArrayList<>();
+        compiledTable.mappings().forEach((tool, eventTypes) -> eventTypes.keySet().forEach(eventType ->
+                entries.add(new Object[]{IntegratedToolType.valueOf(tool), eventType})));
+
+        Random random = new Random(42);
+        sampleTools = new IntegratedToolType[SAMPLES];
+        sampleFirst = new String[SAMPLES];
+        sampleSecond = new String[SAMPLES];
+        sampleEventTypes = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            Object[] entry = entries.get(random.nextInt(entries.size()));
+            sampleTools[i] = (IntegratedToolType) entry[0];
+            // ~10% misses, as unmapped event types are common on the raw tool streams
+            String eventType = random.nextInt(10) == 0 ? entry[1] + "_unmapped" : (String) entry[1];
+            // fresh instances, as produced by deserialization, so String hash codes are not cached
+            sampleEventTypes[i] = new String(eventType);
+            int separator = eventType.indexOf('.');
+            sampleFirst[i] = new String(separator < 0 ? eventType : eventType.substring(0, separator));
+            sampleSecond[i] = separator < 0 ? null : new String(eventType.substring(separator + 1));
+        }
+    }
+
+    @Benchmark
+    public void libraryMapper(Blackhole blackhole) {
+        int i = next();
+        blackhole.consume(libraryMapper.mapToUnifiedType(sampleTools[i], sampleEventTypes[i]));
+    }
+
+    @Benchmark
+    public void compiledMapperBean(Blackhole blackhole) {
+        int i = next();
+        blackhole.consume(compiledMapper.mapToUnifiedType(sampleTools[i], sampleEventTypes[i]));
+    }
+
+    @Benchmark
+    public void compiledTableParts(Blackhole blackhole) {
+        int i = next();
+        String tool = sampleTools[i].name();
+        blackhole.consume(sampleSecond[i] == null
+                ? compiledTable.map(tool, sampleFirst[i])
+                : compiledTable.map(tool, sampleFirst[i], '.', sampleSecond[i]));
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (SAMPLES - 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventTypeMapperBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
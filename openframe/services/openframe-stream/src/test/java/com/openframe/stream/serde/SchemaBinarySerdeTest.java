@@ -0,0 +1,108 @@
+package com.openframe.stream.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemaBinarySerdeTest {
+
+    private static final String TOPIC = "test-events";
+
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+    private final Serializer<Object> json = (topic, data) -> "json".getBytes(StandardCharsets.UTF_8);
+    private final Deserializer<Object> jsonReader = (topic, data) -> new String(data, StandardCharsets.UTF_8);
+
+    @Test
+    void roundTripsModelValuesThroughTheirSchema() {
+        FileSchemaRegistry registry = registry("classpath:serde/registry.json");
+        SchemaBinarySerializer serializer = new SchemaBinarySerializer(json, registry, Map.of(TOPIC, "test-event"), objectMapper);
+        SchemaBinaryDeserializer deserializer = new SchemaBinaryDeserializer(jsonReader, registry, objectMapper);
+
+        TestEvent event = new TestEvent();
+        event.setId("event-1");
+        event.setToolType(Tool.FLEET);
+        event.setCount(3);
+        event.setDetails(Map.of("agent", "a-1", "paths", List.of("/etc", "/var")));
+        event.setRawDetails("{\"kept\":\"as text\"}");
+        event.setEventTimestamp(Instant.parse("2026-10-16T10:15:30.123Z"));
+
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data = serializer.serialize(TOPIC, headers, event);
+        Object read = deserializer.deserialize(TOPIC, headers, data);
+
+        assertThat(SchemaHeaders.schemaId(headers)).isEqualTo(100);
+        assertThat(read).isEqualTo(event);
+    }
+
+    @Test
+    void writesSchemaFieldsMissingFromTheModelAsNull() throws IOException {
+        FileSchemaRegistry registry = registry("classpath:schemas/registry.json");
+        SchemaBinarySerializer serializer = new SchemaBinarySerializer(json, registry,
+                Map.of(TOPIC, "integrated-tool-event"), objectMapper);
+
+        PartialEvent event = new PartialEvent();
+        event.setToolEventId("event-2");
+        event.setDetails(Map.of("etype", "node"));
+
+        byte[] data = serializer.serialize(TOPIC, new RecordHeaders(), event);
+        GenericRecord record = new GenericDatumReader<GenericRecord>(registry.latest("integrated-tool-event").schema())
+                .read(null, DecoderFactory.get().binaryDecoder(data, null));
+
+        assertThat(record.get("toolEventId").toString()).isEqualTo("event-2");
+        assertThat(record.get("details").toString()).isEqualTo("{\"etype\":\"node\"}");
+        assertThat(record.get("hostname")).isNull();
+    }
+
+    @Test
+    void leavesRecordsWithoutSchemaHeaderToTheDelegates() {
+        FileSchemaRegistry registry = registry("classpath:serde/registry.json");
+        SchemaBinarySerializer serializer = new SchemaBinarySerializer(json, registry, Map.of(TOPIC, "test-event"), objectMapper);
+        SchemaBinaryDeserializer deserializer = new SchemaBinaryDeserializer(jsonReader, registry, objectMapper);
+
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data = serializer.serialize("other-topic", headers, new TestEvent());
+
+        assertThat(SchemaHeaders.schemaId(headers)).isNull();
+        assertThat(deserializer.deserialize("other-topic", headers, data)).isEqualTo("json");
+    }
+
+    private static FileSchemaRegistry registry(String location) {
+        return new FileSchemaRegistry(new DefaultResourceLoader(), location, new ObjectMapper());
+    }
+
+    enum Tool {
+        FLEET
+    }
+
+    @Data
+    static class TestEvent {
+        private String id;
+        private Tool toolType;
+        private Integer count;
+        private Map<String, Object> details;
+        private String rawDetails;
+        private Instant eventTimestamp;
+    }
+
+    @Data
+    static class PartialEvent {
+        private String toolEventId;
+        private Map<String, Object> details;
+    }
+}
@@ -0,0 +1,152 @@
+package com.openframe.stream.service;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.JoinWindows;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.StreamJoined;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Compares the throughput of the Fleet activity enrichment join shape (5 second windowed left
+ * join of activities with host_activities) under {@code at_least_once} and
+ * {@code exactly_once_v2}, against a real broker.
+ * <p>
+ * Both inputs are pre-loaded, then the topology is started and timed until every joined record
+ * is visible to a {@code read_committed} consumer. Tuning is read from system properties with the
+ * same defaults as {@code openframe.stream.processing.exactly-once}:
+ * <pre>
+ * java ... ProcessingGuaranteeThroughputHarness localhost:9092 200000 \
+ *     -Dcommit.interval.ms=500 -Dlinger.ms=20 -Dbatch.size=131072 -Dcompression.type=lz4
+ * </pre>
+ */
+public class ProcessingGuaranteeThroughputHarness {
+
+    private static final int PARTITIONS = 6;
+    private static final Duration JOIN_WINDOW = Duration.ofSeconds(5);
+    private static final Duration RUN_TIMEOUT = Duration.ofMinutes(10);
+
+    public static void main(String[] args) throws Exception {
+        String bootstrapServers = args.length > 0 ? args[0] : "localhost:9092";
+        int records = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        for (String guarantee : List.of(StreamsConfig.AT_LEAST_ONCE, StreamsConfig.EXACTLY_ONCE_V2)) {
+            String run = guarantee + "-" + UUID.randomUUID().toString().substring(0, 8);
+            String activities = "harness.activities." + run;
+            String hostActivities = "harness.host_activities." + run;
+            String output = "harness.enriched." + run;
+
+            createTopics(bootstrapServers, activities, hostActivities, output);
+            preload(bootstrapServers, activities, hostActivities, records);
+
+            long started = System.nanoTime();
+            try (KafkaStreams streams = new KafkaStreams(topology(activities, hostActivities, output),
+                    streamsConfig(bootstrapServers, run, guarantee))) {
+                streams.start();
+                long joined = awaitOutput(bootstrapServers, output, records);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                System.out.printf("%-16s %,d joined records in %.1fs: %,.0f records/s%n",
+                        guarantee, joined, seconds, joined / seconds);
+            }
+        }
+    }
+
+    private static Topology topology(String activities, String hostActivities, String output) {
+        StreamsBuilder builder = new StreamsBuilder();
+        Consumed<String, String> consumed = Consumed.with(Serdes.String(), Serdes.String());
+        KStream<String, String> activityStream = builder.stream(activities, consumed);
+        KStream<String, String> hostActivityStream = builder.stream(hostActivities, consumed);
+        activityStream
+                .leftJoin(hostActivityStream,
+                        (activity, hostActivity) -> hostActivity == null
+                                ? activity
+                                : activity.substring(0, activity.length() - 1) + ",\"host_id\":" + hostActivity + "}",
+                        JoinWindows.ofTimeDifferenceWithNoGrace(JOIN_WINDOW),
+                        StreamJoined.with(Serdes.String(), Serdes.String(), Serdes.String()))
+                .to(output, Produced.with(Serdes.String(), Serdes.String()));
+        return builder.build();
+    }
+
+    private static Properties streamsConfig(String bootstrapServers, String run, String guarantee) throws Exception {
+        Properties config = new Properties();
+        config.put(StreamsConfig.APPLICATION_ID_CONFIG, "harness-" + run);
+        config.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(StreamsConfig.STATE_DIR_CONFIG, Files.createTempDirectory("harness-" + run).toString());
+        config.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, guarantee);
+        config.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, PARTITIONS);
+        config.put(StreamsConfig.consumerPrefix(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG), "earliest");
+        if (StreamsConfig.EXACTLY_ONCE_V2.equals(guarantee)) {
+            config.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, Long.getLong("commit.interval.ms", 500));
+            config.put(StreamsConfig.producerPrefix(ProducerConfig.TRANSACTION_TIMEOUT_CONFIG),
+                    Integer.getInteger("transaction.timeout.ms", 30_000));
+        }
+        config.put(StreamsConfig.producerPrefix(ProducerConfig.LINGER_MS_CONFIG), Integer.getInteger("linger.ms", 20));
+        config.put(StreamsConfig.producerPrefix(ProducerConfig.BATCH_SIZE_CONFIG), Integer.getInteger("batch.size", 131_072));
+        config.put(StreamsConfig.producerPrefix(ProducerConfig.COMPRESSION_TYPE_CONFIG),
+                System.getProperty("compression.type", "lz4"));
+        return config;
+    }
+
+    private static void createTopics(String bootstrapServers, String... topics) throws Exception {
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            admin.createTopics(Arrays.stream(topics)
+                    .map(topic -> new NewTopic(topic, PARTITIONS, (short) 1))
+                    .toList()).all().get();
+        }
+    }
+
+    private static void preload(String bootstrapServers, String activities, String hostActivities, int records) {
+        Properties config = new Properties();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 131_072);
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(config, new StringSerializer(), new StringSerializer())) {
+            for (int i = 0; i < records; i++) {
+                String activityId = String.valueOf(i);
+                producer.send(new ProducerRecord<>(activities, activityId,
+                        "{\"id\":" + i + ",\"activity_type\":\"ran_script\",\"details\":{\"script_name\":\"harness.sh\"}}"));
+                producer.send(new ProducerRecord<>(hostActivities, activityId, String.valueOf(i % 5_000)));
+            }
+            producer.flush();
+        }
+    }
+
+    private static long awaitOutput(String bootstrapServers, String output, int expected) {
+        Properties config = new Properties();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, "harness-reader-" + UUID.randomUUID());
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        long deadline = System.nanoTime() + RUN_TIMEOUT.toNanos();
+        long received = 0;
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(config, new StringDeserializer(), new StringDeserializer())) {
+            consumer.subscribe(List.of(output));
+            while (received < expected && System.nanoTime() < deadline) {
+                received += consumer.poll(Duration.ofMillis(500)).count();
+            }
+        }
+        return received;
+    }
+}